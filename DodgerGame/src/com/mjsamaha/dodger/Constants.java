@@ -2,6 +2,8 @@ package com.mjsamaha.dodger;
 
 import java.awt.Color;
 
+import com.mjsamaha.dodger.entities.HazardShape;
+
 public class Constants {
 	
 	public static final class Window {
@@ -11,6 +13,18 @@ public class Constants {
 		public static final String WINDOW_TITLE = "Dodger Game";
 		public static final String VER = "0.1";
 		
+		// Internal framebuffer resolution; the window scales it to whatever size it has
+		public static final int RENDER_WIDTH = WINDOW_WIDTH;
+		public static final int RENDER_HEIGHT = WINDOW_HEIGHT;
+		public static final boolean RENDER_BILINEAR = false;
+		
+		// Draw entities with the int[] span rasterizer instead of Graphics2D
+		public static final boolean RASTER_RENDERER = false;
+		
+		// Software rendering threads (0 = one per core) and rows per parallel strip
+		public static final int RASTER_THREADS = 0;
+		public static final int RASTER_STRIP_HEIGHT = 32;
+		
 	}
 
 	public static final class Player {
@@ -43,12 +57,144 @@ public class Constants {
 			new Color(255, 100, 100)  // Light Red
 		};
 		
+		// Shapes picked at random for each spawned object; stress objects stay rectangles
+		public static final HazardShape[] HAZARD_SHAPES = HazardShape.values();
+		
+		// Above this many objects the movement/culling pass is split across cores
+		public static final int PARALLEL_UPDATE_THRESHOLD = 20_000;
+		public static final int PARALLEL_CHUNK_SIZE = 4096;
+		
 		// Difficulty progression settings
 		public static final float INITIAL_SPAWN_INTERVAL = 1.0f;  // Start spawning every 1 second
 		public static final float MIN_SPAWN_INTERVAL = 0.3f;      // Maximum difficulty: spawn every 0.3 seconds
 		public static final float DIFFICULTY_INCREASE_RATE = 0.01f; // Decrease spawn interval by 0.01 every second
 	}
 	
+	public static final class Starfield {
+		public static final int LAYERS = 3;
+		
+		// Stars per 10,000 square pixels in each layer
+		public static final float DENSITY = 1.5f;
+		
+		// Scroll speed of the farthest layer; each nearer layer is twice as fast
+		public static final float BASE_SPEED = 15;
+		
+		public static final long SEED = 7L;
+	}
+	
+	public static final class Particles {
+		// Particles alive at once; further spawns are dropped
+		public static final int MAX_PARTICLES = 32_768;
+		public static final int PARTICLE_SIZE = 4;
+		public static final float GRAVITY = 500;
+		
+		// Collision burst
+		public static final int COLLISION_BURST = 600;
+		public static final float BURST_SPEED = 450;
+		public static final float BURST_LIFETIME = 1.5f;
+		
+		// Sparks where an object leaves the bottom of the screen
+		public static final int DESPAWN_SPARKS = 16;
+		public static final float SPARK_SPEED = 220;
+		public static final float SPARK_LIFETIME = 0.6f;
+	}
+	
+	public static final class Profiler {
+		// Ticks and frames kept for the overlay graphs, one pixel column each
+		public static final int HISTORY = 300;
+		public static final int GRAPH_HEIGHT = 72;
+		
+		// Steady-state bytes a tick or frame may allocate on average (AllocationBudgetCheck).
+		// Java2D itself allocates about 140 bytes whenever text changes font size,
+		// which the HUD does twice a frame with the debug info on.
+		public static final long TICK_ALLOCATION_BUDGET = 64;
+		public static final long FRAME_ALLOCATION_BUDGET = 512;
+	}
+	
+	public static final class PerfLog {
+		public static final boolean ENABLED = true;
+		public static final String DIRECTORY = "perf-logs";
+		
+		// About an hour of per-second records per segment; all sessions together stay under MAX_BYTES
+		public static final long SEGMENT_BYTES = 256 * 1024;
+		public static final long MAX_BYTES = 8 * 1024 * 1024;
+		
+		// Records the game can queue before the writer thread drains them
+		public static final int RING_RECORDS = 256;
+		public static final long FLUSH_MILLIS = 1000;
+		
+		// A tick or frame taking this many times its budget is logged on its own
+		public static final float SPIKE_FACTOR = 2f;
+		public static final int MAX_SPIKES_PER_SECOND = 8;
+	}
+	
+	public static final class Stress {
+		public static final int DEFAULT_ENTITY_COUNT = 10_000;
+		public static final int MAX_ENTITY_COUNT = 1_000_000;
+		public static final long DEFAULT_SEED = 42L;
+		
+		// Sizes and speeds are picked uniformly from these ranges
+		public static final int MIN_SIZE = 8;
+		public static final int MAX_SIZE = 48;
+		// Upper bound for maxSize: objects are sent and saved with their size in one byte
+		public static final int SIZE_LIMIT = 255;
+		public static final float MIN_SPEED = 80;
+		public static final float MAX_SPEED = 400;
+		public static final float MAX_HORIZONTAL_SPEED = 150;
+		
+		// Simulated seconds per run (warmup is excluded from the report)
+		public static final float DEFAULT_DURATION = 30f;
+		public static final float DEFAULT_WARMUP = 5f;
+	}
+	
+	public static final class Level {
+		// Layout of generated levels: scroll distance per chunk and hazard slots per chunk
+		public static final int CHUNK_HEIGHT = 512;
+		public static final int CHUNK_CAPACITY = 64;
+		public static final float SCROLL_SPEED = 200;
+		
+		// Chunks mapped ahead of the camera so their pages are in before they are needed
+		public static final int PREFETCH_CHUNKS = 2;
+	}
+	
+	public static final class Leaderboard {
+		public static final String SCORE_FILE = "leaderboard.dat";
+		
+		// Number of scores shown on the game over screen
+		public static final int TOP_K = 5;
+		
+		// Records the file can hold before it is compacted down to COMPACT_KEEP best scores
+		public static final int MAX_RECORDS = 4096;
+		public static final int COMPACT_KEEP = 256;
+	}
+	
+	public static final class Snapshot {
+		// How far back the rewind key goes
+		public static final float REWIND_SECONDS = 5f;
+		
+		// Snapshots with more objects than this are not recorded
+		public static final int MAX_OBJECTS = 1024;
+	}
+	
+	public static final class Events {
+		// Events a tick can publish before dispatch; more are dropped (stress spawns are the busiest)
+		public static final int CAPACITY = 4096;
+		
+		// Of those, slots only game state changes (collision, game over, restart, rewind) may use
+		public static final int RESERVED = 16;
+	}
+	
+	public static final class Network {
+		public static final int DEFAULT_PORT = 7777;
+		public static final int SPECTATOR_PORT = 7778;
+		
+		// Encoded frames in flight at once; publishing drops a tick if all are in use
+		public static final int SPECTATOR_FRAME_POOL = 4;
+		
+		// A spectator still sending one frame after this many newer ones is disconnected
+		public static final int SPECTATOR_SLOW_FRAMES = 120;
+	}
+	
 	public static final class Audio {
 		public static final String BG_MUSIC = "assets/audio/background.wav";
 		public static final String SFX_COLLISION = "assets/audio/collision.wav";
@@ -56,6 +202,14 @@ public class Constants {
 		
 		public static final float DEFAULT_MUSIC_VOL = 0.9f;
 		public static final float DEFAULT_SFX_VOL = 0.8f;
+		
+		// Decoded PCM of the files above, reused while the files are unchanged
+		public static final String CACHE_DIR = "audio-cache";
+	}
+	
+	public static final class Config {
+		// Read from the working directory unless --config names another file
+		public static final String FILE = "dodger.properties";
 	}
 	
 	public static final class GameLoop {
@@ -73,5 +227,8 @@ public class Constants {
 		
 		// Maximum frame time to prevent spiral of death
 		public static final float MAX_FRAME_TIME = 0.25f;
+		
+		// Threading of the loop: dual, single, variable or virtual
+		public static final String LOOP_STRATEGY = "dual";
 	}
 }
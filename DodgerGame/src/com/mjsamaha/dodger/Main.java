@@ -1,21 +1,45 @@
 package com.mjsamaha.dodger;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
 
+import com.mjsamaha.dodger.config.ConfigWatcher;
+import com.mjsamaha.dodger.config.GameConfig;
 import com.mjsamaha.dodger.core.GamePanel;
+import com.mjsamaha.dodger.level.LevelWriter;
+import com.mjsamaha.dodger.net.MultiplayerClient;
+import com.mjsamaha.dodger.net.MultiplayerServer;
+import com.mjsamaha.dodger.net.SpectatorService;
+import com.mjsamaha.dodger.perflog.PerfLogAnalyzer;
+import com.mjsamaha.dodger.stress.StressTest;
 
 public class Main {
 	
 	public static void init() {
+		init(null);
+	}
+	
+	public static void init(MultiplayerClient client) {
+		init(client, null);
+	}
+	
+	public static void init(MultiplayerClient client, SpectatorService spectators) {
 		JFrame w = new JFrame();
 		
 		GamePanel gp = new GamePanel();
+		gp.setMultiplayerClient(client);
+		gp.setSpectatorService(spectators);
 		
 		w.add(gp);
 		w.setTitle(Constants.Window.WINDOW_TITLE + " " + Constants.Window.VER);
 		w.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-		w.setResizable(false);
+		w.setResizable(true);
 		w.pack();
 		w.setLocationRelativeTo(null);
 		w.setVisible(true);
@@ -29,12 +53,90 @@ public class Main {
 		
 	}
 	
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
+		// Headless stress run: Main --stress entities=100000 pattern=rain
+		// The arguments are stress settings; tps comes from the config file or -Ddodger.tps
+		if (args.length > 0 && args[0].equals("--stress")) {
+			GameConfig.set(GameConfig.load(Path.of(Constants.Config.FILE), List.of()));
+			StressTest.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		
+		// Random level file: Main --make-level file [chunks] [seed], then play it with level=file
+		if (args.length > 0 && args[0].equals("--make-level")) {
+			LevelWriter.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		
+		// Performance log report: Main --analyze-perf perf-logs [more files or directories] [top=10 ...]
+		if (args.length > 0 && args[0].equals("--analyze-perf")) {
+			PerfLogAnalyzer.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		
+		// Dedicated multiplayer server: Main --server [port] [--config file] [key=value ...]
+		if (args.length > 0 && args[0].equals("--server")) {
+			int configStart = hasPort(args) ? 2 : 1;
+			configure(Arrays.copyOfRange(args, configStart, args.length));
+			MultiplayerServer.main(Arrays.copyOfRange(args, 1, configStart));
+			return;
+		}
+		
+		// Local game broadcast to spectators: Main --spectators [port] [--config file] [key=value ...]
+		if (args.length > 0 && args[0].equals("--spectators")) {
+			configure(Arrays.copyOfRange(args, hasPort(args) ? 2 : 1, args.length));
+			int port = hasPort(args) ? Integer.parseInt(args[1]) : Constants.Network.SPECTATOR_PORT;
+			SpectatorService spectators = new SpectatorService(port);
+			spectators.start();
+			System.out.println("Spectators can connect on port " + spectators.getPort());
+			SwingUtilities.invokeLater(() -> init(null, spectators));
+			return;
+		}
+		
+		// Multiplayer client: Main --connect host[:port] [--config file] [key=value ...]
+		if (args.length > 1 && args[0].equals("--connect")) {
+			configure(Arrays.copyOfRange(args, 2, args.length));
+			String[] address = args[1].split(":");
+			int port = address.length > 1 ? Integer.parseInt(address[1]) : Constants.Network.DEFAULT_PORT;
+			MultiplayerClient client = new MultiplayerClient();
+			client.connect(address[0], port);
+			SwingUtilities.invokeLater(() -> init(client));
+			return;
+		}
+		
+		// Local game: Main [--config file] [key=value ...]
+		configure(args);
+		
 		SwingUtilities.invokeLater(new Runnable() {
 			public void run() {
 				init();
 			}
 		});
 	}
+	
+	/**
+	 * Returns whether a mode flag is followed by a port number.
+	 */
+	private static boolean hasPort(String[] args) {
+		return args.length > 1 && args[1].matches("\\d+");
+	}
+	
+	/**
+	 * Loads the runtime config and starts watching its file for hot reloads.
+	 */
+	private static void configure(String[] args) throws IOException {
+		Path file = Path.of(Constants.Config.FILE);
+		List<String> overrides = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--config") && i + 1 < args.length) {
+				file = Path.of(args[++i]);
+			} else {
+				overrides.add(args[i]);
+			}
+		}
+		
+		GameConfig.set(GameConfig.load(file, overrides));
+		new ConfigWatcher(file, overrides).start();
+	}
 
 }
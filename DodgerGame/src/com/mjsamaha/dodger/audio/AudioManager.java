@@ -2,11 +2,10 @@ package com.mjsamaha.dodger.audio;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
 import javax.sound.sampled.DataLine;
@@ -14,6 +13,8 @@ import javax.sound.sampled.FloatControl;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
+import com.mjsamaha.dodger.Constants;
+
 public class AudioManager {
     
     private Map<String, Clip> soundEffects;
@@ -23,7 +24,17 @@ public class AudioManager {
     private float musicVolume;
     private float sfxVolume;
     
+    private final PcmCache pcmCache;
+    private long loadNanos;
+    private int clipsLoaded;
+    private int clipsFromCache;
+    
     public AudioManager() {
+        this(new PcmCache(Path.of(Constants.Audio.CACHE_DIR)));
+    }
+    
+    public AudioManager(PcmCache pcmCache) {
+        this.pcmCache = pcmCache;
         this.soundEffects = new HashMap<>();
         this.musicEnabled = true;
         this.sfxEnabled = true;
@@ -38,7 +49,6 @@ public class AudioManager {
         Clip clip = loadAudioClip(filePath);
         if (clip != null) {
             soundEffects.put(name, clip);
-            System.out.println("Loaded sound effect: " + name);
         } else {
             System.err.println("Failed to load sound effect: " + name);
         }
@@ -49,17 +59,16 @@ public class AudioManager {
      */
     public void loadBackgroundMusic(String filePath) {
         backgroundMusic = loadAudioClip(filePath);
-        if (backgroundMusic != null) {
-            System.out.println("Loaded background music");
-        } else {
+        if (backgroundMusic == null) {
             System.err.println("Failed to load background music");
         }
     }
     
     /**
-     * Load an audio clip with automatic format conversion
+     * Load an audio clip, decoded through the PCM cache
      */
     private Clip loadAudioClip(String filePath) {
+        long start = System.nanoTime();
         try {
             File audioFile = new File(filePath);
             if (!audioFile.exists()) {
@@ -77,26 +86,18 @@ public class AudioManager {
                 return null;
             }
             
-            // Try to load the audio file
-            AudioInputStream originalStream = AudioSystem.getAudioInputStream(audioFile);
-            AudioFormat originalFormat = originalStream.getFormat();
-            
-            // Print format info for debugging
-            System.out.println("File: " + fileName);
-            System.out.println("  Format: " + originalFormat.getEncoding());
-            System.out.println("  Sample Rate: " + originalFormat.getSampleRate() + " Hz");
-            System.out.println("  Sample Size: " + originalFormat.getSampleSizeInBits() + " bit");
-            System.out.println("  Channels: " + originalFormat.getChannels());
-            
-            // Convert to supported format if necessary
-            AudioInputStream decodedStream = getDecodedStream(originalStream, originalFormat);
+            // Decoded samples, parsed and converted only if the cache is stale
+            PcmCache.Pcm pcm = pcmCache.load(audioFile.toPath());
             
             // Create and open clip
-            AudioFormat decodedFormat = decodedStream.getFormat();
-            DataLine.Info info = new DataLine.Info(Clip.class, decodedFormat);
+            DataLine.Info info = new DataLine.Info(Clip.class, pcm.getFormat());
             Clip clip = (Clip) AudioSystem.getLine(info);
-            clip.open(decodedStream);
+            clip.open(pcm.getFormat(), pcm.getData(), 0, pcm.getData().length);
             
+            clipsLoaded++;
+            if (pcm.isCached()) {
+                clipsFromCache++;
+            }
             return clip;
             
         } catch (UnsupportedAudioFileException e) {
@@ -113,39 +114,8 @@ public class AudioManager {
             System.err.println("Unexpected error loading audio: " + e.getMessage());
             e.printStackTrace();
             return null;
-        }
-    }
-    
-    /**
-     * Convert audio stream to a supported format (PCM_SIGNED)
-     */
-    private AudioInputStream getDecodedStream(AudioInputStream originalStream, AudioFormat originalFormat) {
-        AudioFormat.Encoding encoding = originalFormat.getEncoding();
-        
-        // If already PCM_SIGNED with 8 or 16-bit, no conversion needed
-        if (encoding.equals(AudioFormat.Encoding.PCM_SIGNED) && 
-            (originalFormat.getSampleSizeInBits() == 16 || originalFormat.getSampleSizeInBits() == 8)) {
-            return originalStream;
-        }
-        
-        // Convert to 16-bit PCM_SIGNED format
-        AudioFormat decodedFormat = new AudioFormat(
-            AudioFormat.Encoding.PCM_SIGNED,
-            originalFormat.getSampleRate(),
-            16, // 16-bit
-            originalFormat.getChannels(),
-            originalFormat.getChannels() * 2, // frame size
-            originalFormat.getSampleRate(),
-            false // little-endian
-        );
-        
-        try {
-            AudioInputStream decodedStream = AudioSystem.getAudioInputStream(decodedFormat, originalStream);
-            System.out.println("  Converted to 16-bit PCM format");
-            return decodedStream;
-        } catch (Exception e) {
-            System.err.println("  Could not convert format: " + e.getMessage());
-            return originalStream; // Return original and hope for the best
+        } finally {
+            loadNanos += System.nanoTime() - start;
         }
     }
     
@@ -269,6 +239,24 @@ public class AudioManager {
         soundEffects.clear();
     }
     
+    /**
+     * Time spent loading clips so far, in milliseconds.
+     */
+    public double getLoadMillis() {
+        return loadNanos / 1e6;
+    }
+    
+    public int getClipsLoaded() {
+        return clipsLoaded;
+    }
+    
+    /**
+     * Clips whose samples came from the PCM cache instead of being decoded.
+     */
+    public int getClipsFromCache() {
+        return clipsFromCache;
+    }
+    
     public boolean isMusicEnabled() {
         return musicEnabled;
     }
@@ -0,0 +1,300 @@
+package com.mjsamaha.dodger.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * On-disk cache of decoded audio. Each source file is parsed and converted to
+ * playable PCM once; the result is stored next to a SHA-256 of the source's
+ * contents, and later loads map the cache file and copy the samples straight into
+ * the playback buffer without parsing or converting anything. Editing the source
+ * changes its hash, so a stale entry is simply decoded and written again.
+ *
+ * The entry also records the source's size and modification time. While those
+ * still match the source is trusted to be unchanged and not hashed at all; when
+ * they differ the hash decides, so touching a file without editing it costs one
+ * hash rather than a decode.
+ *
+ * Entry layout (little-endian):
+ * <pre>
+ * 0   int   magic "DGPC"
+ * 4   int   format version
+ * 8   long  source size in bytes
+ * 16  long  source modification time in milliseconds
+ * 24  32    SHA-256 of the source file
+ * 56  float sample rate
+ * 60  int   sample size in bits
+ * 64  int   channels
+ * 68  int   frame size in bytes
+ * 72  int   flags (1 = big-endian samples)
+ * 76  int   PCM length in bytes
+ * 80  signed PCM samples
+ * </pre>
+ *
+ * Entries are written to a temporary file and moved into place, so a crash never
+ * leaves a half-written entry behind.
+ */
+public class PcmCache {
+    
+    private static final int MAGIC = 0x43504744; // "DGPC"
+    private static final int VERSION = 2;
+    private static final int HASH_SIZE = 32;
+    private static final int HEADER_SIZE = 80;
+    private static final int FLAG_BIG_ENDIAN = 1;
+    
+    private final Path directory;
+    
+    /**
+     * Decoded samples ready for {@code Clip.open}.
+     */
+    public static final class Pcm {
+        private final AudioFormat format;
+        private final byte[] data;
+        private final boolean cached;
+        
+        Pcm(AudioFormat format, byte[] data, boolean cached) {
+            this.format = format;
+            this.data = data;
+            this.cached = cached;
+        }
+        
+        public AudioFormat getFormat() {
+            return format;
+        }
+        
+        public byte[] getData() {
+            return data;
+        }
+        
+        /**
+         * Returns true if the samples came from the cache rather than the source file.
+         */
+        public boolean isCached() {
+            return cached;
+        }
+    }
+    
+    public PcmCache(Path directory) {
+        this.directory = directory;
+    }
+    
+    /**
+     * Returns the decoded samples of a source file, from the cache if its entry
+     * matches the file's current contents, otherwise by decoding the file and
+     * caching the result. Failing to write the cache is reported but not fatal.
+     */
+    public Pcm load(Path source) throws IOException, UnsupportedAudioFileException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        Path entry = entryFor(source);
+        
+        Pcm pcm = read(entry, size, modified, null);
+        if (pcm != null) {
+            return pcm;
+        }
+        
+        // Size or time differ: the contents may still be the same
+        byte[] hash = hash(source);
+        pcm = read(entry, size, modified, hash);
+        if (pcm != null) {
+            stamp(entry, size, modified);
+            return pcm;
+        }
+        
+        pcm = decode(source);
+        if (!pcm.getFormat().getEncoding().equals(AudioFormat.Encoding.PCM_SIGNED)) {
+            return pcm; // Conversion failed; the entry layout only describes signed PCM
+        }
+        try {
+            write(entry, size, modified, hash, pcm);
+        } catch (IOException e) {
+            System.err.println("Could not cache decoded audio " + entry + ": " + e.getMessage());
+        }
+        return pcm;
+    }
+    
+    /**
+     * Cache file for a source: its path flattened into one file name.
+     */
+    Path entryFor(Path source) {
+        String name = source.normalize().toString().replaceAll("[^A-Za-z0-9._-]", "_");
+        return directory.resolve(name + ".pcm");
+    }
+    
+    /**
+     * Maps a cache entry and copies its samples out, or returns null if the entry
+     * is missing or damaged. Without a hash the entry must have been made from a
+     * source of the given size and time; with one, from the same contents.
+     */
+    private static Pcm read(Path entry, long sourceSize, long modified, byte[] hash) throws IOException {
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+        
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            
+            int length = buffer.getInt(76);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || length < 0 || length != size - HEADER_SIZE) {
+                return null;
+            }
+            if (hash == null) {
+                if (buffer.getLong(8) != sourceSize || buffer.getLong(16) != modified) {
+                    return null;
+                }
+            } else {
+                byte[] entryHash = new byte[HASH_SIZE];
+                buffer.get(24, entryHash);
+                if (!Arrays.equals(hash, entryHash)) {
+                    return null;
+                }
+            }
+            
+            AudioFormat format = new AudioFormat(buffer.getFloat(56), buffer.getInt(60), buffer.getInt(64),
+                    true, (buffer.getInt(72) & FLAG_BIG_ENDIAN) != 0);
+            if (format.getFrameSize() != buffer.getInt(68)) {
+                return null;
+            }
+            
+            byte[] data = new byte[length];
+            buffer.get(HEADER_SIZE, data);
+            return new Pcm(format, data, true);
+        }
+    }
+    
+    private static void write(Path entry, long sourceSize, long modified, byte[] hash, Pcm pcm)
+            throws IOException {
+        Files.createDirectories(entry.getParent());
+        AudioFormat format = pcm.getFormat();
+        
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(sourceSize);
+        header.putLong(modified);
+        header.put(hash);
+        header.putFloat(format.getSampleRate());
+        header.putInt(format.getSampleSizeInBits());
+        header.putInt(format.getChannels());
+        header.putInt(format.getFrameSize());
+        header.putInt(format.isBigEndian() ? FLAG_BIG_ENDIAN : 0);
+        header.putInt(pcm.getData().length);
+        header.flip();
+        
+        Path temp = entry.resolveSibling(entry.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer data = ByteBuffer.wrap(pcm.getData());
+            while (header.hasRemaining() || data.hasRemaining()) {
+                channel.write(new ByteBuffer[] { header, data });
+            }
+        }
+        Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Records a source's new size and time in an entry whose contents still match,
+     * so the next load skips the hash again.
+     */
+    private static void stamp(Path entry, long sourceSize, long modified) {
+        ByteBuffer stamp = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        stamp.putLong(sourceSize).putLong(modified).flip();
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.WRITE)) {
+            while (stamp.hasRemaining()) {
+                channel.write(stamp, 8 + stamp.position());
+            }
+        } catch (IOException e) {
+            System.err.println("Could not update cached audio " + entry + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Parses a source file and converts it to signed 8 or 16-bit PCM.
+     */
+    public static Pcm decode(Path source) throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream originalStream = AudioSystem.getAudioInputStream(source.toFile())) {
+            AudioFormat originalFormat = originalStream.getFormat();
+            AudioInputStream decodedStream = getDecodedStream(originalStream, originalFormat);
+            return new Pcm(decodedStream.getFormat(), decodedStream.readAllBytes(), false);
+        }
+    }
+    
+    /**
+     * Convert audio stream to a supported format (PCM_SIGNED)
+     */
+    private static AudioInputStream getDecodedStream(AudioInputStream originalStream, AudioFormat originalFormat) {
+        AudioFormat.Encoding encoding = originalFormat.getEncoding();
+        
+        // If already PCM_SIGNED with 8 or 16-bit, no conversion needed
+        if (encoding.equals(AudioFormat.Encoding.PCM_SIGNED) &&
+            (originalFormat.getSampleSizeInBits() == 16 || originalFormat.getSampleSizeInBits() == 8)) {
+            return originalStream;
+        }
+        
+        // Convert to 16-bit PCM_SIGNED format
+        AudioFormat decodedFormat = new AudioFormat(
+            AudioFormat.Encoding.PCM_SIGNED,
+            originalFormat.getSampleRate(),
+            16, // 16-bit
+            originalFormat.getChannels(),
+            originalFormat.getChannels() * 2, // frame size
+            originalFormat.getSampleRate(),
+            false // little-endian
+        );
+        
+        try {
+            return AudioSystem.getAudioInputStream(decodedFormat, originalStream);
+        } catch (Exception e) {
+            System.err.println("Could not convert " + originalFormat + " to PCM: " + e.getMessage());
+            return originalStream; // Return original and hope for the best
+        }
+    }
+    
+    /**
+     * SHA-256 of a file's contents, read through a mapping.
+     */
+    static byte[] hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available", e);
+        }
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(Integer.MAX_VALUE, size - position)));
+            }
+        }
+        return digest.digest();
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+}
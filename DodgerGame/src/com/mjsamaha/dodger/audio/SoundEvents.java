@@ -0,0 +1,49 @@
+package com.mjsamaha.dodger.audio;
+
+import com.mjsamaha.dodger.events.GameEvent;
+import com.mjsamaha.dodger.events.GameEventListener;
+
+/**
+ * Plays the game's sounds in response to its events: one score sound per tick
+ * however many objects scored, the collision sound, and the background music
+ * stopping on game over and starting again on restart or on a rewind to before
+ * the game over.
+ */
+public class SoundEvents implements GameEventListener {
+    
+    // Names the effects are loaded under
+    public static final String SCORE = "score";
+    public static final String COLLISION = "collision";
+    
+    private final AudioManager audioManager;
+    private boolean scored;
+    
+    public SoundEvents(AudioManager audioManager) {
+        this.audioManager = audioManager;
+    }
+    
+    @Override
+    public void onEvent(GameEvent event) {
+        switch (event.getType()) {
+            case SCORE -> scored = true;
+            case COLLISION -> audioManager.playSoundEffect(COLLISION);
+            case GAME_OVER -> audioManager.stopBackgroundMusic();
+            case RESTART -> audioManager.playBackgroundMusic();
+            case REWIND -> {
+                if (event.getValue() != 0) {
+                    audioManager.playBackgroundMusic();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+    
+    @Override
+    public void onBatchEnd() {
+        if (scored) {
+            scored = false;
+            audioManager.playSoundEffect(SCORE);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.config.GameConfig;
+import com.mjsamaha.dodger.core.AllocationTracker;
+import com.mjsamaha.dodger.core.GamePanel;
+import com.mjsamaha.dodger.core.GameStateManager;
+import com.mjsamaha.dodger.core.SteppedLoop;
+
+/**
+ * Regression check for garbage on the hot path. Builds a real {@link GamePanel}
+ * headless, drives its game loop one tick and frame at a time with a
+ * {@link SteppedLoop} and a scripted player (weaving left and right, restarting
+ * after every collision), and measures the bytes each tick and frame allocate
+ * with {@link AllocationTracker}. Everything the game does per tick and frame is
+ * covered: events and their subscribers, rewind recording, profiler phases, the
+ * session recorder and the renderer. The leaderboard and performance log are
+ * never started, so nothing is written to disk.
+ * 
+ * Exits with status 1 if the average after warmup is over budget. The average is
+ * the gated metric because it is the allocation rate the collector sees in steady
+ * state. Single ticks legitimately allocate per event: about 112 B for each new
+ * falling object, and a queued leaderboard score on game over. Those show up in
+ * the 99th percentile as soon as spawns are more frequent than one tick in a
+ * hundred. The worst case additionally includes JIT transitions, which charge a
+ * few hundred bytes to the odd call even on paths that allocate nothing (running
+ * with -Xint shows none). Both are printed for comparison.
+ * 
+ * Settings come from the config file plus any key=value arguments, as for the
+ * game, so e.g. {@code renderer=raster} checks the software renderer.
+ * 
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.AllocationBudgetCheck
+ *     [ticks] [tick budget bytes] [frame budget bytes] [key=value ...]
+ */
+public class AllocationBudgetCheck {
+    
+    private static final int WARMUP_TICKS = 20 * Constants.GameLoop.TARGET_TPS;
+    
+    private final GamePanel panel;
+    private final SteppedLoop loop = new SteppedLoop();
+    private final GameStateManager gameStateManager;
+    
+    // Created once so pressing keys allocates nothing
+    private final KeyEvent pressLeft;
+    private final KeyEvent pressRight;
+    private final KeyEvent releaseLeft;
+    private final KeyEvent releaseRight;
+    private final KeyEvent pressRestart;
+    
+    private int tick;
+    private int collisions;
+    
+    private AllocationBudgetCheck() {
+        panel = new GamePanel(loop);
+        gameStateManager = panel.getGameStateManager();
+        pressLeft = key(KeyEvent.KEY_PRESSED, KeyEvent.VK_LEFT);
+        pressRight = key(KeyEvent.KEY_PRESSED, KeyEvent.VK_RIGHT);
+        releaseLeft = key(KeyEvent.KEY_RELEASED, KeyEvent.VK_LEFT);
+        releaseRight = key(KeyEvent.KEY_RELEASED, KeyEvent.VK_RIGHT);
+        pressRestart = key(KeyEvent.KEY_PRESSED, KeyEvent.VK_R);
+        panel.getGameLoop().start();
+    }
+    
+    private KeyEvent key(int id, int keyCode) {
+        return new KeyEvent(panel, id, 0, 0, keyCode, KeyEvent.CHAR_UNDEFINED);
+    }
+    
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        
+        List<String> numbers = new ArrayList<>();
+        List<String> overrides = new ArrayList<>();
+        for (String arg : args) {
+            (arg.contains("=") ? overrides : numbers).add(arg);
+        }
+        GameConfig.set(GameConfig.load(Path.of(Constants.Config.FILE), overrides));
+        
+        int ticks = numbers.size() > 0 ? Integer.parseInt(numbers.get(0)) : 120 * Constants.GameLoop.TARGET_TPS;
+        long tickBudget = numbers.size() > 1 ? Long.parseLong(numbers.get(1)) : Constants.Profiler.TICK_ALLOCATION_BUDGET;
+        long frameBudget = numbers.size() > 2 ? Long.parseLong(numbers.get(2)) : Constants.Profiler.FRAME_ALLOCATION_BUDGET;
+        
+        if (!AllocationTracker.isSupported()) {
+            System.err.println("Per-thread allocation counters are not available on this JVM");
+            System.exit(2);
+        }
+        
+        AllocationBudgetCheck check = new AllocationBudgetCheck();
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            check.play();
+            check.loop.tick();
+            check.loop.renderFrame(0.5);
+        }
+        
+        long[] tickBytes = new long[ticks];
+        long[] frameBytes = new long[ticks];
+        int collisionsBefore = check.collisions;
+        for (int i = 0; i < ticks; i++) {
+            check.play();
+            long before = AllocationTracker.currentThreadBytes();
+            check.loop.tick();
+            long afterTick = AllocationTracker.currentThreadBytes();
+            check.loop.renderFrame(0.5);
+            long afterFrame = AllocationTracker.currentThreadBytes();
+            
+            tickBytes[i] = afterTick - before;
+            frameBytes[i] = afterFrame - afterTick;
+        }
+        
+        System.out.printf("%d ticks and frames (%s renderer), %d restarts after collisions%n",
+                ticks, GameConfig.get().isRasterRenderer() ? "raster" : "Graphics2D", check.collisions - collisionsBefore);
+        boolean ok = report("tick: ", tickBytes, tickBudget);
+        ok &= report("frame:", frameBytes, frameBudget);
+        check.panel.cleanup();
+        
+        if (!ok) {
+            System.out.println("FAILED: allocation over budget");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+    
+    /**
+     * Prints the average, 99th percentile and worst of the samples.
+     * @return Whether the average is within budget
+     */
+    private static boolean report(String label, long[] bytes, long budget) {
+        double average = Arrays.stream(bytes).average().orElse(0);
+        long[] sorted = bytes.clone();
+        Arrays.sort(sorted);
+        long p99 = sorted[Math.max(0, (int) Math.ceil(sorted.length * 0.99) - 1)];
+        long worst = sorted[sorted.length - 1];
+        System.out.printf("%s %8.1f B average, %7d B p99, %7d B worst, budget %d B%n", label, average, p99, worst, budget);
+        return average <= budget;
+    }
+    
+    /**
+     * Presses the player's keys for the next tick: left and right in turns, and
+     * restart, which the game only takes on the game over screen.
+     */
+    private void play() {
+        if (gameStateManager.isGameOver()) {
+            panel.getKeyListeners()[0].keyPressed(pressRestart);
+            collisions++;
+            return;
+        }
+        boolean left = (tick++ / 45) % 2 == 0;
+        panel.getKeyListeners()[0].keyReleased(left ? releaseRight : releaseLeft);
+        panel.getKeyListeners()[0].keyPressed(left ? pressLeft : pressRight);
+    }
+}
@@ -0,0 +1,168 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.audio.PcmCache;
+
+/**
+ * Startup cost of loading the game's audio with and without the PCM cache. Each
+ * measurement runs in a fresh JVM, like a real start: once with an empty cache
+ * (every file parsed and converted), then with the cache filled, then with the
+ * sources touched but unchanged (hashed, not decoded), then after one source file
+ * changed (only that file decoded again). No audio device is needed;
+ * the time covers everything up to the samples being ready for {@code Clip.open}.
+ *
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.AudioCacheBenchmark [runs]
+ */
+public class AudioCacheBenchmark {
+    
+    private static final String[] ASSETS = {
+        Constants.Audio.BG_MUSIC,
+        Constants.Audio.SFX_COLLISION,
+        Constants.Audio.SCORE_SOUND
+    };
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--load")) {
+            load(Path.of(args[1]), args[2]);
+            return;
+        }
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        
+        // Work on copies so one can be edited
+        Path work = Files.createTempDirectory("dodger-audio");
+        try {
+            Path sources = Files.createDirectory(work.resolve("sources"));
+            Path cache = work.resolve("cache");
+            for (String asset : ASSETS) {
+                Path file = Path.of(asset);
+                if (Files.isRegularFile(file)) {
+                    Files.copy(file, sources.resolve(file.getFileName()));
+                }
+            }
+            int count = list(sources).size();
+            
+            System.out.printf("%-24s %12s %12s %8s%n", "start", "avg ms", "min ms", "cached");
+            report("empty cache", runs, () -> deleteTree(cache), sources, cache, 0);
+            report("warm cache", runs, () -> { }, sources, cache, count);
+            report("sources touched", runs, () -> {
+                for (Path file : list(sources)) {
+                    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                }
+            }, sources, cache, count);
+            
+            // Touch one byte of the first file's samples so its hash changes
+            Path edited = list(sources).get(0);
+            report("one source changed", runs, () -> {
+                byte[] bytes = Files.readAllBytes(edited);
+                bytes[bytes.length - 1] ^= 1;
+                Files.write(edited, bytes, StandardOpenOption.TRUNCATE_EXISTING);
+            }, sources, cache, count - 1);
+        } finally {
+            deleteTree(work);
+        }
+    }
+    
+    private interface Setup {
+        void run() throws IOException;
+    }
+    
+    /**
+     * Times {@code runs} fresh starts, each after {@code setup}, and checks that
+     * each one found the expected number of clips in the cache.
+     */
+    private static void report(String name, int runs, Setup setup, Path sources, Path cache, int expectCached)
+            throws Exception {
+        double total = 0;
+        double min = Double.MAX_VALUE;
+        String cached = "";
+        for (int i = 0; i < runs; i++) {
+            setup.run();
+            String[] result = runChild(sources, cache).split(" ");
+            double millis = Double.parseDouble(result[0]);
+            total += millis;
+            min = Math.min(min, millis);
+            cached = result[1];
+            if (Integer.parseInt(cached.substring(0, cached.indexOf('/'))) != expectCached) {
+                throw new IllegalStateException(name + ": expected " + expectCached + " cached clips, got " + cached);
+            }
+        }
+        System.out.printf("%-24s %12.1f %12.1f %8s%n", name, total / runs, min, cached);
+    }
+    
+    /**
+     * Runs {@link #load} in a new JVM with the same module or class path.
+     * @return Its result line: milliseconds and cached/total clips
+     */
+    private static String runChild(Path sources, Path cache) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null) {
+            command.addAll(List.of("-p", modulePath, "-m", "DodgerGame/" + AudioCacheBenchmark.class.getName()));
+        } else {
+            command.addAll(List.of("-cp", System.getProperty("java.class.path"), AudioCacheBenchmark.class.getName()));
+        }
+        command.addAll(List.of("--load", sources.toString(), cache.toString()));
+        
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String last = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                last = line;
+            }
+        }
+        if (process.waitFor() != 0 || last == null) {
+            throw new IllegalStateException("Load run failed");
+        }
+        return last;
+    }
+    
+    /**
+     * Child side: loads every file through the cache and prints the time taken.
+     */
+    private static void load(Path sources, String cacheDir) throws IOException, UnsupportedAudioFileException {
+        long start = System.nanoTime();
+        PcmCache cache = new PcmCache(Path.of(cacheDir));
+        int loaded = 0;
+        int cached = 0;
+        for (Path file : list(sources)) {
+            PcmCache.Pcm pcm = cache.load(file);
+            loaded++;
+            if (pcm.isCached()) {
+                cached++;
+            }
+        }
+        System.out.printf("%.2f %d/%d%n", (System.nanoTime() - start) / 1e6, cached, loaded);
+    }
+    
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+    
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
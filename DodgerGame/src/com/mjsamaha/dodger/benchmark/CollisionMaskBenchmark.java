@@ -0,0 +1,179 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.entities.CollisionMask;
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.entities.HazardShape;
+import com.mjsamaha.dodger.entities.Player;
+
+/**
+ * Compares the rectangle-only collision pass with the masked one (bounding box
+ * first, then the bitmask AND) on the same crowd of objects around the player.
+ * Before timing, every mask test is checked against a pixel-by-pixel reference at
+ * random offsets, including masks wider than one 64-bit word.
+ *
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.CollisionMaskBenchmark
+ */
+public class CollisionMaskBenchmark {
+    
+    private static final int[] POPULATIONS = { 100, 1_000, 10_000, 100_000 };
+    private static final int[] VERIFY_SIZES = { 7, 40, 64, 65, 150 };
+    private static final int VERIFY_PLACEMENTS = 20_000;
+    private static final int TESTS_PER_ROUND = 2_000_000;
+    private static final HazardShape[] SHAPES = HazardShape.values();
+    
+    public static void main(String[] args) {
+        verify();
+        
+        System.out.printf("%-8s %12s %10s %8s %8s%n", "shape", "size", "area", "rects", "words");
+        for (HazardShape shape : SHAPES) {
+            CollisionMask mask = CollisionMask.forShape(shape, Constants.Objects.OBJECT_WIDTH, Constants.Objects.OBJECT_HEIGHT);
+            if (mask != null) {
+                System.out.printf("%-8s %12s %10d %8d %8d%n", shape, mask.getWidth() + "x" + mask.getHeight(),
+                        mask.getArea(), mask.getRectCount(), (mask.getWidth() + 63) / 64 * mask.getHeight());
+            }
+        }
+        System.out.println();
+        
+        Player player = new Player(Constants.Player.START_X, Constants.Player.START_Y,
+                Constants.Player.PLAYER_WIDTH, Constants.Player.PLAYER_HEIGHT, 0, Color.WHITE);
+        System.out.printf("%-10s %12s %12s %12s %12s %14s%n",
+                "population", "box hits", "mask hits", "rect ns/obj", "mask ns/obj", "ns/mask test");
+        
+        for (int population : POPULATIONS) {
+            List<FallingObject> rectangles = crowd(player, population, false);
+            List<FallingObject> shaped = crowd(player, population, true);
+            int rounds = Math.max(5, TESTS_PER_ROUND / population);
+            
+            long boxHits = countHits(player, rectangles);
+            long maskHits = countHits(player, shaped);
+            double rectNanos = measure(player, rectangles, rounds);
+            double maskNanos = measure(player, shaped, rounds);
+            double perMaskTest = boxHits == 0 ? 0 : (maskNanos - rectNanos) * population / boxHits;
+            
+            System.out.printf("%-10d %12d %12d %12.2f %12.2f %14.1f%n",
+                    population, boxHits, maskHits, rectNanos, maskNanos, perMaskTest);
+        }
+    }
+    
+    /**
+     * Objects spread over a box a few player sizes wide around the player, so
+     * a good share of them overlap it and reach the mask test. The shaped crowd
+     * cycles through every shape; both crowds have identical positions.
+     */
+    private static List<FallingObject> crowd(Player player, int population, boolean shaped) {
+        Random random = new Random(42);
+        int size = Constants.Objects.OBJECT_WIDTH;
+        List<FallingObject> objects = new ArrayList<>(population);
+        for (int i = 0; i < population; i++) {
+            float x = player.getX() - size + random.nextInt(player.getWidth() + 2 * size);
+            float y = player.getY() - size + random.nextInt(player.getHeight() + 2 * size);
+            HazardShape shape = shaped ? SHAPES[i % SHAPES.length] : HazardShape.RECTANGLE;
+            objects.add(new FallingObject(x, y, size, size, 0, 0, Color.RED, shape));
+        }
+        return objects;
+    }
+    
+    // Same test as CollisionDetector, without stopping at the first hit
+    private static long countHits(Player player, List<FallingObject> objects) {
+        long hits = 0;
+        for (int i = 0; i < objects.size(); i++) {
+            FallingObject obj = objects.get(i);
+            if (player.intersects(obj) && obj.maskOverlaps(player)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+    
+    /**
+     * @return Nanoseconds per object tested
+     */
+    private static double measure(Player player, List<FallingObject> objects, int rounds) {
+        long sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            sink += countHits(player, objects);
+        }
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += countHits(player, objects);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.println();
+        }
+        return elapsed / (double) rounds / objects.size();
+    }
+    
+    /**
+     * Checks {@link CollisionMask#overlapsRect} against looking at every pixel.
+     */
+    private static void verify() {
+        Random random = new Random(7);
+        int checked = 0;
+        for (HazardShape shape : SHAPES) {
+            for (int size : VERIFY_SIZES) {
+                CollisionMask mask = CollisionMask.forShape(shape, size, size + 3);
+                if (mask == null) {
+                    continue;
+                }
+                if (mask != CollisionMask.forShape(shape, size, size + 3)) {
+                    throw new IllegalStateException(shape + " mask is not shared");
+                }
+                verifyRects(shape, mask);
+                
+                for (int i = 0; i < VERIFY_PLACEMENTS; i++) {
+                    int w = 1 + random.nextInt(size + 10);
+                    int h = 1 + random.nextInt(size + 10);
+                    int x = random.nextInt(mask.getWidth() + w) - w;
+                    int y = random.nextInt(mask.getHeight() + h) - h;
+                    if (mask.overlapsRect(x, y, w, h) != bruteForce(mask, x, y, w, h)) {
+                        throw new IllegalStateException(String.format("%s %dx%d: mask test disagrees at %d,%d %dx%d",
+                                shape, mask.getWidth(), mask.getHeight(), x, y, w, h));
+                    }
+                    checked++;
+                }
+            }
+        }
+        System.out.printf("Verified %d mask tests against the pixel reference%n%n", checked);
+    }
+    
+    /**
+     * The drawing rectangles must cover exactly the solid pixels, each once.
+     */
+    private static void verifyRects(HazardShape shape, CollisionMask mask) {
+        int[] covered = new int[mask.getWidth() * mask.getHeight()];
+        for (int i = 0; i < mask.getRectCount(); i++) {
+            for (int row = mask.getRectY(i); row < mask.getRectY(i) + mask.getRectHeight(i); row++) {
+                for (int col = mask.getRectX(i); col < mask.getRectX(i) + mask.getRectWidth(i); col++) {
+                    covered[row * mask.getWidth() + col]++;
+                }
+            }
+        }
+        for (int row = 0; row < mask.getHeight(); row++) {
+            for (int col = 0; col < mask.getWidth(); col++) {
+                if (covered[row * mask.getWidth() + col] != (mask.isSolid(col, row) ? 1 : 0)) {
+                    throw new IllegalStateException(String.format("%s %dx%d: rectangles disagree with the mask at %d,%d",
+                            shape, mask.getWidth(), mask.getHeight(), col, row));
+                }
+            }
+        }
+    }
+    
+    private static boolean bruteForce(CollisionMask mask, int x, int y, int w, int h) {
+        for (int row = y; row < y + h; row++) {
+            for (int col = x; col < x + w; col++) {
+                if (mask.isSolid(col, row)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,91 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.systems.SpawnOrderedBuffer;
+
+/**
+ * Measures the cost of removing a batch of off-screen objects as the population grows.
+ * Compares the old ArrayList Iterator.remove loop with the ring buffer's head
+ * despawn (uniform speed) and its compacting sweep (mixed speeds).
+ * 
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.DespawnBenchmark
+ */
+public class DespawnBenchmark {
+    
+    private static final int[] POPULATIONS = { 1_000, 10_000, 100_000, 1_000_000 };
+    private static final int BATCH = 500;          // Objects leaving the screen per tick
+    private static final int SCREEN_HEIGHT = 600;
+    private static final int ARRAY_LIST_LIMIT = 100_000; // Iterator.remove beyond this takes minutes
+    
+    public static void main(String[] args) {
+        System.out.printf("%-10s %18s %18s %18s%n", "population", "ArrayList ns/rm", "ring head ns/rm", "ring sweep ns/rm");
+        
+        for (int population : POPULATIONS) {
+            int rounds = Math.max(5, 2_000_000 / population);
+            
+            String arrayList = population <= ARRAY_LIST_LIMIT 
+                    ? String.format("%.1f", measureArrayList(population, rounds)) : "skipped";
+            double head = measureRing(population, rounds, false);
+            double sweep = measureRing(population, rounds, true);
+            
+            System.out.printf("%-10d %18s %18.1f %18.1f%n", population, arrayList, head, sweep);
+        }
+    }
+    
+    private static double measureArrayList(int population, int rounds) {
+        long total = 0;
+        for (int round = -2; round < rounds; round++) {
+            ArrayList<FallingObject> list = new ArrayList<>(population);
+            fill(list, population, false);
+            
+            long start = System.nanoTime();
+            Iterator<FallingObject> iterator = list.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isOffScreen(SCREEN_HEIGHT)) {
+                    iterator.remove();
+                }
+            }
+            if (round >= 0) {
+                total += System.nanoTime() - start;
+            }
+        }
+        return total / (double) rounds / BATCH;
+    }
+    
+    private static double measureRing(int population, int rounds, boolean mixedSpeeds) {
+        long total = 0;
+        for (int round = -2; round < rounds; round++) {
+            SpawnOrderedBuffer buffer = new SpawnOrderedBuffer(population);
+            fill(buffer, population, mixedSpeeds);
+            
+            long start = System.nanoTime();
+            int removed = buffer.despawnOffScreen(SCREEN_HEIGHT);
+            if (round >= 0) {
+                total += System.nanoTime() - start;
+            }
+            if (removed != BATCH) {
+                throw new IllegalStateException("Expected " + BATCH + " removals but got " + removed);
+            }
+        }
+        return total / (double) rounds / BATCH;
+    }
+    
+    /**
+     * Adds objects oldest first: the first BATCH are below the screen,
+     * the rest are spread over the visible area in spawn order.
+     */
+    private static void fill(List<FallingObject> objects, int population, boolean mixedSpeeds) {
+        for (int i = 0; i < population; i++) {
+            float y = i < BATCH 
+                    ? SCREEN_HEIGHT + 1 + (BATCH - i) 
+                    : SCREEN_HEIGHT - (float) (i - BATCH) * SCREEN_HEIGHT / population;
+            float speed = mixedSpeeds ? 100 + (i % 7) * 40 : 200;
+            objects.add(new FallingObject(i % 760, y, 40, 40, speed, Color.RED));
+        }
+    }
+}
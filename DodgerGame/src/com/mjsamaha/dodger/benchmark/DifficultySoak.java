@@ -0,0 +1,120 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.awt.GraphicsConfiguration;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.config.GameConfig;
+import com.mjsamaha.dodger.core.GameClock;
+import com.mjsamaha.dodger.core.GameLoop;
+import com.mjsamaha.dodger.core.GameLoopTarget;
+import com.mjsamaha.dodger.core.GameStateManager;
+import com.mjsamaha.dodger.core.LoopStrategy;
+import com.mjsamaha.dodger.core.ManualClock;
+import com.mjsamaha.dodger.core.ScaledClock;
+import com.mjsamaha.dodger.systems.ObjectSpawner;
+
+/**
+ * Runs the normal spawner's difficulty ramp through the real game loop on a
+ * fast-forwarded {@link ScaledClock}, printing the spawn interval as game time
+ * passes, then checks that a {@link ManualClock} produces an exact tick count.
+ * 
+ * Fails (status 1) if the fast-forward runs more than 10% off the requested
+ * scale, the spawn interval does not follow the configured ramp, or the manual
+ * clock yields a different number of ticks (or ticks per second) than it was
+ * advanced by.
+ * 
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.DifficultySoak [scale] [minutes]
+ */
+public class DifficultySoak {
+    
+    public static void main(String[] args) throws InterruptedException {
+        double scale = args.length > 0 ? Double.parseDouble(args[0]) : ScaledClock.MAX_SCALE;
+        double minutes = args.length > 1 ? Double.parseDouble(args[1]) : 30;
+        int tps = GameConfig.get().getTargetTps();
+        long targetTicks = Math.round(minutes * 60 * tps);
+        
+        Soak soak = new Soak();
+        GameLoop loop = new GameLoop(soak, LoopStrategy.forName("dual"), new ScaledClock(GameClock.system(), scale));
+        
+        System.out.printf("Fast-forwarding %.0f game minutes at %.2fx%n", minutes, scale);
+        long start = System.nanoTime();
+        loop.start();
+        long reported = 0;
+        while (soak.ticks < targetTicks) {
+            Thread.sleep(10);
+            long ticks = soak.ticks;
+            if (ticks - reported >= 60L * tps * 5 || ticks >= targetTicks) {
+                System.out.printf("  game %5.1f min  spawn interval %.3f s  objects %3d  score %d%n", 
+                        ticks / (60.0 * tps), soak.spawnInterval, soak.objectCount, soak.score);
+                reported = ticks;
+            }
+        }
+        loop.stop();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double speed = soak.ticks / (double) tps / seconds;
+        System.out.printf("%d ticks in %.1f s real time (%.0fx)%n", soak.ticks, seconds, speed);
+        
+        GameConfig config = GameConfig.get();
+        double expectedInterval = Math.max(config.getMinSpawnInterval(), 
+                config.getInitialSpawnInterval() - config.getDifficultyRate() * soak.ticks / (double) tps);
+        boolean ok = Math.abs(speed - scale) <= scale * 0.1;
+        ok &= Math.abs(soak.spawnInterval - expectedInterval) <= 0.01;
+        System.out.printf("Speed %.1fx of %.1fx requested, final spawn interval %.3f s of %.3f s expected%n", 
+                speed, scale, soak.spawnInterval, expectedInterval);
+        
+        // Manual clock: ticks only happen when the clock is advanced
+        ManualClock manual = new ManualClock();
+        Soak stepped = new Soak();
+        GameLoop manualLoop = new GameLoop(stepped, LoopStrategy.forName("dual"), manual);
+        manualLoop.start();
+        long tickNanos = (1_000_000_000L + tps - 1) / tps; // Rounded up so each step is a full tick
+        long giveUp = System.nanoTime() + 10_000_000_000L;
+        for (int tick = 1; tick <= 10 * tps; tick++) {
+            manual.advance(tickNanos);
+            while (stepped.ticks < tick && System.nanoTime() < giveUp) {
+                Thread.sleep(0, 100_000);
+            }
+        }
+        Thread.sleep(50);
+        manualLoop.stop();
+        int measuredTps = manualLoop.getPerformanceMonitor().getTps();
+        System.out.printf("Manual clock: %d ticks after advancing 10 s one tick at a time (expected %d), %d TPS%n", 
+                stepped.ticks, 10 * tps, measuredTps);
+        ok &= stepped.ticks == 10 * tps && measuredTps == tps;
+        
+        System.out.println(ok ? "Difficulty soak: ok" : "Difficulty soak: FAILED");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Headless target running only the spawner; nobody is there to collide.
+     */
+    private static final class Soak implements GameLoopTarget {
+        private final ObjectSpawner spawner = new ObjectSpawner(5);
+        private final GameStateManager state = new GameStateManager();
+        private volatile long ticks;
+        private volatile float spawnInterval;
+        private volatile int objectCount;
+        private volatile int score;
+        
+        @Override
+        public void updateGame(float dt) {
+            spawner.update(dt, Constants.Window.WINDOW_WIDTH, Constants.Window.WINDOW_HEIGHT, state);
+            spawnInterval = spawner.getSpawnInterval();
+            objectCount = spawner.getFallingObjects().size();
+            score = state.getScore();
+            ticks++;
+        }
+        
+        @Override
+        public void renderGame(double alpha) {
+        }
+        
+        @Override
+        public GraphicsConfiguration getGraphicsConfiguration() {
+            return null;
+        }
+    }
+}
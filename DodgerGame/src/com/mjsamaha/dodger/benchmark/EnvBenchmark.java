@@ -0,0 +1,80 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import com.mjsamaha.dodger.env.DodgerEnv;
+import com.mjsamaha.dodger.env.VectorDodgerEnv;
+import com.mjsamaha.dodger.systems.GameRandom;
+
+/**
+ * Measures environment steps per second on one thread, for a single
+ * {@link DodgerEnv} and for a {@link VectorDodgerEnv} batch, with random actions.
+ * 
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.EnvBenchmark [envs]
+ */
+public class EnvBenchmark {
+    
+    private static final long STEPS = 20_000_000L;
+    
+    public static void main(String[] args) {
+        int envCount = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        
+        System.out.printf("Single env: %.2f M steps/s%n", runSingle() / 1e6);
+        System.out.printf("Vector env (%d): %.2f M steps/s%n", envCount, runVector(envCount) / 1e6);
+    }
+    
+    private static double runSingle() {
+        DodgerEnv env = new DodgerEnv();
+        FloatBuffer observation = directFloats(DodgerEnv.OBSERVATION_SIZE);
+        GameRandom random = new GameRandom(3);
+        long seed = 0;
+        
+        env.reset(seed++, observation, 0);
+        long start = 0;
+        long episodes = 0;
+        for (long step = 0; step < STEPS * 2; step++) {
+            if (step == STEPS) {
+                start = System.nanoTime(); // First half is warmup
+                episodes = 0;
+            }
+            env.step(random.nextInt(DodgerEnv.ACTION_COUNT), observation, 0);
+            if (env.isDone()) {
+                env.reset(seed++, observation, 0);
+                episodes++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("  %d episodes, %.0f steps per episode%n", episodes, STEPS / (double) Math.max(1, episodes));
+        return STEPS / seconds;
+    }
+    
+    private static double runVector(int envCount) {
+        VectorDodgerEnv env = new VectorDodgerEnv(envCount);
+        FloatBuffer observations = directFloats(envCount * DodgerEnv.OBSERVATION_SIZE);
+        int[] actions = new int[envCount];
+        float[] rewards = new float[envCount];
+        boolean[] dones = new boolean[envCount];
+        GameRandom random = new GameRandom(5);
+        
+        env.reset(0, observations);
+        long batches = STEPS / envCount;
+        long start = 0;
+        for (long batch = 0; batch < batches * 2; batch++) {
+            if (batch == batches) {
+                start = System.nanoTime();
+            }
+            for (int i = 0; i < envCount; i++) {
+                actions[i] = random.nextInt(DodgerEnv.ACTION_COUNT);
+            }
+            env.step(actions, observations, rewards, dones);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return batches * envCount / seconds;
+    }
+    
+    private static FloatBuffer directFloats(int count) {
+        return ByteBuffer.allocateDirect(count * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+}
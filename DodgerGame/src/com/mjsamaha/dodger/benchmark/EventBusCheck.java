@@ -0,0 +1,213 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.awt.Color;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.core.AllocationTracker;
+import com.mjsamaha.dodger.events.GameEvent;
+import com.mjsamaha.dodger.events.GameEventBus;
+import com.mjsamaha.dodger.events.GameEventListener;
+import com.mjsamaha.dodger.events.GameEventType;
+
+/**
+ * Checks and times the {@link GameEventBus}. Verifies that each listener gets
+ * exactly its subscribed types in publish order with one batch end per dispatch,
+ * that events published from a listener land in the same batch, that unsubscribed
+ * types take no slots and that a full ring drops and counts but keeps room for
+ * game state changes; then publishes and dispatches ticks of increasing size
+ * to four listeners (audio, particles, stats, replay in the game) and measures
+ * the cost and allocation per event.
+ *
+ * Fails (status 1) on a wrong delivery or if dispatch allocates (a byte per event
+ * or more on average, after warmup).
+ *
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.EventBusCheck [ticks]
+ */
+public class EventBusCheck {
+    
+    private static final int[] EVENTS_PER_TICK = { 4, 64, 1024, Constants.Events.CAPACITY - Constants.Events.RESERVED };
+    private static final GameEventType[] TYPES = GameEventType.values();
+    
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        
+        boolean ok = checkDelivery();
+        ok &= checkOverflow();
+        ok &= measure(ticks);
+        
+        System.out.println(ok ? "Event bus: ok" : "Event bus: FAILED");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Listener that remembers what it got, as type ordinal * 1000 + value.
+     */
+    private static class Recorder implements GameEventListener {
+        final int[] seen = new int[64];
+        int count;
+        int batches;
+        int lastTick = -1;
+        
+        @Override
+        public void onEvent(GameEvent event) {
+            seen[count++] = event.getType().ordinal() * 1000 + event.getValue();
+            lastTick = event.getTick();
+        }
+        
+        @Override
+        public void onBatchEnd() {
+            batches++;
+        }
+    }
+    
+    private static boolean checkDelivery() {
+        GameEventBus bus = new GameEventBus(16);
+        Recorder everything = new Recorder();
+        Recorder scores = new Recorder();
+        Recorder restarts = new Recorder();
+        bus.subscribe(everything, TYPES);
+        bus.subscribe(scores, GameEventType.SCORE, GameEventType.GAME_OVER);
+        bus.subscribe(restarts, GameEventType.RESTART);
+        // Reacts to a collision by publishing the game over, as a rules system might
+        bus.subscribe(event -> bus.publish(GameEventType.GAME_OVER, 99), GameEventType.COLLISION);
+        
+        bus.dispatch(); // Nothing queued: no batch ends
+        bus.publish(GameEventType.SPAWN, 1);
+        bus.publish(GameEventType.SCORE, 2);
+        bus.publish(GameEventType.DESPAWN, 3);
+        bus.publish(GameEventType.SCORE, 4);
+        bus.publish(GameEventType.COLLISION, 5);
+        int delivered = bus.dispatch();
+        
+        int spawn = GameEventType.SPAWN.ordinal() * 1000;
+        int score = GameEventType.SCORE.ordinal() * 1000;
+        int despawn = GameEventType.DESPAWN.ordinal() * 1000;
+        int collision = GameEventType.COLLISION.ordinal() * 1000;
+        int gameOver = GameEventType.GAME_OVER.ordinal() * 1000;
+        boolean ok = delivered == 6
+                && matches(everything, spawn + 1, score + 2, despawn + 3, score + 4, collision + 5, gameOver + 99)
+                && matches(scores, score + 2, score + 4, gameOver + 99)
+                && matches(restarts)
+                && everything.batches == 1 && scores.batches == 1 && restarts.batches == 0
+                && everything.lastTick == 1 && bus.getTick() == 2 && bus.getPending() == 0;
+        
+        bus.publish(GameEventType.RESTART, 0);
+        bus.dispatch();
+        ok &= matches(restarts, GameEventType.RESTART.ordinal() * 1000) && restarts.batches == 1
+                && scores.batches == 1 && everything.batches == 2;
+        
+        System.out.println("Delivery order, filtering and batching: " + (ok ? "ok" : "WRONG"));
+        return ok;
+    }
+    
+    private static boolean matches(Recorder recorder, int... expected) {
+        if (recorder.count != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (recorder.seen[i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Half of a ring this small is reserved for game state changes.
+     */
+    private static boolean checkOverflow() {
+        GameEventBus bus = new GameEventBus(8);
+        Recorder recorder = new Recorder();
+        bus.subscribe(recorder, GameEventType.DESPAWN, GameEventType.GAME_OVER);
+        
+        // Nobody takes spawns, so they never occupy a slot
+        for (int i = 0; i < 10; i++) {
+            bus.publish(GameEventType.SPAWN, i);
+        }
+        boolean skipped = bus.getPending() == 0;
+        
+        int despawns = 0;
+        for (int i = 0; i < 10; i++) {
+            despawns += bus.publish(GameEventType.DESPAWN, i) ? 1 : 0;
+        }
+        int gameOvers = 0;
+        for (int i = 0; i < 5; i++) {
+            gameOvers += bus.publish(GameEventType.GAME_OVER, i) ? 1 : 0;
+        }
+        int delivered = bus.dispatch();
+        // After a dispatch the whole ring is free again
+        boolean refilled = bus.publish(GameEventType.DESPAWN, 10);
+        
+        boolean ok = skipped && despawns == 4 && gameOvers == 4 && delivered == 8 && bus.getDropped() == 7
+                && refilled && recorder.seen[7] == GameEventType.GAME_OVER.ordinal() * 1000 + 3;
+        System.out.printf("Full ring: %d of 10 despawns and %d of 5 game overs accepted, %d dropped, spawns %s: %s%n", 
+                despawns, gameOvers, bus.getDropped(), skipped ? "skipped" : "QUEUED", ok ? "ok" : "WRONG");
+        return ok;
+    }
+    
+    /**
+     * Listener doing a trivial amount of work per event, standing in for a subsystem.
+     */
+    private static class Counter implements GameEventListener {
+        long sum;
+        int batches;
+        
+        @Override
+        public void onEvent(GameEvent event) {
+            sum += event.getObjectId() + event.getValue() + (int) event.getX();
+        }
+        
+        @Override
+        public void onBatchEnd() {
+            batches++;
+        }
+    }
+    
+    private static boolean measure(int ticks) {
+        boolean ok = true;
+        System.out.printf("%n%-12s %12s %14s %12s%n", "events/tick", "ns/event", "bytes/event", "dropped");
+        for (int perTick : EVENTS_PER_TICK) {
+            GameEventBus bus = new GameEventBus();
+            Counter audio = new Counter();
+            Counter particles = new Counter();
+            Counter stats = new Counter();
+            Counter replay = new Counter();
+            bus.subscribe(audio, GameEventType.SCORE, GameEventType.COLLISION, GameEventType.GAME_OVER, 
+                    GameEventType.RESTART, GameEventType.REWIND);
+            bus.subscribe(particles, GameEventType.DESPAWN, GameEventType.COLLISION, GameEventType.RESTART, 
+                    GameEventType.REWIND);
+            bus.subscribe(stats, TYPES);
+            bus.subscribe(replay, GameEventType.RESTART);
+            
+            // Fewer ticks for the big batches, so every size gets about the same number of events
+            int rounds = Math.max(200, (int) ((long) ticks * EVENTS_PER_TICK[0] / perTick));
+            long nanos = 0;
+            long bytes = 0;
+            long events = 0;
+            for (int tick = 0; tick < rounds * 2; tick++) {
+                long allocatedBefore = AllocationTracker.currentThreadBytes();
+                long start = System.nanoTime();
+                for (int i = 0; i < perTick; i++) {
+                    bus.publish(TYPES[i % TYPES.length], i, i, tick, 1, Color.RED);
+                }
+                bus.dispatch();
+                long elapsed = System.nanoTime() - start;
+                long allocated = AllocationTracker.currentThreadBytes() - allocatedBefore;
+                
+                // First half is warmup
+                if (tick >= rounds) {
+                    nanos += elapsed;
+                    bytes += allocatedBefore >= 0 ? allocated : 0;
+                    events += perTick;
+                }
+            }
+            
+            System.out.printf("%-12d %12.1f %14.3f %12d%n", perTick, nanos / (double) events, 
+                    bytes / (double) events, bus.getDropped());
+            ok &= bytes < events && bus.getDropped() == 0 && stats.batches == rounds * 2;
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,141 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.core.GameStateManager;
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.level.LevelFile;
+import com.mjsamaha.dodger.level.LevelStreamer;
+import com.mjsamaha.dodger.level.LevelWriter;
+import com.mjsamaha.dodger.systems.ObjectSpawner;
+import com.mjsamaha.dodger.systems.SpawnOrderedBuffer;
+
+/**
+ * Plays a long generated level from start to finish, headless and as fast as
+ * possible, to show that streaming keeps memory and tick cost flat however long
+ * the level is. Reports active chunks, live objects, tick time and heap for each
+ * tenth of the level, then checks that restoring a mid-level snapshot replays the
+ * same hazards.
+ *
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.LevelStreamBenchmark [chunks]
+ */
+public class LevelStreamBenchmark {
+    
+    private static final float DT = 1f / Constants.GameLoop.TARGET_TPS;
+    private static final int SECTIONS = 10;
+    private static final int REPLAY_TICKS = 5 * Constants.GameLoop.TARGET_TPS;
+    
+    public static void main(String[] args) throws IOException {
+        int chunks = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Path file = Files.createTempFile("dodger-level", ".level");
+        try {
+            long start = System.nanoTime();
+            LevelWriter.generate(file, chunks, Constants.Stress.DEFAULT_SEED);
+            LevelFile level = LevelFile.open(file);
+            System.out.printf("Level: %d chunks, %d px, %.1f MB, written in %.0f ms%n", level.getChunkCount(),
+                    level.getLength(), Files.size(file) / 1e6, (System.nanoTime() - start) / 1e6);
+            
+            run(level);
+            verifyReplay(level);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    private static void run(LevelFile level) {
+        int width = Constants.Window.WINDOW_WIDTH;
+        int height = Constants.Window.WINDOW_HEIGHT;
+        ObjectSpawner spawner = new ObjectSpawner(1);
+        LevelStreamer streamer = new LevelStreamer(level, height);
+        spawner.setLevel(streamer);
+        GameStateManager state = new GameStateManager();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        
+        System.out.printf("%-8s %12s %14s %14s %12s %12s %10s%n",
+                "section", "ticks", "max chunks", "max objects", "avg ns/tick", "max us/tick", "heap MB");
+        long sectionLength = level.getLength() / SECTIONS;
+        long totalTicks = 0;
+        for (int section = 1; section <= SECTIONS; section++) {
+            long ticks = 0;
+            long nanos = 0;
+            long worst = 0;
+            int maxChunks = 0;
+            int maxObjects = 0;
+            while (streamer.getCamera().getDistance() < section * sectionLength) {
+                long tickStart = System.nanoTime();
+                spawner.update(DT, width, height, state);
+                long elapsed = System.nanoTime() - tickStart;
+                
+                nanos += elapsed;
+                worst = Math.max(worst, elapsed);
+                maxChunks = Math.max(maxChunks, streamer.getActiveChunkCount());
+                maxObjects = Math.max(maxObjects, spawner.getFallingObjects().size());
+                ticks++;
+            }
+            totalTicks += ticks;
+            
+            System.gc();
+            long heap = memory.getHeapMemoryUsage().getUsed();
+            System.out.printf("%-8s %12d %14d %14d %12.0f %12.1f %10.1f%n", section * 10 + "%", ticks,
+                    maxChunks, maxObjects, nanos / (double) ticks, worst / 1e3, heap / 1e6);
+        }
+        
+        while (!streamer.isFinished()) {
+            spawner.update(DT, width, height, state);
+        }
+        System.out.printf("Finished after %d ticks with %d objects left, score %d%n",
+                totalTicks, spawner.getFallingObjects().size(), state.getScore());
+    }
+    
+    /**
+     * Saves the spawner halfway through, plays on, restores and plays the same
+     * stretch again: both runs must produce the same objects.
+     */
+    private static void verifyReplay(LevelFile level) {
+        int height = Constants.Window.WINDOW_HEIGHT;
+        ObjectSpawner spawner = new ObjectSpawner(1);
+        LevelStreamer streamer = new LevelStreamer(level, height);
+        spawner.setLevel(streamer);
+        GameStateManager state = new GameStateManager();
+        
+        streamer.seek(level.getLength() / 2.0);
+        for (int i = 0; i < REPLAY_TICKS; i++) {
+            spawner.update(DT, Constants.Window.WINDOW_WIDTH, height, state);
+        }
+        
+        ByteBuffer saved = ByteBuffer.allocate(ObjectSpawner.stateSize(spawner.getFallingObjects().size()));
+        spawner.writeState(saved);
+        long first = playAndHash(spawner, state);
+        
+        saved.flip();
+        spawner.readState(saved);
+        long second = playAndHash(spawner, state);
+        
+        if (first != second) {
+            throw new IllegalStateException("Replay after restoring the snapshot diverged");
+        }
+        System.out.println("Snapshot replay: ok");
+    }
+    
+    private static long playAndHash(ObjectSpawner spawner, GameStateManager state) {
+        long hash = 17;
+        for (int i = 0; i < REPLAY_TICKS; i++) {
+            spawner.update(DT, Constants.Window.WINDOW_WIDTH, Constants.Window.WINDOW_HEIGHT, state);
+            SpawnOrderedBuffer objects = spawner.getFallingObjects();
+            for (int j = 0; j < objects.size(); j++) {
+                FallingObject obj = objects.get(j);
+                hash = hash * 31 + obj.getId();
+                hash = hash * 31 + Float.floatToIntBits(obj.getX());
+                hash = hash * 31 + Float.floatToIntBits(obj.getY());
+                hash = hash * 31 + obj.getShape().ordinal();
+            }
+        }
+        return hash;
+    }
+}
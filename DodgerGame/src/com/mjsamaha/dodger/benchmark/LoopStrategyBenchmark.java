@@ -0,0 +1,146 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.awt.GraphicsConfiguration;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.config.GameConfig;
+import com.mjsamaha.dodger.core.GameLoop;
+import com.mjsamaha.dodger.core.GameLoopTarget;
+import com.mjsamaha.dodger.core.GameStateManager;
+import com.mjsamaha.dodger.core.LoopStrategy;
+import com.mjsamaha.dodger.entities.Player;
+import com.mjsamaha.dodger.rendering.RasterRenderer;
+import com.mjsamaha.dodger.stress.StressConfig;
+import com.mjsamaha.dodger.systems.ObjectSpawner;
+
+/**
+ * Runs every {@link LoopStrategy} against the same headless workload (a stress
+ * simulation ticked by the loop and software-rendered frames) and compares tick
+ * jitter, frame times and process CPU usage.
+ * 
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.LoopStrategyBenchmark [seconds] [entities]
+ */
+public class LoopStrategyBenchmark {
+    
+    private static final String[] STRATEGIES = { "dual", "single", "variable", "virtual" };
+    
+    public static void main(String[] args) throws InterruptedException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int entities = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        com.sun.management.OperatingSystemMXBean os = 
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        
+        System.out.printf("%d s per strategy, %d entities, %d TPS, %d FPS cap, %d cores%n", 
+                seconds, entities, GameConfig.get().getTargetTps(), GameConfig.get().getTargetFps(), 
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-9s %7s %12s %12s %12s %12s %12s %7s%n", "strategy", "ticks", 
+                "tick error", "tick p99", "frame avg", "frame p99", "frame jitter", "CPU");
+        
+        for (String name : STRATEGIES) {
+            Workload workload = new Workload(entities, seconds);
+            GameLoop loop = new GameLoop(workload, LoopStrategy.forName(name));
+            
+            long cpuStart = os.getProcessCpuTime();
+            long wallStart = System.nanoTime();
+            loop.start();
+            Thread.sleep(seconds * 1000L);
+            loop.stop();
+            double cpu = (os.getProcessCpuTime() - cpuStart) / (double) (System.nanoTime() - wallStart);
+            
+            System.out.printf("%-9s %7d %9.3f ms %9.3f ms %9.3f ms %9.3f ms %9.3f ms %6.0f%%%n", name, 
+                    workload.ticks, workload.tickJitterMillis(), workload.tickP99Millis(), 
+                    workload.frameAverageMillis(), workload.frameP99Millis(), 
+                    loop.getPerformanceMonitor().getFrameJitterMillis(), cpu * 100);
+        }
+    }
+    
+    /**
+     * Loop target that records when every tick happens and how long every frame takes.
+     */
+    private static final class Workload implements GameLoopTarget {
+        private final ObjectSpawner spawner = new ObjectSpawner(1);
+        private final GameStateManager state = new GameStateManager();
+        private final RasterRenderer renderer = new RasterRenderer();
+        private final Player player = new Player(Constants.Player.START_X, Constants.Player.START_Y, 
+                Constants.Player.PLAYER_WIDTH, Constants.Player.PLAYER_HEIGHT, 
+                Constants.Player.PLAYER_SPEED, Constants.Player.PLAYER_COLOR);
+        private final int[] pixels = new int[Constants.Window.WINDOW_WIDTH * Constants.Window.WINDOW_HEIGHT];
+        
+        private final long[] tickTimes;
+        private int ticks;
+        private final long[] frameTimes;
+        private int frames;
+        
+        Workload(int entities, int seconds) {
+            spawner.setStressConfig(StressConfig.fromArgs(new String[] { "entities=" + entities }));
+            spawner.prefillStress(Constants.Window.WINDOW_WIDTH, Constants.Window.WINDOW_HEIGHT);
+            tickTimes = new long[(seconds + 2) * 1000];
+            frameTimes = new long[(seconds + 2) * 1000];
+        }
+        
+        @Override
+        public void updateGame(float dt) {
+            if (ticks < tickTimes.length) {
+                tickTimes[ticks++] = System.nanoTime();
+            }
+            spawner.update(dt, Constants.Window.WINDOW_WIDTH, Constants.Window.WINDOW_HEIGHT, state);
+        }
+        
+        @Override
+        public void renderGame(double alpha) {
+            long start = System.nanoTime();
+            renderer.renderInterpolated(pixels, Constants.Window.WINDOW_WIDTH, Constants.Window.WINDOW_HEIGHT, 
+                    player, spawner.getFallingObjects(), alpha, false);
+            if (frames < frameTimes.length) {
+                frameTimes[frames++] = System.nanoTime() - start;
+            }
+        }
+        
+        @Override
+        public GraphicsConfiguration getGraphicsConfiguration() {
+            return null;
+        }
+        
+        // How far each interval between ticks is from the ideal tick period
+        private double[] tickErrorsMillis() {
+            double period = 1e9 / GameConfig.get().getTargetTps();
+            double[] errors = new double[Math.max(0, ticks - 1)];
+            for (int i = 1; i < ticks; i++) {
+                errors[i - 1] = Math.abs((tickTimes[i] - tickTimes[i - 1]) - period) / 1e6;
+            }
+            return errors;
+        }
+        
+        double tickJitterMillis() {
+            double[] errors = tickErrorsMillis();
+            return errors.length == 0 ? 0 : Arrays.stream(errors).average().orElse(0);
+        }
+        
+        double tickP99Millis() {
+            return percentile(tickErrorsMillis(), 0.99);
+        }
+        
+        double frameAverageMillis() {
+            return frames == 0 ? 0 : Arrays.stream(frameTimes, 0, frames).average().orElse(0) / 1e6;
+        }
+        
+        double frameP99Millis() {
+            double[] millis = new double[frames];
+            for (int i = 0; i < frames; i++) {
+                millis[i] = frameTimes[i] / 1e6;
+            }
+            return percentile(millis, 0.99);
+        }
+        
+        private static double percentile(double[] values, double p) {
+            if (values.length == 0) {
+                return 0;
+            }
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+        }
+    }
+}
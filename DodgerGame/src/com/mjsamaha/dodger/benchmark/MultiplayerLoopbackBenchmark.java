@@ -0,0 +1,123 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.net.MultiplayerClient;
+import com.mjsamaha.dodger.net.MultiplayerServer;
+import com.mjsamaha.dodger.net.Protocol;
+
+/**
+ * Runs a multiplayer server and several bot clients over loopback, then reports
+ * bytes per tick, delta compression ratio and per-client input latency.
+ * At the end every client's world is checked against the server's final state.
+ * 
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.MultiplayerLoopbackBenchmark [clients] [seconds]
+ */
+public class MultiplayerLoopbackBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        int clientCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        
+        MultiplayerServer server = new MultiplayerServer(0);
+        server.start();
+        
+        MultiplayerClient[] clients = new MultiplayerClient[clientCount];
+        for (int i = 0; i < clientCount; i++) {
+            clients[i] = new MultiplayerClient();
+            clients[i].connect("127.0.0.1", server.getPort());
+        }
+        
+        // Bots hold a random direction for half a second at a time
+        Random random = new Random(1);
+        int[] inputs = new int[clientCount];
+        long tickNanos = 1_000_000_000L / 60;
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        int tick = 0;
+        
+        while (System.nanoTime() < end) {
+            long start = System.nanoTime();
+            for (int i = 0; i < clientCount; i++) {
+                if (tick % 30 == 0) {
+                    inputs[i] = random.nextInt(16);
+                }
+                clients[i].sendInput(inputs[i]);
+                clients[i].poll();
+            }
+            tick++;
+            
+            long sleep = tickNanos - (System.nanoTime() - start);
+            if (sleep > 0) {
+                Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+            }
+        }
+        
+        server.stop();
+        drain(clients);
+        
+        long ticks = Math.max(1, server.getTicks());
+        System.out.printf("Clients: %d  Ticks: %d  Skipped snapshots: %d%n", 
+                clientCount, server.getTicks(), server.getSkippedSnapshots());
+        System.out.printf("Bytes/tick: %.1f total, %.1f per client (%.1f without delta, %.1fx smaller)%n",
+                server.getBytesSent() / (double) ticks, 
+                server.getBytesSent() / (double) ticks / clientCount,
+                server.getFullSizeBytes() / (double) ticks / clientCount,
+                server.getFullSizeBytes() / (double) Math.max(1, server.getBytesSent()));
+        
+        for (int i = 0; i < clientCount; i++) {
+            long[] latencies = clients[i].getSortedLatencies();
+            System.out.printf("Client %d: %d snapshots, latency ms p50 %.2f  p99 %.2f  max %.2f  world %s%n",
+                    clients[i].getPlayerId(), clients[i].getSnapshotsReceived(),
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0),
+                    verify(clients[i], server));
+            clients[i].close();
+        }
+    }
+    
+    private static void drain(MultiplayerClient[] clients) throws InterruptedException {
+        long deadline = System.nanoTime() + 500_000_000L;
+        while (System.nanoTime() < deadline) {
+            for (MultiplayerClient client : clients) {
+                try {
+                    client.poll();
+                } catch (IOException e) {
+                    // Server closed the connection once everything was sent
+                }
+            }
+            Thread.sleep(5);
+        }
+    }
+    
+    private static String verify(MultiplayerClient client, MultiplayerServer server) {
+        if (client.getTick() != server.getLastTick()) {
+            return "not verified (client at tick " + client.getTick() + ", server at " + server.getLastTick() + ")";
+        }
+        
+        List<FallingObject> expected = server.getFallingObjects();
+        List<FallingObject> actual = client.getFallingObjects();
+        if (expected.size() != actual.size()) {
+            return "MISMATCH: " + actual.size() + " objects, expected " + expected.size();
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            FallingObject e = expected.get(i);
+            FallingObject a = actual.get(i);
+            if (e.getId() != a.getId() 
+                    || Protocol.quantize(e.getX()) != Protocol.quantize(a.getX()) 
+                    || Protocol.quantize(e.getY()) != Protocol.quantize(a.getY())) {
+                return "MISMATCH at object " + e.getId();
+            }
+        }
+        return "matches server (" + expected.size() + " objects)";
+    }
+    
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+}
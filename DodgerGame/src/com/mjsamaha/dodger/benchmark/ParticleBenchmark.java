@@ -0,0 +1,58 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.awt.Color;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.rendering.RasterRenderer;
+import com.mjsamaha.dodger.systems.ParticleSystem;
+
+/**
+ * Keeps a {@link ParticleSystem} saturated with collision bursts, so every tick
+ * recycles particles, and measures update and software draw cost per particle.
+ * 
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.ParticleBenchmark
+ */
+public class ParticleBenchmark {
+    
+    private static final int[] CAPACITIES = { 1_000, 10_000, 32_768, 100_000 };
+    private static final int TICKS = 2_000;
+    private static final float DT = 1f / Constants.GameLoop.TARGET_TPS;
+    
+    public static void main(String[] args) {
+        int width = Constants.Window.WINDOW_WIDTH;
+        int height = Constants.Window.WINDOW_HEIGHT;
+        int[] pixels = new int[width * height];
+        RasterRenderer renderer = new RasterRenderer();
+        
+        System.out.printf("%-10s %10s %16s %16s%n", "capacity", "avg live", "update ns/part", "draw ns/part");
+        
+        for (int capacity : CAPACITIES) {
+            ParticleSystem particles = new ParticleSystem(capacity);
+            // Enough bursts per tick to refill what expires
+            int perTick = Math.max(1, (int) (capacity * DT / Constants.Particles.BURST_LIFETIME * 2));
+            
+            long updateNanos = 0;
+            long drawNanos = 0;
+            long live = 0;
+            for (int tick = 0; tick < TICKS * 2; tick++) {
+                particles.burst(width / 2f, height / 2f, perTick, Color.ORANGE);
+                
+                long start = System.nanoTime();
+                particles.update(DT);
+                long updated = System.nanoTime();
+                renderer.renderParticles(pixels, width, height, particles, 0.5);
+                long drawn = System.nanoTime();
+                
+                // First half is warmup
+                if (tick >= TICKS) {
+                    updateNanos += updated - start;
+                    drawNanos += drawn - updated;
+                    live += particles.getCount();
+                }
+            }
+            
+            System.out.printf("%-10d %10d %16.2f %16.2f%n", capacity, live / TICKS, 
+                    updateNanos / (double) live, drawNanos / (double) live);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.core.AllocationTracker;
+import com.mjsamaha.dodger.core.ManualClock;
+import com.mjsamaha.dodger.perflog.LatencyHistogram;
+import com.mjsamaha.dodger.perflog.PerfLog;
+import com.mjsamaha.dodger.perflog.PerfLogAnalyzer;
+import com.mjsamaha.dodger.perflog.PerfLogWriter;
+import com.mjsamaha.dodger.perflog.SessionRecorder;
+
+/**
+ * End-to-end check of the performance log. Simulates a fleet's worth of play
+ * sessions on a manual clock (two game versions, the newer one with slower frames),
+ * writing them through {@link SessionRecorder} and {@link PerfLogWriter} into one
+ * size-capped directory, then runs {@link PerfLogAnalyzer} over it.
+ *
+ * Fails (status 1) if percentiles are off by more than a bucket, recording
+ * allocates (a byte per call or more on average, after a warmup session) or
+ * drops records, the directory outgrows its cap, the newest session
+ * is incomplete, or the planted regression is not reported.
+ *
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.PerfLogCheck [sessions] [minutes]
+ */
+public class PerfLogCheck {
+    
+    private static final long SEGMENT_BYTES = 16 * 1024;
+    private static final long MAX_BYTES = 1536 * 1024;
+    private static final long FRAME_NANOS = 1_000_000_000L / Constants.GameLoop.TARGET_FPS;
+    
+    public static void main(String[] args) throws IOException {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int minutes = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        
+        boolean ok = checkHistogram();
+        
+        Path directory = Files.createTempDirectory("dodger-perf");
+        try {
+            ok &= writeFleet(directory, sessions, minutes);
+            ok &= analyze(directory, minutes);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+        
+        System.out.println(ok ? "Performance log: ok" : "Performance log: FAILED");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Compares histogram percentiles with exact ones on a long-tailed distribution.
+     */
+    private static boolean checkHistogram() {
+        Random random = new Random(Constants.Stress.DEFAULT_SEED);
+        long[] values = new long[200_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(7 + random.nextGaussian() * 1.5);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        
+        double worst = 0;
+        for (double p : new double[] { 0.5, 0.9, 0.95, 0.99, 0.999, 1.0 }) {
+            long exact = values[Math.max(0, (int) Math.ceil(p * values.length) - 1)];
+            long estimate = histogram.percentile(p);
+            if (estimate < exact) {
+                System.out.printf("Histogram p%s is %d, below the exact %d%n", p * 100, estimate, exact);
+                return false;
+            }
+            worst = Math.max(worst, (estimate - exact) / (double) Math.max(1, exact));
+        }
+        System.out.printf("Histogram: worst percentile error %.2f%%%n", worst * 100);
+        return worst <= 1.0 / 32;
+    }
+    
+    /**
+     * Plays the sessions one after another, an hour apart, half on each version.
+     */
+    private static boolean writeFleet(Path directory, int sessions, int minutes) throws IOException {
+        Random random = new Random(Constants.Stress.DEFAULT_SEED);
+        long baseMillis = System.currentTimeMillis() - sessions * 3_600_000L;
+        long calls = 0;
+        long nanos = 0;
+        long allocated = 0;
+        long dropped = 0;
+        
+        for (int s = 0; s < sessions; s++) {
+            String version = s < sessions / 2 ? "0.1" : "0.2";
+            double slowdown = version.equals("0.1") ? 1.0 : 1.3;
+            PerfLog.Header session = new PerfLog.Header(random.nextLong(), baseMillis + s * 3_600_000L, 0,
+                    version, "dual");
+            PerfLogWriter writer = new PerfLogWriter(directory, SEGMENT_BYTES, MAX_BYTES, 1024, session);
+            ManualClock clock = new ManualClock();
+            SessionRecorder recorder = new SessionRecorder(writer, clock);
+            recorder.setTickBudget(FRAME_NANOS);
+            writer.start();
+            
+            int frames = minutes * 60 * Constants.GameLoop.TARGET_FPS;
+            int score = 0;
+            for (int frame = 0; frame < frames; frame++) {
+                // Frame times jitter around the target; one frame in 600 is a hitch
+                long interval = (long) (FRAME_NANOS * (0.9 + random.nextDouble() * 0.2) * slowdown);
+                if (random.nextInt(600) == 0) {
+                    interval *= 4;
+                }
+                long tick = (long) ((1 + random.nextDouble() * 2) * 1_000_000 * slowdown);
+                clock.advance(interval);
+                if (frame % 60 == 0) {
+                    score++;
+                }
+                
+                long bytes = AllocationTracker.currentThreadBytes();
+                long start = System.nanoTime();
+                recorder.setGameState(PerfLog.PLAYING, score, 20 + frame % 40);
+                recorder.recordTick(tick);
+                recorder.recordFrame(interval, FRAME_NANOS);
+                long elapsed = System.nanoTime() - start;
+                
+                // The first session is warmup. The path itself allocates nothing (-Xint
+                // shows none), but JIT transitions occasionally charge a few hundred bytes.
+                if (s > 0) {
+                    nanos += elapsed;
+                    if (bytes >= 0) {
+                        allocated += AllocationTracker.currentThreadBytes() - bytes;
+                    }
+                    calls++;
+                }
+            }
+            recorder.flush();
+            writer.stop();
+            dropped += writer.getDropped();
+        }
+        
+        long total = 0;
+        int files = 0;
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) listing::iterator) {
+                total += Files.size(file);
+                files++;
+            }
+        }
+        
+        System.out.printf("Recorded %d sessions of %d min: %.0f ns and %.2f bytes per tick+frame (%d total), %d dropped%n",
+                sessions, minutes, nanos / (double) calls, allocated / (double) calls, allocated, dropped);
+        System.out.printf("Directory: %d files, %.0f KB of %d KB allowed%n", files, total / 1024.0, MAX_BYTES / 1024);
+        return dropped == 0 && total <= MAX_BYTES && allocated < calls;
+    }
+    
+    private static boolean analyze(Path directory, int minutes) throws IOException {
+        PerfLogAnalyzer analyzer = new PerfLogAnalyzer();
+        for (Path file : PerfLogAnalyzer.findLogs(List.of(directory))) {
+            analyzer.read(file);
+        }
+        
+        System.out.println();
+        analyzer.printWorstSessions(System.out, PerfLogAnalyzer.Metric.FRAME_P95, 5, 30);
+        System.out.println();
+        List<String> regressions = analyzer.printVersions(System.out, 10);
+        System.out.println();
+        
+        // The newest session must be whole; older ones may have been rolled away
+        PerfLogAnalyzer.Summary newest = analyzer.getSessions().values().stream()
+                .max(Comparator.comparingLong(session -> session.getHeader().getStartMillis())).orElseThrow();
+        boolean complete = newest.getSeconds() >= minutes * 60L;
+        boolean flagged = regressions.stream().anyMatch(line -> line.contains(PerfLogAnalyzer.Metric.FRAME_P95.getLabel()));
+        System.out.printf("Newest session: %d seconds (%s), frame regression %s%n", newest.getSeconds(),
+                complete ? "complete" : "INCOMPLETE", flagged ? "reported" : "MISSED");
+        return complete && flagged;
+    }
+}
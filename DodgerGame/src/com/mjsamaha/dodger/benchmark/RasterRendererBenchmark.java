@@ -0,0 +1,88 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.core.GameStateManager;
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.entities.Player;
+import com.mjsamaha.dodger.rendering.FrameBuffer;
+import com.mjsamaha.dodger.rendering.GameRenderer;
+import com.mjsamaha.dodger.rendering.RasterRenderer;
+import com.mjsamaha.dodger.systems.GameRandom;
+import com.mjsamaha.dodger.systems.SpawnOrderedBuffer;
+
+/**
+ * Compares full-frame render time of the Graphics2D path ({@link GameRenderer})
+ * and the int[] span rasterizer ({@link RasterRenderer}) at native resolution,
+ * and checks that both produce the same pixels.
+ * 
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.RasterRendererBenchmark
+ */
+public class RasterRendererBenchmark {
+    
+    private static final int[] ENTITY_COUNTS = { 100, 1_000, 10_000, 100_000 };
+    
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int width = Constants.Window.WINDOW_WIDTH;
+        int height = Constants.Window.WINDOW_HEIGHT;
+        
+        GameRenderer gameRenderer = new GameRenderer();
+        RasterRenderer rasterRenderer = new RasterRenderer();
+        GameStateManager gameStateManager = new GameStateManager();
+        Player player = new Player(Constants.Player.START_X, Constants.Player.START_Y, 
+                Constants.Player.PLAYER_WIDTH, Constants.Player.PLAYER_HEIGHT, 
+                Constants.Player.PLAYER_SPEED, Constants.Player.PLAYER_COLOR);
+        
+        System.out.printf("%-10s %14s %14s %9s %10s%n", "entities", "Graphics2D ms", "raster ms", "speedup", "identical");
+        
+        for (int count : ENTITY_COUNTS) {
+            SpawnOrderedBuffer objects = createObjects(count, width, height);
+            FrameBuffer java2d = new FrameBuffer(width, height, false);
+            FrameBuffer raster = new FrameBuffer(width, height, false);
+            int frames = Math.max(20, 2_000_000 / count);
+            
+            double java2dMs = time(frames, () -> {
+                Graphics2D g2d = java2d.beginFrame();
+                gameRenderer.renderInterpolated(g2d, player, objects, gameStateManager, width, height, 0.5, null);
+            });
+            
+            double rasterMs = time(frames, () -> {
+                rasterRenderer.renderInterpolated(raster.getBackPixels(), width, height, player, objects, 0.5, false);
+                gameRenderer.renderOverlay(raster.createOverlayGraphics(), gameStateManager, width, height, null);
+            });
+            
+            boolean identical = Arrays.equals(java2d.getBackPixels(), raster.getBackPixels());
+            System.out.printf("%-10d %14.3f %14.3f %8.1fx %10s%n", count, java2dMs, rasterMs, java2dMs / rasterMs, identical);
+        }
+    }
+    
+    private static SpawnOrderedBuffer createObjects(int count, int width, int height) {
+        GameRandom random = new GameRandom(11);
+        SpawnOrderedBuffer objects = new SpawnOrderedBuffer();
+        for (int i = 0; i < count; i++) {
+            int size = Constants.Stress.MIN_SIZE + random.nextInt(Constants.Stress.MAX_SIZE - Constants.Stress.MIN_SIZE + 1);
+            FallingObject obj = new FallingObject(
+                    random.nextInt(width + size) - size, random.nextInt(height + size) - size, size, size, 
+                    Constants.Stress.MIN_SPEED, 
+                    Constants.Objects.OBJECT_COLORS[random.nextInt(Constants.Objects.OBJECT_COLORS.length)]);
+            obj.update(1f / 60);
+            objects.add(obj);
+        }
+        return objects;
+    }
+    
+    // Average milliseconds per frame after a warmup of the same length
+    private static double time(int frames, Runnable frame) {
+        for (int i = 0; i < frames; i++) {
+            frame.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            frame.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / frames;
+    }
+}
@@ -0,0 +1,114 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.core.GameStateManager;
+import com.mjsamaha.dodger.entities.Player;
+import com.mjsamaha.dodger.snapshot.SnapshotRing;
+import com.mjsamaha.dodger.snapshot.WorldSnapshot;
+import com.mjsamaha.dodger.stress.StressConfig;
+import com.mjsamaha.dodger.systems.ObjectSpawner;
+
+/**
+ * Measures snapshot encode (record) and decode (rewind) cost against the tick
+ * budget, and checks that a restored world encodes to the same bytes and then
+ * simulates identically.
+ * 
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.SnapshotBenchmark
+ */
+public class SnapshotBenchmark {
+    
+    private static final int[] OBJECT_COUNTS = { 10, 100, 1_000, 10_000 };
+    private static final int WIDTH = Constants.Window.WINDOW_WIDTH;
+    private static final int HEIGHT = Constants.Window.WINDOW_HEIGHT;
+    private static final float DT = 1.0f / Constants.GameLoop.TARGET_TPS;
+    
+    public static void main(String[] args) {
+        double budgetMicros = 1e6 / Constants.GameLoop.TARGET_TPS;
+        System.out.printf("Tick budget: %.0f us%n", budgetMicros);
+        System.out.printf("%-8s %10s %14s %14s %14s %10s%n", "objects", "bytes", "encode avg us", "encode max us", "decode us", "roundtrip");
+        
+        for (int objects : OBJECT_COUNTS) {
+            ObjectSpawner spawner = createSpawner(objects);
+            Player player = createPlayer();
+            GameStateManager gameStateManager = new GameStateManager();
+            SnapshotRing ring = new SnapshotRing(300, objects * 2);
+            
+            int ticks = 2000;
+            long totalEncode = 0;
+            long maxEncode = 0;
+            for (int tick = 0; tick < ticks; tick++) {
+                spawner.update(DT, WIDTH, HEIGHT, gameStateManager);
+                ring.record(tick, player, spawner, gameStateManager);
+                
+                // First 200 ticks are JIT warmup
+                if (tick >= 200) {
+                    totalEncode += ring.getLastEncodeNanos();
+                    maxEncode = Math.max(maxEncode, ring.getLastEncodeNanos());
+                }
+            }
+            
+            // Decode into fresh objects to include allocation of the restored world
+            long totalDecode = 0;
+            int rewinds = 50;
+            for (int i = 0; i < rewinds; i++) {
+                ring.rewind(1, player, createSpawner(0), gameStateManager);
+                totalDecode += ring.getLastDecodeNanos();
+            }
+            
+            System.out.printf("%-8d %10d %14.1f %14.1f %14.1f %10s%n", objects, 
+                    WorldSnapshot.maxSize(spawner.getFallingObjects().size()),
+                    totalEncode / (double) (ticks - 200) / 1e3, maxEncode / 1e3,
+                    totalDecode / (double) rewinds / 1e3, verifyRoundtrip(objects) ? "ok" : "MISMATCH");
+        }
+    }
+    
+    /**
+     * Snapshot, run 120 ticks, rewind, run the same 120 ticks again: both runs must match.
+     */
+    private static boolean verifyRoundtrip(int objects) {
+        ObjectSpawner spawner = createSpawner(objects);
+        Player player = createPlayer();
+        GameStateManager gameStateManager = new GameStateManager();
+        SnapshotRing ring = new SnapshotRing(2, objects * 2);
+        
+        ring.record(0, player, spawner, gameStateManager);
+        for (int i = 0; i < 120; i++) {
+            spawner.update(DT, WIDTH, HEIGHT, gameStateManager);
+        }
+        byte[] first = encode(player, spawner, gameStateManager);
+        
+        ring.rewind(1, player, spawner, gameStateManager);
+        for (int i = 0; i < 120; i++) {
+            spawner.update(DT, WIDTH, HEIGHT, gameStateManager);
+        }
+        byte[] second = encode(player, spawner, gameStateManager);
+        
+        return Arrays.equals(first, second);
+    }
+    
+    private static byte[] encode(Player player, ObjectSpawner spawner, GameStateManager gameStateManager) {
+        ByteBuffer buffer = ByteBuffer.allocate(WorldSnapshot.maxSize(spawner.getFallingObjects().size()));
+        WorldSnapshot.write(buffer, 0, player, spawner, gameStateManager);
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+    
+    private static ObjectSpawner createSpawner(int objects) {
+        ObjectSpawner spawner = new ObjectSpawner(7);
+        if (objects > 0) {
+            spawner.setStressConfig(StressConfig.fromArgs(new String[] { "entities=" + objects, "pattern=crossfire" }));
+            spawner.prefillStress(WIDTH, HEIGHT);
+        }
+        return spawner;
+    }
+    
+    private static Player createPlayer() {
+        return new Player(Constants.Player.START_X, Constants.Player.START_Y, 
+                Constants.Player.PLAYER_WIDTH, Constants.Player.PLAYER_HEIGHT, 
+                Constants.Player.PLAYER_SPEED, Constants.Player.PLAYER_COLOR);
+    }
+}
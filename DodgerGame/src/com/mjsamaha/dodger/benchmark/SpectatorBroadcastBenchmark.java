@@ -0,0 +1,160 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.core.GameStateManager;
+import com.mjsamaha.dodger.entities.Player;
+import com.mjsamaha.dodger.net.SpectatorService;
+import com.mjsamaha.dodger.stress.StressConfig;
+import com.mjsamaha.dodger.systems.ObjectSpawner;
+
+/**
+ * Publishes a live stress simulation to hundreds of loopback spectators, some of
+ * which never read, and reports how long publishing takes on the game thread,
+ * how many frames reached the readers and how slow spectators were handled.
+ * 
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.SpectatorBroadcastBenchmark [fast] [slow] [seconds] [entities]
+ */
+public class SpectatorBroadcastBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        int fastCount = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int slowCount = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int entities = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        
+        SpectatorService service = new SpectatorService(0);
+        service.start();
+        
+        Reader reader = new Reader(fastCount, service.getPort());
+        Thread readerThread = new Thread(reader, "Spectator-Readers");
+        readerThread.setDaemon(true);
+        readerThread.start();
+        
+        // Slow spectators: tiny receive buffers and never read
+        SocketChannel[] slow = new SocketChannel[slowCount];
+        for (int i = 0; i < slowCount; i++) {
+            slow[i] = SocketChannel.open();
+            slow[i].setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+            slow[i].connect(new InetSocketAddress("127.0.0.1", service.getPort()));
+        }
+        
+        ObjectSpawner spawner = new ObjectSpawner();
+        spawner.setStressConfig(StressConfig.fromArgs(new String[] { "entities=" + entities }));
+        spawner.prefillStress(Constants.Window.WINDOW_WIDTH, Constants.Window.WINDOW_HEIGHT);
+        GameStateManager gameStateManager = new GameStateManager();
+        Player player = new Player(Constants.Player.START_X, Constants.Player.START_Y, 
+                Constants.Player.PLAYER_WIDTH, Constants.Player.PLAYER_HEIGHT, 
+                Constants.Player.PLAYER_SPEED, Constants.Player.PLAYER_COLOR);
+        
+        Thread.sleep(500); // Let connections settle
+        
+        int ticks = seconds * Constants.GameLoop.TARGET_TPS;
+        long[] publishNanos = new long[ticks];
+        long tickNanos = 1_000_000_000L / Constants.GameLoop.TARGET_TPS;
+        float dt = 1.0f / Constants.GameLoop.TARGET_TPS;
+        
+        for (int tick = 0; tick < ticks; tick++) {
+            long start = System.nanoTime();
+            spawner.update(dt, Constants.Window.WINDOW_WIDTH, Constants.Window.WINDOW_HEIGHT, gameStateManager);
+            
+            long publishStart = System.nanoTime();
+            service.publish(tick, player, spawner.getFallingObjects(), gameStateManager);
+            publishNanos[tick] = System.nanoTime() - publishStart;
+            
+            long sleep = tickNanos - (System.nanoTime() - start);
+            if (sleep > 0) {
+                Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+            }
+        }
+        
+        Thread.sleep(500);
+        reader.running = false;
+        
+        Arrays.sort(publishNanos);
+        System.out.printf("Spectators: %d fast, %d slow  Entities: %d  Ticks: %d%n", fastCount, slowCount, entities, ticks);
+        System.out.printf("Publish on game thread us: p50 %.1f  p99 %.1f  max %.1f%n",
+                publishNanos[ticks / 2] / 1e3, publishNanos[(int) (ticks * 0.99)] / 1e3, publishNanos[ticks - 1] / 1e3);
+        System.out.printf("Frames published: %d  dropped at publish: %d  skipped by busy spectators: %d%n",
+                service.getFramesPublished(), service.getFramesDroppedAtPublish(), service.getFramesSkipped());
+        System.out.printf("Fast spectators received %.1f frames on average (%.1f MB total)%n",
+                reader.frames / (double) fastCount, reader.bytes / 1048576.0);
+        System.out.printf("Slow spectators disconnected: %d of %d  Still connected: %d%n",
+                service.getSlowDisconnects(), slowCount, service.getSpectatorCount());
+        
+        for (SocketChannel channel : slow) {
+            channel.close();
+        }
+        service.stop();
+    }
+    
+    /**
+     * Reads every fast spectator connection on one thread and counts whole frames.
+     */
+    private static final class Reader implements Runnable {
+        private final Selector selector;
+        private volatile boolean running = true;
+        private volatile long frames;
+        private volatile long bytes;
+        
+        Reader(int count, int port) throws IOException {
+            selector = Selector.open();
+            for (int i = 0; i < count; i++) {
+                SocketChannel channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", port));
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, new long[] { 0 }); // Bytes left in current frame
+            }
+        }
+        
+        @Override
+        public void run() {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+            ByteBuffer header = ByteBuffer.allocate(4);
+            try {
+                while (running) {
+                    selector.select(100);
+                    for (SelectionKey key : selector.selectedKeys()) {
+                        SocketChannel channel = (SocketChannel) key.channel();
+                        long[] remaining = (long[]) key.attachment();
+                        buffer.clear();
+                        int read = channel.read(buffer);
+                        if (read <= 0) {
+                            continue;
+                        }
+                        bytes += read;
+                        
+                        // Walk frame boundaries: remaining[0] counts bytes of the current frame still due
+                        buffer.flip();
+                        while (buffer.hasRemaining()) {
+                            if (remaining[0] > 0) {
+                                int skip = (int) Math.min(remaining[0], buffer.remaining());
+                                buffer.position(buffer.position() + skip);
+                                remaining[0] -= skip;
+                                if (remaining[0] == 0) {
+                                    frames++;
+                                }
+                            } else {
+                                header.put(buffer.get());
+                                if (!header.hasRemaining()) {
+                                    remaining[0] = header.flip().getInt();
+                                    header.clear();
+                                }
+                            }
+                        }
+                    }
+                    selector.selectedKeys().clear();
+                }
+            } catch (IOException e) {
+                System.err.println("Reader error: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.mjsamaha.dodger.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.entities.Player;
+import com.mjsamaha.dodger.rendering.RasterRenderer;
+import com.mjsamaha.dodger.rendering.TiledRasterRenderer;
+import com.mjsamaha.dodger.systems.GameRandom;
+import com.mjsamaha.dodger.systems.SpawnOrderedBuffer;
+
+/**
+ * Measures {@link TiledRasterRenderer} frame time against thread count and checks
+ * every frame is identical to the single-threaded {@link RasterRenderer}.
+ * 
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.benchmark.TiledRasterBenchmark [width height]
+ */
+public class TiledRasterBenchmark {
+    
+    private static final int[] ENTITY_COUNTS = { 1_000, 10_000, 100_000 };
+    
+    public static void main(String[] args) {
+        int width = args.length > 1 ? Integer.parseInt(args[0]) : 1920;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 1080;
+        int cores = Runtime.getRuntime().availableProcessors();
+        
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+        
+        Player player = new Player(Constants.Player.START_X, Constants.Player.START_Y, 
+                Constants.Player.PLAYER_WIDTH, Constants.Player.PLAYER_HEIGHT, 
+                Constants.Player.PLAYER_SPEED, Constants.Player.PLAYER_COLOR);
+        int[] expected = new int[width * height];
+        int[] pixels = new int[width * height];
+        
+        System.out.printf("%dx%d framebuffer, %d cores%n", width, height, cores);
+        System.out.printf("%-10s %8s %12s %9s %10s%n", "entities", "threads", "ms/frame", "speedup", "identical");
+        
+        for (int count : ENTITY_COUNTS) {
+            SpawnOrderedBuffer objects = createObjects(count);
+            int frames = Math.max(20, 1_000_000 / count);
+            
+            RasterRenderer single = new RasterRenderer();
+            single.renderInterpolated(expected, width, height, player, objects, 0.5, false);
+            double baseline = time(frames, () -> single.renderInterpolated(expected, width, height, player, objects, 0.5, false));
+            System.out.printf("%-10d %8s %12.3f %9s %10s%n", count, "single", baseline, "1.0x", "-");
+            
+            for (int threads : threadCounts) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                TiledRasterRenderer tiled = new TiledRasterRenderer(pool);
+                double ms = time(frames, () -> tiled.renderInterpolated(pixels, width, height, player, objects, 0.5, false));
+                boolean identical = Arrays.equals(expected, pixels);
+                pool.shutdown();
+                
+                System.out.printf("%-10d %8d %12.3f %8.1fx %10s%n", count, threads, ms, baseline / ms, identical);
+            }
+        }
+    }
+    
+    private static SpawnOrderedBuffer createObjects(int count) {
+        int width = Constants.Window.WINDOW_WIDTH;
+        int height = Constants.Window.WINDOW_HEIGHT;
+        GameRandom random = new GameRandom(11);
+        SpawnOrderedBuffer objects = new SpawnOrderedBuffer();
+        for (int i = 0; i < count; i++) {
+            int size = Constants.Stress.MIN_SIZE + random.nextInt(Constants.Stress.MAX_SIZE - Constants.Stress.MIN_SIZE + 1);
+            FallingObject obj = new FallingObject(
+                    random.nextInt(width + size) - size, random.nextInt(height + size) - size, size, size, 
+                    Constants.Stress.MIN_SPEED, 
+                    Constants.Objects.OBJECT_COLORS[random.nextInt(Constants.Objects.OBJECT_COLORS.length)]);
+            obj.update(1f / 60);
+            objects.add(obj);
+        }
+        return objects;
+    }
+    
+    // Average milliseconds per frame after a warmup of the same length
+    private static double time(int frames, Runnable frame) {
+        for (int i = 0; i < frames; i++) {
+            frame.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            frame.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / frames;
+    }
+}
@@ -0,0 +1,109 @@
+package com.mjsamaha.dodger.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+/**
+ * Watches the config file and applies its hot-reloadable values while the game runs.
+ * 
+ * The file's directory is watched, so creating, editing or replacing the file all
+ * trigger a reload. The command-line overrides are applied again on top so they
+ * keep winning. A file that fails to parse is reported and ignored. Nothing is
+ * watched when the directory doesn't exist.
+ */
+public class ConfigWatcher {
+    
+    // Editors often write a file in several steps; wait for them to finish
+    private static final long SETTLE_MILLIS = 100;
+    
+    private final Path file;
+    private final List<String> overrides;
+    
+    private WatchService watchService;
+    private Thread thread;
+    
+    public ConfigWatcher(Path file, List<String> overrides) {
+        this.file = file.toAbsolutePath();
+        this.overrides = List.copyOf(overrides);
+    }
+    
+    public void start() throws IOException {
+        Path directory = file.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            System.err.println("Not watching " + file + " for changes: its directory does not exist");
+            return;
+        }
+        
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, 
+                StandardWatchEventKinds.ENTRY_CREATE, 
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        
+        thread = new Thread(this::watch, "Config-Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    public void stop() {
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing config watcher: " + e.getMessage());
+        }
+    }
+    
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (file.getFileName().equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                
+                if (changed) {
+                    Thread.sleep(SETTLE_MILLIS);
+                    
+                    // One reload covers everything that happened while settling
+                    WatchKey pending;
+                    while ((pending = watchService.poll()) != null) {
+                        pending.pollEvents();
+                        pending.reset();
+                    }
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+    
+    private void reload() {
+        try {
+            GameConfig active = GameConfig.get();
+            GameConfig reloaded = GameConfig.load(file, overrides);
+            
+            List<String> restartRequired = active.restartRequiredChanges(reloaded);
+            if (!restartRequired.isEmpty()) {
+                System.err.println("Config changes need a restart: " + restartRequired);
+            }
+            
+            GameConfig.set(active.withHotValuesFrom(reloaded));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Ignoring invalid config " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.mjsamaha.dodger.config;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.core.LoopStrategy;
+import com.mjsamaha.dodger.core.ScaledClock;
+
+/**
+ * Typed runtime settings, defaulting to {@link Constants}.
+ * 
+ * Values are layered, later sources winning: the defaults, a properties file
+ * ({@link Constants.Config#FILE} or {@code --config path}), {@code -Ddodger.<key>}
+ * system properties and {@code key=value} command-line arguments. Unknown keys
+ * and malformed values are rejected.
+ * 
+ * The active config is held in {@link #get()} and replaced as a whole, so readers
+ * always see a consistent set. {@link ConfigWatcher} reloads the file while the
+ * game runs, but only the {@link #HOT_KEYS} take effect; the rest are read once at
+ * startup and need a restart.
+ */
+public class GameConfig {
+    
+    /**
+     * Keys that can change while the game is running.
+     */
+    public static final Set<String> HOT_KEYS = Set.of(
+        "fps", "vsync", "maxFrameTime", "debug", "timeScale", 
+        "initialSpawnInterval", "minSpawnInterval", "difficultyRate", "objectSpeed"
+    );
+    
+    private static volatile GameConfig current = new GameConfig();
+    
+    // Source values by key, kept to compare configs and to merge hot values
+    private final Properties values = new Properties();
+    
+    // Loop timing
+    private int targetTps = Constants.GameLoop.TARGET_TPS;
+    private int targetFps = Constants.GameLoop.TARGET_FPS;
+    private boolean vsyncEnabled = Constants.GameLoop.VSYNC_ENABLED;
+    private float maxFrameTime = Constants.GameLoop.MAX_FRAME_TIME;
+    private boolean showDebugInfo = Constants.GameLoop.SHOW_DEBUG_INFO;
+    private String loopStrategy = Constants.GameLoop.LOOP_STRATEGY;
+    private double timeScale = 1.0;
+    private boolean perfLog = Constants.PerfLog.ENABLED;
+    
+    // Difficulty
+    private float initialSpawnInterval = Constants.Objects.INITIAL_SPAWN_INTERVAL;
+    private float minSpawnInterval = Constants.Objects.MIN_SPAWN_INTERVAL;
+    private float difficultyRate = Constants.Objects.DIFFICULTY_INCREASE_RATE;
+    private float objectSpeed = Constants.Objects.OBJECT_SPEED;
+    private String levelFile = "";
+    
+    // Rendering
+    private int renderWidth = Constants.Window.RENDER_WIDTH;
+    private int renderHeight = Constants.Window.RENDER_HEIGHT;
+    private boolean nativeResolution;
+    private boolean renderBilinear = Constants.Window.RENDER_BILINEAR;
+    private boolean rasterRenderer = Constants.Window.RASTER_RENDERER;
+    private int rasterThreads = Constants.Window.RASTER_THREADS;
+    private int starLayers = Constants.Starfield.LAYERS;
+    private float starDensity = Constants.Starfield.DENSITY;
+    
+    /**
+     * Returns the active config.
+     */
+    public static GameConfig get() {
+        return current;
+    }
+    
+    /**
+     * Makes the given config active. Readers pick it up on their next {@link #get()}.
+     */
+    public static void set(GameConfig config) {
+        current = Objects.requireNonNull(config);
+    }
+    
+    /**
+     * Builds a config from every source. A missing file is skipped.
+     * @param overrides {@code key=value} arguments, applied last
+     */
+    public static GameConfig load(Path file, List<String> overrides) throws IOException {
+        GameConfig config = new GameConfig();
+        
+        if (file != null && Files.isRegularFile(file)) {
+            Properties fileValues = new Properties();
+            try (Reader reader = Files.newBufferedReader(file)) {
+                fileValues.load(reader);
+            }
+            for (String key : fileValues.stringPropertyNames()) {
+                config.set(key, fileValues.getProperty(key));
+            }
+        }
+        
+        for (String property : System.getProperties().stringPropertyNames()) {
+            if (property.startsWith("dodger.")) {
+                config.set(property.substring("dodger.".length()), System.getProperty(property));
+            }
+        }
+        
+        for (String arg : overrides) {
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            config.set(arg.substring(0, split).trim(), arg.substring(split + 1).trim());
+        }
+        
+        return config;
+    }
+    
+    private void set(String key, String value) {
+        value = value.trim();
+        try {
+            switch (key) {
+                case "tps" -> targetTps = positive(Integer.parseInt(value), key);
+                case "fps" -> targetFps = positive(Integer.parseInt(value), key);
+                case "vsync" -> vsyncEnabled = Boolean.parseBoolean(value);
+                case "maxFrameTime" -> maxFrameTime = positive(Float.parseFloat(value), key);
+                case "debug" -> showDebugInfo = Boolean.parseBoolean(value);
+                case "loop" -> loopStrategy = LoopStrategy.forName(value).getName();
+                case "timeScale" -> timeScale = timeScale(Double.parseDouble(value));
+                case "perfLog" -> perfLog = Boolean.parseBoolean(value);
+                case "initialSpawnInterval" -> initialSpawnInterval = positive(Float.parseFloat(value), key);
+                case "minSpawnInterval" -> minSpawnInterval = positive(Float.parseFloat(value), key);
+                case "difficultyRate" -> difficultyRate = Float.parseFloat(value);
+                case "objectSpeed" -> objectSpeed = positive(Float.parseFloat(value), key);
+                case "level" -> levelFile = value;
+                case "resolution" -> setResolution(value);
+                case "filter" -> renderBilinear = value.equalsIgnoreCase("bilinear");
+                case "renderer" -> rasterRenderer = value.equalsIgnoreCase("raster");
+                case "rasterThreads" -> rasterThreads = Integer.parseInt(value);
+                case "starLayers" -> starLayers = Math.max(0, Integer.parseInt(value));
+                case "starDensity" -> starDensity = Math.max(0, Float.parseFloat(value));
+                default -> throw new IllegalArgumentException("Unknown config key: " + key);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+        }
+        values.setProperty(key, value);
+    }
+    
+    // "native" or WIDTHxHEIGHT
+    private void setResolution(String value) {
+        nativeResolution = value.equalsIgnoreCase("native");
+        if (nativeResolution) {
+            // Until the panel knows its device size
+            renderWidth = Constants.Window.WINDOW_WIDTH;
+            renderHeight = Constants.Window.WINDOW_HEIGHT;
+            return;
+        }
+        
+        String[] parts = value.toLowerCase().split("x");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid value for resolution: " + value);
+        }
+        renderWidth = positive(Integer.parseInt(parts[0].trim()), "resolution");
+        renderHeight = positive(Integer.parseInt(parts[1].trim()), "resolution");
+    }
+    
+    private static double timeScale(double value) {
+        if (!(value >= ScaledClock.MIN_SCALE && value <= ScaledClock.MAX_SCALE)) {
+            throw new IllegalArgumentException("timeScale must be between " + ScaledClock.MIN_SCALE + " and " + ScaledClock.MAX_SCALE);
+        }
+        return value;
+    }
+    
+    private static int positive(int value, String key) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(key + " must be positive");
+        }
+        return value;
+    }
+    
+    private static float positive(float value, String key) {
+        if (!(value > 0)) {
+            throw new IllegalArgumentException(key + " must be positive");
+        }
+        return value;
+    }
+    
+    /**
+     * Returns a config with this config's startup values and the hot values of {@code newer}.
+     */
+    public GameConfig withHotValuesFrom(GameConfig newer) {
+        GameConfig merged = new GameConfig();
+        for (String key : values.stringPropertyNames()) {
+            if (!HOT_KEYS.contains(key)) {
+                merged.set(key, values.getProperty(key));
+            }
+        }
+        for (String key : newer.values.stringPropertyNames()) {
+            if (HOT_KEYS.contains(key)) {
+                merged.set(key, newer.values.getProperty(key));
+            }
+        }
+        return merged;
+    }
+    
+    /**
+     * Returns the startup-only keys whose value differs in {@code newer}.
+     */
+    public List<String> restartRequiredChanges(GameConfig newer) {
+        List<String> changed = new ArrayList<>();
+        for (String key : union(values, newer.values)) {
+            if (!HOT_KEYS.contains(key) && !Objects.equals(values.getProperty(key), newer.values.getProperty(key))) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+    
+    private static Set<String> union(Properties a, Properties b) {
+        Set<String> keys = new TreeSet<>(a.stringPropertyNames());
+        keys.addAll(b.stringPropertyNames());
+        return keys;
+    }
+    
+    public int getTargetTps() {
+        return targetTps;
+    }
+    
+    public int getTargetFps() {
+        return targetFps;
+    }
+    
+    public boolean isVsyncEnabled() {
+        return vsyncEnabled;
+    }
+    
+    public float getMaxFrameTime() {
+        return maxFrameTime;
+    }
+    
+    public boolean isShowDebugInfo() {
+        return showDebugInfo;
+    }
+    
+    public String getLoopStrategy() {
+        return loopStrategy;
+    }
+    
+    /**
+     * Speed of simulation time relative to wall time (0.25 to 100).
+     */
+    public double getTimeScale() {
+        return timeScale;
+    }
+    
+    /**
+     * Whether to keep a performance log of the session, see {@link Constants.PerfLog}.
+     */
+    public boolean isPerfLogEnabled() {
+        return perfLog;
+    }
+    
+    public float getInitialSpawnInterval() {
+        return initialSpawnInterval;
+    }
+    
+    public float getMinSpawnInterval() {
+        return minSpawnInterval;
+    }
+    
+    public float getDifficultyRate() {
+        return difficultyRate;
+    }
+    
+    public float getObjectSpeed() {
+        return objectSpeed;
+    }
+    
+    /**
+     * Level file to play instead of random spawning, or empty for none.
+     */
+    public String getLevelFile() {
+        return levelFile;
+    }
+    
+    public int getRenderWidth() {
+        return renderWidth;
+    }
+    
+    public int getRenderHeight() {
+        return renderHeight;
+    }
+    
+    /**
+     * Returns whether the framebuffer should match the device pixels it is shown on
+     * (the panel's letterboxed area times the HiDPI scale) instead of a fixed size.
+     * The render size is then only the initial one.
+     */
+    public boolean isNativeResolution() {
+        return nativeResolution;
+    }
+    
+    public boolean isRenderBilinear() {
+        return renderBilinear;
+    }
+    
+    public boolean isRasterRenderer() {
+        return rasterRenderer;
+    }
+    
+    public int getRasterThreads() {
+        return rasterThreads;
+    }
+    
+    public int getStarLayers() {
+        return starLayers;
+    }
+    
+    public float getStarDensity() {
+        return starDensity;
+    }
+}
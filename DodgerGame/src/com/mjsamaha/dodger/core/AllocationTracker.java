@@ -0,0 +1,43 @@
+package com.mjsamaha.dodger.core;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Bytes allocated by the current thread, from the HotSpot thread MXBean.
+ * 
+ * Reading the counter does not allocate itself, so wrapping a block of code in two
+ * reads measures exactly what that block allocated. On JVMs without the counter,
+ * and on virtual threads, {@link #currentThreadBytes()} returns -1.
+ */
+public final class AllocationTracker {
+    
+    private static final ThreadMXBean THREADS = threadBean();
+    
+    private AllocationTracker() {
+    }
+    
+    private static ThreadMXBean threadBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        
+        if (!threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        return threads;
+    }
+    
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+    
+    /**
+     * Total bytes the current thread has allocated so far, or -1 if unknown.
+     */
+    public static long currentThreadBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+}
@@ -0,0 +1,77 @@
+package com.mjsamaha.dodger.core;
+
+/**
+ * Separate platform threads for updates and rendering. The update thread runs
+ * fixed-timestep ticks from an accumulator and polls every 0.1 ms; the render
+ * thread draws interpolated frames paced by the {@link FramePacer}.
+ */
+public class DualThreadLoop implements LoopStrategy {
+    
+    private Thread updateThread;
+    private Thread renderThread;
+    
+    @Override
+    public void start(GameLoop loop) {
+        // Start update thread
+        updateThread = new Thread(() -> updateLoop(loop), "Update-Thread");
+        updateThread.setDaemon(false);
+        updateThread.start();
+        
+        // Start render thread
+        renderThread = new Thread(() -> renderLoop(loop), "Render-Thread");
+        renderThread.setDaemon(false);
+        renderThread.start();
+    }
+    
+    /**
+     * Update loop - runs at fixed TPS (Ticks Per Second).
+     * Handles all game logic with fixed timestep for deterministic updates.
+     */
+    private void updateLoop(GameLoop loop) {
+        double tickDuration = loop.getTickDuration();
+        double accumulator = 0.0;
+        long lastUpdateTime = loop.getStartTime();
+        
+        while (loop.isRunning()) {
+            long currentTime = loop.now();
+            double frameTime = loop.clampFrameTime((currentTime - lastUpdateTime) / 1_000_000_000.0);
+            lastUpdateTime = currentTime;
+            
+            accumulator += frameTime;
+            
+            // Fixed timestep updates
+            while (accumulator >= tickDuration) {
+                loop.tick((float) tickDuration);
+                accumulator -= tickDuration;
+            }
+            
+            // Calculate interpolation factor for smooth rendering
+            loop.setAlpha(accumulator / tickDuration);
+            
+            // Sleep briefly to prevent CPU hogging
+            loop.sleepUntil(System.nanoTime() + 100_000, true); // 0.1ms
+        }
+    }
+    
+    private void renderLoop(GameLoop loop) {
+        while (loop.isRunning()) {
+            long targetInterval = loop.renderFrame();
+            loop.sleepUntil(loop.nextFrameDeadline(targetInterval), true);
+        }
+    }
+    
+    @Override
+    public void join() throws InterruptedException {
+        if (updateThread != null) {
+            updateThread.join(1000);
+        }
+        if (renderThread != null) {
+            renderThread.join(1000);
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "dual";
+    }
+}
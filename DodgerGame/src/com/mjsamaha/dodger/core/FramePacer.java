@@ -0,0 +1,67 @@
+package com.mjsamaha.dodger.core;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsConfiguration;
+
+import com.mjsamaha.dodger.config.GameConfig;
+
+/**
+ * Decides when the render loop starts its next frame.
+ * 
+ * With vsync on, frames are paced at the refresh rate of the display the window is
+ * on (from {@code GraphicsDevice.getDisplayMode()}), falling back to the FPS cap
+ * when the rate is unknown; with vsync off, at the FPS cap. Deadlines advance on a
+ * fixed grid instead of "now + interval", so an occasional late frame does not
+ * shift every following one. The panel calls {@code Toolkit.sync()} after each
+ * present so a frame is flushed to the display as soon as it is drawn.
+ */
+public class FramePacer {
+    
+    private int refreshRate;  // Hz, 0 when unknown
+    private long nextDeadline;
+    
+    /**
+     * Reads the refresh rate of the display showing the given configuration.
+     * Cheap enough to call periodically, so moving the window to another monitor is picked up.
+     */
+    public void detectRefreshRate(GraphicsConfiguration config) {
+        if (config == null) {
+            return;
+        }
+        
+        DisplayMode mode = config.getDevice().getDisplayMode();
+        int rate = mode != null ? mode.getRefreshRate() : DisplayMode.REFRESH_RATE_UNKNOWN;
+        refreshRate = rate == DisplayMode.REFRESH_RATE_UNKNOWN ? 0 : rate;
+    }
+    
+    /**
+     * Target time between frame starts for the given config, in nanoseconds.
+     */
+    public long getTargetInterval(GameConfig config) {
+        if (config.isVsyncEnabled() && refreshRate > 0) {
+            return 1_000_000_000L / refreshRate;
+        }
+        return 1_000_000_000L / config.getTargetFps();
+    }
+    
+    /**
+     * Returns when the next frame should start, given the current time.
+     * If the loop has fallen more than a frame behind, the grid restarts from now
+     * rather than rushing out frames to catch up.
+     */
+    public long nextFrameDeadline(long now, long interval) {
+        nextDeadline += interval;
+        if (nextDeadline < now - interval || nextDeadline > now + interval) {
+            nextDeadline = now + interval;
+        }
+        return nextDeadline;
+    }
+    
+    public void reset(long now) {
+        nextDeadline = now;
+    }
+    
+    public int getRefreshRate() {
+        return refreshRate;
+    }
+}
@@ -0,0 +1,208 @@
+package com.mjsamaha.dodger.core;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+import com.mjsamaha.dodger.Constants;
+
+/**
+ * Rolling history of how long recent ticks and frames took, for the profiling overlay.
+ * 
+ * Each tick is split into {@link Phase phases} by marking the end of each one; time
+ * not claimed by a phase counts as {@link Phase#UPDATE}. Samples go into preallocated
+ * ring buffers, so recording never allocates. Garbage collections are detected by
+ * polling the collector beans once per frame and flag the frame they were seen in.
+ * 
+ * Ticks are recorded by the update thread while it holds the loop's update lock and
+ * frames by the render thread, so the renderer can read both while drawing.
+ */
+public class FrameProfiler {
+    
+    public enum Phase {
+        INPUT, UPDATE, COLLISION, RENDER
+    }
+    
+    // Phases a tick is split into; RENDER is measured per frame
+    public static final int TICK_PHASES = Phase.RENDER.ordinal();
+    
+    private final int history;
+    
+    // Tick ring: nanoseconds per phase, indexed [phase][slot]
+    private final long[][] tickPhases;
+    private final long[] currentTick;
+    private int tickIndex;
+    private int tickSamples;
+    private long phaseStart;
+    private long tickBudget;
+    
+    // Frame ring
+    private final long[] renderTimes;
+    private final long[] frameBudgets;
+    private final boolean[] gcFrames;
+    private int frameIndex;
+    private int frameSamples;
+    
+    private final GarbageCollectorMXBean[] collectors;
+    private long gcCount;
+    private long gcMillis;
+    
+    private int entityCount;
+    
+    public FrameProfiler() {
+        this(Constants.Profiler.HISTORY);
+    }
+    
+    public FrameProfiler(int history) {
+        this.history = history;
+        this.tickPhases = new long[TICK_PHASES][history];
+        this.currentTick = new long[TICK_PHASES];
+        this.renderTimes = new long[history];
+        this.frameBudgets = new long[history];
+        this.gcFrames = new boolean[history];
+        this.collectors = ManagementFactory.getGarbageCollectorMXBeans().toArray(new GarbageCollectorMXBean[0]);
+        pollCollectors();
+    }
+    
+    /**
+     * Starts timing a tick; its first phase starts now.
+     */
+    public void beginTick() {
+        for (int i = 0; i < TICK_PHASES; i++) {
+            currentTick[i] = 0;
+        }
+        phaseStart = System.nanoTime();
+    }
+    
+    /**
+     * Charges the time since the previous mark to a phase. A phase can be marked
+     * several times in one tick and its times add up.
+     */
+    public void endPhase(Phase phase) {
+        long now = System.nanoTime();
+        currentTick[phase.ordinal()] += now - phaseStart;
+        phaseStart = now;
+    }
+    
+    /**
+     * Finishes the tick, charging any unmarked time to {@link Phase#UPDATE}.
+     */
+    public void endTick() {
+        endPhase(Phase.UPDATE);
+        for (int i = 0; i < TICK_PHASES; i++) {
+            tickPhases[i][tickIndex] = currentTick[i];
+        }
+        tickIndex = (tickIndex + 1) % history;
+        if (tickSamples < history) {
+            tickSamples++;
+        }
+    }
+    
+    /**
+     * Records one frame's render time against its deadline and looks for collections
+     * that happened since the previous frame.
+     */
+    public void recordFrame(long renderNanos, long budgetNanos) {
+        renderTimes[frameIndex] = renderNanos;
+        frameBudgets[frameIndex] = budgetNanos;
+        gcFrames[frameIndex] = pollCollectors();
+        frameIndex = (frameIndex + 1) % history;
+        if (frameSamples < history) {
+            frameSamples++;
+        }
+    }
+    
+    /**
+     * Updates the collection totals.
+     * @return True if a collection finished since the last poll
+     */
+    private boolean pollCollectors() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        boolean collected = count > gcCount;
+        gcCount = count;
+        gcMillis = millis;
+        return collected;
+    }
+    
+    public void reset() {
+        tickIndex = 0;
+        tickSamples = 0;
+        frameIndex = 0;
+        frameSamples = 0;
+    }
+    
+    public int getHistory() {
+        return history;
+    }
+    
+    public int getTickSamples() {
+        return tickSamples;
+    }
+    
+    /**
+     * Time a recorded tick spent in a phase.
+     * @param sample 0 for the oldest sample held, {@code getTickSamples() - 1} for the newest
+     */
+    public long getTickNanos(int sample, Phase phase) {
+        return tickPhases[phase.ordinal()][(tickIndex - tickSamples + sample + history) % history];
+    }
+    
+    public int getFrameSamples() {
+        return frameSamples;
+    }
+    
+    /**
+     * Render time of a recorded frame, oldest first like {@link #getTickNanos}.
+     */
+    public long getRenderNanos(int sample) {
+        return renderTimes[(frameIndex - frameSamples + sample + history) % history];
+    }
+    
+    /**
+     * Returns true if a garbage collection was seen right after this frame.
+     */
+    public boolean isGcFrame(int sample) {
+        return gcFrames[(frameIndex - frameSamples + sample + history) % history];
+    }
+    
+    /**
+     * Deadline of the newest frame, in nanoseconds.
+     */
+    public long getFrameBudget() {
+        return frameSamples == 0 ? 0 : frameBudgets[(frameIndex - 1 + history) % history];
+    }
+    
+    public long getTickBudget() {
+        return tickBudget;
+    }
+    
+    public void setTickBudget(long tickBudget) {
+        this.tickBudget = tickBudget;
+    }
+    
+    /**
+     * Collections since the JVM started, across all collectors.
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+    
+    /**
+     * Total time spent in collections since the JVM started, in milliseconds.
+     */
+    public long getGcMillis() {
+        return gcMillis;
+    }
+    
+    public int getEntityCount() {
+        return entityCount;
+    }
+    
+    public void setEntityCount(int entityCount) {
+        this.entityCount = entityCount;
+    }
+}
@@ -0,0 +1,30 @@
+package com.mjsamaha.dodger.core;
+
+/**
+ * Source of time for the game loop and performance monitor, so simulations can
+ * run on something other than the wall clock.
+ * 
+ * @see SystemClock
+ * @see ManualClock
+ * @see ScaledClock
+ */
+public interface GameClock {
+    
+    /**
+     * Current time in nanoseconds. Only differences between values are meaningful.
+     */
+    long nanoTime();
+    
+    /**
+     * Real nanoseconds that pass while this clock advances by {@code clockNanos},
+     * or -1 if it never advances on its own.
+     */
+    long toRealNanos(long clockNanos);
+    
+    /**
+     * The wall clock ({@code System.nanoTime()}).
+     */
+    static GameClock system() {
+        return SystemClock.INSTANCE;
+    }
+}
@@ -1,33 +1,76 @@
 package com.mjsamaha.dodger.core;
 
-import com.mjsamaha.dodger.Constants;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.mjsamaha.dodger.config.GameConfig;
+import com.mjsamaha.dodger.perflog.SessionRecorder;
 
 /**
- * Advanced game loop implementation with separate update and render threads.
- * Uses fixed timestep for updates and frame interpolation for smooth rendering.
+ * Advanced game loop with fixed timestep updates and frame interpolation.
+ * 
+ * Which threads run the ticks and frames is decided by a {@link LoopStrategy}
+ * (two platform threads by default); this class provides the shared steps they
+ * are built from and the state the renderer reads.
  */
 public class GameLoop {
     
-    private GamePanel gamePanel;
-    private PerformanceMonitor perfMonitor;
+    private final GameLoopTarget target;
+    private final LoopStrategy strategy;
+    private final PerformanceMonitor perfMonitor;
+    private final FramePacer framePacer;
+    private final FrameProfiler profiler;
+    private SessionRecorder sessionRecorder; // Null unless the session is logged
+    
+    // Simulation time, also used for the FPS/TPS and frame interval stats so they
+    // are in the game's time under fast-forward or a manual clock. Frame pacing,
+    // the profiler and the session log stay on the wall clock because they are
+    // about the display and the machine, not the game.
+    private final GameClock clock;
+    private final ScaledClock configuredClock; // Follows the timeScale config key, null if injected
+    private long startTime;
     
     private volatile boolean running;
-    private Thread updateThread;
-    private Thread renderThread;
     
-    // Timing constants
-    private final double TICK_DURATION = 1.0 / Constants.GameLoop.TARGET_TPS;
-    private final double FRAME_DURATION = 1.0 / Constants.GameLoop.TARGET_FPS;
+    // Tick rate is fixed for the life of the loop; frame cap and vsync are
+    // read from GameConfig every frame so they can be hot reloaded
+    private double tickDuration;
     
     // Interpolation factor for smooth rendering
     private volatile double alpha = 0.0;
     
-    // Thread synchronization
-    private final Object updateLock = new Object();
+    // Updates and renders never overlap. A ReentrantLock rather than a monitor so
+    // virtual threads waiting for it don't pin their carrier.
+    private final ReentrantLock updateLock = new ReentrantLock();
+    
+    // Only touched by the thread that renders
+    private long lastFrameStart;
+    private long lastFrameClock;
+    private long lastRefreshCheck;
+    
+    public GameLoop(GameLoopTarget target) {
+        this(target, LoopStrategy.forName(GameConfig.get().getLoopStrategy()));
+    }
+    
+    public GameLoop(GameLoopTarget target, LoopStrategy strategy) {
+        this(target, strategy, new ScaledClock(GameClock.system(), GameConfig.get().getTimeScale()), true);
+    }
+    
+    /**
+     * Creates a loop on the given clock, e.g. a {@link ManualClock} for a deterministic run.
+     */
+    public GameLoop(GameLoopTarget target, LoopStrategy strategy, GameClock clock) {
+        this(target, strategy, clock, false);
+    }
     
-    public GameLoop(GamePanel gamePanel) {
-        this.gamePanel = gamePanel;
-        this.perfMonitor = new PerformanceMonitor();
+    private GameLoop(GameLoopTarget target, LoopStrategy strategy, GameClock clock, boolean followConfig) {
+        this.target = target;
+        this.strategy = strategy;
+        this.clock = clock;
+        this.configuredClock = followConfig ? (ScaledClock) clock : null;
+        this.perfMonitor = new PerformanceMonitor(clock);
+        this.framePacer = new FramePacer();
+        this.profiler = new FrameProfiler();
         this.running = false;
     }
     
@@ -40,17 +83,21 @@ public class GameLoop {
         }
         
         running = true;
+        tickDuration = 1.0 / GameConfig.get().getTargetTps();
         perfMonitor.reset();
+        profiler.reset();
+        profiler.setTickBudget(Math.round(tickDuration * 1_000_000_000L));
+        if (sessionRecorder != null) {
+            sessionRecorder.setTickBudget(profiler.getTickBudget());
+        }
+        startTime = now();
         
-        // Start update thread
-        updateThread = new Thread(this::updateLoop, "Update-Thread");
-        updateThread.setDaemon(false);
-        updateThread.start();
+        lastFrameStart = System.nanoTime();
+        lastFrameClock = startTime;
+        lastRefreshCheck = 0;
+        framePacer.reset(lastFrameStart);
         
-        // Start render thread
-        renderThread = new Thread(this::renderLoop, "Render-Thread");
-        renderThread.setDaemon(false);
-        renderThread.start();
+        strategy.start(this);
     }
     
     /**
@@ -60,12 +107,7 @@ public class GameLoop {
         running = false;
         
         try {
-            if (updateThread != null) {
-                updateThread.join(1000);
-            }
-            if (renderThread != null) {
-                renderThread.join(1000);
-            }
+            strategy.join();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             System.err.println("Game loop shutdown interrupted: " + e.getMessage());
@@ -73,82 +115,155 @@ public class GameLoop {
     }
     
     /**
-     * Update loop - runs at fixed TPS (Ticks Per Second).
-     * Handles all game logic with fixed timestep for deterministic updates.
+     * Runs one update of the given length and counts it as a tick.
      */
-    private void updateLoop() {
-        double accumulator = 0.0;
-        long lastUpdateTime = System.nanoTime();
-        
-        while (running) {
-            long currentTime = System.nanoTime();
-            double frameTime = (currentTime - lastUpdateTime) / 1_000_000_000.0;
-            lastUpdateTime = currentTime;
-            
-            // Prevent spiral of death - cap frame time
-            if (frameTime > Constants.GameLoop.MAX_FRAME_TIME) {
-                frameTime = Constants.GameLoop.MAX_FRAME_TIME;
-            }
-            
-            accumulator += frameTime;
-            
-            // Fixed timestep updates
-            while (accumulator >= TICK_DURATION) {
-                synchronized (updateLock) {
-                    gamePanel.updateGame((float) TICK_DURATION);
-                }
-                
-                accumulator -= TICK_DURATION;
-                perfMonitor.recordTick();
+    void tick(float dt) {
+        long allocated = AllocationTracker.currentThreadBytes();
+        updateLock.lock();
+        try {
+            long start = System.nanoTime();
+            profiler.beginTick();
+            target.updateGame(dt);
+            profiler.endTick();
+            if (sessionRecorder != null) {
+                sessionRecorder.recordTick(System.nanoTime() - start);
             }
-            
-            // Calculate interpolation factor for smooth rendering
-            alpha = accumulator / TICK_DURATION;
-            
-            // Sleep briefly to prevent CPU hogging
-            sleepNanos(100_000); // 0.1ms
+        } finally {
+            updateLock.unlock();
+        }
+        if (allocated >= 0) {
+            perfMonitor.recordTickAllocation(AllocationTracker.currentThreadBytes() - allocated);
         }
+        perfMonitor.recordTick();
     }
     
     /**
-     * Render loop - runs at target FPS with smooth frame limiting.
-     * Only handles rendering, uses interpolation for smooth visuals.
+     * Renders one frame and records its timing.
+     * @return Target interval until the next frame, in nanoseconds
      */
-    private void renderLoop() {
-        long lastFrameTime = System.nanoTime();
+    long renderFrame() {
+        long frameStartTime = System.nanoTime();
         
-        while (running) {
-            long frameStartTime = System.nanoTime();
-            
-            // Render the frame
-            synchronized (updateLock) {
-                gamePanel.renderGame(alpha);
-            }
-            
-            perfMonitor.recordFrame();
-            
-            // Frame limiting with high-precision timing
-            if (!Constants.GameLoop.VSYNC_ENABLED) {
-                long frameTime = System.nanoTime() - frameStartTime;
-                long targetFrameTime = (long) (FRAME_DURATION * 1_000_000_000);
-                long sleepTime = targetFrameTime - frameTime;
-                
-                if (sleepTime > 0) {
-                    sleepNanos(sleepTime);
-                }
+        // Look for display changes about once a second
+        if (frameStartTime - lastRefreshCheck > 1_000_000_000L) {
+            framePacer.detectRefreshRate(target.getGraphicsConfiguration());
+            perfMonitor.setRefreshRate(framePacer.getRefreshRate());
+            lastRefreshCheck = frameStartTime;
+        }
+        
+        long targetInterval = framePacer.getTargetInterval(GameConfig.get());
+        long interval = frameStartTime - lastFrameStart;
+        lastFrameStart = frameStartTime;
+        long frameClock = clock.nanoTime();
+        perfMonitor.recordFrameInterval(frameClock - lastFrameClock, toClockNanos(targetInterval));
+        lastFrameClock = frameClock;
+        
+        // Render the frame
+        long allocated = AllocationTracker.currentThreadBytes();
+        updateLock.lock();
+        try {
+            if (sessionRecorder != null) {
+                sessionRecorder.recordFrame(interval, targetInterval);
             }
-            
-            lastFrameTime = System.nanoTime();
+            target.renderGame(alpha);
+        } finally {
+            updateLock.unlock();
+        }
+        if (allocated >= 0) {
+            perfMonitor.recordFrameAllocation(AllocationTracker.currentThreadBytes() - allocated);
+        }
+        
+        profiler.recordFrame(System.nanoTime() - frameStartTime, targetInterval);
+        perfMonitor.recordFrame();
+        return targetInterval;
+    }
+    
+    /**
+     * Converts a wall clock duration to the simulation clock. A manual clock has no
+     * rate, so durations are taken as they are.
+     */
+    private long toClockNanos(long realNanos) {
+        long realPerSecond = clock.toRealNanos(1_000_000_000L);
+        return realPerSecond <= 0 ? realNanos : Math.round(realNanos * (1_000_000_000.0 / realPerSecond));
+    }
+    
+    /**
+     * Next slot on the frame grid, see {@link FramePacer#nextFrameDeadline}.
+     */
+    long nextFrameDeadline(long targetInterval) {
+        return framePacer.nextFrameDeadline(System.nanoTime(), targetInterval);
+    }
+    
+    /**
+     * Current simulation time in nanoseconds. Picks up a changed timeScale.
+     */
+    long now() {
+        if (configuredClock != null) {
+            configuredClock.setScale(GameConfig.get().getTimeScale());
         }
+        return clock.nanoTime();
     }
     
     /**
-     * High-precision sleep using a combination of Thread.sleep and busy-waiting.
-     * More accurate than Thread.sleep alone, especially for short durations.
+     * Caps a measured frame time (in simulation seconds) to prevent a spiral of death.
+     * The cap grows with fast-forward so it only trims real hitches, and a clock that
+     * is stepped by hand (manual) is never capped: every step it takes is deliberate.
      */
-    private void sleepNanos(long nanos) {
-        long start = System.nanoTime();
-        long end = start + nanos;
+    double clampFrameTime(double seconds) {
+        if (clock.toRealNanos(1) < 0) {
+            return seconds;
+        }
+        double scale = clock instanceof ScaledClock scaled ? Math.max(1.0, scaled.getScale()) : 1.0;
+        return Math.min(seconds, GameConfig.get().getMaxFrameTime() * scale);
+    }
+    
+    /**
+     * Simulation time when {@link #start()} was called. Strategies measure their first
+     * tick from here so clock steps taken right after starting are not lost.
+     */
+    long getStartTime() {
+        return startTime;
+    }
+    
+    double getTickDuration() {
+        return tickDuration;
+    }
+    
+    void setAlpha(double alpha) {
+        this.alpha = Math.max(0.0, Math.min(1.0, alpha));
+    }
+    
+    /**
+     * Waits until the simulation clock reaches the given {@link #now()} deadline.
+     * A clock that doesn't advance on its own (manual) is re-checked after a millisecond.
+     */
+    void sleepUntilClock(long deadline, boolean precise) {
+        long remaining = deadline - now();
+        if (remaining <= 0) {
+            return;
+        }
+        
+        long realNanos = clock.toRealNanos(remaining);
+        sleepUntil(System.nanoTime() + (realNanos < 0 ? 1_000_000 : realNanos), precise);
+    }
+    
+    /**
+     * Waits until the given {@code System.nanoTime()} deadline.
+     * 
+     * Precise waits sleep for most of the time and busy-wait the last millisecond,
+     * which is more accurate than Thread.sleep alone. Imprecise waits only park,
+     * which is what virtual threads should do.
+     */
+    void sleepUntil(long deadline, boolean precise) {
+        long nanos = deadline - System.nanoTime();
+        if (nanos <= 0) {
+            return;
+        }
+        
+        if (!precise) {
+            LockSupport.parkNanos(nanos);
+            return;
+        }
         
         // Use Thread.sleep for most of the time (not very precise)
         if (nanos > 2_000_000) { // 2ms
@@ -160,7 +275,7 @@ public class GameLoop {
         }
         
         // Busy-wait for the remaining time (very precise)
-        while (System.nanoTime() < end) {
+        while (System.nanoTime() < deadline) {
             Thread.onSpinWait(); // Java 9+ hint for busy-waiting
         }
     }
@@ -172,6 +287,36 @@ public class GameLoop {
         return perfMonitor;
     }
     
+    /**
+     * Returns the per-phase tick and frame timings drawn by the profiling overlay.
+     */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+    
+    /**
+     * Logs the loop's tick and frame times for the whole session. Must be called before {@link #start()}.
+     */
+    public void setSessionRecorder(SessionRecorder sessionRecorder) {
+        this.sessionRecorder = sessionRecorder;
+    }
+    
+    public SessionRecorder getSessionRecorder() {
+        return sessionRecorder;
+    }
+    
+    public FramePacer getFramePacer() {
+        return framePacer;
+    }
+    
+    public LoopStrategy getStrategy() {
+        return strategy;
+    }
+    
+    public GameClock getClock() {
+        return clock;
+    }
+    
     /**
      * Returns the current interpolation factor (0.0 to 1.0).
      * Used for smooth rendering between update ticks.
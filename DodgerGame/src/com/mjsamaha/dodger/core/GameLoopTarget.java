@@ -0,0 +1,26 @@
+package com.mjsamaha.dodger.core;
+
+import java.awt.GraphicsConfiguration;
+
+/**
+ * What a {@link GameLoop} drives: the game panel, or a headless stand-in for benchmarks.
+ */
+public interface GameLoopTarget {
+    
+    /**
+     * Advances the game by one step.
+     * @param dt Step length in seconds
+     */
+    void updateGame(float dt);
+    
+    /**
+     * Draws a frame.
+     * @param alpha Interpolation factor between the last two ticks
+     */
+    void renderGame(double alpha);
+    
+    /**
+     * Display the output is shown on, or null when unknown or headless.
+     */
+    GraphicsConfiguration getGraphicsConfiguration();
+}
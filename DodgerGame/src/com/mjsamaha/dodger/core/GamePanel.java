@@ -4,20 +4,51 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Toolkit;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.geom.AffineTransform;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.swing.JPanel;
 
 import com.mjsamaha.dodger.Constants;
 import com.mjsamaha.dodger.audio.AudioManager;
+import com.mjsamaha.dodger.audio.SoundEvents;
+import com.mjsamaha.dodger.config.GameConfig;
 import com.mjsamaha.dodger.entities.Player;
+import com.mjsamaha.dodger.events.GameEventBus;
+import com.mjsamaha.dodger.events.GameEventType;
 import com.mjsamaha.dodger.input.InputHandler;
+import com.mjsamaha.dodger.leaderboard.Leaderboard;
+import com.mjsamaha.dodger.level.LevelFile;
+import com.mjsamaha.dodger.level.LevelStreamer;
+import com.mjsamaha.dodger.net.MultiplayerClient;
+import com.mjsamaha.dodger.net.SpectatorService;
+import com.mjsamaha.dodger.perflog.PerfLog;
+import com.mjsamaha.dodger.perflog.PerfLogWriter;
+import com.mjsamaha.dodger.perflog.SessionRecorder;
+import com.mjsamaha.dodger.rendering.FrameBuffer;
 import com.mjsamaha.dodger.rendering.GameRenderer;
+import com.mjsamaha.dodger.rendering.ProfilerOverlay;
+import com.mjsamaha.dodger.rendering.RasterRenderer;
+import com.mjsamaha.dodger.rendering.Starfield;
+import com.mjsamaha.dodger.snapshot.SnapshotRing;
 import com.mjsamaha.dodger.systems.CollisionDetector;
 import com.mjsamaha.dodger.systems.ObjectSpawner;
+import com.mjsamaha.dodger.systems.ParticleSystem;
 
-public class GamePanel extends JPanel {
+public class GamePanel extends JPanel implements GameLoopTarget {
+    
+    // A window being dragged resizes many times a second; only reallocate once it stops
+    private static final long RESIZE_SETTLE_NANOS = 100_000_000L;
     
     private GameLoop gameLoop;
+    private FrameProfiler profiler;
+    private SessionRecorder sessionRecorder; // Null if the performance log is off
     
     // Core game components
     private Player player;
@@ -25,11 +56,42 @@ public class GamePanel extends JPanel {
     private InputHandler inputHandler;
     private ObjectSpawner objectSpawner;
     private GameRenderer gameRenderer;
+    private volatile FrameBuffer frameBuffer; // Replaced on resize with resolution=native
+    // Device pixel size asked for with resolution=native, as width << 32 | height, and when
+    private volatile long nativeSize;
+    private volatile long nativeSizeTime;
+    // Held while drawing into the framebuffer; a ReentrantLock so a virtual loop thread doesn't pin its carrier
+    private final ReentrantLock renderLock = new ReentrantLock();
+    private RasterRenderer rasterRenderer;
+    private ParticleSystem particleSystem;
+    private Starfield starfield;
     private AudioManager audioManager;
+    private Leaderboard leaderboard;
+    
+    // Reactions to what happened in a tick, dispatched once at its end
+    private GameEventBus eventBus;
+    
+    // Recent snapshots for the rewind key
+    private SnapshotRing rewindBuffer;
+    private int simulationTick;
+    
+    // Set when playing on a multiplayer server instead of the local simulation
+    private volatile MultiplayerClient multiplayerClient;
+    
+    // Optional broadcast of the local game to spectators
+    private SpectatorService spectatorService;
+    private int spectatorTick;
     
     public GamePanel() {
+        this(LoopStrategy.forName(GameConfig.get().getLoopStrategy()));
+    }
+    
+    /**
+     * Creates the panel with the given loop threading, e.g. a {@link SteppedLoop} to drive it headless.
+     */
+    public GamePanel(LoopStrategy loopStrategy) {
         setPreferredSize(new Dimension(Constants.Window.WINDOW_WIDTH, Constants.Window.WINDOW_HEIGHT));
-        setBackground(Color.BLACK);
+        setBackground(Color.BLACK); // Letterbox bars around the framebuffer
         setFocusable(true);
         
         // Initialize game components
@@ -37,14 +99,43 @@ public class GamePanel extends JPanel {
         inputHandler = new InputHandler(gameStateManager);
         objectSpawner = new ObjectSpawner();
         gameRenderer = new GameRenderer();
+        GameConfig config = GameConfig.get();
+        frameBuffer = FrameBuffer.fromConfig(config);
+        rasterRenderer = RasterRenderer.create(config);
+        particleSystem = new ParticleSystem();
+        starfield = Starfield.fromConfig(config);
+        rasterRenderer.setClearBackground(starfield.getLayerCount() == 0);
+        gameRenderer.setParticleSystem(particleSystem);
+        loadLevel(config);
         audioManager = new AudioManager();
+        leaderboard = new Leaderboard();
+        rewindBuffer = new SnapshotRing(rewindTicks(), Constants.Snapshot.MAX_OBJECTS);
+        gameRenderer.setLeaderboard(leaderboard);
+        if (config.isNativeResolution()) {
+            addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentResized(ComponentEvent e) {
+                    requestNativeSize();
+                }
+            });
+            // Moving the window to a screen with another scale
+            addPropertyChangeListener("graphicsConfiguration", e -> requestNativeSize());
+        }
         
         initializeAudio();
+        initializeEvents();
         
         addKeyListener(inputHandler);
         
-        // Create game loop with separate update/render threads
-        gameLoop = new GameLoop(this);
+        // Create game loop; the strategy decides its threads
+        gameLoop = new GameLoop(this, loopStrategy);
+        profiler = gameLoop.getProfiler();
+        gameRenderer.setProfilerOverlay(new ProfilerOverlay(profiler));
+        if (config.isPerfLogEnabled()) {
+            PerfLogWriter writer = PerfLogWriter.forGame(gameLoop.getStrategy().getName());
+            sessionRecorder = new SessionRecorder(writer, GameClock.system());
+            gameLoop.setSessionRecorder(sessionRecorder);
+        }
         
         player = new Player(
             Constants.Player.START_X, 
@@ -56,21 +147,80 @@ public class GamePanel extends JPanel {
         );
     }
     
+    /**
+     * Plays the configured level file, if any, instead of random spawning.
+     */
+    private void loadLevel(GameConfig config) {
+        if (config.getLevelFile().isEmpty()) {
+            return;
+        }
+        try {
+            LevelFile level = LevelFile.open(Path.of(config.getLevelFile()));
+            LevelStreamer streamer = new LevelStreamer(level, Constants.Window.WINDOW_HEIGHT);
+            objectSpawner.setLevel(streamer);
+            gameRenderer.setLevel(streamer);
+        } catch (IOException e) {
+            System.err.println("Failed to load level, spawning at random: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Asks for a framebuffer sized to the device pixels it is presented on: the
+     * letterboxed area of the panel times the display's HiDPI scale. Runs on the EDT;
+     * the next frame rendered after the size has settled reallocates it.
+     */
+    private void requestNativeSize() {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc == null || getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        
+        AffineTransform deviceTransform = gc.getDefaultTransform();
+        double scale = Math.min(getWidth() / (double) Constants.Window.WINDOW_WIDTH, 
+                getHeight() / (double) Constants.Window.WINDOW_HEIGHT);
+        int width = Math.max(1, (int) Math.round(Constants.Window.WINDOW_WIDTH * scale * deviceTransform.getScaleX()));
+        int height = Math.max(1, (int) Math.round(Constants.Window.WINDOW_HEIGHT * scale * deviceTransform.getScaleY()));
+        nativeSizeTime = System.nanoTime();
+        nativeSize = (long) width << 32 | height;
+    }
+    
     private void initializeAudio() {
     	audioManager.loadBackgroundMusic(Constants.Audio.BG_MUSIC);
     	
-    	audioManager.loadSoundEffect("collision", Constants.Audio.SFX_COLLISION);
+    	audioManager.loadSoundEffect(SoundEvents.COLLISION, Constants.Audio.SFX_COLLISION);
     	
-    	audioManager.loadSoundEffect("score", Constants.Audio.SCORE_SOUND);
+    	audioManager.loadSoundEffect(SoundEvents.SCORE, Constants.Audio.SCORE_SOUND);
     	
     	audioManager.setMusicVolume(Constants.Audio.DEFAULT_MUSIC_VOL);
     	
     	audioManager.setSfxVolume(Constants.Audio.DEFAULT_SFX_VOL);
     	
-    	
+    	System.out.printf("Audio loaded in %.1f ms (%d of %d clips from cache)%n",
+    			audioManager.getLoadMillis(), audioManager.getClipsFromCache(), audioManager.getClipsLoaded());
+        
+        
+    }
+    
+    /**
+     * Subscribes the audio, particle, leaderboard and rewind subsystems to the tick's events.
+     */
+    private void initializeEvents() {
+        eventBus = new GameEventBus();
+        eventBus.subscribe(new SoundEvents(audioManager), 
+                GameEventType.SCORE, GameEventType.COLLISION, GameEventType.GAME_OVER, GameEventType.RESTART, 
+                GameEventType.REWIND);
+        eventBus.subscribe(particleSystem, GameEventType.DESPAWN, GameEventType.COLLISION, GameEventType.RESTART, 
+                GameEventType.REWIND);
+        eventBus.subscribe(leaderboard, GameEventType.GAME_OVER, GameEventType.RESTART);
+        eventBus.subscribe(rewindBuffer, GameEventType.RESTART);
+        objectSpawner.setEventBus(eventBus);
     }
     
     public void startGame() {
+        leaderboard.start();
+        if (sessionRecorder != null) {
+            sessionRecorder.getWriter().start();
+        }
         gameLoop.start();
         audioManager.playBackgroundMusic();
         requestFocusInWindow();
@@ -81,60 +231,229 @@ public class GamePanel extends JPanel {
      * @param dt Delta time (fixed timestep)
      */
     public void updateGame(float dt) {
+        starfield.update(dt);
+        
+        if (multiplayerClient != null) {
+            updateMultiplayer();
+            if (sessionRecorder != null && multiplayerClient != null) {
+                sessionRecorder.setGameState(PerfLog.MULTIPLAYER, multiplayerClient.getScore(), 
+                        multiplayerClient.getFallingObjects().size());
+            }
+            return;
+        }
+        
+        updateLocalGame(dt);
+        eventBus.dispatch();
+        
+        if (spectatorService != null) {
+            spectatorService.publish(spectatorTick++, player, objectSpawner.getFallingObjects(), gameStateManager);
+        }
+        if (sessionRecorder != null) {
+            sessionRecorder.setGameState(gameStateManager.isGameOver() ? PerfLog.GAME_OVER : PerfLog.PLAYING, 
+                    gameStateManager.getScore(), objectSpawner.getFallingObjects().size());
+        }
+    }
+    
+    private void updateLocalGame(float dt) {
         // Check for restart request
         if (gameStateManager.isRestartRequested()) {
             restartGame();
             return;
         }
         
+        if (gameStateManager.consumeRewindRequest()) {
+            rewind();
+            return;
+        }
+        
+        // Effects keep playing out on the game over screen
+        particleSystem.update(dt);
+        
         if (gameStateManager.isGameOver()) {
             return; // Don't update if game is over
         }
         
         // Handle player movement
+        profiler.endPhase(FrameProfiler.Phase.UPDATE);
         inputHandler.handlePlayerMovement(player, dt);
-        player.keepWithinBounds(getWidth(), getHeight());
-        
-        int previousScore = gameStateManager.getScore();
+        player.keepWithinBounds(Constants.Window.WINDOW_WIDTH, Constants.Window.WINDOW_HEIGHT);
+        profiler.endPhase(FrameProfiler.Phase.INPUT);
         
         // Update falling objects and spawning
-        objectSpawner.update(dt, getWidth(), getHeight(), gameStateManager);
+        objectSpawner.update(dt, Constants.Window.WINDOW_WIDTH, Constants.Window.WINDOW_HEIGHT, gameStateManager);
         
-        if (gameStateManager.getScore() > previousScore) {
-        	audioManager.playSoundEffect("score");
+        // Check collisions
+        profiler.endPhase(FrameProfiler.Phase.UPDATE);
+        boolean collided = CollisionDetector.checkCollisions(player, objectSpawner.getFallingObjects());
+        profiler.endPhase(FrameProfiler.Phase.COLLISION);
+        profiler.setEntityCount(objectSpawner.getFallingObjects().size());
+        
+        if (collided) {
+            gameStateManager.setGameOver(true);
+            eventBus.publish(GameEventType.COLLISION, -1, player.getX() + player.getWidth() * 0.5f, 
+                    player.getY() + player.getHeight() * 0.5f, 0, player.getPlayerColor());
+            eventBus.publish(GameEventType.GAME_OVER, gameStateManager.getScore());
+        } else if (objectSpawner.getLevel() != null && objectSpawner.getLevel().isFinished()) {
+            // Survived every hazard in the level file
+            gameStateManager.completeLevel();
+            eventBus.publish(GameEventType.GAME_OVER, gameStateManager.getScore());
         }
         
-        // Check collisions
-        if (CollisionDetector.checkCollisions(player, objectSpawner.getFallingObjects())) {
+        simulationTick++;
+        rewindBuffer.record(simulationTick, player, objectSpawner, gameStateManager);
+    }
+    
+    /**
+     * Restores the game to {@link Constants.Snapshot#REWIND_SECONDS} ago, or the oldest
+     * snapshot held if the game is younger than that.
+     */
+    private void rewind() {
+        boolean wasGameOver = gameStateManager.isGameOver();
+        int tick = rewindBuffer.rewind(rewindTicks(), player, objectSpawner, gameStateManager);
+        if (tick < 0) {
+            return;
+        }
+        
+        simulationTick = tick;
+        inputHandler.reset();
+        eventBus.publish(GameEventType.REWIND, wasGameOver && !gameStateManager.isGameOver() ? 1 : 0);
+    }
+    
+    private static int rewindTicks() {
+        return Math.round(Constants.Snapshot.REWIND_SECONDS * GameConfig.get().getTargetTps());
+    }
+    
+    /**
+     * Sends this tick's input to the server and applies any snapshots that arrived.
+     */
+    private void updateMultiplayer() {
+        try {
+            multiplayerClient.sendInput(inputHandler.getInputBits());
+            multiplayerClient.poll();
+        } catch (IOException e) {
+            System.err.println("Lost connection to server: " + e.getMessage());
+            multiplayerClient.close();
+            multiplayerClient = null;
             gameStateManager.setGameOver(true);
-            audioManager.playSoundEffect("collision");
-            audioManager.stopBackgroundMusic();
         }
     }
     
     /**
-     * Renders the game. Called by GameLoop at target FPS.
+     * Switches this panel to a multiplayer client. Must be called before {@link #startGame()}.
+     */
+    public void setMultiplayerClient(MultiplayerClient multiplayerClient) {
+        this.multiplayerClient = multiplayerClient;
+    }
+    
+    /**
+     * Broadcasts every tick of the local game. Must be called before {@link #startGame()}.
+     */
+    public void setSpectatorService(SpectatorService spectatorService) {
+        this.spectatorService = spectatorService;
+    }
+    
+    /**
+     * Renders the game into the framebuffer. Called by GameLoop at target FPS.
      * @param alpha Interpolation factor for smooth rendering
      */
     public void renderGame(double alpha) {
+        renderFrame();
         repaint();
     }
     
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
+    /**
+     * Draws one frame into the framebuffer in logical coordinates and publishes it.
+     */
+    private void renderFrame() {
+        renderLock.lock();
+        try {
+            FrameBuffer target = frameBuffer;
+            long size = nativeSize;
+            if (size != 0 && size != ((long) target.getWidth() << 32 | target.getHeight()) 
+                    && System.nanoTime() - nativeSizeTime >= RESIZE_SETTLE_NANOS) {
+                // Drawn into before it replaces the old one, so the EDT never presents an empty buffer
+                target = new FrameBuffer((int) (size >>> 32), (int) size, target.isBilinear(), target.isRaster());
+            }
+            drawFrame(target);
+            frameBuffer = target;
+        } finally {
+            renderLock.unlock();
+        }
+    }
+    
+    private void drawFrame(FrameBuffer target) {
+        int width = Constants.Window.WINDOW_WIDTH;
+        int height = Constants.Window.WINDOW_HEIGHT;
+        
+        if (target.isRaster() && multiplayerClient == null && gameLoop != null && gameLoop.isRunning()) {
+            renderRasterFrame(target, width, height);
+            return;
+        }
+        
+        // The framebuffer owns its graphics contexts, so they are not disposed here
+        Graphics2D g2d = target.beginFrame();
+        drawBackground(g2d);
         
-        // Use interpolated rendering for smooth visuals
-        if (gameLoop != null && gameLoop.isRunning()) {
+        MultiplayerClient client = multiplayerClient;
+        if (client != null) {
+            gameRenderer.renderMultiplayer(g2d, client, width, height);
+        } else if (gameLoop != null && gameLoop.isRunning()) {
+            // Use interpolated rendering for smooth visuals
             gameRenderer.renderInterpolated(g2d, player, objectSpawner.getFallingObjects(), 
-                    gameStateManager, getWidth(), getHeight(), 
+                    gameStateManager, width, height, 
                     gameLoop.getAlpha(), gameLoop.getPerformanceMonitor());
         } else {
             // Fallback for initial rendering before game loop starts
             gameRenderer.render(g2d, player, objectSpawner.getFallingObjects(), 
-                    gameStateManager, getWidth(), getHeight());
+                    gameStateManager, width, height);
         }
+        target.swap();
+    }
+    
+    private void drawBackground(Graphics2D g2d) {
+        long start = System.nanoTime();
+        starfield.draw(g2d, gameLoop != null && gameLoop.isRunning() ? gameLoop.getAlpha() : 1.0);
+        if (gameLoop != null) {
+            gameLoop.getPerformanceMonitor().recordBackgroundTime(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Software path: the world goes straight into the framebuffer pixels, then text on top.
+     */
+    private void renderRasterFrame(FrameBuffer target, int width, int height) {
+        if (starfield.getLayerCount() > 0) {
+            drawBackground(target.beginFrame());
+        }
+        
+        rasterRenderer.renderInterpolated(target.getBackPixels(), 
+                target.getWidth(), target.getHeight(), 
+                player, objectSpawner.getFallingObjects(), 
+                gameLoop.getAlpha(), gameStateManager.isGameOver());
+        rasterRenderer.renderParticles(target.getBackPixels(), 
+                target.getWidth(), target.getHeight(), 
+                particleSystem, gameLoop.getAlpha());
+        
+        gameRenderer.renderOverlay(target.createOverlayGraphics(), gameStateManager, 
+                width, height, gameLoop.getPerformanceMonitor());
+        target.swap();
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        
+        // Before the loop starts nothing else draws; once it runs only its render
+        // thread does, as the EDT would race the update
+        if (!frameBuffer.hasFrame() && (gameLoop == null || !gameLoop.isRunning())) {
+            renderFrame();
+        }
+        
+        // Only a scaled blit happens on the EDT
+        frameBuffer.present((Graphics2D) g, getWidth(), getHeight());
+        
+        // Flush the pipeline so the frame is shown now rather than on the next batch
+        Toolkit.getDefaultToolkit().sync();
     }
     
     private void restartGame() {
@@ -147,19 +466,41 @@ public class GamePanel extends JPanel {
         gameStateManager.reset();
         inputHandler.reset();
         objectSpawner.reset();
+        simulationTick = 0;
         
         // Reset performance monitor
         if (gameLoop != null) {
             gameLoop.getPerformanceMonitor().reset();
         }
         
-        audioManager.playBackgroundMusic();
+        // Particles, rewind history and music follow at the end of the tick
+        eventBus.publish(GameEventType.RESTART, 0);
+    }
+    
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
+    
+    public GameStateManager getGameStateManager() {
+        return gameStateManager;
     }
     
     public void cleanup() {
         if (gameLoop != null) {
             gameLoop.stop();
         }
+        if (sessionRecorder != null) {
+            sessionRecorder.flush();
+            sessionRecorder.getWriter().stop();
+        }
+        leaderboard.stop();
+        if (multiplayerClient != null) {
+            multiplayerClient.close();
+        }
+        if (spectatorService != null) {
+            spectatorService.stop();
+        }
+        rasterRenderer.close();
     	audioManager.cleanup();
     }
 }
\ No newline at end of file
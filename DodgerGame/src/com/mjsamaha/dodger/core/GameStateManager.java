@@ -4,22 +4,44 @@ public class GameStateManager {
 	
 	private boolean gameOver;
 	
+	// Set along with gameOver when the game ended by reaching the end of the level
+	private boolean levelComplete;
+	
 	private int score;
 	
 	private boolean restartRequested;
 	
+	private boolean rewindRequested;
+	
+	// Not part of the game, so reset() leaves it alone
+	private boolean profilerVisible;
+	
 	public GameStateManager() {
 		this.gameOver = false;
 		this.score = 0;
 		this.restartRequested = false;
+		this.rewindRequested = false;
 	}
 	
 	public void incrementScore() {
 		score++;
 	}
 	
+	public void addScore(int points) {
+		score += points;
+	}
+	
 	public void setGameOver(boolean gameOver) {
 		this.gameOver = gameOver;
+		this.levelComplete = false;
+	}
+	
+	/**
+	 * Ends the game because the player got through the whole level.
+	 */
+	public void completeLevel() {
+		gameOver = true;
+		levelComplete = true;
 	}
 	
 	public void requestRestart() {
@@ -30,16 +52,47 @@ public class GameStateManager {
 		return restartRequested;
 	}
 	
+	public void requestRewind() {
+		rewindRequested = true;
+	}
+	
+	/**
+	 * Returns true once per rewind request.
+	 */
+	public boolean consumeRewindRequest() {
+		boolean requested = rewindRequested;
+		rewindRequested = false;
+		return requested;
+	}
+	
+	public void toggleProfiler() {
+		profilerVisible = !profilerVisible;
+	}
+	
+	public boolean isProfilerVisible() {
+		return profilerVisible;
+	}
+	
+	public void setScore(int score) {
+		this.score = score;
+	}
+	
 	public void reset() {
 		gameOver = false;
+		levelComplete = false;
 		score = 0;
 		restartRequested = false;
+		rewindRequested = false;
 	}
 	
 	public boolean isGameOver() {
 		return gameOver;
 	}
 	
+	public boolean isLevelComplete() {
+		return levelComplete;
+	}
+	
 	public int getScore() {
 		return score;
 	}
@@ -0,0 +1,36 @@
+package com.mjsamaha.dodger.core;
+
+/**
+ * Decides which threads run a {@link GameLoop} and how they schedule ticks and frames.
+ * 
+ * Strategies are built from the loop's {@code tick}, {@code renderFrame} and
+ * {@code sleepUntil} steps and run until {@link GameLoop#isRunning()} turns false.
+ * Chosen at startup with the {@code loop} config key.
+ */
+public interface LoopStrategy {
+    
+    /**
+     * Starts the strategy's threads and returns.
+     */
+    void start(GameLoop loop);
+    
+    /**
+     * Waits for the threads to finish after the loop has stopped running.
+     */
+    void join() throws InterruptedException;
+    
+    String getName();
+    
+    /**
+     * Creates a strategy by name: {@code dual}, {@code single}, {@code variable} or {@code virtual}.
+     */
+    static LoopStrategy forName(String name) {
+        return switch (name.toLowerCase()) {
+            case "dual" -> new DualThreadLoop();
+            case "single" -> new SingleThreadLoop();
+            case "variable" -> new VariableTimestepLoop();
+            case "virtual" -> new VirtualThreadLoop();
+            default -> throw new IllegalArgumentException("Unknown loop strategy: " + name);
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.mjsamaha.dodger.core;
+
+/**
+ * Clock that only moves when {@link #advance(long)} is called, for deterministic
+ * tests and simulations. Threads waiting on it re-check about once a millisecond.
+ */
+public class ManualClock implements GameClock {
+    
+    private volatile long now;
+    
+    public ManualClock() {
+        this(0);
+    }
+    
+    public ManualClock(long startNanos) {
+        this.now = startNanos;
+    }
+    
+    /**
+     * Moves the clock forward.
+     */
+    public synchronized void advance(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("Clock cannot go backwards");
+        }
+        now += nanos;
+    }
+    
+    /**
+     * Moves the clock forward by a number of seconds.
+     */
+    public void advanceSeconds(double seconds) {
+        advance(Math.round(seconds * 1_000_000_000L));
+    }
+    
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+    
+    @Override
+    public long toRealNanos(long clockNanos) {
+        return -1;
+    }
+}
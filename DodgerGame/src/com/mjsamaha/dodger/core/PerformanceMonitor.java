@@ -11,17 +11,39 @@ public class PerformanceMonitor {
     private int frameCount;
     private int tickCount;
     private long lastSecond;
+    private final GameClock clock;
+    
+    // Smoothed cost of drawing the background, in milliseconds
+    private double backgroundMillis;
+    
+    // Smoothed bytes allocated per tick and per frame, -1 until measured
+    private double tickAllocationBytes = -1;
+    private double frameAllocationBytes = -1;
+    
+    // Recent frame-to-frame intervals for jitter and stutter stats
+    private static final int INTERVAL_HISTORY = 240;
+    private final long[] frameIntervals = new long[INTERVAL_HISTORY];
+    private final boolean[] stutters = new boolean[INTERVAL_HISTORY];
+    private int intervalCount;
+    private int intervalIndex;
+    private int stutterCount;
+    private int refreshRate;
     
     private double averageFps;
     private double averageTps;
     private int sampleCount;
     
     public PerformanceMonitor() {
+        this(GameClock.system());
+    }
+    
+    public PerformanceMonitor(GameClock clock) {
+        this.clock = clock;
         this.fps = 0;
         this.tps = 0;
         this.frameCount = 0;
         this.tickCount = 0;
-        this.lastSecond = System.currentTimeMillis();
+        this.lastSecond = currentTimeMillis();
         this.averageFps = 0;
         this.averageTps = 0;
         this.sampleCount = 0;
@@ -43,11 +65,106 @@ public class PerformanceMonitor {
         updateMetrics();
     }
     
+    /**
+     * Records how long the background took to draw this frame.
+     */
+    public void recordBackgroundTime(long nanos) {
+        backgroundMillis += (nanos / 1_000_000.0 - backgroundMillis) * 0.05;
+    }
+    
+    /**
+     * Records how many bytes one tick allocated on the update thread.
+     */
+    public void recordTickAllocation(long bytes) {
+        tickAllocationBytes = smoothAllocation(tickAllocationBytes, bytes);
+    }
+    
+    /**
+     * Records how many bytes one frame allocated on the render thread.
+     */
+    public void recordFrameAllocation(long bytes) {
+        frameAllocationBytes = smoothAllocation(frameAllocationBytes, bytes);
+    }
+    
+    private static double smoothAllocation(double average, long bytes) {
+        return average < 0 ? bytes : average + (bytes - average) * 0.05;
+    }
+    
+    /**
+     * Records the time since the previous frame started. An interval more than
+     * 1.5 times the target counts as a stutter (at least one missed refresh).
+     */
+    public void recordFrameInterval(long nanos, long targetNanos) {
+        if (intervalCount == INTERVAL_HISTORY && stutters[intervalIndex]) {
+            stutterCount--;
+        }
+        
+        boolean stutter = nanos * 2 > targetNanos * 3;
+        frameIntervals[intervalIndex] = nanos;
+        stutters[intervalIndex] = stutter;
+        if (stutter) {
+            stutterCount++;
+        }
+        
+        intervalIndex = (intervalIndex + 1) % INTERVAL_HISTORY;
+        if (intervalCount < INTERVAL_HISTORY) {
+            intervalCount++;
+        }
+    }
+    
+    /**
+     * Mean frame interval over the recent history, in milliseconds.
+     */
+    public double getFrameIntervalMillis() {
+        if (intervalCount == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < intervalCount; i++) {
+            sum += frameIntervals[i];
+        }
+        return sum / (double) intervalCount / 1_000_000.0;
+    }
+    
+    /**
+     * Standard deviation of the recent frame intervals (jitter), in milliseconds.
+     */
+    public double getFrameJitterMillis() {
+        if (intervalCount < 2) {
+            return 0;
+        }
+        double mean = getFrameIntervalMillis();
+        double sumSquares = 0;
+        for (int i = 0; i < intervalCount; i++) {
+            double delta = frameIntervals[i] / 1_000_000.0 - mean;
+            sumSquares += delta * delta;
+        }
+        return Math.sqrt(sumSquares / (intervalCount - 1));
+    }
+    
+    /**
+     * Number of stutters among the recent frame intervals.
+     */
+    public int getStutterCount() {
+        return stutterCount;
+    }
+    
+    public void setRefreshRate(int refreshRate) {
+        this.refreshRate = refreshRate;
+    }
+    
+    /**
+     * Refresh rate of the current display in Hz, 0 when unknown.
+     */
+    public int getRefreshRate() {
+        return refreshRate;
+    }
+    
     /**
      * Updates FPS and TPS counters every second.
      */
     private void updateMetrics() {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = currentTimeMillis();
         
         if (currentTime - lastSecond >= 1000) {
             fps = frameCount;
@@ -74,8 +191,18 @@ public class PerformanceMonitor {
         tickCount = 0;
         averageFps = 0;
         averageTps = 0;
+        backgroundMillis = 0;
+        tickAllocationBytes = -1;
+        frameAllocationBytes = -1;
+        intervalCount = 0;
+        intervalIndex = 0;
+        stutterCount = 0;
         sampleCount = 0;
-        lastSecond = System.currentTimeMillis();
+        lastSecond = currentTimeMillis();
+    }
+    
+    private long currentTimeMillis() {
+        return clock.nanoTime() / 1_000_000;
     }
     
     // Getters
@@ -95,6 +222,24 @@ public class PerformanceMonitor {
         return averageTps;
     }
     
+    public double getBackgroundMillis() {
+        return backgroundMillis;
+    }
+    
+    /**
+     * Smoothed bytes allocated per tick, or -1 if not measured (see {@link AllocationTracker}).
+     */
+    public double getTickAllocationBytes() {
+        return tickAllocationBytes;
+    }
+    
+    /**
+     * Smoothed bytes allocated per frame, or -1 if not measured.
+     */
+    public double getFrameAllocationBytes() {
+        return frameAllocationBytes;
+    }
+    
     /**
      * Returns a formatted debug string with performance metrics.
      */
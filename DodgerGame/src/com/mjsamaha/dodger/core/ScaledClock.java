@@ -0,0 +1,58 @@
+package com.mjsamaha.dodger.core;
+
+/**
+ * Clock running at a multiple of another clock: below 1 for slow motion, above 1
+ * to fast-forward. The scale can change at any time without the time jumping.
+ */
+public class ScaledClock implements GameClock {
+    
+    public static final double MIN_SCALE = 0.25;
+    public static final double MAX_SCALE = 100;
+    
+    private final GameClock source;
+    
+    // Time is base + (source - sourceBase) * scale; rebased whenever the scale changes
+    private long base;
+    private long sourceBase;
+    private volatile double scale;
+    
+    public ScaledClock(GameClock source, double scale) {
+        this.source = source;
+        this.sourceBase = source.nanoTime();
+        this.base = sourceBase;
+        this.scale = checkScale(scale);
+    }
+    
+    @Override
+    public synchronized long nanoTime() {
+        return base + (long) ((source.nanoTime() - sourceBase) * scale);
+    }
+    
+    @Override
+    public long toRealNanos(long clockNanos) {
+        return source.toRealNanos((long) (clockNanos / scale));
+    }
+    
+    public synchronized void setScale(double scale) {
+        checkScale(scale);
+        if (scale == this.scale) {
+            return;
+        }
+        
+        long sourceNow = source.nanoTime();
+        base += (long) ((sourceNow - sourceBase) * this.scale);
+        sourceBase = sourceNow;
+        this.scale = scale;
+    }
+    
+    public double getScale() {
+        return scale;
+    }
+    
+    private static double checkScale(double scale) {
+        if (!(scale >= MIN_SCALE && scale <= MAX_SCALE)) {
+            throw new IllegalArgumentException("Time scale must be between " + MIN_SCALE + " and " + MAX_SCALE);
+        }
+        return scale;
+    }
+}
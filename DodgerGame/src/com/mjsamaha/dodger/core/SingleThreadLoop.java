@@ -0,0 +1,51 @@
+package com.mjsamaha.dodger.core;
+
+/**
+ * One platform thread that runs the due fixed-timestep ticks, then renders an
+ * interpolated frame, then sleeps until the next frame slot. No lock contention
+ * between update and render, but ticks are only as regular as the frame rate.
+ */
+public class SingleThreadLoop implements LoopStrategy {
+    
+    private Thread thread;
+    
+    @Override
+    public void start(GameLoop loop) {
+        thread = new Thread(() -> run(loop), "Game-Loop-Thread");
+        thread.setDaemon(false);
+        thread.start();
+    }
+    
+    private void run(GameLoop loop) {
+        double tickDuration = loop.getTickDuration();
+        double accumulator = 0.0;
+        long lastTime = loop.getStartTime();
+        
+        while (loop.isRunning()) {
+            long currentTime = loop.now();
+            accumulator += loop.clampFrameTime((currentTime - lastTime) / 1_000_000_000.0);
+            lastTime = currentTime;
+            
+            while (accumulator >= tickDuration) {
+                loop.tick((float) tickDuration);
+                accumulator -= tickDuration;
+            }
+            loop.setAlpha(accumulator / tickDuration);
+            
+            long targetInterval = loop.renderFrame();
+            loop.sleepUntil(loop.nextFrameDeadline(targetInterval), true);
+        }
+    }
+    
+    @Override
+    public void join() throws InterruptedException {
+        if (thread != null) {
+            thread.join(1000);
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "single";
+    }
+}
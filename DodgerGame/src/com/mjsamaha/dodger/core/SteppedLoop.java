@@ -0,0 +1,42 @@
+package com.mjsamaha.dodger.core;
+
+/**
+ * Runs no threads of its own: the caller advances the loop one tick or frame at a
+ * time with {@link #tick()} and {@link #renderFrame(double)}, on its own thread.
+ * For headless checks that need the game's real tick and frame path, e.g.
+ * {@code AllocationBudgetCheck}. Not offered by {@link LoopStrategy#forName}.
+ */
+public class SteppedLoop implements LoopStrategy {
+    
+    private GameLoop loop;
+    
+    @Override
+    public void start(GameLoop loop) {
+        this.loop = loop;
+    }
+    
+    /**
+     * Runs one fixed-timestep tick, including the loop's own bookkeeping.
+     */
+    public void tick() {
+        loop.tick((float) loop.getTickDuration());
+    }
+    
+    /**
+     * Renders one frame at the given interpolation factor.
+     */
+    public void renderFrame(double alpha) {
+        loop.setAlpha(alpha);
+        loop.renderFrame();
+    }
+    
+    @Override
+    public void join() {
+        // Nothing to wait for
+    }
+    
+    @Override
+    public String getName() {
+        return "stepped";
+    }
+}
@@ -0,0 +1,22 @@
+package com.mjsamaha.dodger.core;
+
+/**
+ * Wall clock backed by {@code System.nanoTime()}.
+ */
+public final class SystemClock implements GameClock {
+    
+    static final SystemClock INSTANCE = new SystemClock();
+    
+    private SystemClock() {
+    }
+    
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+    
+    @Override
+    public long toRealNanos(long clockNanos) {
+        return clockNanos;
+    }
+}
@@ -0,0 +1,51 @@
+package com.mjsamaha.dodger.core;
+
+/**
+ * One platform thread that runs a single update per frame with the real elapsed
+ * time as dt, then renders without interpolation.
+ * 
+ * Lowest latency and no accumulator, but the simulation is no longer
+ * deterministic: spawning, rewind snapshots and collisions depend on the frame
+ * rate. Meant for comparison, not for recorded or multiplayer games.
+ */
+public class VariableTimestepLoop implements LoopStrategy {
+    
+    private Thread thread;
+    
+    @Override
+    public void start(GameLoop loop) {
+        thread = new Thread(() -> run(loop), "Game-Loop-Thread");
+        thread.setDaemon(false);
+        thread.start();
+    }
+    
+    private void run(GameLoop loop) {
+        long lastTime = loop.getStartTime();
+        loop.setAlpha(1.0);
+        
+        while (loop.isRunning()) {
+            long currentTime = loop.now();
+            double dt = loop.clampFrameTime((currentTime - lastTime) / 1_000_000_000.0);
+            lastTime = currentTime;
+            
+            if (dt > 0) {
+                loop.tick((float) dt);
+            }
+            
+            long targetInterval = loop.renderFrame();
+            loop.sleepUntil(loop.nextFrameDeadline(targetInterval), true);
+        }
+    }
+    
+    @Override
+    public void join() throws InterruptedException {
+        if (thread != null) {
+            thread.join(1000);
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "variable";
+    }
+}
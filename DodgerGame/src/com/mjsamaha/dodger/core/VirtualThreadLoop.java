@@ -0,0 +1,67 @@
+package com.mjsamaha.dodger.core;
+
+/**
+ * Update and render as two virtual threads that park until their next deadline
+ * instead of polling or spinning.
+ * 
+ * Ticks are scheduled on a fixed grid (tick n is due at start + n * tickDuration)
+ * and every due tick runs when the thread wakes, so the tick count never drifts.
+ * Parking leaves the carrier threads free, which keeps idle CPU close to zero at
+ * the cost of the timer's wake-up precision.
+ */
+public class VirtualThreadLoop implements LoopStrategy {
+    
+    private Thread updateThread;
+    private Thread renderThread;
+    
+    @Override
+    public void start(GameLoop loop) {
+        updateThread = Thread.ofVirtual().name("Update-Virtual").start(() -> updateLoop(loop));
+        renderThread = Thread.ofVirtual().name("Render-Virtual").start(() -> renderLoop(loop));
+    }
+    
+    private void updateLoop(GameLoop loop) {
+        long tickNanos = Math.round(loop.getTickDuration() * 1_000_000_000L);
+        long nextTick = loop.getStartTime() + tickNanos;
+        
+        while (loop.isRunning()) {
+            long now = loop.now();
+            long maxBacklog = Math.round(loop.clampFrameTime(Double.MAX_VALUE) * 1_000_000_000L);
+            
+            // Same spiral-of-death cap as the accumulator loops
+            if (now - nextTick > maxBacklog) {
+                nextTick = now - maxBacklog;
+            }
+            
+            while (now >= nextTick) {
+                loop.tick((float) loop.getTickDuration());
+                nextTick += tickNanos;
+            }
+            loop.setAlpha(1.0 - (nextTick - loop.now()) / (double) tickNanos);
+            
+            loop.sleepUntilClock(nextTick, false);
+        }
+    }
+    
+    private void renderLoop(GameLoop loop) {
+        while (loop.isRunning()) {
+            long targetInterval = loop.renderFrame();
+            loop.sleepUntil(loop.nextFrameDeadline(targetInterval), false);
+        }
+    }
+    
+    @Override
+    public void join() throws InterruptedException {
+        if (updateThread != null) {
+            updateThread.join(1000);
+        }
+        if (renderThread != null) {
+            renderThread.join(1000);
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "virtual";
+    }
+}
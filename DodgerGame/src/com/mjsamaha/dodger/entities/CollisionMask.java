@@ -0,0 +1,227 @@
+package com.mjsamaha.dodger.entities;
+
+import java.awt.Shape;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One bit per pixel of an object's bounding box, set where the object is solid.
+ *
+ * Rows are packed into {@code long} words, column {@code c} of row {@code r} being
+ * bit {@code c & 63} of {@code bits[r * wordsPerRow + (c >> 6)]}, so a hit test
+ * ANDs whole words against a column range instead of visiting pixels. Masks are
+ * immutable and cached per shape and size, so every object of the same shape
+ * shares one instance.
+ *
+ * The solid pixels are also kept as a short list of rectangles (runs merged down
+ * the rows) for drawing, so what is drawn is exactly what collides.
+ */
+public final class CollisionMask {
+    
+    private static final Map<Long, CollisionMask> SHAPE_CACHE = new ConcurrentHashMap<>();
+    
+    // Sprite pixels with at least this alpha are solid
+    private static final int ALPHA_THRESHOLD = 128;
+    
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] bits;
+    
+    // x, y, width, height per rectangle
+    private final int[] rects;
+    
+    private CollisionMask(int width, int height, long[] bits) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.bits = bits;
+        this.rects = buildRects();
+    }
+    
+    /**
+     * Shared mask for a shape at a given size, or null for {@link HazardShape#RECTANGLE}.
+     */
+    public static CollisionMask forShape(HazardShape shape, int width, int height) {
+        if (shape == HazardShape.RECTANGLE || width <= 0 || height <= 0) {
+            return null;
+        }
+        long key = (long) shape.ordinal() << 48 | (long) width << 24 | height;
+        return SHAPE_CACHE.computeIfAbsent(key, k -> shape.createMask(width, height));
+    }
+    
+    /**
+     * Rasterizes a shape: a pixel is solid if its center is inside.
+     */
+    static CollisionMask fromShape(Shape shape, int width, int height) {
+        int wordsPerRow = (width + 63) >>> 6;
+        long[] bits = new long[wordsPerRow * height];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                if (shape.contains(col + 0.5, row + 0.5)) {
+                    bits[row * wordsPerRow + (col >>> 6)] |= 1L << col;
+                }
+            }
+        }
+        return new CollisionMask(width, height, bits);
+    }
+    
+    /**
+     * Samples a sprite's alpha channel, scaled to the given size (nearest neighbour).
+     */
+    static CollisionMask fromImage(BufferedImage image, int width, int height) {
+        int wordsPerRow = (width + 63) >>> 6;
+        long[] bits = new long[wordsPerRow * height];
+        for (int row = 0; row < height; row++) {
+            int srcY = row * image.getHeight() / height;
+            for (int col = 0; col < width; col++) {
+                int srcX = col * image.getWidth() / width;
+                if (image.getRGB(srcX, srcY) >>> 24 >= ALPHA_THRESHOLD) {
+                    bits[row * wordsPerRow + (col >>> 6)] |= 1L << col;
+                }
+            }
+        }
+        return new CollisionMask(width, height, bits);
+    }
+    
+    /**
+     * Returns true if any solid pixel lies inside the given rectangle, in this
+     * mask's coordinates. Parts of the rectangle outside the mask are ignored.
+     */
+    public boolean overlapsRect(int x, int y, int rectWidth, int rectHeight) {
+        int col0 = Math.max(0, x);
+        int col1 = Math.min(width, x + rectWidth);
+        int row0 = Math.max(0, y);
+        int row1 = Math.min(height, y + rectHeight);
+        if (col0 >= col1 || row0 >= row1) {
+            return false;
+        }
+        
+        int firstWord = col0 >>> 6;
+        int lastWord = (col1 - 1) >>> 6;
+        long firstMask = -1L << col0;
+        long lastMask = -1L >>> (63 - ((col1 - 1) & 63));
+        if (firstWord == lastWord) {
+            firstMask &= lastMask;
+        }
+        
+        for (int row = row0, base = row0 * wordsPerRow; row < row1; row++, base += wordsPerRow) {
+            if ((bits[base + firstWord] & firstMask) != 0) {
+                return true;
+            }
+            if (firstWord != lastWord) {
+                for (int word = firstWord + 1; word < lastWord; word++) {
+                    if (bits[base + word] != 0) {
+                        return true;
+                    }
+                }
+                if ((bits[base + lastWord] & lastMask) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    public boolean isSolid(int col, int row) {
+        return col >= 0 && col < width && row >= 0 && row < height
+                && (bits[row * wordsPerRow + (col >>> 6)] & 1L << col) != 0;
+    }
+    
+    /**
+     * Covers the solid pixels with rectangles: each row is split into runs, and a
+     * run identical to one directly above it extends that rectangle downwards.
+     */
+    private int[] buildRects() {
+        List<int[]> done = new ArrayList<>();
+        List<int[]> open = new ArrayList<>();
+        List<int[]> next = new ArrayList<>();
+        
+        for (int row = 0; row < height; row++) {
+            int col = 0;
+            while (col < width) {
+                if (!isSolid(col, row)) {
+                    col++;
+                    continue;
+                }
+                int start = col;
+                while (col < width && isSolid(col, row)) {
+                    col++;
+                }
+                
+                int[] rect = null;
+                for (int i = 0; i < open.size(); i++) {
+                    int[] candidate = open.get(i);
+                    if (candidate[0] == start && candidate[2] == col - start) {
+                        rect = open.remove(i);
+                        rect[3]++;
+                        break;
+                    }
+                }
+                next.add(rect != null ? rect : new int[] { start, row, col - start, 1 });
+            }
+            done.addAll(open);
+            open.clear();
+            List<int[]> swap = open;
+            open = next;
+            next = swap;
+        }
+        done.addAll(open);
+        
+        int[] flat = new int[done.size() * 4];
+        for (int i = 0; i < done.size(); i++) {
+            System.arraycopy(done.get(i), 0, flat, i * 4, 4);
+        }
+        return flat;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    /**
+     * Number of rectangles covering the solid pixels.
+     */
+    public int getRectCount() {
+        return rects.length / 4;
+    }
+    
+    public int getRectX(int index) {
+        return rects[index * 4];
+    }
+    
+    public int getRectY(int index) {
+        return rects[index * 4 + 1];
+    }
+    
+    public int getRectWidth(int index) {
+        return rects[index * 4 + 2];
+    }
+    
+    public int getRectHeight(int index) {
+        return rects[index * 4 + 3];
+    }
+    
+    /**
+     * Solid pixel count.
+     */
+    public int getArea() {
+        int area = 0;
+        for (long word : bits) {
+            area += Long.bitCount(word);
+        }
+        return area;
+    }
+    
+    @Override
+    public String toString() {
+        return "CollisionMask[" + width + "x" + height + ", " + getArea() + " solid, " + getRectCount() + " rects]";
+    }
+}
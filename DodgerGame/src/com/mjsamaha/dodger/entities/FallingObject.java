@@ -4,25 +4,53 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 
 public class FallingObject extends GameObject {
+    private int id;
     private float speed;
+    private float velocityX;
     private Color objectColor;
+    private HazardShape shape;
+    private CollisionMask mask; // Shared per shape and size, null when solid
     
     public FallingObject(float x, float y, int width, int height, float speed, Color color) {
+        this(x, y, width, height, speed, 0, color);
+    }
+    
+    public FallingObject(float x, float y, int width, int height, float speed, float velocityX, Color color) {
+        this(x, y, width, height, speed, velocityX, color, HazardShape.RECTANGLE);
+    }
+    
+    public FallingObject(float x, float y, int width, int height, float speed, float velocityX, Color color, 
+                         HazardShape shape) {
         super(x, y, width, height);
         this.speed = speed;
+        this.velocityX = velocityX;
         this.objectColor = color;
+        this.shape = shape;
+        this.mask = CollisionMask.forShape(shape, width, height);
     }
     
     // Update position based on delta time (object falls downward)
     public void update(float dt) {
         updatePreviousPosition();
+        x += velocityX * dt;
         y += speed * dt;
     }
     
+    // Reverse horizontal direction when hitting the side walls
+    public void bounceWithinBounds(int panelWidth) {
+        if (x < 0) {
+            x = 0;
+            velocityX = -velocityX;
+        } else if (x + width > panelWidth) {
+            x = panelWidth - width;
+            velocityX = -velocityX;
+        }
+    }
+    
     @Override
     public void draw(Graphics2D g2d) {
         g2d.setColor(objectColor);
-        g2d.fillRect((int)x, (int)y, width, height);
+        fill(g2d, (int)x, (int)y);
     }
     
     /**
@@ -34,7 +62,28 @@ public class FallingObject extends GameObject {
         g2d.setColor(objectColor);
         float interpX = getInterpolatedX(alpha);
         float interpY = getInterpolatedY(alpha);
-        g2d.fillRect((int)interpX, (int)interpY, width, height);
+        fill(g2d, (int)interpX, (int)interpY);
+    }
+    
+    // Shaped objects are drawn from their mask so the pixels match the hit test
+    private void fill(Graphics2D g2d, int drawX, int drawY) {
+        if (mask == null) {
+            g2d.fillRect(drawX, drawY, width, height);
+            return;
+        }
+        for (int i = 0, count = mask.getRectCount(); i < count; i++) {
+            g2d.fillRect(drawX + mask.getRectX(i), drawY + mask.getRectY(i), 
+                    mask.getRectWidth(i), mask.getRectHeight(i));
+        }
+    }
+    
+    /**
+     * Pixel-accurate test against a solid object, run after the bounding boxes are
+     * known to overlap.
+     */
+    public boolean maskOverlaps(GameObject other) {
+        return mask == null || mask.overlapsRect((int) other.x - (int) x, (int) other.y - (int) y, 
+                other.width, other.height);
     }
     
     // Check if object is off screen (below bottom edge)
@@ -43,6 +92,14 @@ public class FallingObject extends GameObject {
     }
     
     // Getters and Setters
+    public int getId() { 
+    	return id; 
+    }
+    
+    public void setId(int id) { 
+    	this.id = id; 
+    }
+    
     public float getSpeed() { 
     	return speed; 
     }
@@ -51,6 +108,14 @@ public class FallingObject extends GameObject {
     	this.speed = speed; 
     }
     
+    public float getVelocityX() { 
+    	return velocityX; 
+    }
+    
+    public void setVelocityX(float velocityX) { 
+    	this.velocityX = velocityX; 
+    }
+    
     public Color getObjectColor() { 
     	return objectColor; 
     }
@@ -58,4 +123,12 @@ public class FallingObject extends GameObject {
     public void setObjectColor(Color objectColor) { 
     	this.objectColor = objectColor; 
     }
+    
+    public HazardShape getShape() { 
+    	return shape; 
+    }
+    
+    public CollisionMask getMask() { 
+    	return mask; 
+    }
 }
\ No newline at end of file
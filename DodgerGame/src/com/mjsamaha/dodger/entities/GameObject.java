@@ -27,6 +27,22 @@ public abstract class GameObject {
 		prevY = y;
 	}
 	
+	/**
+	 * Sets the previous position directly, e.g. when restoring a snapshot.
+	 */
+	public void setPreviousPosition(float prevX, float prevY) {
+		this.prevX = prevX;
+		this.prevY = prevY;
+	}
+	
+	public float getPrevX() {
+		return prevX;
+	}
+	
+	public float getPrevY() {
+		return prevY;
+	}
+	
 	/**
 	 * Gets interpolated X position for smooth rendering.
 	 * @param alpha Interpolation factor (0.0 to 1.0)
@@ -47,6 +63,22 @@ public abstract class GameObject {
 		return new Rectangle((int)x, (int)y, width, height);
 	}
 	
+	/**
+	 * Same test as {@code getBounds().intersects(other.getBounds())} without
+	 * creating the two rectangles.
+	 */
+	public boolean intersects(GameObject other) {
+		if (width <= 0 || height <= 0 || other.width <= 0 || other.height <= 0) {
+			return false;
+		}
+		int left = (int) x;
+		int top = (int) y;
+		int otherLeft = (int) other.x;
+		int otherTop = (int) other.y;
+		return otherLeft < left + width && left < otherLeft + other.width 
+				&& otherTop < top + height && top < otherTop + other.height;
+	}
+	
 	public abstract void draw(Graphics2D g2d);
 
 	public float getX() {
@@ -0,0 +1,75 @@
+package com.mjsamaha.dodger.entities;
+
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Outline of a falling object inside its bounding box. Everything but
+ * {@link #RECTANGLE} collides and draws through a {@link CollisionMask}.
+ */
+public enum HazardShape {
+    RECTANGLE,
+    CIRCLE,
+    TRIANGLE,
+    DIAMOND,
+    ROCK;
+    
+    // Pixel art for ROCK, scaled to the object's size; '#' is solid
+    private static final String[] ROCK_SPRITE = {
+        "...####...",
+        ".########.",
+        "##########",
+        "#####..###",
+        "####....##",
+        "#####..###",
+        "##########",
+        ".#########",
+        "..#######.",
+        "....###..."
+    };
+    
+    private static final HazardShape[] VALUES = values();
+    
+    public static HazardShape fromOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : RECTANGLE;
+    }
+    
+    /**
+     * Builds the mask for this shape at a given size, or returns null for a
+     * rectangle, which is solid and needs no mask.
+     */
+    CollisionMask createMask(int width, int height) {
+        return switch (this) {
+            case RECTANGLE -> null;
+            case CIRCLE -> CollisionMask.fromShape(new Ellipse2D.Float(0, 0, width, height), width, height);
+            case TRIANGLE -> CollisionMask.fromShape(polygon(0, 0, width, 0, width / 2f, height), width, height);
+            case DIAMOND -> CollisionMask.fromShape(
+                    polygon(width / 2f, 0, width, height / 2f, width / 2f, height, 0, height / 2f), width, height);
+            case ROCK -> CollisionMask.fromImage(sprite(ROCK_SPRITE), width, height);
+        };
+    }
+    
+    private static Shape polygon(float... points) {
+        Path2D.Float path = new Path2D.Float();
+        path.moveTo(points[0], points[1]);
+        for (int i = 2; i < points.length; i += 2) {
+            path.lineTo(points[i], points[i + 1]);
+        }
+        path.closePath();
+        return path;
+    }
+    
+    private static BufferedImage sprite(String[] rows) {
+        BufferedImage image = new BufferedImage(rows[0].length(), rows.length, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < rows[y].length(); x++) {
+                if (rows[y].charAt(x) == '#') {
+                    image.setRGB(x, y, 0xFFFFFFFF);
+                }
+            }
+        }
+        return image;
+    }
+}
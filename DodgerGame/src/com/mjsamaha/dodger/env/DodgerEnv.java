@@ -0,0 +1,187 @@
+package com.mjsamaha.dodger.env;
+
+import java.nio.FloatBuffer;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.config.GameConfig;
+import com.mjsamaha.dodger.core.GameStateManager;
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.entities.Player;
+import com.mjsamaha.dodger.input.InputHandler;
+import com.mjsamaha.dodger.systems.CollisionDetector;
+import com.mjsamaha.dodger.systems.ObjectSpawner;
+import com.mjsamaha.dodger.systems.SpawnOrderedBuffer;
+
+/**
+ * Gym-style training environment over the game simulation, without Swing.
+ * 
+ * Each {@link #step(int, FloatBuffer, int)} advances one fixed tick. Actions are
+ * InputHandler.INPUT_* bit sets (0-15). The reward is the number of objects
+ * dodged this tick, or -1 on collision, which also ends the episode. Episodes are
+ * truncated after {@link #getMaxSteps()} ticks.
+ * 
+ * Observations are written into a caller-provided FloatBuffer at a given offset
+ * with absolute puts, so the buffer's position is untouched and nothing is
+ * allocated. Layout ({@link #OBSERVATION_SIZE} floats): player x and y scaled to
+ * [0, 1], then for the {@link #NEAREST_OBJECTS} objects closest to the player:
+ * dx, dy (relative to the player, scaled by screen size), width, height and
+ * speed (scaled), zero-padded when fewer objects exist.
+ */
+public class DodgerEnv {
+    
+    public static final int ACTION_COUNT = 16;
+    public static final int NEAREST_OBJECTS = 8;
+    public static final int FEATURES_PER_OBJECT = 5;
+    public static final int OBSERVATION_SIZE = 2 + NEAREST_OBJECTS * FEATURES_PER_OBJECT;
+    
+    private static final float SPEED_SCALE = 1.0f / 1000;
+    
+    private final int width;
+    private final int height;
+    private final int maxSteps;
+    private final float dt = 1.0f / GameConfig.get().getTargetTps();
+    
+    private final Player player;
+    private final ObjectSpawner objectSpawner;
+    private final GameStateManager gameStateManager;
+    
+    private int steps;
+    private boolean done;
+    
+    // Scratch for nearest-object selection
+    private final int[] nearestIndex = new int[NEAREST_OBJECTS];
+    private final float[] nearestDistance = new float[NEAREST_OBJECTS];
+    
+    public DodgerEnv() {
+        this(Constants.Window.WINDOW_WIDTH, Constants.Window.WINDOW_HEIGHT, 
+                GameConfig.get().getTargetTps() * 300);
+    }
+    
+    public DodgerEnv(int width, int height, int maxSteps) {
+        this.width = width;
+        this.height = height;
+        this.maxSteps = maxSteps;
+        this.player = new Player(
+            Constants.Player.START_X, 
+            Constants.Player.START_Y, 
+            Constants.Player.PLAYER_WIDTH, 
+            Constants.Player.PLAYER_HEIGHT, 
+            Constants.Player.PLAYER_SPEED, 
+            Constants.Player.PLAYER_COLOR
+        );
+        this.objectSpawner = new ObjectSpawner(0);
+        this.gameStateManager = new GameStateManager();
+    }
+    
+    /**
+     * Starts a new episode. The same seed always produces the same episode
+     * for the same actions.
+     */
+    public void reset(long seed, FloatBuffer observation, int offset) {
+        player.setX(Constants.Player.START_X);
+        player.setY(Constants.Player.START_Y);
+        player.updatePreviousPosition();
+        objectSpawner.reset();
+        objectSpawner.setSeed(seed);
+        gameStateManager.reset();
+        steps = 0;
+        done = false;
+        writeObservation(observation, offset);
+    }
+    
+    /**
+     * Advances one tick with the given action.
+     * @return Reward for this tick
+     */
+    public float step(int action, FloatBuffer observation, int offset) {
+        if (done) {
+            throw new IllegalStateException("Episode is over, call reset first");
+        }
+        
+        InputHandler.applyMovement(player, action, dt);
+        player.keepWithinBounds(width, height);
+        
+        int previousScore = gameStateManager.getScore();
+        objectSpawner.update(dt, width, height, gameStateManager);
+        float reward = gameStateManager.getScore() - previousScore;
+        
+        if (CollisionDetector.checkCollisions(player, objectSpawner.getFallingObjects())) {
+            reward = -1;
+            done = true;
+        }
+        
+        steps++;
+        if (steps >= maxSteps) {
+            done = true;
+        }
+        
+        writeObservation(observation, offset);
+        return reward;
+    }
+    
+    private void writeObservation(FloatBuffer out, int offset) {
+        float px = player.getX() + player.getWidth() * 0.5f;
+        float py = player.getY() + player.getHeight() * 0.5f;
+        out.put(offset, player.getX() / width);
+        out.put(offset + 1, player.getY() / height);
+        
+        // Keep the closest objects in a small sorted array
+        SpawnOrderedBuffer objects = objectSpawner.getFallingObjects();
+        int found = 0;
+        for (int i = 0; i < objects.size(); i++) {
+            FallingObject obj = objects.get(i);
+            float dx = obj.getX() + obj.getWidth() * 0.5f - px;
+            float dy = obj.getY() + obj.getHeight() * 0.5f - py;
+            float distance = dx * dx + dy * dy;
+            
+            if (found < NEAREST_OBJECTS) {
+                found++;
+            } else if (distance >= nearestDistance[NEAREST_OBJECTS - 1]) {
+                continue;
+            }
+            
+            int slot = found - 1;
+            while (slot > 0 && nearestDistance[slot - 1] > distance) {
+                nearestDistance[slot] = nearestDistance[slot - 1];
+                nearestIndex[slot] = nearestIndex[slot - 1];
+                slot--;
+            }
+            nearestDistance[slot] = distance;
+            nearestIndex[slot] = i;
+        }
+        
+        int base = offset + 2;
+        for (int k = 0; k < NEAREST_OBJECTS; k++, base += FEATURES_PER_OBJECT) {
+            if (k < found) {
+                FallingObject obj = objects.get(nearestIndex[k]);
+                out.put(base, (obj.getX() + obj.getWidth() * 0.5f - px) / width);
+                out.put(base + 1, (obj.getY() + obj.getHeight() * 0.5f - py) / height);
+                out.put(base + 2, (float) obj.getWidth() / width);
+                out.put(base + 3, (float) obj.getHeight() / height);
+                out.put(base + 4, obj.getSpeed() * SPEED_SCALE);
+            } else {
+                out.put(base, 0f);
+                out.put(base + 1, 0f);
+                out.put(base + 2, 0f);
+                out.put(base + 3, 0f);
+                out.put(base + 4, 0f);
+            }
+        }
+    }
+    
+    public boolean isDone() {
+        return done;
+    }
+    
+    public int getSteps() {
+        return steps;
+    }
+    
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+    
+    public int getScore() {
+        return gameStateManager.getScore();
+    }
+}
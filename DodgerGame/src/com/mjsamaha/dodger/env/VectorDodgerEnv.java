@@ -0,0 +1,58 @@
+package com.mjsamaha.dodger.env;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Steps many {@link DodgerEnv}s in one call. Environment {@code i} writes its
+ * observation at {@code i * DodgerEnv.OBSERVATION_SIZE} in the shared buffer.
+ * 
+ * Finished episodes reset automatically: the returned observation is then the
+ * first one of the next episode, and {@code dones[i]} reports that the previous
+ * episode ended on this step.
+ */
+public class VectorDodgerEnv {
+    
+    private final DodgerEnv[] envs;
+    private long nextSeed;
+    
+    public VectorDodgerEnv(int count) {
+        envs = new DodgerEnv[count];
+        for (int i = 0; i < count; i++) {
+            envs[i] = new DodgerEnv();
+        }
+    }
+    
+    /**
+     * Resets every environment; environment {@code i} gets seed {@code seed + i}.
+     */
+    public void reset(long seed, FloatBuffer observations) {
+        nextSeed = seed;
+        for (int i = 0; i < envs.length; i++) {
+            envs[i].reset(nextSeed++, observations, i * DodgerEnv.OBSERVATION_SIZE);
+        }
+    }
+    
+    /**
+     * Steps every environment with its action and fills the per-environment results.
+     */
+    public void step(int[] actions, FloatBuffer observations, float[] rewards, boolean[] dones) {
+        for (int i = 0; i < envs.length; i++) {
+            DodgerEnv env = envs[i];
+            int offset = i * DodgerEnv.OBSERVATION_SIZE;
+            
+            rewards[i] = env.step(actions[i], observations, offset);
+            dones[i] = env.isDone();
+            if (dones[i]) {
+                env.reset(nextSeed++, observations, offset);
+            }
+        }
+    }
+    
+    public int size() {
+        return envs.length;
+    }
+    
+    public DodgerEnv get(int index) {
+        return envs[index];
+    }
+}
@@ -0,0 +1,73 @@
+package com.mjsamaha.dodger.events;
+
+import java.awt.Color;
+
+/**
+ * One slot of the {@link GameEventBus} ring. Slots are reused, so listeners must
+ * copy what they need and never keep the event after {@code onEvent} returns.
+ * Fields a type does not use are zero (or null).
+ */
+public final class GameEvent {
+    
+    private GameEventType type;
+    private int tick;
+    private int objectId;
+    private float x;
+    private float y;
+    private int value;
+    private Color color;
+    
+    GameEvent() {
+    }
+    
+    void set(GameEventType type, int tick, int objectId, float x, float y, int value, Color color) {
+        this.type = type;
+        this.tick = tick;
+        this.objectId = objectId;
+        this.x = x;
+        this.y = y;
+        this.value = value;
+        this.color = color;
+    }
+    
+    /**
+     * Drops the color reference so a delivered slot does not keep it alive.
+     */
+    void clear() {
+        color = null;
+    }
+    
+    public GameEventType getType() {
+        return type;
+    }
+    
+    /**
+     * Number of batches dispatched before this event was published, i.e. the tick it happened in.
+     */
+    public int getTick() {
+        return tick;
+    }
+    
+    /**
+     * Id of the object involved, or -1.
+     */
+    public int getObjectId() {
+        return objectId;
+    }
+    
+    public float getX() {
+        return x;
+    }
+    
+    public float getY() {
+        return y;
+    }
+    
+    public int getValue() {
+        return value;
+    }
+    
+    public Color getColor() {
+        return color;
+    }
+}
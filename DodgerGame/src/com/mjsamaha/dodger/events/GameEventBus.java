@@ -0,0 +1,163 @@
+package com.mjsamaha.dodger.events;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+import com.mjsamaha.dodger.Constants;
+
+/**
+ * Carries what happened in a tick (spawns, despawns, scoring, collisions, game
+ * over, restarts, rewinds) from the simulation to the subsystems that react to
+ * it, so the tick does not have to call audio, particles, the leaderboard or the
+ * rewind buffer itself.
+ *
+ * Events are copied into a ring of preallocated {@link GameEvent} slots as they
+ * are published and delivered in one batch per tick by {@link #dispatch()}, in
+ * publish order, to every listener subscribed to their type. Neither publishing
+ * nor dispatching allocates. Events of a type nobody subscribed to are not queued
+ * at all. When the ring is full further events are dropped and counted, so size
+ * {@link Constants.Events#CAPACITY} for the busiest tick; the last
+ * {@link Constants.Events#RESERVED} slots only take game state changes
+ * ({@link GameEventType#isGameState()}), so a tick full of spawns and despawns
+ * cannot push out its collision or game over.
+ *
+ * Not thread-safe, and needs no locks: the game publishes and dispatches on the
+ * update thread only, while holding {@code GameLoop}'s update lock like the rest
+ * of the tick.
+ */
+public class GameEventBus {
+    
+    private final GameEvent[] slots;
+    private final int mask;
+    private final int perObjectLimit; // Slots per-object events may fill
+    private long head; // Next event to deliver
+    private long tail; // Next slot to fill
+    
+    // Parallel arrays, grown only when subscribing
+    private GameEventListener[] listeners = new GameEventListener[0];
+    private int[] subscriptions = new int[0];
+    private boolean[] delivered = new boolean[0];
+    private int subscribedTypes;
+    
+    private int tick;
+    private long published;
+    private long dropped;
+    
+    public GameEventBus() {
+        this(Constants.Events.CAPACITY);
+    }
+    
+    /**
+     * @param capacity Events held between dispatches, rounded up to a power of two
+     */
+    public GameEventBus(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new GameEvent[size];
+        this.mask = size - 1;
+        this.perObjectLimit = size - Math.min(Constants.Events.RESERVED, size / 2);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new GameEvent();
+        }
+    }
+    
+    /**
+     * Delivers events of the given types to the listener from the next dispatch on.
+     * Listeners are called in subscription order.
+     */
+    public void subscribe(GameEventListener listener, GameEventType... types) {
+        int subscription = 0;
+        for (GameEventType type : types) {
+            subscription |= type.mask();
+        }
+        
+        int index = listeners.length;
+        listeners = Arrays.copyOf(listeners, index + 1);
+        subscriptions = Arrays.copyOf(subscriptions, index + 1);
+        delivered = Arrays.copyOf(delivered, index + 1);
+        listeners[index] = listener;
+        subscriptions[index] = subscription;
+        subscribedTypes |= subscription;
+    }
+    
+    /**
+     * Queues an event for the next dispatch, unless no listener takes its type.
+     * @return false if the ring was full and the event was dropped
+     */
+    public boolean publish(GameEventType type, int objectId, float x, float y, int value, Color color) {
+        if ((subscribedTypes & type.mask()) == 0) {
+            return true;
+        }
+        if (tail - head >= (type.isGameState() ? slots.length : perObjectLimit)) {
+            dropped++;
+            return false;
+        }
+        slots[(int) tail & mask].set(type, tick, objectId, x, y, value, color);
+        tail++;
+        published++;
+        return true;
+    }
+    
+    /**
+     * Queues an event that involves no object or position.
+     */
+    public boolean publish(GameEventType type, int value) {
+        return publish(type, -1, 0, 0, value, null);
+    }
+    
+    /**
+     * Delivers every queued event, then ends the batch for each listener that got
+     * one. Events published by listeners meanwhile are delivered in the same batch.
+     * @return Number of events delivered
+     */
+    public int dispatch() {
+        int count = 0;
+        while (head < tail) {
+            GameEvent event = slots[(int) head & mask];
+            int bit = event.getType().mask();
+            for (int i = 0; i < listeners.length; i++) {
+                if ((subscriptions[i] & bit) != 0) {
+                    delivered[i] = true;
+                    listeners[i].onEvent(event);
+                }
+            }
+            event.clear();
+            head++;
+            count++;
+        }
+        
+        for (int i = 0; i < listeners.length; i++) {
+            if (delivered[i]) {
+                delivered[i] = false;
+                listeners[i].onBatchEnd();
+            }
+        }
+        tick++;
+        return count;
+    }
+    
+    /**
+     * Events published and not yet delivered.
+     */
+    public int getPending() {
+        return (int) (tail - head);
+    }
+    
+    public int getCapacity() {
+        return slots.length;
+    }
+    
+    /**
+     * Number of dispatches so far; stamped on each event as {@link GameEvent#getTick()}.
+     */
+    public int getTick() {
+        return tick;
+    }
+    
+    public long getPublished() {
+        return published;
+    }
+    
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,19 @@
+package com.mjsamaha.dodger.events;
+
+/**
+ * Subsystem reacting to {@link GameEvent}s, subscribed with {@link GameEventBus#subscribe}.
+ */
+public interface GameEventListener {
+    
+    /**
+     * Called for each subscribed event, in publish order. The event is only valid during the call.
+     */
+    void onEvent(GameEvent event);
+    
+    /**
+     * Called once at the end of every dispatch that delivered at least one event
+     * to this listener, e.g. to play one sound for several scores in a tick.
+     */
+    default void onBatchEnd() {
+    }
+}
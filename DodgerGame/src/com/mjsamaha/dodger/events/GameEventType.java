@@ -0,0 +1,42 @@
+package com.mjsamaha.dodger.events;
+
+/**
+ * Kinds of {@link GameEvent} the simulation publishes.
+ */
+public enum GameEventType {
+    /** An object entered the game; position is its top left corner. */
+    SPAWN(false),
+    /** An object left the bottom of the screen; position is where it left. */
+    DESPAWN(false),
+    /** Points were scored this tick; the value is how many. */
+    SCORE(false),
+    /** The player was hit; position is the player's center. */
+    COLLISION(true),
+    /** The game ended, by a collision or by finishing the level; the value is the final score. */
+    GAME_OVER(true),
+    /** A new game started. */
+    RESTART(true),
+    /** The game jumped back to an earlier snapshot; the value is 1 if that undid a game over. */
+    REWIND(true);
+    
+    private final boolean gameState;
+    
+    GameEventType(boolean gameState) {
+        this.gameState = gameState;
+    }
+    
+    /**
+     * Whether this is a change of the game's state, at most a few per tick, which
+     * may use the slots {@link GameEventBus} keeps free of per-object events.
+     */
+    public boolean isGameState() {
+        return gameState;
+    }
+    
+    /**
+     * Bit of this type in a listener's subscription mask.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+}
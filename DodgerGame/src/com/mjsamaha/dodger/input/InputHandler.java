@@ -8,6 +8,12 @@ import com.mjsamaha.dodger.entities.Player;
 
 public class InputHandler implements KeyListener {
 
+	// Movement bits, used to send input over the network
+	public static final int INPUT_LEFT = 1;
+	public static final int INPUT_RIGHT = 2;
+	public static final int INPUT_UP = 4;
+	public static final int INPUT_DOWN = 8;
+
 	private boolean moveLeft, moveRight, moveUp, moveDown;
     private GameStateManager gameStateManager;
     
@@ -20,10 +26,29 @@ public class InputHandler implements KeyListener {
     }
     
     public void handlePlayerMovement(Player player, float dt) {
-        if (moveLeft) player.moveLeft(dt);
-        if (moveRight) player.moveRight(dt);
-        if (moveUp) player.moveUp(dt);
-        if (moveDown) player.moveDown(dt);
+        applyMovement(player, getInputBits(), dt);
+    }
+    
+    /**
+     * Moves a player according to a set of INPUT_* bits.
+     */
+    public static void applyMovement(Player player, int inputBits, float dt) {
+        if ((inputBits & INPUT_LEFT) != 0) player.moveLeft(dt);
+        if ((inputBits & INPUT_RIGHT) != 0) player.moveRight(dt);
+        if ((inputBits & INPUT_UP) != 0) player.moveUp(dt);
+        if ((inputBits & INPUT_DOWN) != 0) player.moveDown(dt);
+    }
+    
+    /**
+     * Returns the currently held directions as INPUT_* bits.
+     */
+    public int getInputBits() {
+        int bits = 0;
+        if (moveLeft) bits |= INPUT_LEFT;
+        if (moveRight) bits |= INPUT_RIGHT;
+        if (moveUp) bits |= INPUT_UP;
+        if (moveDown) bits |= INPUT_DOWN;
+        return bits;
     }
     
     public void reset() {
@@ -42,6 +67,15 @@ public class InputHandler implements KeyListener {
     public void keyPressed(KeyEvent e) {
         int key = e.getKeyCode();
         
+        // Rewind works while playing and on the game over screen
+        if (key == KeyEvent.VK_BACK_SPACE) {
+            gameStateManager.requestRewind();
+        }
+        
+        if (key == KeyEvent.VK_F3) {
+            gameStateManager.toggleProfiler();
+        }
+        
         if (!gameStateManager.isGameOver()) {
             if (key == KeyEvent.VK_LEFT || key == KeyEvent.VK_A) {
                 moveLeft = true;
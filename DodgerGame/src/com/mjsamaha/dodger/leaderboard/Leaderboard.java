@@ -0,0 +1,194 @@
+package com.mjsamaha.dodger.leaderboard;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.events.GameEvent;
+import com.mjsamaha.dodger.events.GameEventListener;
+import com.mjsamaha.dodger.events.GameEventType;
+
+/**
+ * Persistent high-score table backed by a {@link ScoreFile}.
+ * 
+ * All file work (loading, appending, compaction) happens on a background writer
+ * thread. The game thread only queues scores with {@link #submit(int)}, and the
+ * renderer reads a sorted array published after each change, so neither ever
+ * waits on disk. As a {@link GameEventListener} it submits each game's score
+ * once: the first game over counts, even if the player rewinds and dies again,
+ * until the next restart.
+ */
+public class Leaderboard implements GameEventListener {
+    
+    private static final int STOP = Integer.MIN_VALUE;
+    
+    private final Path path;
+    private final int topK;
+    private final LinkedBlockingQueue<Integer> pending;
+    
+    // Min-heap of the best topK scores, only used by the writer thread
+    private final PriorityQueue<Integer> topHeap;
+    
+    // Best scores, highest first. Replaced (never modified) by the writer thread.
+    private volatile int[] topScores = new int[0];
+    
+    private Thread writerThread;
+    private ScoreFile scoreFile;
+    
+    // Whether the current game's score went in, game thread only
+    private boolean submitted;
+    
+    public Leaderboard() {
+        this(Path.of(Constants.Leaderboard.SCORE_FILE), Constants.Leaderboard.TOP_K);
+    }
+    
+    public Leaderboard(Path path, int topK) {
+        this.path = path;
+        this.topK = topK;
+        this.pending = new LinkedBlockingQueue<>();
+        this.topHeap = new PriorityQueue<>(topK + 1);
+    }
+    
+    /**
+     * Starts the writer thread, which loads existing scores before taking submissions.
+     */
+    public void start() {
+        if (writerThread != null) {
+            return;
+        }
+        
+        writerThread = new Thread(this::writerLoop, "Leaderboard-Writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+    
+    /**
+     * Queues a finished game's score. Never blocks.
+     */
+    public void submit(int score) {
+        if (score >= 0) {
+            pending.offer(score);
+        }
+    }
+    
+    @Override
+    public void onEvent(GameEvent event) {
+        if (event.getType() == GameEventType.GAME_OVER && !submitted) {
+            submit(event.getValue());
+            submitted = true;
+        } else if (event.getType() == GameEventType.RESTART) {
+            submitted = false;
+        }
+    }
+    
+    /**
+     * Returns the best scores, highest first. The array must not be modified.
+     */
+    public int[] getTopScores() {
+        return topScores;
+    }
+    
+    /**
+     * Flushes queued scores and stops the writer thread.
+     */
+    public void stop() {
+        if (writerThread == null) {
+            return;
+        }
+        
+        pending.offer(STOP);
+        try {
+            writerThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread = null;
+    }
+    
+    private void writerLoop() {
+        try {
+            scoreFile = new ScoreFile(path, Constants.Leaderboard.MAX_RECORDS);
+            for (ScoreRecord record : scoreFile.readAll()) {
+                offerTop(record.getScore());
+            }
+            publishTop();
+        } catch (IOException e) {
+            System.err.println("Could not open leaderboard, scores will not be saved: " + e.getMessage());
+            scoreFile = null;
+        }
+        
+        while (true) {
+            int score;
+            try {
+                score = pending.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (score == STOP) {
+                break;
+            }
+            
+            if (offerTop(score)) {
+                publishTop();
+            }
+            persist(score);
+        }
+        
+        if (scoreFile != null) {
+            try {
+                scoreFile.close();
+            } catch (IOException e) {
+                System.err.println("Error closing leaderboard: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void persist(int score) {
+        if (scoreFile == null) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        if (!scoreFile.append(score, now)) {
+            scoreFile.compact(Constants.Leaderboard.COMPACT_KEEP);
+            scoreFile.append(score, now);
+        }
+    }
+    
+    /**
+     * Adds a score to the top-k heap.
+     * @return true if the top scores changed
+     */
+    private boolean offerTop(int score) {
+        if (topHeap.size() < topK) {
+            topHeap.offer(score);
+            return true;
+        }
+        if (score > topHeap.peek()) {
+            topHeap.poll();
+            topHeap.offer(score);
+            return true;
+        }
+        return false;
+    }
+    
+    private void publishTop() {
+        int[] sorted = new int[topHeap.size()];
+        int i = 0;
+        for (Integer score : topHeap) {
+            sorted[i++] = score;
+        }
+        Arrays.sort(sorted);
+        
+        // Reverse to highest first
+        for (int left = 0, right = sorted.length - 1; left < right; left++, right--) {
+            int tmp = sorted[left];
+            sorted[left] = sorted[right];
+            sorted[right] = tmp;
+        }
+        topScores = sorted;
+    }
+}
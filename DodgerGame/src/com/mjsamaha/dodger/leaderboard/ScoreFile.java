@@ -0,0 +1,242 @@
+package com.mjsamaha.dodger.leaderboard;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped file of fixed-size score records.
+ * 
+ * Layout (little-endian):
+ * <pre>
+ * 0   int  magic "DGLB"
+ * 4   int  format version
+ * 8   int  record size
+ * 12  int  record capacity
+ * 16  commit slot A: long sequence, int record count, int crc
+ * 32  commit slot B: long sequence, int record count, int crc
+ * 64  records: long timestamp, int score, int crc
+ * </pre>
+ * 
+ * A record is written and flushed before the commit that counts it. Commits
+ * alternate between the two slots, so a crash while writing one leaves the
+ * other intact and the file reopens at the last complete commit.
+ * 
+ * Not thread-safe. {@link Leaderboard} only touches it from its writer thread.
+ */
+public class ScoreFile implements AutoCloseable {
+    
+    private static final int MAGIC = 0x424C4744; // "DGLB"
+    private static final int VERSION = 1;
+    
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 16;
+    
+    private static final int SLOT_A = 16;
+    private static final int SLOT_B = 32;
+    
+    private final Path path;
+    private final int capacity;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    
+    private long sequence;
+    private int count;
+    
+    private final CRC32 crc = new CRC32();
+    private final byte[] longScratch = new byte[8];
+    
+    public ScoreFile(Path path, int capacity) throws IOException {
+        this.path = path;
+        this.capacity = capacity;
+        open();
+    }
+    
+    private void open() throws IOException {
+        boolean exists = Files.exists(path) && Files.size(path) >= HEADER_SIZE;
+        
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, 
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        
+        if (exists && buffer.getInt(0) == MAGIC) {
+            if (buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_SIZE) {
+                throw new IOException("Unsupported score file format: " + path);
+            }
+            readCommit();
+        } else {
+            // New or unrecognised file: start empty
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, RECORD_SIZE);
+            buffer.putInt(12, capacity);
+            sequence = 0;
+            count = 0;
+            writeCommit();
+        }
+    }
+    
+    /**
+     * Picks the valid commit slot with the highest sequence number.
+     */
+    private void readCommit() {
+        sequence = -1;
+        count = 0;
+        for (int slot : new int[] { SLOT_A, SLOT_B }) {
+            long slotSequence = buffer.getLong(slot);
+            int slotCount = buffer.getInt(slot + 8);
+            if (buffer.getInt(slot + 12) == commitChecksum(slotSequence, slotCount) 
+                    && slotSequence > sequence && slotCount >= 0 && slotCount <= capacity) {
+                sequence = slotSequence;
+                count = slotCount;
+            }
+        }
+        if (sequence < 0) {
+            System.err.println("Score file header damaged, starting empty: " + path);
+            sequence = 0;
+            count = 0;
+        }
+    }
+    
+    private void writeCommit() {
+        int slot = (sequence & 1) == 0 ? SLOT_A : SLOT_B;
+        buffer.putLong(slot, sequence);
+        buffer.putInt(slot + 8, count);
+        buffer.putInt(slot + 12, commitChecksum(sequence, count));
+        buffer.force();
+    }
+    
+    /**
+     * Appends a record and commits it.
+     * @return false if the file is full and needs {@link #compact(int)}
+     */
+    public boolean append(int score, long timestamp) {
+        if (count >= capacity) {
+            return false;
+        }
+        
+        int offset = HEADER_SIZE + count * RECORD_SIZE;
+        buffer.putLong(offset, timestamp);
+        buffer.putInt(offset + 8, score);
+        buffer.putInt(offset + 12, recordChecksum(timestamp, score));
+        buffer.force(offset, RECORD_SIZE);
+        
+        count++;
+        sequence++;
+        writeCommit();
+        return true;
+    }
+    
+    /**
+     * Reads every committed record, skipping any with a bad checksum.
+     */
+    public List<ScoreRecord> readAll() {
+        List<ScoreRecord> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int offset = HEADER_SIZE + i * RECORD_SIZE;
+            if (isIntact(offset)) {
+                records.add(new ScoreRecord(buffer.getInt(offset + 8), buffer.getLong(offset)));
+            }
+        }
+        return records;
+    }
+    
+    /**
+     * Drops all but the {@code keep} highest scores, in place.
+     * 
+     * Kept records only move towards the start, over records that were dropped or
+     * already moved, and the new count is committed last. A crash part way through
+     * leaves the previous commit, which still covers every kept record (a few
+     * possibly twice), so no kept score is ever lost.
+     */
+    public void compact(int keep) {
+        List<Integer> ranked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (isIntact(HEADER_SIZE + i * RECORD_SIZE)) {
+                ranked.add(i);
+            }
+        }
+        ranked.sort(Comparator.comparingInt((Integer i) -> buffer.getInt(HEADER_SIZE + i * RECORD_SIZE + 8)).reversed()
+                .thenComparingLong(i -> buffer.getLong(HEADER_SIZE + i * RECORD_SIZE)));
+        boolean[] kept = new boolean[count];
+        for (int i = 0; i < Math.min(keep, ranked.size()); i++) {
+            kept[ranked.get(i)] = true;
+        }
+        
+        int written = 0;
+        for (int i = 0; i < count; i++) {
+            if (!kept[i]) {
+                continue;
+            }
+            if (written != i) {
+                int from = HEADER_SIZE + i * RECORD_SIZE;
+                int to = HEADER_SIZE + written * RECORD_SIZE;
+                buffer.putLong(to, buffer.getLong(from));
+                buffer.putLong(to + 8, buffer.getLong(from + 8));
+            }
+            written++;
+        }
+        buffer.force();
+        
+        count = written;
+        sequence++;
+        writeCommit();
+    }
+    
+    private boolean isIntact(int offset) {
+        return buffer.getInt(offset + 12) == recordChecksum(buffer.getLong(offset), buffer.getInt(offset + 8));
+    }
+    
+    private int commitChecksum(long sequence, int count) {
+        crc.reset();
+        crc.update(longBytes(sequence));
+        crc.update(count >>> 24);
+        crc.update(count >>> 16);
+        crc.update(count >>> 8);
+        crc.update(count);
+        return (int) crc.getValue();
+    }
+    
+    private int recordChecksum(long timestamp, int score) {
+        crc.reset();
+        crc.update(longBytes(timestamp));
+        crc.update(score >>> 24);
+        crc.update(score >>> 16);
+        crc.update(score >>> 8);
+        crc.update(score);
+        return (int) crc.getValue();
+    }
+    
+    private byte[] longBytes(long value) {
+        for (int i = 0; i < 8; i++) {
+            longScratch[i] = (byte) (value >>> (56 - i * 8));
+        }
+        return longScratch;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.mjsamaha.dodger.leaderboard;
+
+/**
+ * One finished game as stored in the score file.
+ */
+public class ScoreRecord {
+    
+    private final int score;
+    private final long timestamp;
+    
+    public ScoreRecord(int score, long timestamp) {
+        this.score = score;
+        this.timestamp = timestamp;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    /**
+     * Time the game ended, in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,43 @@
+package com.mjsamaha.dodger.level;
+
+/**
+ * Vertical view into a scrolling level. The distance is how far the view has
+ * moved along the level; a point at level distance {@code d} sits at the top edge
+ * of the screen when the camera reaches {@code d} and moves down the screen as it
+ * scrolls on.
+ */
+public class Camera {
+    
+    private final float scrollSpeed;
+    private double distance;
+    
+    public Camera(float scrollSpeed) {
+        this.scrollSpeed = scrollSpeed;
+    }
+    
+    public void update(float dt) {
+        distance += scrollSpeed * dt;
+    }
+    
+    /**
+     * Screen y of a point of the level, given its distance.
+     */
+    public float toScreenY(double levelDistance) {
+        return (float) (distance - levelDistance);
+    }
+    
+    public double getDistance() {
+        return distance;
+    }
+    
+    public void setDistance(double distance) {
+        this.distance = distance;
+    }
+    
+    /**
+     * Pixels per second that world points move down the screen.
+     */
+    public float getScrollSpeed() {
+        return scrollSpeed;
+    }
+}
@@ -0,0 +1,148 @@
+package com.mjsamaha.dodger.level;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only, memory-mapped level: hazard placements grouped into fixed-size chunks
+ * along the scroll direction.
+ *
+ * Layout (little-endian):
+ * <pre>
+ * 0   int   magic "DGLV"
+ * 4   int   format version
+ * 8   int   level width
+ * 12  int   chunk height (scroll distance covered by one chunk)
+ * 16  int   chunk count
+ * 20  int   chunk capacity (hazard slots per chunk)
+ * 24  float scroll speed
+ * 28  int   reserved
+ * 32  chunks, each: int hazard count, then capacity slots of
+ *     short offset, short x, byte width, byte height, byte shape, byte color, float velocityX
+ * </pre>
+ *
+ * Offsets are distances from the start of the chunk, and the hazards of a chunk
+ * are sorted by offset. Because every chunk has the same size, chunk {@code i}
+ * starts at a fixed position and can be read without touching the rest of the
+ * file; the OS only pages in the chunks that are actually read.
+ *
+ * The mapping outlives the file channel, so the file is closed as soon as it is
+ * mapped. Levels are limited to 2 GB.
+ */
+public final class LevelFile {
+    
+    static final int MAGIC = 0x564C4744; // "DGLV"
+    static final int VERSION = 1;
+    
+    static final int HEADER_SIZE = 32;
+    static final int HAZARD_SIZE = 12;
+    
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int width;
+    private final int chunkHeight;
+    private final int chunkCount;
+    private final int chunkCapacity;
+    private final float scrollSpeed;
+    
+    private LevelFile(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a level file: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported level file version " + buffer.getInt(4) + ": " + path);
+        }
+        width = buffer.getInt(8);
+        chunkHeight = buffer.getInt(12);
+        chunkCount = buffer.getInt(16);
+        chunkCapacity = buffer.getInt(20);
+        scrollSpeed = buffer.getFloat(24);
+        
+        if (width <= 0 || chunkHeight <= 0 || chunkHeight > Short.MAX_VALUE || chunkCount < 0
+                || chunkCapacity < 0 || !(scrollSpeed > 0)
+                || buffer.capacity() != HEADER_SIZE + (long) chunkCount * chunkSize(chunkCapacity)) {
+            throw new IOException("Level file header damaged: " + path);
+        }
+    }
+    
+    public static LevelFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Level file larger than 2 GB: " + path);
+            }
+            return new LevelFile(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+    
+    static int chunkSize(int capacity) {
+        return 4 + capacity * HAZARD_SIZE;
+    }
+    
+    /**
+     * A view of one chunk, starting at its hazard count. Reading it pages in that
+     * chunk only.
+     */
+    MappedByteBuffer chunk(int index) {
+        if (index < 0 || index >= chunkCount) {
+            throw new IndexOutOfBoundsException("Chunk " + index + " of " + chunkCount);
+        }
+        int size = chunkSize(chunkCapacity);
+        MappedByteBuffer chunk = buffer.slice(HEADER_SIZE + index * size, size);
+        chunk.order(ByteOrder.LITTLE_ENDIAN);
+        return chunk;
+    }
+    
+    /**
+     * Hazards stored in a chunk, clamped to the capacity in case the file is damaged.
+     */
+    static int hazardCount(ByteBuffer chunk, int capacity) {
+        return Math.max(0, Math.min(capacity, chunk.getInt(0)));
+    }
+    
+    /**
+     * Position of a hazard's slot within its chunk.
+     */
+    static int hazardPosition(int hazard) {
+        return 4 + hazard * HAZARD_SIZE;
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getChunkHeight() {
+        return chunkHeight;
+    }
+    
+    public int getChunkCount() {
+        return chunkCount;
+    }
+    
+    public int getChunkCapacity() {
+        return chunkCapacity;
+    }
+    
+    public float getScrollSpeed() {
+        return scrollSpeed;
+    }
+    
+    /**
+     * Total scroll distance of the level.
+     */
+    public long getLength() {
+        return (long) chunkCount * chunkHeight;
+    }
+}
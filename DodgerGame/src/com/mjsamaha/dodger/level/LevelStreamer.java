@@ -0,0 +1,188 @@
+package com.mjsamaha.dodger.level;
+
+import java.awt.Color;
+import java.nio.MappedByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.entities.HazardShape;
+
+/**
+ * Feeds the hazards of a {@link LevelFile} into the game as the {@link Camera}
+ * scrolls over them.
+ *
+ * Only a window of chunks around the camera is active: chunks are activated a
+ * few chunks before the camera reaches them, paged in on a background thread so
+ * a tick never waits on the disk, and dropped
+ * once everything they hold has scrolled off the bottom of the screen. Hazards
+ * become falling objects when the camera reaches their distance, moving down at
+ * the scroll speed so they stay fixed in the level. Live objects, active chunks
+ * and the work per tick therefore depend on the level's density, not its length.
+ *
+ * Which hazards have been spawned follows from the camera distance alone, so
+ * {@link #seek(double)} restores the streamer from a saved distance.
+ */
+public class LevelStreamer {
+    
+    // Largest hazard the format can store; it is off screen once its top is past the bottom
+    private static final int MAX_HAZARD_SIZE = 255;
+    
+    // Shared by every streamer; page-ins are rare and short
+    private static final Executor PREFETCH = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Level-Prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final LevelFile level;
+    private final Camera camera;
+    private final int viewHeight;
+    
+    // Active chunks [firstActive, endActive), held in a ring indexed by chunk % length
+    private final MappedByteBuffer[] active;
+    private int firstActive;
+    private int endActive;
+    
+    // Next hazard to spawn
+    private int cursorChunk;
+    private int cursorHazard;
+    
+    public LevelStreamer(LevelFile level, int viewHeight) {
+        this.level = level;
+        this.camera = new Camera(level.getScrollSpeed());
+        this.viewHeight = viewHeight;
+        int behind = (viewHeight + MAX_HAZARD_SIZE) / level.getChunkHeight() + 2;
+        this.active = new MappedByteBuffer[behind + Constants.Level.PREFETCH_CHUNKS + 1];
+        seek(0);
+    }
+    
+    /**
+     * Scrolls the camera and moves the window of active chunks along with it.
+     */
+    public void advance(float dt) {
+        camera.update(dt);
+        updateWindow();
+    }
+    
+    /**
+     * Returns the next hazard the camera has reached as a new falling object, or
+     * null once all of them have been spawned.
+     */
+    public FallingObject poll() {
+        // Only after a jump the cursor could fall behind the window
+        if (cursorChunk < firstActive) {
+            cursorChunk = firstActive;
+            cursorHazard = 0;
+        }
+        while (cursorChunk < endActive) {
+            MappedByteBuffer chunk = active[cursorChunk % active.length];
+            if (cursorHazard >= LevelFile.hazardCount(chunk, level.getChunkCapacity())) {
+                cursorChunk++;
+                cursorHazard = 0;
+                continue;
+            }
+            
+            int slot = LevelFile.hazardPosition(cursorHazard);
+            double distance = (double) cursorChunk * level.getChunkHeight() + chunk.getShort(slot);
+            if (distance > camera.getDistance()) {
+                return null;
+            }
+            cursorHazard++;
+            
+            int width = chunk.get(slot + 4) & 0xFF;
+            int height = chunk.get(slot + 5) & 0xFF;
+            HazardShape shape = HazardShape.fromOrdinal(chunk.get(slot + 6));
+            Color[] colors = Constants.Objects.OBJECT_COLORS;
+            Color color = colors[(chunk.get(slot + 7) & 0xFF) % colors.length];
+            // Enters from just above the top edge
+            return new FallingObject(chunk.getShort(slot + 2), camera.toScreenY(distance) - height, width, height,
+                    camera.getScrollSpeed(), chunk.getFloat(slot + 8), color, shape);
+        }
+        return null;
+    }
+    
+    /**
+     * Jumps to a camera distance, as if the level had been played up to there.
+     */
+    public void seek(double distance) {
+        camera.setDistance(distance);
+        for (int i = 0; i < active.length; i++) {
+            active[i] = null;
+        }
+        firstActive = 0;
+        endActive = 0;
+        updateWindow();
+        
+        // Hazards at or before the camera have already been spawned
+        int chunkHeight = level.getChunkHeight();
+        cursorChunk = Math.max(0, Math.min(level.getChunkCount(), (int) Math.floor(distance / chunkHeight)));
+        cursorHazard = 0;
+        if (cursorChunk < endActive) {
+            MappedByteBuffer chunk = active[cursorChunk % active.length];
+            int count = LevelFile.hazardCount(chunk, level.getChunkCapacity());
+            double start = (double) cursorChunk * chunkHeight;
+            while (cursorHazard < count
+                    && start + chunk.getShort(LevelFile.hazardPosition(cursorHazard)) <= distance) {
+                cursorHazard++;
+            }
+        }
+    }
+    
+    /**
+     * Drops chunks whose hazards are all below the screen and activates the ones
+     * up to {@link Constants.Level#PREFETCH_CHUNKS} past the camera.
+     */
+    private void updateWindow() {
+        int chunkHeight = level.getChunkHeight();
+        double distance = camera.getDistance();
+        int first = (int) Math.floor((distance - viewHeight - MAX_HAZARD_SIZE) / chunkHeight) - 1;
+        int end = (int) Math.floor(distance / chunkHeight) + Constants.Level.PREFETCH_CHUNKS + 1;
+        first = Math.max(0, Math.min(level.getChunkCount(), first));
+        end = Math.max(first, Math.min(level.getChunkCount(), end));
+        
+        for (; firstActive < first && firstActive < endActive; firstActive++) {
+            active[firstActive % active.length] = null;
+        }
+        firstActive = first;
+        endActive = Math.max(endActive, first);
+        for (; endActive < end; endActive++) {
+            active[endActive % active.length] = level.chunk(endActive);
+            prefetch(endActive);
+        }
+    }
+    
+    /**
+     * Pages a chunk in on the prefetch thread, through a view of its own.
+     */
+    private void prefetch(int index) {
+        PREFETCH.execute(() -> level.chunk(index).load());
+    }
+    
+    public Camera getCamera() {
+        return camera;
+    }
+    
+    public LevelFile getLevel() {
+        return level;
+    }
+    
+    public int getActiveChunkCount() {
+        return endActive - firstActive;
+    }
+    
+    /**
+     * Returns true once every hazard has been spawned and scrolled off the screen.
+     */
+    public boolean isFinished() {
+        return camera.getDistance() > level.getLength() + viewHeight + MAX_HAZARD_SIZE;
+    }
+    
+    /**
+     * Fraction of the level scrolled so far, from 0 to 1.
+     */
+    public float getProgress() {
+        return level.getLength() == 0 ? 1 : (float) Math.min(1, camera.getDistance() / level.getLength());
+    }
+}
@@ -0,0 +1,176 @@
+package com.mjsamaha.dodger.level;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.entities.HazardShape;
+import com.mjsamaha.dodger.systems.GameRandom;
+
+/**
+ * Writes a {@link LevelFile} one chunk at a time, so levels of any length can be
+ * generated without holding them in memory. Hazards must be added in order of
+ * distance; the header is written on {@link #close()}.
+ *
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.level.LevelWriter
+ *     file [chunks] [seed]
+ * to generate a random level that gets denser towards the end.
+ */
+public class LevelWriter implements AutoCloseable {
+    
+    private final FileChannel channel;
+    private final int width;
+    private final int chunkHeight;
+    private final int chunkCapacity;
+    private final float scrollSpeed;
+    private final ByteBuffer chunk;
+    
+    private int chunkCount;
+    private int hazardCount;
+    private double lastDistance;
+    
+    public LevelWriter(Path path, int width, int chunkHeight, int chunkCapacity, float scrollSpeed) throws IOException {
+        if (chunkHeight <= 0 || chunkHeight > Short.MAX_VALUE || chunkCapacity < 0 || !(scrollSpeed > 0)) {
+            throw new IllegalArgumentException("Invalid level layout");
+        }
+        this.width = width;
+        this.chunkHeight = chunkHeight;
+        this.chunkCapacity = chunkCapacity;
+        this.scrollSpeed = scrollSpeed;
+        this.chunk = ByteBuffer.allocate(LevelFile.chunkSize(chunkCapacity)).order(ByteOrder.LITTLE_ENDIAN);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(LevelFile.HEADER_SIZE);
+        chunk.position(4);
+    }
+    
+    /**
+     * Adds a hazard that enters the top of the screen once the camera has scrolled
+     * {@code distance} pixels.
+     * @param color Index into {@link Constants.Objects#OBJECT_COLORS}
+     */
+    public void add(double distance, int x, int hazardWidth, int hazardHeight, HazardShape shape, int color,
+                    float velocityX) throws IOException {
+        int index = (int) (distance / chunkHeight);
+        if (distance < lastDistance || index < chunkCount) {
+            throw new IllegalArgumentException("Hazards must be added in order of distance");
+        }
+        lastDistance = distance;
+        
+        while (chunkCount < index) {
+            flushChunk();
+        }
+        if (hazardCount == chunkCapacity) {
+            throw new IllegalStateException("Chunk " + index + " holds at most " + chunkCapacity + " hazards");
+        }
+        
+        chunk.putShort((short) (distance - (double) index * chunkHeight));
+        chunk.putShort((short) x);
+        chunk.put((byte) hazardWidth);
+        chunk.put((byte) hazardHeight);
+        chunk.put((byte) shape.ordinal());
+        chunk.put((byte) color);
+        chunk.putFloat(velocityX);
+        hazardCount++;
+    }
+    
+    /**
+     * Ends the current chunk, padded to the fixed chunk size.
+     */
+    private void flushChunk() throws IOException {
+        while (chunk.hasRemaining()) {
+            chunk.put((byte) 0);
+        }
+        chunk.putInt(0, hazardCount);
+        chunk.flip();
+        while (chunk.hasRemaining()) {
+            channel.write(chunk);
+        }
+        chunk.clear();
+        chunk.position(4);
+        chunkCount++;
+        hazardCount = 0;
+    }
+    
+    /**
+     * Pads the level with empty chunks up to the given length in pixels.
+     */
+    public void extendTo(long length) throws IOException {
+        while ((long) chunkCount * chunkHeight < length) {
+            flushChunk();
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            if (hazardCount > 0) {
+                flushChunk();
+            }
+            
+            ByteBuffer header = ByteBuffer.allocate(LevelFile.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(LevelFile.MAGIC);
+            header.putInt(LevelFile.VERSION);
+            header.putInt(width);
+            header.putInt(chunkHeight);
+            header.putInt(chunkCount);
+            header.putInt(chunkCapacity);
+            header.putFloat(scrollSpeed);
+            header.putInt(0);
+            header.flip();
+            channel.position(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: LevelWriter file [chunks] [seed]");
+            System.exit(1);
+        }
+        Path path = Path.of(args[0]);
+        int chunks = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : Constants.Stress.DEFAULT_SEED;
+        
+        generate(path, chunks, seed);
+        LevelFile level = LevelFile.open(path);
+        System.out.printf("Wrote %s: %d chunks, %d px, %.1f minutes at %.0f px/s%n", path, level.getChunkCount(),
+                level.getLength(), level.getLength() / level.getScrollSpeed() / 60, level.getScrollSpeed());
+    }
+    
+    /**
+     * Random level at the default layout: a few hazards per chunk at the start,
+     * ramping up to half the chunk capacity at the end, every shape and color mixed.
+     */
+    public static void generate(Path path, int chunks, long seed) throws IOException {
+        GameRandom random = new GameRandom(seed);
+        int width = Constants.Window.WINDOW_WIDTH;
+        int chunkHeight = Constants.Level.CHUNK_HEIGHT;
+        HazardShape[] shapes = HazardShape.values();
+        
+        try (LevelWriter writer = new LevelWriter(path, width, chunkHeight, Constants.Level.CHUNK_CAPACITY,
+                Constants.Level.SCROLL_SPEED)) {
+            for (int c = 0; c < chunks; c++) {
+                int hazards = 2 + (int) ((long) c * (Constants.Level.CHUNK_CAPACITY / 2 - 2) / Math.max(1, chunks));
+                int spacing = chunkHeight / hazards;
+                for (int h = 0; h < hazards; h++) {
+                    int size = 24 + random.nextInt(33);
+                    float velocityX = random.nextInt(4) == 0 ? (random.nextFloat() - 0.5f) * 200 : 0;
+                    writer.add((double) c * chunkHeight + h * spacing + random.nextInt(spacing),
+                            random.nextInt(width - size), size, size,
+                            shapes[random.nextInt(shapes.length)],
+                            random.nextInt(Constants.Objects.OBJECT_COLORS.length), velocityX);
+                }
+            }
+            writer.extendTo((long) chunks * chunkHeight);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.mjsamaha.dodger.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.List;
+
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.entities.Player;
+
+/**
+ * Client side of the multiplayer protocol. Sends input packets and applies
+ * snapshots from a {@link MultiplayerServer}.
+ * 
+ * Uses a non-blocking channel and never waits: call {@link #sendInput(int)} and
+ * {@link #poll()} from the update thread once per tick. Latency is measured from
+ * sending an input until the first snapshot that acknowledges it.
+ */
+public class MultiplayerClient {
+    
+    private static final int LATENCY_SAMPLES = 1 << 16;
+    
+    private SocketChannel channel;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(64 * 1024);
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(4096);
+    
+    private final SnapshotDecoder decoder = new SnapshotDecoder();
+    private int playerId = -1;
+    private long tickNanos = 1_000_000_000L / 60;
+    private volatile long lastSnapshotNanos;
+    
+    // Send time of each input, indexed by sequence
+    private int inputSequence;
+    private final long[] inputSendNanos = new long[1024];
+    private int lastAck = -1;
+    
+    // Statistics
+    private final long[] latencyNanos = new long[LATENCY_SAMPLES];
+    private int latencyCount;
+    private long bytesReceived;
+    private long snapshotsReceived;
+    
+    /**
+     * Connects (blocking) and switches the channel to non-blocking mode.
+     */
+    public void connect(String host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        writeBuffer.flip();
+    }
+    
+    /**
+     * Sends the held directions (InputHandler.INPUT_* bits) for this tick.
+     */
+    public void sendInput(int inputBits) throws IOException {
+        int sequence = inputSequence++;
+        inputSendNanos[sequence & (inputSendNanos.length - 1)] = System.nanoTime();
+        
+        writeBuffer.compact();
+        if (writeBuffer.remaining() >= 10) {
+            writeBuffer.putInt(1 + 4 + 1);
+            writeBuffer.put(Protocol.MSG_INPUT);
+            writeBuffer.putInt(sequence);
+            writeBuffer.put((byte) inputBits);
+        }
+        writeBuffer.flip();
+        channel.write(writeBuffer);
+    }
+    
+    /**
+     * Reads and applies every complete message that has arrived.
+     * @return Number of snapshots applied
+     */
+    public int poll() throws IOException {
+        int snapshots = 0;
+        
+        while (true) {
+            int read = channel.read(readBuffer);
+            if (read < 0) {
+                throw new IOException("Server closed connection");
+            }
+            bytesReceived += read;
+            
+            readBuffer.flip();
+            while (readBuffer.remaining() >= 4) {
+                int length = readBuffer.getInt(readBuffer.position());
+                if (length <= 0 || length > Protocol.MAX_FRAME_SIZE) {
+                    throw new IOException("Bad frame length " + length);
+                }
+                if (readBuffer.remaining() < 4 + length) {
+                    break;
+                }
+                readBuffer.getInt();
+                int end = readBuffer.position() + length;
+                if (handleMessage(readBuffer)) {
+                    snapshots++;
+                }
+                readBuffer.position(end);
+            }
+            readBuffer.compact();
+            
+            // Frame bigger than the buffer: grow and keep reading
+            if (!readBuffer.hasRemaining()) {
+                ByteBuffer grown = ByteBuffer.allocate(readBuffer.capacity() * 2);
+                readBuffer.flip();
+                grown.put(readBuffer);
+                readBuffer = grown;
+                continue;
+            }
+            if (read == 0) {
+                return snapshots;
+            }
+        }
+    }
+    
+    /**
+     * Handles one message payload.
+     * @return true if it was a snapshot
+     */
+    private boolean handleMessage(ByteBuffer in) {
+        byte type = in.get();
+        if (type == Protocol.MSG_WELCOME) {
+            playerId = in.get();
+            tickNanos = 1_000_000_000L / in.getInt();
+        } else if (type == Protocol.MSG_SNAPSHOT) {
+            decoder.decode(in);
+            long now = System.nanoTime();
+            lastSnapshotNanos = now;
+            snapshotsReceived++;
+            
+            int ack = decoder.getAckSequence();
+            if (ack > lastAck) {
+                lastAck = ack;
+                if (inputSequence - ack <= inputSendNanos.length) {
+                    latencyNanos[latencyCount++ & (LATENCY_SAMPLES - 1)] = 
+                            now - inputSendNanos[ack & (inputSendNanos.length - 1)];
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Interpolation factor between the previous and latest snapshot.
+     */
+    public double getAlpha() {
+        double alpha = (System.nanoTime() - lastSnapshotNanos) / (double) tickNanos;
+        return Math.min(1.0, alpha);
+    }
+    
+    public List<FallingObject> getFallingObjects() {
+        return decoder.getFallingObjects();
+    }
+    
+    public List<Player> getPlayers() {
+        return decoder.getPlayers();
+    }
+    
+    public boolean isAlive(int id) {
+        return decoder.isAlive(id);
+    }
+    
+    public int getScore() {
+        return decoder.getScore();
+    }
+    
+    public int getTick() {
+        return decoder.getTick();
+    }
+    
+    /**
+     * Player id assigned by the server, or -1 before the welcome message.
+     */
+    public int getPlayerId() {
+        return playerId;
+    }
+    
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+    
+    public long getSnapshotsReceived() {
+        return snapshotsReceived;
+    }
+    
+    /**
+     * Returns the recorded input-to-snapshot latencies, sorted, in nanoseconds.
+     */
+    public long[] getSortedLatencies() {
+        long[] samples = Arrays.copyOf(latencyNanos, Math.min(latencyCount, LATENCY_SAMPLES));
+        Arrays.sort(samples);
+        return samples;
+    }
+    
+    public void close() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.mjsamaha.dodger.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.config.GameConfig;
+import com.mjsamaha.dodger.core.GameStateManager;
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.entities.Player;
+import com.mjsamaha.dodger.input.InputHandler;
+import com.mjsamaha.dodger.systems.CollisionDetector;
+import com.mjsamaha.dodger.systems.ObjectSpawner;
+
+/**
+ * Authoritative multiplayer server. Runs the shared {@link ObjectSpawner} simulation
+ * for up to {@link Protocol#MAX_PLAYERS} players on one thread, using a selector over
+ * non-blocking channels for all network I/O.
+ * 
+ * Each tick it applies the latest input from every client, updates the world,
+ * and sends every client a delta snapshot. A client whose socket can't keep up
+ * skips snapshots rather than delaying the tick. When every player has collided
+ * the round restarts.
+ */
+public class MultiplayerServer {
+    
+    // Skip snapshots for a client with more than this many unsent bytes
+    private static final int MAX_PENDING_BYTES = 256 * 1024;
+    
+    private final int port;
+    private final int width = Constants.Window.WINDOW_WIDTH;
+    private final int height = Constants.Window.WINDOW_HEIGHT;
+    private final int tps = GameConfig.get().getTargetTps();
+    private final double tickDuration = 1.0 / tps;
+    private final float maxFrameTime = GameConfig.get().getMaxFrameTime();
+    
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread serverThread;
+    private volatile boolean running;
+    
+    // Simulation state, only touched by the server thread
+    private final ObjectSpawner objectSpawner = new ObjectSpawner();
+    private final GameStateManager gameStateManager = new GameStateManager();
+    private final List<Player> players = new ArrayList<>();
+    private final boolean[] alive = new boolean[Protocol.MAX_PLAYERS];
+    private final ClientConnection[] clients = new ClientConnection[Protocol.MAX_PLAYERS];
+    private int tick;
+    
+    // Statistics
+    private volatile long ticks;
+    private volatile long bytesSent;
+    private volatile long fullSizeBytes;
+    private volatile long skippedSnapshots;
+    
+    public MultiplayerServer(int port) {
+        this.port = port;
+    }
+    
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Constants.Network.DEFAULT_PORT;
+        MultiplayerServer server = new MultiplayerServer(port);
+        server.start();
+        System.out.println("Multiplayer server listening on port " + server.getPort());
+    }
+    
+    /**
+     * Binds the listening socket and starts the server thread.
+     */
+    public void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        
+        running = true;
+        serverThread = new Thread(this::serverLoop, "Multiplayer-Server");
+        serverThread.start();
+    }
+    
+    /**
+     * Stops the server thread and closes every connection.
+     */
+    public void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        try {
+            if (serverThread != null) {
+                serverThread.join(1000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void serverLoop() {
+        long tickNanos = (long) (tickDuration * 1_000_000_000);
+        long nextTick = System.nanoTime();
+        
+        try {
+            while (running) {
+                long waitNanos = nextTick - System.nanoTime();
+                if (waitNanos > 1_000_000) {
+                    selector.select(waitNanos / 1_000_000);
+                } else {
+                    selector.selectNow();
+                }
+                handleSelectedKeys();
+                
+                if (System.nanoTime() >= nextTick) {
+                    tick();
+                    nextTick += tickNanos;
+                    
+                    // Don't try to catch up after a long stall
+                    if (System.nanoTime() - nextTick > maxFrameTime * 1_000_000_000L) {
+                        nextTick = System.nanoTime() + tickNanos;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Multiplayer server error: " + e.getMessage());
+        } finally {
+            closeAll();
+        }
+    }
+    
+    private void handleSelectedKeys() throws IOException {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            
+            ClientConnection client = (ClientConnection) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    client.read();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    client.flush();
+                }
+            } catch (IOException e) {
+                disconnect(client);
+            }
+        }
+    }
+    
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        
+        int playerId = -1;
+        for (int i = 0; i < clients.length; i++) {
+            if (clients[i] == null) {
+                playerId = i;
+                break;
+            }
+        }
+        if (playerId < 0) {
+            channel.close(); // Server full
+            return;
+        }
+        
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        ClientConnection client = new ClientConnection(playerId, channel, key);
+        key.attach(client);
+        clients[playerId] = client;
+        
+        while (players.size() <= playerId) {
+            players.add(createPlayer());
+        }
+        resetPlayer(playerId);
+        
+        client.sendWelcome();
+    }
+    
+    private void disconnect(ClientConnection client) {
+        client.close();
+        clients[client.playerId] = null;
+        alive[client.playerId] = false;
+    }
+    
+    private void tick() throws IOException {
+        float dt = (float) tickDuration;
+        boolean anyAlive = false;
+        
+        for (int i = 0; i < players.size(); i++) {
+            if (clients[i] == null || !alive[i]) {
+                continue;
+            }
+            Player player = players.get(i);
+            InputHandler.applyMovement(player, clients[i].inputBits, dt);
+            player.keepWithinBounds(width, height);
+        }
+        
+        objectSpawner.update(dt, width, height, gameStateManager);
+        
+        for (int i = 0; i < players.size(); i++) {
+            if (clients[i] != null && alive[i]) {
+                if (CollisionDetector.checkCollisions(players.get(i), objectSpawner.getFallingObjects())) {
+                    alive[i] = false;
+                } else {
+                    anyAlive = true;
+                }
+            }
+        }
+        
+        // Everyone is out (or nobody is connected): start a new round
+        if (!anyAlive) {
+            objectSpawner.reset();
+            gameStateManager.reset();
+            for (int i = 0; i < players.size(); i++) {
+                resetPlayer(i);
+            }
+        }
+        
+        for (ClientConnection client : clients) {
+            if (client != null) {
+                try {
+                    client.sendSnapshot();
+                } catch (IOException e) {
+                    disconnect(client);
+                }
+            }
+        }
+        
+        tick++;
+        ticks++;
+    }
+    
+    private Player createPlayer() {
+        return new Player(
+            Constants.Player.START_X, 
+            Constants.Player.START_Y, 
+            Constants.Player.PLAYER_WIDTH, 
+            Constants.Player.PLAYER_HEIGHT, 
+            Constants.Player.PLAYER_SPEED, 
+            Constants.Player.PLAYER_COLOR
+        );
+    }
+    
+    // Spread players along the start row
+    private void resetPlayer(int playerId) {
+        Player player = players.get(playerId);
+        player.setX((Constants.Player.START_X + playerId * 80) % (width - Constants.Player.PLAYER_WIDTH));
+        player.setY(Constants.Player.START_Y);
+        player.updatePreviousPosition();
+        alive[playerId] = clients[playerId] != null;
+    }
+    
+    private void closeAll() {
+        for (ClientConnection client : clients) {
+            if (client != null) {
+                client.close();
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Error closing multiplayer server: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Returns the bound port (useful when started on port 0).
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+    
+    /**
+     * Current world, for inspection once the server has stopped.
+     */
+    public List<FallingObject> getFallingObjects() {
+        return objectSpawner.getFallingObjects();
+    }
+    
+    /**
+     * Tick number of the last snapshot sent. Only meaningful once stopped.
+     */
+    public int getLastTick() {
+        return tick - 1;
+    }
+    
+    public long getTicks() {
+        return ticks;
+    }
+    
+    public long getBytesSent() {
+        return bytesSent;
+    }
+    
+    /**
+     * Bytes the same snapshots would have used without delta compression.
+     */
+    public long getFullSizeBytes() {
+        return fullSizeBytes;
+    }
+    
+    public long getSkippedSnapshots() {
+        return skippedSnapshots;
+    }
+    
+    /**
+     * One connected player. Owned by the server thread.
+     */
+    private final class ClientConnection {
+        private final int playerId;
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final SnapshotEncoder encoder = new SnapshotEncoder();
+        
+        private ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+        private ByteBuffer writeBuffer = ByteBuffer.allocate(64 * 1024);
+        
+        private int inputBits;
+        private int lastInputSequence = -1;
+        
+        ClientConnection(int playerId, SocketChannel channel, SelectionKey key) {
+            this.playerId = playerId;
+            this.channel = channel;
+            this.key = key;
+            writeBuffer.flip(); // Empty, ready for draining
+        }
+        
+        void read() throws IOException {
+            if (channel.read(readBuffer) < 0) {
+                throw new IOException("Client closed connection");
+            }
+            
+            readBuffer.flip();
+            while (readBuffer.remaining() >= 4) {
+                int length = readBuffer.getInt(readBuffer.position());
+                if (length <= 0 || length > readBuffer.capacity() - 4) {
+                    throw new IOException("Bad frame length " + length);
+                }
+                if (readBuffer.remaining() < 4 + length) {
+                    break;
+                }
+                readBuffer.getInt();
+                int end = readBuffer.position() + length;
+                
+                if (readBuffer.get() == Protocol.MSG_INPUT) {
+                    int sequence = readBuffer.getInt();
+                    int bits = readBuffer.get();
+                    // Inputs can only arrive in order over TCP, but keep the newest to be safe
+                    if (sequence > lastInputSequence) {
+                        lastInputSequence = sequence;
+                        inputBits = bits;
+                    }
+                }
+                readBuffer.position(end);
+            }
+            readBuffer.compact();
+        }
+        
+        void sendWelcome() throws IOException {
+            ByteBuffer out = beginWrite(32);
+            out.putInt(1 + 1 + 4 + 2 + 2);
+            out.put(Protocol.MSG_WELCOME);
+            out.put((byte) playerId);
+            out.putInt(tps);
+            out.putShort((short) width);
+            out.putShort((short) height);
+            endWrite();
+        }
+        
+        void sendSnapshot() throws IOException {
+            if (writeBuffer.remaining() > MAX_PENDING_BYTES) {
+                skippedSnapshots++;
+                return;
+            }
+            
+            int objectCount = objectSpawner.getFallingObjects().size();
+            ByteBuffer out = beginWrite(encoder.maxFrameSize(players.size(), objectCount));
+            int start = out.position();
+            encoder.encode(out, tick, lastInputSequence, gameStateManager.getScore(), 
+                    players, alive, objectSpawner.getFallingObjects());
+            encoder.commit();
+            
+            bytesSent += out.position() - start;
+            fullSizeBytes += encoder.getLastFullSize();
+            endWrite();
+        }
+        
+        /**
+         * Switches the write buffer to fill mode with room for at least {@code size} more bytes.
+         */
+        private ByteBuffer beginWrite(int size) {
+            writeBuffer.compact();
+            if (writeBuffer.remaining() < size) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(writeBuffer.capacity() * 2, writeBuffer.position() + size));
+                writeBuffer.flip();
+                grown.put(writeBuffer);
+                writeBuffer = grown;
+            }
+            return writeBuffer;
+        }
+        
+        private void endWrite() throws IOException {
+            writeBuffer.flip();
+            flush();
+        }
+        
+        void flush() throws IOException {
+            channel.write(writeBuffer);
+            
+            // Only ask for write readiness while there is something left to send
+            int ops = writeBuffer.hasRemaining() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+            if (key.interestOps() != ops) {
+                key.interestOps(ops);
+            }
+        }
+        
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+}
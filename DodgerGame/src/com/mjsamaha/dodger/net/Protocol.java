@@ -0,0 +1,70 @@
+package com.mjsamaha.dodger.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format shared by {@link MultiplayerServer} and {@link MultiplayerClient}.
+ * 
+ * Every message is framed as an int length followed by that many payload bytes.
+ * The first payload byte is the message type. Positions are sent as shorts in
+ * quarter-pixel units; ids and deltas as variable-length integers.
+ */
+public final class Protocol {
+    
+    public static final byte MSG_WELCOME = 1;
+    public static final byte MSG_INPUT = 2;
+    public static final byte MSG_SNAPSHOT = 3;
+    public static final byte MSG_SPECTATOR_FRAME = 4;
+    
+    public static final int MAX_PLAYERS = 8;
+    public static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+    
+    // Sub-pixel precision of transmitted positions
+    public static final float POSITION_SCALE = 4f;
+    
+    private Protocol() {
+    }
+    
+    public static int quantize(float position) {
+        return Math.round(position * POSITION_SCALE);
+    }
+    
+    public static float dequantize(int quantized) {
+        return quantized / POSITION_SCALE;
+    }
+    
+    /**
+     * Writes an unsigned variable-length int (7 bits per byte).
+     */
+    public static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+    
+    public static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+    
+    /**
+     * Writes a signed int so small negative values stay short (zigzag encoding).
+     */
+    public static void putSignedVarInt(ByteBuffer buffer, int value) {
+        putVarInt(buffer, (value << 1) ^ (value >> 31));
+    }
+    
+    public static int getSignedVarInt(ByteBuffer buffer) {
+        int raw = getVarInt(buffer);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+}
@@ -0,0 +1,170 @@
+package com.mjsamaha.dodger.net;
+
+import java.awt.Color;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.entities.HazardShape;
+import com.mjsamaha.dodger.entities.Player;
+
+/**
+ * Applies snapshots produced by {@link SnapshotEncoder} to a local copy of the world.
+ * 
+ * Existing objects keep their instance between snapshots: each update moves the
+ * current position into the previous one, so the renderer can interpolate with
+ * {@link com.mjsamaha.dodger.entities.GameObject#getInterpolatedX(double)} exactly
+ * as it does for the local simulation.
+ */
+public class SnapshotDecoder {
+    
+    private static final Color[] PLAYER_COLORS = {
+        Constants.Player.PLAYER_COLOR,
+        Color.GREEN,
+        Color.ORANGE,
+        Color.PINK,
+        Color.CYAN,
+        Color.YELLOW,
+        Color.WHITE,
+        Color.MAGENTA
+    };
+    
+    // Sorted by id; swapped with the scratch list on every snapshot
+    private ArrayList<FallingObject> objects = new ArrayList<>();
+    private ArrayList<FallingObject> scratch = new ArrayList<>();
+    private int[] removedIds = new int[64];
+    
+    private final List<Player> players = new ArrayList<>();
+    private final boolean[] alive = new boolean[Protocol.MAX_PLAYERS];
+    
+    private int tick = -1;
+    private int ackSequence = -1;
+    private int score;
+    
+    /**
+     * Reads one snapshot payload (after the message type byte).
+     */
+    public void decode(ByteBuffer in) {
+        tick = in.getInt();
+        ackSequence = in.getInt();
+        score = in.getInt();
+        
+        int playerCount = in.get();
+        for (int i = 0; i < playerCount; i++) {
+            int id = in.get();
+            boolean isAlive = in.get() != 0;
+            float x = Protocol.dequantize(in.getShort());
+            float y = Protocol.dequantize(in.getShort());
+            
+            while (players.size() <= id) {
+                Color color = PLAYER_COLORS[players.size() % PLAYER_COLORS.length];
+                players.add(new Player(x, y, Constants.Player.PLAYER_WIDTH, 
+                        Constants.Player.PLAYER_HEIGHT, Constants.Player.PLAYER_SPEED, color));
+            }
+            
+            Player player = players.get(id);
+            player.updatePreviousPosition();
+            player.setX(x);
+            player.setY(y);
+            alive[id] = isAlive;
+        }
+        
+        // Removed ids
+        int removedCount = Protocol.getVarInt(in);
+        if (removedIds.length < removedCount) {
+            removedIds = new int[Math.max(removedCount, removedIds.length * 2)];
+        }
+        int id = 0;
+        for (int i = 0; i < removedCount; i++) {
+            id += Protocol.getVarInt(in);
+            removedIds[i] = id;
+        }
+        
+        // Every surviving object starts this snapshot at rest
+        scratch.clear();
+        int removedIndex = 0;
+        for (int i = 0; i < objects.size(); i++) {
+            FallingObject obj = objects.get(i);
+            if (removedIndex < removedCount && removedIds[removedIndex] == obj.getId()) {
+                removedIndex++;
+                continue;
+            }
+            obj.updatePreviousPosition();
+            scratch.add(obj);
+        }
+        
+        // Added objects have ids above every surviving one, except right after a join
+        int addedCount = Protocol.getVarInt(in);
+        id = 0;
+        int insertFrom = 0;
+        for (int i = 0; i < addedCount; i++) {
+            id += Protocol.getVarInt(in);
+            float x = Protocol.dequantize(in.getShort());
+            float y = Protocol.dequantize(in.getShort());
+            int width = in.get() & 0xFF;
+            int height = in.get() & 0xFF;
+            int rgb = ((in.get() & 0xFF) << 16) | ((in.get() & 0xFF) << 8) | (in.get() & 0xFF);
+            HazardShape shape = HazardShape.fromOrdinal(in.get());
+            
+            FallingObject obj = new FallingObject(x, y, width, height, 0, 0, new Color(rgb), shape);
+            obj.setId(id);
+            
+            while (insertFrom < scratch.size() && scratch.get(insertFrom).getId() < id) {
+                insertFrom++;
+            }
+            scratch.add(insertFrom, obj);
+            insertFrom++;
+        }
+        
+        // Moved objects
+        int movedCount = Protocol.getVarInt(in);
+        id = 0;
+        int index = 0;
+        for (int i = 0; i < movedCount; i++) {
+            id += Protocol.getVarInt(in);
+            int mask = in.get();
+            int dx = (mask & 1) != 0 ? Protocol.getSignedVarInt(in) : 0;
+            int dy = (mask & 2) != 0 ? Protocol.getSignedVarInt(in) : 0;
+            
+            while (scratch.get(index).getId() < id) {
+                index++;
+            }
+            FallingObject obj = scratch.get(index);
+            obj.setX(Protocol.dequantize(Protocol.quantize(obj.getX()) + dx));
+            obj.setY(Protocol.dequantize(Protocol.quantize(obj.getY()) + dy));
+        }
+        
+        ArrayList<FallingObject> swap = objects;
+        objects = scratch;
+        scratch = swap;
+    }
+    
+    /**
+     * Objects from the latest snapshot, sorted by id.
+     */
+    public List<FallingObject> getFallingObjects() {
+        return objects;
+    }
+    
+    public List<Player> getPlayers() {
+        return players;
+    }
+    
+    public boolean isAlive(int playerId) {
+        return alive[playerId];
+    }
+    
+    public int getTick() {
+        return tick;
+    }
+    
+    public int getAckSequence() {
+        return ackSequence;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+}
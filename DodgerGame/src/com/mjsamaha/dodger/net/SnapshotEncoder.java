@@ -0,0 +1,193 @@
+package com.mjsamaha.dodger.net;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.entities.Player;
+
+/**
+ * Encodes world snapshots as deltas against the last snapshot sent to one client.
+ * 
+ * Falling objects are compared by id. Because ids increase in spawn order and the
+ * spawner keeps spawn order, both the baseline and the current list are sorted,
+ * so the diff is a single merge pass. Objects are sent in three sections:
+ * removed ids, added objects (full state) and moved objects (position deltas).
+ * Objects that didn't move are omitted.
+ * 
+ * TCP delivers every snapshot in order, so the baseline is simply the last
+ * snapshot this encoder produced. Call {@link #commit()} once it has been queued;
+ * a snapshot that is dropped instead must not be committed.
+ */
+public class SnapshotEncoder {
+    
+    // Baseline: what the client currently has (quantized)
+    private int[] baseIds = new int[256];
+    private int[] baseX = new int[256];
+    private int[] baseY = new int[256];
+    private int baseCount;
+    
+    // Pending: what the last encode() produced
+    private int[] nextIds = new int[256];
+    private int[] nextX = new int[256];
+    private int[] nextY = new int[256];
+    private int nextCount;
+    
+    // Scratch sections, concatenated after the merge pass
+    private ByteBuffer removed = ByteBuffer.allocate(4096);
+    private ByteBuffer added = ByteBuffer.allocate(4096);
+    private ByteBuffer moved = ByteBuffer.allocate(4096);
+    
+    private long lastFullSize;
+    
+    /**
+     * Writes one snapshot frame (length prefix included) into {@code out}.
+     * {@code out} must have room for {@link #maxFrameSize(int, int)} bytes.
+     */
+    public void encode(ByteBuffer out, int tick, int ackSequence, int score, 
+                       List<Player> players, boolean[] alive, List<FallingObject> objects) {
+        int count = objects.size();
+        ensureCapacity(count, Math.max(count, baseCount));
+        removed.clear();
+        added.clear();
+        moved.clear();
+        
+        int removedCount = 0;
+        int addedCount = 0;
+        int movedCount = 0;
+        int lastRemovedId = 0;
+        int lastAddedId = 0;
+        int lastMovedId = 0;
+        
+        int base = 0;
+        for (int i = 0; i < count; i++) {
+            FallingObject obj = objects.get(i);
+            int id = obj.getId();
+            int qx = Protocol.quantize(obj.getX());
+            int qy = Protocol.quantize(obj.getY());
+            
+            nextIds[i] = id;
+            nextX[i] = qx;
+            nextY[i] = qy;
+            
+            // Baseline entries older than this id are gone
+            while (base < baseCount && baseIds[base] < id) {
+                Protocol.putVarInt(removed, baseIds[base] - lastRemovedId);
+                lastRemovedId = baseIds[base];
+                removedCount++;
+                base++;
+            }
+            
+            if (base < baseCount && baseIds[base] == id) {
+                int dx = qx - baseX[base];
+                int dy = qy - baseY[base];
+                if (dx != 0 || dy != 0) {
+                    Protocol.putVarInt(moved, id - lastMovedId);
+                    lastMovedId = id;
+                    moved.put((byte) ((dx != 0 ? 1 : 0) | (dy != 0 ? 2 : 0)));
+                    if (dx != 0) Protocol.putSignedVarInt(moved, dx);
+                    if (dy != 0) Protocol.putSignedVarInt(moved, dy);
+                    movedCount++;
+                }
+                base++;
+            } else {
+                Protocol.putVarInt(added, id - lastAddedId);
+                lastAddedId = id;
+                added.putShort((short) qx);
+                added.putShort((short) qy);
+                added.put((byte) obj.getWidth());
+                added.put((byte) obj.getHeight());
+                int rgb = obj.getObjectColor().getRGB();
+                added.put((byte) (rgb >> 16));
+                added.put((byte) (rgb >> 8));
+                added.put((byte) rgb);
+                added.put((byte) obj.getShape().ordinal());
+                addedCount++;
+            }
+        }
+        while (base < baseCount) {
+            Protocol.putVarInt(removed, baseIds[base] - lastRemovedId);
+            lastRemovedId = baseIds[base];
+            removedCount++;
+            base++;
+        }
+        nextCount = count;
+        
+        int lengthPosition = out.position();
+        out.putInt(0); // Patched below
+        int payloadStart = out.position();
+        
+        out.put(Protocol.MSG_SNAPSHOT);
+        out.putInt(tick);
+        out.putInt(ackSequence);
+        out.putInt(score);
+        
+        out.put((byte) players.size());
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            out.put((byte) i);
+            out.put((byte) (alive[i] ? 1 : 0));
+            out.putShort((short) Protocol.quantize(player.getX()));
+            out.putShort((short) Protocol.quantize(player.getY()));
+        }
+        
+        Protocol.putVarInt(out, removedCount);
+        out.put(removed.flip());
+        Protocol.putVarInt(out, addedCount);
+        out.put(added.flip());
+        Protocol.putVarInt(out, movedCount);
+        out.put(moved.flip());
+        
+        out.putInt(lengthPosition, out.position() - payloadStart);
+        
+        // Same snapshot sent without delta compression, for reporting
+        lastFullSize = 4 + 14 + players.size() * 6L + 5 + count * 12L;
+    }
+    
+    /**
+     * Makes the last encoded snapshot the baseline for the next one.
+     */
+    public void commit() {
+        int[] swap = baseIds; baseIds = nextIds; nextIds = swap;
+        swap = baseX; baseX = nextX; nextX = swap;
+        swap = baseY; baseY = nextY; nextY = swap;
+        baseCount = nextCount;
+    }
+    
+    /**
+     * Forgets the baseline so the next snapshot sends every object in full.
+     */
+    public void resetBaseline() {
+        baseCount = 0;
+    }
+    
+    /**
+     * Size the last snapshot would have had with every object sent in full.
+     */
+    public long getLastFullSize() {
+        return lastFullSize;
+    }
+    
+    /**
+     * Upper bound on the next frame's size, given the current counts.
+     */
+    public int maxFrameSize(int playerCount, int objectCount) {
+        return 64 + playerCount * 6 + (objectCount + baseCount) * 16;
+    }
+    
+    private void ensureCapacity(int count, int sectionEntries) {
+        if (nextIds.length < count) {
+            int size = Math.max(count, nextIds.length * 2);
+            nextIds = new int[size];
+            nextX = new int[size];
+            nextY = new int[size];
+        }
+        
+        int sectionSize = sectionEntries * 16 + 64;
+        if (removed.capacity() < sectionSize) {
+            removed = ByteBuffer.allocate(sectionSize);
+            added = ByteBuffer.allocate(sectionSize);
+            moved = ByteBuffer.allocate(sectionSize);
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.mjsamaha.dodger.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.core.GameStateManager;
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.entities.Player;
+
+/**
+ * Broadcasts the live game to any number of spectator connections.
+ * 
+ * The game thread calls {@link #publish} once per tick. It encodes the world once
+ * into a pooled direct buffer and hands it to the service thread; it never waits
+ * for sockets, and if every pooled frame is still being sent it drops the tick.
+ * 
+ * The service thread sends that one buffer to every spectator through a read-only
+ * view per spectator, so nothing is re-encoded or copied per client. A spectator
+ * that is still sending an older frame simply skips to the newest one when it
+ * finishes; one stuck on a single frame for {@link Constants.Network#SPECTATOR_SLOW_FRAMES}
+ * ticks is disconnected.
+ * 
+ * Frame layout: int length, byte type, int tick, int score, byte gameOver,
+ * short playerX, short playerY, int objectCount, then per object
+ * short x, short y, byte width, byte height, 3 bytes RGB, byte shape.
+ */
+public class SpectatorService {
+    
+    private static final int OBJECT_BYTES = 10;
+    private static final int HEADER_BYTES = 4 + 1 + 4 + 4 + 1 + 2 + 2 + 4;
+    
+    private final int port;
+    private final Frame[] pool;
+    private final AtomicReference<Frame> latest = new AtomicReference<>();
+    private int publishSequence;
+    
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread serviceThread;
+    private volatile boolean running;
+    
+    // Only touched by the service thread
+    private final List<Spectator> spectators = new ArrayList<>();
+    private int lastBroadcastSequence;
+    
+    // Statistics
+    private volatile long framesPublished;
+    private volatile long framesDroppedAtPublish;
+    private volatile long framesSkipped;
+    private volatile long slowDisconnects;
+    private volatile int spectatorCount;
+    
+    public SpectatorService(int port) {
+        this.port = port;
+        this.pool = new Frame[Constants.Network.SPECTATOR_FRAME_POOL];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = new Frame(i);
+        }
+    }
+    
+    /**
+     * Binds the listening socket and starts the service thread.
+     */
+    public void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        
+        running = true;
+        serviceThread = new Thread(this::serviceLoop, "Spectator-Service");
+        serviceThread.setDaemon(true);
+        serviceThread.start();
+    }
+    
+    public void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        try {
+            if (serviceThread != null) {
+                serviceThread.join(1000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Encodes the current world and queues it for every spectator. Called on the
+     * update thread; never blocks.
+     */
+    public void publish(int tick, Player player, List<FallingObject> objects, GameStateManager gameStateManager) {
+        Frame frame = acquireFreeFrame();
+        if (frame == null) {
+            framesDroppedAtPublish++;
+            return;
+        }
+        
+        int count = objects.size();
+        ByteBuffer out = frame.ensureCapacity(HEADER_BYTES + count * OBJECT_BYTES);
+        out.clear();
+        out.putInt(0); // Patched below
+        out.put(Protocol.MSG_SPECTATOR_FRAME);
+        out.putInt(tick);
+        out.putInt(gameStateManager.getScore());
+        out.put((byte) (gameStateManager.isGameOver() ? 1 : 0));
+        out.putShort((short) Protocol.quantize(player.getX()));
+        out.putShort((short) Protocol.quantize(player.getY()));
+        out.putInt(count);
+        for (int i = 0; i < count; i++) {
+            FallingObject obj = objects.get(i);
+            out.putShort((short) Protocol.quantize(obj.getX()));
+            out.putShort((short) Protocol.quantize(obj.getY()));
+            out.put((byte) obj.getWidth());
+            out.put((byte) obj.getHeight());
+            int rgb = obj.getObjectColor().getRGB();
+            out.put((byte) (rgb >> 16));
+            out.put((byte) (rgb >> 8));
+            out.put((byte) rgb);
+            out.put((byte) obj.getShape().ordinal());
+        }
+        out.putInt(0, out.position() - 4);
+        frame.length = out.position();
+        frame.sequence = ++publishSequence;
+        
+        // The latest slot holds one reference until a newer frame replaces it
+        Frame previous = latest.getAndSet(frame);
+        if (previous != null) {
+            previous.release();
+        }
+        framesPublished++;
+        
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+    
+    private Frame acquireFreeFrame() {
+        for (Frame frame : pool) {
+            if (frame.references.compareAndSet(0, 1)) {
+                return frame;
+            }
+        }
+        return null;
+    }
+    
+    private void serviceLoop() {
+        try {
+            while (running) {
+                selector.select();
+                
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Spectator spectator = (Spectator) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                spectator.drainInput();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                spectator.flush();
+                            }
+                        } catch (IOException e) {
+                            disconnect(spectator);
+                        }
+                    }
+                }
+                
+                broadcastLatest();
+            }
+        } catch (IOException e) {
+            System.err.println("Spectator service error: " + e.getMessage());
+        } finally {
+            for (Spectator spectator : new ArrayList<>(spectators)) {
+                disconnect(spectator);
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Error closing spectator service: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Starts the newest frame on every idle spectator and counts skips for busy ones.
+     */
+    private void broadcastLatest() {
+        Frame frame = latest.get();
+        if (frame == null || frame.sequence == lastBroadcastSequence) {
+            return;
+        }
+        lastBroadcastSequence = frame.sequence;
+        
+        for (int i = spectators.size() - 1; i >= 0; i--) {
+            Spectator spectator = spectators.get(i);
+            try {
+                spectator.offer();
+            } catch (IOException e) {
+                disconnect(spectator);
+            }
+        }
+    }
+    
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        Spectator spectator = new Spectator(channel, key);
+        key.attach(spectator);
+        spectators.add(spectator);
+        spectatorCount = spectators.size();
+    }
+    
+    private void disconnect(Spectator spectator) {
+        spectator.close();
+        spectators.remove(spectator);
+        spectatorCount = spectators.size();
+    }
+    
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+    
+    public long getFramesPublished() {
+        return framesPublished;
+    }
+    
+    /**
+     * Ticks dropped because every pooled frame was still being sent.
+     */
+    public long getFramesDroppedAtPublish() {
+        return framesDroppedAtPublish;
+    }
+    
+    /**
+     * Frames a spectator skipped because it was still sending an older one.
+     */
+    public long getFramesSkipped() {
+        return framesSkipped;
+    }
+    
+    public long getSlowDisconnects() {
+        return slowDisconnects;
+    }
+    
+    public int getSpectatorCount() {
+        return spectatorCount;
+    }
+    
+    /**
+     * One encoded tick. Reference counted so the game thread only reuses it
+     * once no spectator is still sending it.
+     */
+    private static final class Frame {
+        private final int index;
+        private final AtomicInteger references = new AtomicInteger();
+        private ByteBuffer data = ByteBuffer.allocateDirect(64 * 1024);
+        private volatile int generation; // Bumped when data is reallocated
+        private int length;
+        private volatile int sequence;
+        
+        Frame(int index) {
+            this.index = index;
+        }
+        
+        ByteBuffer ensureCapacity(int size) {
+            if (data.capacity() < size) {
+                data = ByteBuffer.allocateDirect(Math.max(size, data.capacity() * 2));
+                generation++;
+            }
+            return data;
+        }
+        
+        void retain() {
+            references.incrementAndGet();
+        }
+        
+        void release() {
+            references.decrementAndGet();
+        }
+    }
+    
+    /**
+     * One spectator connection. Keeps a reusable view per pooled frame, so
+     * sending a frame only moves that view's position and limit.
+     */
+    private final class Spectator {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer[] views = new ByteBuffer[pool.length];
+        private final int[] viewGenerations = new int[pool.length];
+        private final ByteBuffer inputBuffer = ByteBuffer.allocate(256);
+        
+        private Frame current;
+        private ByteBuffer currentView;
+        private int lastSentSequence;
+        private int skippedWhileSending;
+        
+        Spectator(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+        
+        /**
+         * Starts sending the latest frame if idle, otherwise records a skip.
+         */
+        void offer() throws IOException {
+            if (current != null) {
+                framesSkipped++;
+                if (++skippedWhileSending >= Constants.Network.SPECTATOR_SLOW_FRAMES) {
+                    slowDisconnects++;
+                    throw new IOException("Slow spectator");
+                }
+                return;
+            }
+            startLatest();
+        }
+        
+        private void startLatest() throws IOException {
+            Frame frame = latest.get();
+            if (frame == null || frame.sequence == lastSentSequence) {
+                return;
+            }
+            
+            frame.retain();
+            // The frame may have been recycled between reading latest and retaining it
+            if (latest.get() != frame) {
+                frame.release();
+                return;
+            }
+            
+            if (views[frame.index] == null || viewGenerations[frame.index] != frame.generation) {
+                views[frame.index] = frame.data.asReadOnlyBuffer();
+                viewGenerations[frame.index] = frame.generation;
+            }
+            
+            current = frame;
+            currentView = views[frame.index];
+            currentView.limit(frame.length).position(0);
+            lastSentSequence = frame.sequence;
+            skippedWhileSending = 0;
+            flush();
+        }
+        
+        void flush() throws IOException {
+            if (current == null) {
+                return;
+            }
+            
+            channel.write(currentView);
+            if (currentView.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            
+            current.release();
+            current = null;
+            key.interestOps(SelectionKey.OP_READ);
+            
+            // Catch up straight to the newest frame
+            startLatest();
+        }
+        
+        /**
+         * Spectators don't send anything; reading only detects a closed connection.
+         */
+        void drainInput() throws IOException {
+            inputBuffer.clear();
+            if (channel.read(inputBuffer) < 0) {
+                throw new IOException("Spectator closed connection");
+            }
+        }
+        
+        void close() {
+            if (current != null) {
+                current.release();
+                current = null;
+            }
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+}
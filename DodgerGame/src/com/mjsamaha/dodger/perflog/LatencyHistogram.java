@@ -0,0 +1,91 @@
+package com.mjsamaha.dodger.perflog;
+
+/**
+ * Counts of durations in buckets about 3% wide, for percentiles without keeping
+ * or sorting every sample. Recording is a few shifts and an increment and never
+ * allocates. Values are in microseconds; below 64 every value has its own bucket.
+ */
+public class LatencyHistogram {
+    
+    private static final int EXACT = 64;
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = EXACT + (MAX_EXPONENT - SUB_BITS) * SUB_BUCKETS;
+    
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long max;
+    
+    public void record(long micros) {
+        long value = Math.max(0, Math.min(MAX_VALUE, micros));
+        counts[bucket(value)]++;
+        count++;
+        max = Math.max(max, value);
+    }
+    
+    /**
+     * Adds another histogram's samples to this one.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+    
+    /**
+     * Smallest recorded value that at least a fraction {@code p} of the samples do
+     * not exceed, rounded up to its bucket's upper bound; 0 if there are none.
+     */
+    public long percentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(p * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+    
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = 0;
+        }
+        count = 0;
+        max = 0;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public long getMax() {
+        return max;
+    }
+    
+    private static int bucket(long value) {
+        if (value < EXACT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BITS)); // 32..63
+        return EXACT + (exponent - SUB_BITS - 1) * SUB_BUCKETS + mantissa - SUB_BUCKETS;
+    }
+    
+    private static long upperBound(int bucket) {
+        if (bucket < EXACT) {
+            return bucket;
+        }
+        int exponent = (bucket - EXACT) / SUB_BUCKETS + SUB_BITS + 1;
+        long mantissa = (bucket - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,183 @@
+package com.mjsamaha.dodger.perflog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary format of the performance log: segment files of fixed-size records,
+ * each file starting with a header that names the session it belongs to.
+ *
+ * Header (little-endian):
+ * <pre>
+ * 0   int   magic "DGPF"
+ * 4   int   format version
+ * 8   long  session id
+ * 16  long  session start, epoch milliseconds
+ * 24  int   segment number within the session
+ * 28  int   record size
+ * 32  16    game version, ASCII, zero padded
+ * 48  16    loop strategy, ASCII, zero padded
+ * </pre>
+ *
+ * Every record starts with:
+ * <pre>
+ * 0   byte  type ({@link #SECOND} or {@link #SPIKE})
+ * 1   byte  game phase ({@link #PLAYING}, {@link #GAME_OVER}, {@link #MULTIPLAYER})
+ * 2   short flags (spikes: {@link #SPIKE_TICK}, {@link #SPIKE_FRAME}, {@link #SPIKE_GC})
+ * 4   int   milliseconds since the session started
+ * 8   int   score
+ * 12  int   live entities
+ * </pre>
+ * followed, for a second, by tick and frame counts, tick p50/p95/p99/max, frame
+ * interval p50/p95/p99/max (all in microseconds) and the collections and
+ * collection milliseconds of that second; for a spike, by its duration and the
+ * budget it overran, in microseconds.
+ *
+ * Records are only appended, so a crash can at most cut the last one short;
+ * readers ignore a trailing partial record.
+ */
+public final class PerfLog {
+    
+    public static final int MAGIC = 0x46504744; // "DGPF"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    public static final int RECORD_SIZE = 64;
+    public static final String EXTENSION = ".dgperf";
+    
+    private static final int NAME_SIZE = 16;
+    
+    // Record types
+    public static final byte SECOND = 1;
+    public static final byte SPIKE = 2;
+    
+    // Game phases
+    public static final byte PLAYING = 0;
+    public static final byte GAME_OVER = 1;
+    public static final byte MULTIPLAYER = 2;
+    
+    // Spike flags
+    public static final short SPIKE_TICK = 1;
+    public static final short SPIKE_FRAME = 2;
+    public static final short SPIKE_GC = 4;
+    
+    // Common fields
+    public static final int TYPE = 0;
+    public static final int PHASE = 1;
+    public static final int FLAGS = 2;
+    public static final int TIME = 4;
+    public static final int SCORE = 8;
+    public static final int ENTITIES = 12;
+    
+    // Second fields
+    public static final int TICKS = 16;
+    public static final int FRAMES = 20;
+    public static final int TICK_P50 = 24;
+    public static final int TICK_P95 = 28;
+    public static final int TICK_P99 = 32;
+    public static final int TICK_MAX = 36;
+    public static final int FRAME_P50 = 40;
+    public static final int FRAME_P95 = 44;
+    public static final int FRAME_P99 = 48;
+    public static final int FRAME_MAX = 52;
+    public static final int GC_COUNT = 56;
+    public static final int GC_MILLIS = 60;
+    
+    // Spike fields
+    public static final int DURATION = 16;
+    public static final int BUDGET = 20;
+    
+    private PerfLog() {
+    }
+    
+    /**
+     * Identity of the session a segment file belongs to.
+     */
+    public static final class Header {
+        private final long sessionId;
+        private final long startMillis;
+        private final int segment;
+        private final String gameVersion;
+        private final String loopStrategy;
+        
+        public Header(long sessionId, long startMillis, int segment, String gameVersion, String loopStrategy) {
+            this.sessionId = sessionId;
+            this.startMillis = startMillis;
+            this.segment = segment;
+            this.gameVersion = gameVersion;
+            this.loopStrategy = loopStrategy;
+        }
+        
+        /**
+         * Writes the header at the buffer's position, which must be little-endian.
+         */
+        public void write(ByteBuffer buffer) {
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(sessionId);
+            buffer.putLong(startMillis);
+            buffer.putInt(segment);
+            buffer.putInt(RECORD_SIZE);
+            putName(buffer, gameVersion);
+            putName(buffer, loopStrategy);
+        }
+        
+        /**
+         * Reads a header from the buffer's position, which must be little-endian.
+         */
+        public static Header read(ByteBuffer buffer) throws IOException {
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a performance log");
+            }
+            if (buffer.getInt() != VERSION) {
+                throw new IOException("Unsupported performance log version");
+            }
+            long sessionId = buffer.getLong();
+            long startMillis = buffer.getLong();
+            int segment = buffer.getInt();
+            if (buffer.getInt() != RECORD_SIZE) {
+                throw new IOException("Unexpected record size");
+            }
+            return new Header(sessionId, startMillis, segment, getName(buffer), getName(buffer));
+        }
+        
+        private static void putName(ByteBuffer buffer, String name) {
+            byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+            int length = Math.min(NAME_SIZE, bytes.length);
+            buffer.put(bytes, 0, length);
+            for (int i = length; i < NAME_SIZE; i++) {
+                buffer.put((byte) 0);
+            }
+        }
+        
+        private static String getName(ByteBuffer buffer) {
+            byte[] bytes = new byte[NAME_SIZE];
+            buffer.get(bytes);
+            int length = 0;
+            while (length < NAME_SIZE && bytes[length] != 0) {
+                length++;
+            }
+            return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+        }
+        
+        public long getSessionId() {
+            return sessionId;
+        }
+        
+        public long getStartMillis() {
+            return startMillis;
+        }
+        
+        public int getSegment() {
+            return segment;
+        }
+        
+        public String getGameVersion() {
+            return gameVersion;
+        }
+        
+        public String getLoopStrategy() {
+            return loopStrategy;
+        }
+    }
+}
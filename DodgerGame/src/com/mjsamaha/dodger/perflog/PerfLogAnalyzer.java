@@ -0,0 +1,375 @@
+package com.mjsamaha.dodger.perflog;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Command-line report over any number of {@link PerfLog} files, e.g. everything
+ * collected from a fleet of machines.
+ *
+ * Files are streamed a buffer at a time and folded into per-session totals, so
+ * memory depends on the number of sessions, not the size of the logs. Segments of
+ * one session may come in any order, from any directory. The report lists the
+ * worst sessions and, per game version in order of first appearance, the typical
+ * tick and frame times, spikes and GC time, flagging any metric that got worse
+ * than in the previous version by more than the threshold.
+ *
+ * Run with: java -p bin -m DodgerGame/com.mjsamaha.dodger.perflog.PerfLogAnalyzer
+ *     path... [top=10] [threshold=10] [minSeconds=30] [sort=frame|tick|spikes|gc]
+ * (or Main --analyze-perf ...). Directories are searched for {@code *.dgperf} files.
+ * Exits with status 1 if the newest version regressed.
+ */
+public class PerfLogAnalyzer {
+    
+    private static final int READ_BUFFER = 64 * 1024;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneId.systemDefault());
+    
+    /**
+     * Metrics compared between versions. A change only counts as a regression if
+     * it is also bigger than the floor, so near-zero values don't trip it.
+     */
+    public enum Metric {
+        TICK_P95("tick p95 ms", 0.1),
+        FRAME_P95("frame p95 ms", 0.5),
+        SPIKES("spikes/min", 0.5),
+        GC("GC ms/min", 5);
+        
+        private final String label;
+        private final double floor;
+        
+        Metric(String label, double floor) {
+            this.label = label;
+            this.floor = floor;
+        }
+        
+        public String getLabel() {
+            return label;
+        }
+    }
+    
+    /**
+     * Totals for one session, or for all sessions of a version.
+     */
+    public static final class Summary {
+        private final PerfLog.Header header;
+        private final Set<Integer> segments = new HashSet<>();
+        private final LatencyHistogram tickP95 = new LatencyHistogram();
+        private final LatencyHistogram frameP95 = new LatencyHistogram();
+        private int sessions;
+        private long seconds;
+        private long spikes;
+        private long gcMillis;
+        private long worstFrameMicros;
+        private int maxEntities;
+        private int maxScore;
+        
+        Summary(PerfLog.Header header) {
+            this.header = header;
+        }
+        
+        void addSecond(ByteBuffer buffer, int base) {
+            seconds++;
+            if (buffer.getInt(base + PerfLog.TICKS) > 0) {
+                tickP95.record(buffer.getInt(base + PerfLog.TICK_P95));
+            }
+            if (buffer.getInt(base + PerfLog.FRAMES) > 0) {
+                frameP95.record(buffer.getInt(base + PerfLog.FRAME_P95));
+            }
+            worstFrameMicros = Math.max(worstFrameMicros, buffer.getInt(base + PerfLog.FRAME_MAX));
+            gcMillis += buffer.getInt(base + PerfLog.GC_MILLIS);
+            addCommon(buffer, base);
+        }
+        
+        void addSpike(ByteBuffer buffer, int base) {
+            spikes++;
+            addCommon(buffer, base);
+        }
+        
+        private void addCommon(ByteBuffer buffer, int base) {
+            maxScore = Math.max(maxScore, buffer.getInt(base + PerfLog.SCORE));
+            maxEntities = Math.max(maxEntities, buffer.getInt(base + PerfLog.ENTITIES));
+        }
+        
+        void add(Summary session) {
+            sessions++;
+            tickP95.add(session.tickP95);
+            frameP95.add(session.frameP95);
+            seconds += session.seconds;
+            spikes += session.spikes;
+            gcMillis += session.gcMillis;
+            worstFrameMicros = Math.max(worstFrameMicros, session.worstFrameMicros);
+            maxEntities = Math.max(maxEntities, session.maxEntities);
+            maxScore = Math.max(maxScore, session.maxScore);
+        }
+        
+        public double get(Metric metric) {
+            double minutes = Math.max(1, seconds) / 60.0;
+            return switch (metric) {
+                case TICK_P95 -> tickP95.percentile(0.5) / 1000.0;
+                case FRAME_P95 -> frameP95.percentile(0.5) / 1000.0;
+                case SPIKES -> spikes / minutes;
+                case GC -> gcMillis / minutes;
+            };
+        }
+        
+        public PerfLog.Header getHeader() {
+            return header;
+        }
+        
+        public int getSessions() {
+            return sessions;
+        }
+        
+        /**
+         * Seconds summarised; less than the session's length if segments were rolled away.
+         */
+        public long getSeconds() {
+            return seconds;
+        }
+        
+        public long getSpikes() {
+            return spikes;
+        }
+        
+        public int getSegmentCount() {
+            return segments.size();
+        }
+        
+        public int getMaxScore() {
+            return maxScore;
+        }
+        
+        public int getMaxEntities() {
+            return maxEntities;
+        }
+        
+        public double getWorstFrameMillis() {
+            return worstFrameMicros / 1000.0;
+        }
+    }
+    
+    private final Map<Long, Summary> sessions = new LinkedHashMap<>();
+    private long records;
+    
+    public static void main(String[] args) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        int top = 10;
+        double threshold = 10;
+        int minSeconds = 30;
+        Metric sort = Metric.FRAME_P95;
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                paths.add(Path.of(arg));
+                continue;
+            }
+            String value = arg.substring(split + 1).trim();
+            switch (arg.substring(0, split).trim()) {
+                case "top" -> top = Integer.parseInt(value);
+                case "threshold" -> threshold = Double.parseDouble(value);
+                case "minSeconds" -> minSeconds = Integer.parseInt(value);
+                case "sort" -> sort = switch (value) {
+                    case "tick" -> Metric.TICK_P95;
+                    case "frame" -> Metric.FRAME_P95;
+                    case "spikes" -> Metric.SPIKES;
+                    case "gc" -> Metric.GC;
+                    default -> throw new IllegalArgumentException("Unknown sort: " + value);
+                };
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (paths.isEmpty()) {
+            System.err.println("Usage: PerfLogAnalyzer path... [top=10] [threshold=10] [minSeconds=30] [sort=frame]");
+            System.exit(2);
+        }
+        
+        PerfLogAnalyzer analyzer = new PerfLogAnalyzer();
+        long start = System.nanoTime();
+        int files = 0;
+        for (Path file : findLogs(paths)) {
+            try {
+                analyzer.read(file);
+                files++;
+            } catch (IOException e) {
+                System.err.println("Skipping " + file + ": " + e.getMessage());
+            }
+        }
+        System.out.printf("Read %d files, %d records, %d sessions in %.0f ms%n%n", files, analyzer.records,
+                analyzer.sessions.size(), (System.nanoTime() - start) / 1e6);
+        
+        analyzer.printWorstSessions(System.out, sort, top, minSeconds);
+        System.out.println();
+        List<String> regressions = analyzer.printVersions(System.out, threshold);
+        System.exit(regressions.isEmpty() ? 0 : 1);
+    }
+    
+    /**
+     * Log files among the given files and directories, in name order.
+     */
+    public static List<Path> findLogs(List<Path> paths) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path path : paths) {
+            if (!Files.isDirectory(path)) {
+                files.add(path);
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(path)) {
+                walk.filter(file -> file.getFileName().toString().endsWith(PerfLog.EXTENSION))
+                        .sorted().forEach(files::add);
+            }
+        }
+        return files;
+    }
+    
+    /**
+     * Streams one segment file into its session's totals. A partial last record is ignored.
+     */
+    public void read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+            Summary session = null;
+            boolean end = false;
+            while (!end) {
+                end = channel.read(buffer) < 0;
+                buffer.flip();
+                if (session == null) {
+                    if (buffer.remaining() < PerfLog.HEADER_SIZE) {
+                        if (end) {
+                            throw new IOException("Truncated header");
+                        }
+                        buffer.compact();
+                        continue;
+                    }
+                    PerfLog.Header header = PerfLog.Header.read(buffer);
+                    session = sessions.computeIfAbsent(header.getSessionId(), id -> new Summary(header));
+                    if (!session.segments.add(header.getSegment())) {
+                        throw new IOException("Segment " + header.getSegment() + " already read");
+                    }
+                }
+                
+                while (buffer.remaining() >= PerfLog.RECORD_SIZE) {
+                    int base = buffer.position();
+                    switch (buffer.get(base + PerfLog.TYPE)) {
+                        case PerfLog.SECOND -> session.addSecond(buffer, base);
+                        case PerfLog.SPIKE -> session.addSpike(buffer, base);
+                        default -> { } // Unknown types are skipped, newer writers may add some
+                    }
+                    records++;
+                    buffer.position(base + PerfLog.RECORD_SIZE);
+                }
+                buffer.compact();
+            }
+        }
+    }
+    
+    /**
+     * Prints the sessions with the highest value of a metric.
+     */
+    public List<Summary> printWorstSessions(PrintStream out, Metric sort, int top, int minSeconds) {
+        List<Summary> worst = sessions.values().stream()
+                .filter(session -> session.seconds >= minSeconds)
+                .sorted(Comparator.comparingDouble((Summary session) -> session.get(sort)).reversed())
+                .limit(top).toList();
+        
+        out.printf("Worst %d of %d sessions by %s (at least %d s):%n", worst.size(), sessions.size(),
+                sort.getLabel(), minSeconds);
+        out.printf("%-16s %-16s %-8s %-8s %8s %10s %10s %10s %10s %10s %7s %7s%n", "session", "started",
+                "version", "loop", "minutes", "tick p95", "frame p95", "worst ms", "spikes/min", "GC ms/min",
+                "score", "objects");
+        for (Summary session : worst) {
+            PerfLog.Header header = session.header;
+            out.printf("%016x %-16s %-8s %-8s %8.1f %10.2f %10.2f %10.1f %10.2f %10.1f %7d %7d%n",
+                    header.getSessionId(), DATE.format(Instant.ofEpochMilli(header.getStartMillis())),
+                    header.getGameVersion(), header.getLoopStrategy(), session.seconds / 60.0,
+                    session.get(Metric.TICK_P95), session.get(Metric.FRAME_P95), session.getWorstFrameMillis(),
+                    session.get(Metric.SPIKES), session.get(Metric.GC), session.maxScore, session.maxEntities);
+        }
+        return worst;
+    }
+    
+    /**
+     * Prints one line per game version and the regressions between consecutive ones.
+     * @return The regressions of the newest version against the one before it
+     */
+    public List<String> printVersions(PrintStream out, double thresholdPercent) {
+        Map<String, Summary> versions = summarizeVersions();
+        
+        out.printf("%-8s %8s %8s %10s %10s %10s %10s%n", "version", "sessions", "hours",
+                Metric.TICK_P95.getLabel(), Metric.FRAME_P95.getLabel(), Metric.SPIKES.getLabel(),
+                Metric.GC.getLabel());
+        Summary previous = null;
+        List<String> regressions = List.of();
+        for (Map.Entry<String, Summary> entry : versions.entrySet()) {
+            Summary version = entry.getValue();
+            out.printf("%-8s %8d %8.1f %10.2f %10.2f %10.2f %10.1f%n", entry.getKey(), version.sessions,
+                    version.seconds / 3600.0, version.get(Metric.TICK_P95), version.get(Metric.FRAME_P95),
+                    version.get(Metric.SPIKES), version.get(Metric.GC));
+            if (previous != null) {
+                regressions = compare(previous, version, thresholdPercent);
+                for (String regression : regressions) {
+                    out.println("  REGRESSION " + regression);
+                }
+            }
+            previous = version;
+        }
+        return regressions;
+    }
+    
+    /**
+     * Sessions merged by game version, ordered by the start of each version's first session.
+     */
+    public Map<String, Summary> summarizeVersions() {
+        List<Summary> ordered = new ArrayList<>(sessions.values());
+        ordered.sort(Comparator.comparingLong(session -> session.header.getStartMillis()));
+        
+        Map<String, Summary> versions = new LinkedHashMap<>();
+        for (Summary session : ordered) {
+            versions.computeIfAbsent(session.header.getGameVersion(), version -> new Summary(session.header))
+                    .add(session);
+        }
+        return versions;
+    }
+    
+    /**
+     * Metrics of {@code newer} that are worse than in {@code older} by more than
+     * the threshold and the metric's floor.
+     */
+    public static List<String> compare(Summary older, Summary newer, double thresholdPercent) {
+        List<String> regressions = new ArrayList<>();
+        for (Metric metric : Metric.values()) {
+            double before = older.get(metric);
+            double after = newer.get(metric);
+            if (after - before > metric.floor && after > before * (1 + thresholdPercent / 100)) {
+                regressions.add(String.format("%s %s: %.2f -> %.2f (%+.0f%%)", newer.header.getGameVersion(),
+                        metric.getLabel(), before, after, before > 0 ? (after / before - 1) * 100 : 100.0));
+            }
+        }
+        return regressions;
+    }
+    
+    public Map<Long, Summary> getSessions() {
+        return sessions;
+    }
+    
+    public long getRecordCount() {
+        return records;
+    }
+}
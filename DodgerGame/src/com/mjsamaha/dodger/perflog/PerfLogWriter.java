@@ -0,0 +1,235 @@
+package com.mjsamaha.dodger.perflog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import com.mjsamaha.dodger.Constants;
+
+/**
+ * Appends one session's {@link PerfLog} records to rolling segment files on a
+ * background thread.
+ *
+ * The game only copies each record into a preallocated ring with
+ * {@link #offer(ByteBuffer)}, which never blocks, allocates or touches the disk;
+ * if the writer falls a whole ring behind, new records are dropped and counted.
+ * The writer thread wakes every {@link Constants.PerfLog#FLUSH_MILLIS} and writes
+ * whatever has arrived.
+ *
+ * A segment is closed once it reaches the segment size and the next one opened.
+ * Before opening a segment, the oldest files in the directory, from any session,
+ * are deleted until the new one fits under the directory's size cap, so the logs
+ * never take more than that however long or often the game is played.
+ */
+public class PerfLogWriter {
+    
+    private final Path directory;
+    private final long segmentBytes;
+    private final long maxBytes;
+    private final PerfLog.Header session;
+    
+    // Records waiting for the writer. Offers must not overlap; the writer is the only consumer.
+    private final ByteBuffer ring;
+    private final int capacity;
+    private volatile long head;
+    private volatile long tail;
+    private volatile long dropped;
+    
+    private volatile boolean running;
+    private Thread writerThread;
+    
+    // Only used by the writer thread
+    private FileChannel channel;
+    private int segment;
+    private long segmentSize;
+    private boolean failed;
+    
+    /**
+     * Logs a new session of this game to {@link Constants.PerfLog#DIRECTORY}.
+     */
+    public static PerfLogWriter forGame(String loopStrategy) {
+        PerfLog.Header session = new PerfLog.Header(ThreadLocalRandom.current().nextLong(),
+                System.currentTimeMillis(), 0, Constants.Window.VER, loopStrategy);
+        return new PerfLogWriter(Path.of(Constants.PerfLog.DIRECTORY), Constants.PerfLog.SEGMENT_BYTES,
+                Constants.PerfLog.MAX_BYTES, Constants.PerfLog.RING_RECORDS, session);
+    }
+    
+    /**
+     * @param session Header for the session's segments; its segment number is ignored
+     */
+    public PerfLogWriter(Path directory, long segmentBytes, long maxBytes, int ringRecords, PerfLog.Header session) {
+        if (segmentBytes < PerfLog.HEADER_SIZE + PerfLog.RECORD_SIZE || maxBytes < segmentBytes) {
+            throw new IllegalArgumentException("Segments must hold a record and fit under the size cap");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.session = session;
+        this.capacity = ringRecords;
+        this.ring = ByteBuffer.allocate(ringRecords * PerfLog.RECORD_SIZE);
+    }
+    
+    public void start() {
+        if (writerThread != null) {
+            return;
+        }
+        
+        running = true;
+        writerThread = new Thread(this::writerLoop, "PerfLog-Writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+    
+    /**
+     * Queues the first {@link PerfLog#RECORD_SIZE} bytes of {@code record}.
+     * @return False if the ring was full and the record was dropped
+     */
+    public boolean offer(ByteBuffer record) {
+        long next = head;
+        if (next - tail >= capacity) {
+            dropped++;
+            return false;
+        }
+        ring.put((int) (next % capacity) * PerfLog.RECORD_SIZE, record, 0, PerfLog.RECORD_SIZE);
+        head = next + 1;
+        return true;
+    }
+    
+    /**
+     * Writes everything queued so far and stops the writer thread.
+     */
+    public void stop() {
+        if (writerThread == null) {
+            return;
+        }
+        
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread = null;
+    }
+    
+    private void writerLoop() {
+        while (true) {
+            boolean last = !running;
+            drain();
+            if (last) {
+                break;
+            }
+            LockSupport.parkNanos(Constants.PerfLog.FLUSH_MILLIS * 1_000_000L);
+        }
+        
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing performance log: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Writes the queued records straight from the ring, rolling segments as they fill.
+     */
+    private void drain() {
+        long next = tail;
+        long end = head;
+        while (next < end) {
+            int slot = (int) (next % capacity);
+            int count = (int) Math.min(end - next, capacity - slot);
+            if (!failed) {
+                try {
+                    count = Math.min(count, roomInSegment());
+                    write(ring.slice(slot * PerfLog.RECORD_SIZE, count * PerfLog.RECORD_SIZE));
+                } catch (IOException e) {
+                    System.err.println("Could not write performance log, logging stopped: " + e.getMessage());
+                    failed = true;
+                }
+            }
+            next += count;
+            tail = next;
+        }
+    }
+    
+    /**
+     * Number of records the current segment can still take, opening a new one if it is full.
+     */
+    private int roomInSegment() throws IOException {
+        if (channel == null || segmentSize + PerfLog.RECORD_SIZE > segmentBytes) {
+            openSegment();
+        }
+        return (int) ((segmentBytes - segmentSize) / PerfLog.RECORD_SIZE);
+    }
+    
+    private void write(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            int written = channel.write(data);
+            segmentSize += written;
+        }
+    }
+    
+    private void openSegment() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            segment++;
+        }
+        
+        Files.createDirectories(directory);
+        Path path = directory.resolve(String.format("perf-%013d-%016x-%04d%s",
+                session.getStartMillis(), session.getSessionId(), segment, PerfLog.EXTENSION));
+        makeRoom(segmentBytes);
+        
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(PerfLog.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        new PerfLog.Header(session.getSessionId(), session.getStartMillis(), segment,
+                session.getGameVersion(), session.getLoopStrategy()).write(header);
+        header.flip();
+        segmentSize = 0;
+        write(header);
+    }
+    
+    /**
+     * Deletes the oldest log files until {@code bytes} more fit under the size cap.
+     * File names start with the session's start time, so name order is age order.
+     */
+    private void makeRoom(long bytes) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(PerfLog.EXTENSION))
+                    .sorted().toList();
+        }
+        
+        long total = 0;
+        for (Path file : files) {
+            total += Files.size(file);
+        }
+        for (int i = 0; i < files.size() && total + bytes > maxBytes; i++) {
+            total -= Files.size(files.get(i));
+            Files.delete(files.get(i));
+        }
+    }
+    
+    public PerfLog.Header getSession() {
+        return session;
+    }
+    
+    /**
+     * Records lost because the writer could not keep up.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,184 @@
+package com.mjsamaha.dodger.perflog;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.core.GameClock;
+
+/**
+ * Turns the game loop's tick and frame times into {@link PerfLog} records: one
+ * summary per second, plus a record for every tick or frame that took more than
+ * {@link Constants.PerfLog#SPIKE_FACTOR} times its budget (at most
+ * {@link Constants.PerfLog#MAX_SPIKES_PER_SECOND} a second).
+ *
+ * Percentiles come from {@link LatencyHistogram}s and records are composed in one
+ * reusable buffer, so recording never allocates. Unlike {@code PerformanceMonitor}
+ * this is not reset when a game restarts: it covers the whole session.
+ *
+ * Not thread-safe; {@code GameLoop} only calls it while holding its update lock.
+ */
+public class SessionRecorder {
+    
+    private final PerfLogWriter writer;
+    private final GameClock clock;
+    private final long sessionStart;
+    
+    private final LatencyHistogram ticks = new LatencyHistogram();
+    private final LatencyHistogram frames = new LatencyHistogram();
+    private final ByteBuffer record = ByteBuffer.allocate(PerfLog.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long secondStart;
+    private int spikes;
+    private long tickBudget;
+    
+    private final GarbageCollectorMXBean[] collectors;
+    private long gcCount;
+    private long gcMillis;
+    private long secondGcCount;
+    private long secondGcMillis;
+    
+    // Latest game state, copied into every record
+    private byte phase = PerfLog.PLAYING;
+    private int score;
+    private int entities;
+    
+    public SessionRecorder(PerfLogWriter writer, GameClock clock) {
+        this.writer = writer;
+        this.clock = clock;
+        this.sessionStart = clock.nanoTime();
+        this.secondStart = sessionStart;
+        this.collectors = ManagementFactory.getGarbageCollectorMXBeans().toArray(new GarbageCollectorMXBean[0]);
+        pollCollectors();
+        secondGcCount = gcCount;
+        secondGcMillis = gcMillis;
+    }
+    
+    /**
+     * Records how long a tick took and ends the current second if it is over.
+     */
+    public void recordTick(long nanos) {
+        ticks.record(nanos / 1000);
+        if (tickBudget > 0 && nanos > tickBudget * Constants.PerfLog.SPIKE_FACTOR) {
+            spike(PerfLog.SPIKE_TICK, nanos, tickBudget);
+        }
+        endSecondIfDue();
+    }
+    
+    /**
+     * Records the time since the previous frame started against the frame deadline.
+     */
+    public void recordFrame(long intervalNanos, long targetNanos) {
+        frames.record(intervalNanos / 1000);
+        if (targetNanos > 0 && intervalNanos > targetNanos * Constants.PerfLog.SPIKE_FACTOR) {
+            spike(PerfLog.SPIKE_FRAME, intervalNanos, targetNanos);
+        }
+        endSecondIfDue();
+    }
+    
+    /**
+     * Sets the game state written with the following records.
+     * @param phase {@link PerfLog#PLAYING}, {@link PerfLog#GAME_OVER} or {@link PerfLog#MULTIPLAYER}
+     */
+    public void setGameState(byte phase, int score, int entities) {
+        this.phase = phase;
+        this.score = score;
+        this.entities = entities;
+    }
+    
+    public void setTickBudget(long tickBudget) {
+        this.tickBudget = tickBudget;
+    }
+    
+    /**
+     * Writes the summary of the second in progress, if anything was recorded in it.
+     */
+    public void flush() {
+        if (ticks.getCount() > 0 || frames.getCount() > 0) {
+            endSecond(clock.nanoTime());
+        }
+    }
+    
+    private void endSecondIfDue() {
+        long now = clock.nanoTime();
+        if (now - secondStart >= 1_000_000_000L) {
+            endSecond(now);
+        }
+    }
+    
+    private void endSecond(long now) {
+        pollCollectors();
+        begin(PerfLog.SECOND, (short) 0, now);
+        record.putInt(PerfLog.TICKS, (int) ticks.getCount());
+        record.putInt(PerfLog.FRAMES, (int) frames.getCount());
+        record.putInt(PerfLog.TICK_P50, (int) ticks.percentile(0.50));
+        record.putInt(PerfLog.TICK_P95, (int) ticks.percentile(0.95));
+        record.putInt(PerfLog.TICK_P99, (int) ticks.percentile(0.99));
+        record.putInt(PerfLog.TICK_MAX, (int) ticks.getMax());
+        record.putInt(PerfLog.FRAME_P50, (int) frames.percentile(0.50));
+        record.putInt(PerfLog.FRAME_P95, (int) frames.percentile(0.95));
+        record.putInt(PerfLog.FRAME_P99, (int) frames.percentile(0.99));
+        record.putInt(PerfLog.FRAME_MAX, (int) frames.getMax());
+        record.putInt(PerfLog.GC_COUNT, (int) (gcCount - secondGcCount));
+        record.putInt(PerfLog.GC_MILLIS, (int) (gcMillis - secondGcMillis));
+        writer.offer(record);
+        
+        ticks.reset();
+        frames.reset();
+        spikes = 0;
+        secondStart = now;
+        secondGcCount = gcCount;
+        secondGcMillis = gcMillis;
+    }
+    
+    private void spike(short kind, long nanos, long budgetNanos) {
+        if (spikes >= Constants.PerfLog.MAX_SPIKES_PER_SECOND) {
+            return;
+        }
+        spikes++;
+        
+        // A collection since the last poll most likely caused it
+        short flags = pollCollectors() ? (short) (kind | PerfLog.SPIKE_GC) : kind;
+        begin(PerfLog.SPIKE, flags, clock.nanoTime());
+        record.putInt(PerfLog.DURATION, (int) Math.min(Integer.MAX_VALUE, nanos / 1000));
+        record.putInt(PerfLog.BUDGET, (int) (budgetNanos / 1000));
+        writer.offer(record);
+    }
+    
+    /**
+     * Clears the record and fills in the fields every record has.
+     */
+    private void begin(byte type, short flags, long now) {
+        for (int i = 0; i < PerfLog.RECORD_SIZE; i += 8) {
+            record.putLong(i, 0);
+        }
+        record.put(PerfLog.TYPE, type);
+        record.put(PerfLog.PHASE, phase);
+        record.putShort(PerfLog.FLAGS, flags);
+        record.putInt(PerfLog.TIME, (int) ((now - sessionStart) / 1_000_000));
+        record.putInt(PerfLog.SCORE, score);
+        record.putInt(PerfLog.ENTITIES, entities);
+    }
+    
+    /**
+     * Updates the collection totals.
+     * @return True if a collection finished since the last poll
+     */
+    private boolean pollCollectors() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        boolean collected = count > gcCount;
+        gcCount = count;
+        gcMillis = millis;
+        return collected;
+    }
+    
+    public PerfLogWriter getWriter() {
+        return writer;
+    }
+}
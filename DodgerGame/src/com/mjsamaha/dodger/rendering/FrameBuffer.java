@@ -0,0 +1,188 @@
+package com.mjsamaha.dodger.rendering;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.config.GameConfig;
+
+/**
+ * Triple-buffered internal framebuffer at a fixed resolution.
+ * 
+ * The renderer draws a frame into the back image in logical (window) coordinates,
+ * scaled down or up to the framebuffer size, and {@link #swap()} publishes it. The
+ * panel then only blits the latest finished image to the window with
+ * {@link #present(Graphics2D, int, int)}, so fill cost follows the framebuffer
+ * resolution rather than the window or display resolution.
+ * 
+ * The three images are the back one (render thread), the ready one (latest
+ * finished frame) and the displayed one (EDT). Both threads hand images over by
+ * atomically exchanging the ready index, so the renderer never draws into an
+ * image the EDT is still scaling, and neither side waits for the other.
+ * 
+ * The resolution and filter come from the {@code resolution} ({@code 400x300} or
+ * {@code native}, see {@link GameConfig#isNativeResolution()}) and {@code filter} ({@code nearest|bilinear}) config keys. With
+ * {@code renderer=raster} the world is drawn by {@link RasterRenderer} directly
+ * into {@link #getBackPixels()}.
+ * 
+ * Each image keeps one graphics context for its whole life: creating one per frame
+ * was the largest allocation left on the render path.
+ */
+public class FrameBuffer {
+    
+    // Set in the ready index when it holds a frame the EDT has not taken yet
+    private static final int FRESH = 4;
+    private static final int INDEX = 3;
+    
+    private final int width;
+    private final int height;
+    private final boolean bilinear;
+    private final boolean raster;
+    
+    private final BufferedImage[] images = new BufferedImage[3];
+    private final int[][] pixels = new int[3][];
+    private final Graphics2D[] graphics = new Graphics2D[3];
+    private final AffineTransform identity = new AffineTransform();
+    
+    // The back image belongs to the render thread and the displayed one to the EDT;
+    // the ready one is exchanged between them
+    private int backIndex;
+    private final AtomicInteger ready = new AtomicInteger(1);
+    private int displayedIndex = 2;
+    private volatile boolean hasFrame;
+    
+    public FrameBuffer(int width, int height, boolean bilinear) {
+        this(width, height, bilinear, false);
+    }
+    
+    public FrameBuffer(int width, int height, boolean bilinear, boolean raster) {
+        this.width = width;
+        this.height = height;
+        this.bilinear = bilinear;
+        this.raster = raster;
+        for (int i = 0; i < images.length; i++) {
+            images[i] = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+    }
+    
+    /**
+     * Creates a framebuffer with the configured resolution, filter and renderer.
+     */
+    public static FrameBuffer fromConfig(GameConfig config) {
+        return new FrameBuffer(config.getRenderWidth(), config.getRenderHeight(), 
+                config.isRenderBilinear(), config.isRasterRenderer());
+    }
+    
+    /**
+     * Returns the back image's graphics context, cleared to black and scaled so that
+     * callers draw in logical coordinates. The context is reused every frame, so it
+     * must not be disposed; color, font and hints are whatever the last frame left.
+     */
+    public Graphics2D beginFrame() {
+        Graphics2D g2d = backGraphics();
+        g2d.setTransform(identity);
+        g2d.setColor(Color.BLACK);
+        g2d.fillRect(0, 0, width, height);
+        g2d.scale(width / (double) Constants.Window.WINDOW_WIDTH, height / (double) Constants.Window.WINDOW_HEIGHT);
+        return g2d;
+    }
+    
+    /**
+     * Returns the back image's pixels (RGB, {@link #getWidth()} per row) for
+     * software rendering. Nothing is cleared.
+     */
+    public int[] getBackPixels() {
+        // Taking the array stops Java2D from caching the image in video memory,
+        // so only do it once software rendering is actually used
+        if (pixels[backIndex] == null) {
+            pixels[backIndex] = ((DataBufferInt) images[backIndex].getRaster().getDataBuffer()).getData();
+        }
+        return pixels[backIndex];
+    }
+    
+    /**
+     * Returns the back image's graphics context in logical coordinates without
+     * clearing it, for drawing on top of software-rendered pixels. Like
+     * {@link #beginFrame()} it is reused and must not be disposed.
+     */
+    public Graphics2D createOverlayGraphics() {
+        Graphics2D g2d = backGraphics();
+        g2d.setTransform(identity);
+        g2d.scale(width / (double) Constants.Window.WINDOW_WIDTH, height / (double) Constants.Window.WINDOW_HEIGHT);
+        return g2d;
+    }
+    
+    private Graphics2D backGraphics() {
+        if (graphics[backIndex] == null) {
+            graphics[backIndex] = images[backIndex].createGraphics();
+        }
+        return graphics[backIndex];
+    }
+    
+    /**
+     * Publishes the back image as the frame to present and takes over the previous
+     * ready image (one the EDT has either skipped or given back) as the new back image.
+     */
+    public void swap() {
+        backIndex = ready.getAndSet(backIndex | FRESH) & INDEX;
+        hasFrame = true;
+    }
+    
+    /**
+     * Returns whether a frame has been finished yet.
+     */
+    public boolean hasFrame() {
+        return hasFrame;
+    }
+    
+    /**
+     * Draws the latest frame scaled to fit the target area, keeping the logical
+     * aspect ratio. Uncovered bars are left as they are.
+     */
+    public void present(Graphics2D g2d, int targetWidth, int targetHeight) {
+        if (!hasFrame) {
+            return;
+        }
+        // Take the newest frame, giving the one shown last back to the renderer
+        if ((ready.get() & FRESH) != 0) {
+            displayedIndex = ready.getAndSet(displayedIndex) & INDEX;
+        }
+        BufferedImage image = images[displayedIndex];
+        
+        double scale = Math.min(targetWidth / (double) Constants.Window.WINDOW_WIDTH, 
+                targetHeight / (double) Constants.Window.WINDOW_HEIGHT);
+        int drawWidth = (int) Math.round(Constants.Window.WINDOW_WIDTH * scale);
+        int drawHeight = (int) Math.round(Constants.Window.WINDOW_HEIGHT * scale);
+        int x = (targetWidth - drawWidth) / 2;
+        int y = (targetHeight - drawHeight) / 2;
+        
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, bilinear 
+                ? RenderingHints.VALUE_INTERPOLATION_BILINEAR 
+                : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2d.drawImage(image, x, y, drawWidth, drawHeight, null);
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    public boolean isBilinear() {
+        return bilinear;
+    }
+    
+    /**
+     * Returns whether the world should be drawn with {@link RasterRenderer}.
+     */
+    public boolean isRaster() {
+        return raster;
+    }
+}
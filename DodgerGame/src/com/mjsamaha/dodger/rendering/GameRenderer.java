@@ -4,25 +4,64 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
-import java.util.ArrayList;
+import java.util.List;
 
-import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.config.GameConfig;
 import com.mjsamaha.dodger.core.GameStateManager;
 import com.mjsamaha.dodger.core.PerformanceMonitor;
 import com.mjsamaha.dodger.entities.FallingObject;
 import com.mjsamaha.dodger.entities.Player;
+import com.mjsamaha.dodger.leaderboard.Leaderboard;
+import com.mjsamaha.dodger.level.LevelStreamer;
+import com.mjsamaha.dodger.net.MultiplayerClient;
+import com.mjsamaha.dodger.systems.ParticleSystem;
 
 public class GameRenderer {
     
-    public void render(Graphics2D g2d, Player player, ArrayList<FallingObject> fallingObjects, 
+    // Created once; building a Font per frame allocates every time
+    private static final Font SCORE_FONT = new Font("Arial", Font.BOLD, 24);
+    private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 32);
+    private static final Font TEXT_FONT = new Font("Arial", Font.PLAIN, 20);
+    private static final Font HEADING_FONT = new Font("Arial", Font.BOLD, 18);
+    private static final Font LIST_FONT = new Font("Arial", Font.PLAIN, 16);
+    private static final Font DEBUG_FONT = new Font("Arial", Font.BOLD, 12);
+    
+    // Text that changes every frame is formatted here instead of into new Strings
+    private final TextBuffer text = new TextBuffer(128);
+    
+    private Leaderboard leaderboard;
+    private ParticleSystem particleSystem;
+    private ProfilerOverlay profilerOverlay;
+    private LevelStreamer level; // Null when spawning at random
+    
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+    
+    public void setParticleSystem(ParticleSystem particleSystem) {
+        this.particleSystem = particleSystem;
+    }
+    
+    public void setProfilerOverlay(ProfilerOverlay profilerOverlay) {
+        this.profilerOverlay = profilerOverlay;
+    }
+    
+    /**
+     * Shows how far through the level the player is while playing it.
+     */
+    public void setLevel(LevelStreamer level) {
+        this.level = level;
+    }
+    
+    public void render(Graphics2D g2d, Player player, List<FallingObject> fallingObjects, 
                       GameStateManager gameStateManager, int panelWidth, int panelHeight) {
         
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         
         if (!gameStateManager.isGameOver()) {
             // Draw falling objects
-            for (FallingObject obj : fallingObjects) {
-                obj.draw(g2d);
+            for (int i = 0; i < fallingObjects.size(); i++) {
+                fallingObjects.get(i).draw(g2d);
             }
             
             // Draw player
@@ -30,16 +69,17 @@ public class GameRenderer {
             
             // Render score
             drawScore(g2d, gameStateManager.getScore());
+            drawLevelProgress(g2d);
         } else {
             // Draw game over screen
-            drawGameOver(g2d, gameStateManager.getScore(), panelWidth, panelHeight);
+            drawGameOver(g2d, gameStateManager, panelWidth, panelHeight);
         }
     }
     
     /**
      * Renders with interpolation for smooth visuals between update ticks.
      */
-    public void renderInterpolated(Graphics2D g2d, Player player, ArrayList<FallingObject> fallingObjects, 
+    public void renderInterpolated(Graphics2D g2d, Player player, List<FallingObject> fallingObjects, 
                                    GameStateManager gameStateManager, int panelWidth, int panelHeight, 
                                    double alpha, PerformanceMonitor perfMonitor) {
         
@@ -47,50 +87,166 @@ public class GameRenderer {
         
         if (!gameStateManager.isGameOver()) {
             // Draw falling objects with interpolation
-            for (FallingObject obj : fallingObjects) {
-                obj.drawInterpolated(g2d, alpha);
+            for (int i = 0; i < fallingObjects.size(); i++) {
+                fallingObjects.get(i).drawInterpolated(g2d, alpha);
             }
             
             // Draw player with interpolation
             player.drawInterpolated(g2d, alpha);
-            
+        }
+        
+        // Particles stay visible behind the game over text
+        if (particleSystem != null) {
+            particleSystem.drawInterpolated(g2d, alpha);
+        }
+        
+        renderOverlay(g2d, gameStateManager, panelWidth, panelHeight, perfMonitor);
+    }
+    
+    /**
+     * Draws everything except the world: score and debug info while playing, or the
+     * game over screen. Used on its own on top of {@link RasterRenderer} output.
+     */
+    public void renderOverlay(Graphics2D g2d, GameStateManager gameStateManager, 
+                              int panelWidth, int panelHeight, PerformanceMonitor perfMonitor) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        
+        if (!gameStateManager.isGameOver()) {
             // Render score
             drawScore(g2d, gameStateManager.getScore());
+            drawLevelProgress(g2d);
             
             // Render debug info if enabled
-            if (Constants.GameLoop.SHOW_DEBUG_INFO && perfMonitor != null) {
+            if (GameConfig.get().isShowDebugInfo() && perfMonitor != null) {
                 drawDebugInfo(g2d, perfMonitor, panelHeight);
             }
         } else {
             // Draw game over screen
-            drawGameOver(g2d, gameStateManager.getScore(), panelWidth, panelHeight);
+            drawGameOver(g2d, gameStateManager, panelWidth, panelHeight);
+        }
+        
+        // Toggled with F3, on top of everything including the game over screen
+        if (profilerOverlay != null && gameStateManager.isProfilerVisible()) {
+            profilerOverlay.draw(g2d, panelWidth);
+        }
+    }
+    
+    /**
+     * Renders the world received from a multiplayer server, interpolating between snapshots.
+     */
+    public void renderMultiplayer(Graphics2D g2d, MultiplayerClient client, int panelWidth, int panelHeight) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        double alpha = client.getAlpha();
+        
+        List<FallingObject> fallingObjects = client.getFallingObjects();
+        for (int i = 0; i < fallingObjects.size(); i++) {
+            fallingObjects.get(i).drawInterpolated(g2d, alpha);
+        }
+        
+        List<Player> players = client.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            if (client.isAlive(i)) {
+                players.get(i).drawInterpolated(g2d, alpha);
+            }
+        }
+        
+        drawScore(g2d, client.getScore());
+        
+        if (client.getPlayerId() >= 0 && !client.isAlive(client.getPlayerId())) {
+            g2d.setColor(Color.WHITE);
+            g2d.setFont(SCORE_FONT);
+            g2d.drawString("Out! Waiting for the round to end", panelWidth / 2 - 190, panelHeight / 2);
         }
     }
     
     private void drawScore(Graphics2D g2d, int score) {
         g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 24));
-        g2d.drawString("Score: " + score, 10, 30);
+        g2d.setFont(SCORE_FONT);
+        text.clear().append("Score: ").append(score).draw(g2d, 10, 30);
+    }
+    
+    private void drawLevelProgress(Graphics2D g2d) {
+        if (level == null) {
+            return;
+        }
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(TEXT_FONT);
+        text.clear().append("Level: ").append(Math.round(level.getProgress() * 100)).append("%").draw(g2d, 10, 55);
     }
     
-    private void drawGameOver(Graphics2D g2d, int score, int panelWidth, int panelHeight) {
+    private void drawGameOver(Graphics2D g2d, GameStateManager gameStateManager, int panelWidth, int panelHeight) {
+        int score = gameStateManager.getScore();
         g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 32));
-        g2d.drawString("GAME OVER!", panelWidth / 2 - 100, panelHeight / 2 - 20);
+        g2d.setFont(TITLE_FONT);
+        if (gameStateManager.isLevelComplete()) {
+            g2d.drawString("LEVEL COMPLETE!", panelWidth / 2 - 140, panelHeight / 2 - 20);
+        } else {
+            g2d.drawString("GAME OVER!", panelWidth / 2 - 100, panelHeight / 2 - 20);
+        }
         
-        g2d.setFont(new Font("Arial", Font.PLAIN, 20));
-        g2d.drawString("Final Score: " + score, panelWidth / 2 - 70, panelHeight / 2 + 20);
+        g2d.setFont(TEXT_FONT);
+        text.clear().append("Final Score: ").append(score).draw(g2d, panelWidth / 2 - 70, panelHeight / 2 + 20);
         g2d.drawString("Press R to restart", panelWidth / 2 - 80, panelHeight / 2 + 50);
+        
+        if (leaderboard != null) {
+            drawLeaderboard(g2d, leaderboard.getTopScores(), score, panelWidth, panelHeight);
+        }
+    }
+    
+    private void drawLeaderboard(Graphics2D g2d, int[] topScores, int score, int panelWidth, int panelHeight) {
+        int x = panelWidth / 2 - 70;
+        int y = panelHeight / 2 + 95;
+        
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(HEADING_FONT);
+        g2d.drawString("High Scores", x, y);
+        
+        // The writer thread may not have added this game yet, so highlight the first matching entry
+        boolean highlighted = false;
+        g2d.setFont(LIST_FONT);
+        for (int i = 0; i < topScores.length; i++) {
+            if (!highlighted && topScores[i] == score) {
+                g2d.setColor(Color.YELLOW);
+                highlighted = true;
+            } else {
+                g2d.setColor(Color.WHITE);
+            }
+            text.clear().append(i + 1).append(".  ").append(topScores[i]).draw(g2d, x, y + 22 * (i + 1));
+        }
     }
     
     private void drawDebugInfo(Graphics2D g2d, PerformanceMonitor perfMonitor, int panelHeight) {
-        g2d.setColor(Color.WHITE); // Semi-transparent yellow
-        g2d.setFont(new Font("Arial", Font.BOLD, 12));
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(DEBUG_FONT);
+        
+        text.clear().append("FPS: ").append(perfMonitor.getFps())
+                .append(" | TPS: ").append(perfMonitor.getTps())
+                .append(" | Avg FPS: ").append(perfMonitor.getAverageFps(), 1)
+                .append(" | Avg TPS: ").append(perfMonitor.getAverageTps(), 1)
+                .append(" | BG: ").append(perfMonitor.getBackgroundMillis(), 2).append(" ms");
+        text.draw(g2d, 10, panelHeight - 10);
         
-        String debugText = String.format("FPS: %d | TPS: %d | Avg FPS: %.1f | Avg TPS: %.1f",
-                perfMonitor.getFps(), perfMonitor.getTps(), 
-                perfMonitor.getAverageFps(), perfMonitor.getAverageTps());
+        text.clear().append("Display: ");
+        if (perfMonitor.getRefreshRate() > 0) {
+            text.append(perfMonitor.getRefreshRate()).append(" Hz");
+        } else {
+            text.append("unknown");
+        }
+        text.append(" | Frame: ").append(perfMonitor.getFrameIntervalMillis(), 2)
+                .append(" ms | Jitter: ").append(perfMonitor.getFrameJitterMillis(), 2)
+                .append(" ms | Stutters: ").append(perfMonitor.getStutterCount());
+        text.draw(g2d, 10, panelHeight - 26);
         
-        g2d.drawString(debugText, 10, panelHeight - 10);
+        text.clear().append("Alloc: ");
+        appendBytes(perfMonitor.getTickAllocationBytes()).append(" / tick | ");
+        appendBytes(perfMonitor.getFrameAllocationBytes()).append(" / frame");
+        text.draw(g2d, 10, panelHeight - 42);
+    }
+    
+    private TextBuffer appendBytes(double bytes) {
+        if (bytes < 0) {
+            return text.append("n/a");
+        }
+        return bytes < 10_000 ? text.append(bytes, 0).append(" B") : text.append(bytes / 1024, 1).append(" KB");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,173 @@
+package com.mjsamaha.dodger.rendering;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.core.FrameProfiler;
+import com.mjsamaha.dodger.core.FrameProfiler.Phase;
+
+/**
+ * Draws the {@link FrameProfiler} history as two rolling graphs: tick durations
+ * stacked by phase and frame render times, one pixel column per sample. The line
+ * across each graph is its deadline (tick duration or frame interval) and sits at
+ * two thirds of the height, so overruns stand out. Columns where a garbage
+ * collection was seen get a marker on top.
+ * 
+ * Text goes through a {@link TextBuffer} and only opaque fills are used, so a
+ * frame of the overlay allocates nothing.
+ */
+public class ProfilerOverlay {
+    
+    // Opaque on purpose: a translucent fill goes through Java2D's mask blending,
+    // which allocates a few KB per call on a software surface
+    private static final Color BACKGROUND = new Color(16, 16, 24);
+    private static final Color BUDGET = new Color(255, 60, 60);
+    private static final Color GC_MARKER = Color.MAGENTA;
+    private static final Color[] PHASE_COLORS = {
+        new Color(80, 200, 255),  // Input
+        new Color(90, 220, 90),   // Update
+        new Color(255, 170, 40),  // Collision
+        new Color(150, 130, 255)  // Render
+    };
+    private static final String[] PHASE_NAMES = { "input", "update", "collision", "render" };
+    private static final Phase[] PHASES = Phase.values();
+    
+    private static final Font FONT = new Font("Monospaced", Font.PLAIN, 11);
+    private static final int MARGIN = 10;
+    private static final int LINE = 13;
+    
+    private final FrameProfiler profiler;
+    private final TextBuffer text = new TextBuffer(64);
+    
+    // Height of each tick's bar so far while the phases are stacked
+    private final long[] stacked;
+    
+    public ProfilerOverlay(FrameProfiler profiler) {
+        this.profiler = profiler;
+        this.stacked = new long[profiler.getHistory()];
+    }
+    
+    /**
+     * Draws the overlay in the top right corner.
+     */
+    public void draw(Graphics2D g2d, int panelWidth) {
+        int graphWidth = profiler.getHistory();
+        int graphHeight = Constants.Profiler.GRAPH_HEIGHT;
+        int x = panelWidth - graphWidth - MARGIN;
+        int y = MARGIN;
+        
+        g2d.setColor(BACKGROUND);
+        g2d.fillRect(x - 4, y - 2, graphWidth + 8, 2 * graphHeight + 5 * LINE + 6);
+        g2d.setFont(FONT);
+        
+        // Ticks, stacked by phase
+        long worst = drawTickGraph(g2d, x, y + LINE, graphWidth, graphHeight);
+        text.clear().append("tick  ").appendMillis(profiler.getTickBudget()).append(" ms  worst ").appendMillis(worst);
+        g2d.setColor(Color.WHITE);
+        text.draw(g2d, x, y + LINE - 3);
+        
+        // Frames
+        y += graphHeight + LINE + 4;
+        worst = drawFrameGraph(g2d, x, y + LINE, graphWidth, graphHeight);
+        text.clear().append("frame ").appendMillis(profiler.getFrameBudget()).append(" ms  worst ").appendMillis(worst);
+        g2d.setColor(Color.WHITE);
+        text.draw(g2d, x, y + LINE - 3);
+        
+        // Legend and counters
+        y += graphHeight + LINE + 4;
+        int legendX = x;
+        for (int i = 0; i < PHASE_NAMES.length; i++) {
+            g2d.setColor(PHASE_COLORS[i]);
+            g2d.drawString(PHASE_NAMES[i], legendX, y + LINE - 3);
+            legendX += (PHASE_NAMES[i].length() + 1) * 7;
+        }
+        g2d.setColor(GC_MARKER);
+        g2d.drawString("gc", legendX, y + LINE - 3);
+        
+        text.clear().append("entities ").append(profiler.getEntityCount())
+                .append("  gc ").append(profiler.getGcCount()).append(" / ").append(profiler.getGcMillis()).append(" ms");
+        g2d.setColor(Color.WHITE);
+        text.draw(g2d, x, y + 2 * LINE - 3);
+    }
+    
+    /**
+     * @return Longest tick in the history, in nanoseconds
+     */
+    private long drawTickGraph(Graphics2D g2d, int x, int y, int width, int height) {
+        long budget = profiler.getTickBudget();
+        int samples = profiler.getTickSamples();
+        int left = x + width - samples;
+        long worst = 0;
+        
+        // One pass per phase so the color changes only a few times
+        for (int i = 0; i < samples; i++) {
+            stacked[i] = 0;
+        }
+        for (int phase = 0; phase < FrameProfiler.TICK_PHASES; phase++) {
+            g2d.setColor(PHASE_COLORS[phase]);
+            for (int i = 0; i < samples; i++) {
+                long below = stacked[i];
+                stacked[i] += profiler.getTickNanos(i, PHASES[phase]);
+                int bottom = barHeight(below, budget, height);
+                int top = barHeight(stacked[i], budget, height);
+                if (top > bottom) {
+                    g2d.fillRect(left + i, y + height - top, 1, top - bottom);
+                }
+            }
+        }
+        for (int i = 0; i < samples; i++) {
+            worst = Math.max(worst, stacked[i]);
+        }
+        
+        drawBudgetLine(g2d, x, y, width, height);
+        return worst;
+    }
+    
+    /**
+     * @return Longest frame render in the history, in nanoseconds
+     */
+    private long drawFrameGraph(Graphics2D g2d, int x, int y, int width, int height) {
+        long budget = profiler.getFrameBudget();
+        int samples = profiler.getFrameSamples();
+        int left = x + width - samples;
+        long worst = 0;
+        
+        g2d.setColor(PHASE_COLORS[Phase.RENDER.ordinal()]);
+        for (int i = 0; i < samples; i++) {
+            long nanos = profiler.getRenderNanos(i);
+            int bar = barHeight(nanos, budget, height);
+            if (bar > 0) {
+                g2d.fillRect(left + i, y + height - bar, 1, bar);
+            }
+            worst = Math.max(worst, nanos);
+        }
+        
+        g2d.setColor(GC_MARKER);
+        for (int i = 0; i < samples; i++) {
+            if (profiler.isGcFrame(i)) {
+                g2d.fillRect(left + i - 1, y, 3, 4);
+            }
+        }
+        
+        drawBudgetLine(g2d, x, y, width, height);
+        return worst;
+    }
+    
+    private static void drawBudgetLine(Graphics2D g2d, int x, int y, int width, int height) {
+        g2d.setColor(BUDGET);
+        g2d.fillRect(x, y + height / 3, width, 1);
+    }
+    
+    /**
+     * Pixels for a duration, with the budget at two thirds of the graph and
+     * anything past the top clipped.
+     */
+    private static int barHeight(long nanos, long budget, int height) {
+        if (budget <= 0) {
+            return 0;
+        }
+        return (int) Math.min(height, nanos * (height * 2 / 3) / budget);
+    }
+}
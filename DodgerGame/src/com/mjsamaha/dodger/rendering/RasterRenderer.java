@@ -0,0 +1,160 @@
+package com.mjsamaha.dodger.rendering;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.config.GameConfig;
+import com.mjsamaha.dodger.entities.CollisionMask;
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.entities.Player;
+import com.mjsamaha.dodger.systems.ParticleSystem;
+
+/**
+ * Software renderer for the solid rectangles that make up the world. Shaped
+ * objects are filled from the rectangles of their {@link CollisionMask}.
+ * 
+ * Writes straight into an int[] RGB pixel array (the framebuffer's
+ * {@code DataBufferInt}) instead of going through Graphics2D: each rectangle is
+ * clipped once and then filled one row span at a time. Positions are interpolated
+ * and truncated exactly like {@code drawInterpolated}, so at native resolution the
+ * output matches the Graphics2D path pixel for pixel. Text is still drawn with
+ * Graphics2D on top.
+ */
+public class RasterRenderer {
+    
+    // Opaque black, the same value Graphics2D stores when clearing
+    static final int BACKGROUND = 0xFF000000;
+    
+    // Off when a background has already been drawn into the pixels
+    protected boolean clearBackground = true;
+    
+    /**
+     * Creates the renderer for this machine: {@link TiledRasterRenderer} when more
+     * than one thread is configured with {@code rasterThreads} (0 = one per core),
+     * otherwise this single-threaded one. Call {@link #close()} when done with it.
+     */
+    public static RasterRenderer create(GameConfig config) {
+        int threads = config.getRasterThreads();
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        return threads > 1 ? new TiledRasterRenderer(new ForkJoinPool(threads)) : new RasterRenderer();
+    }
+    
+    /**
+     * Clears the pixels and draws the falling objects and the player.
+     * 
+     * @param pixels Framebuffer pixels, row-major with a stride of {@code width}
+     * @param width Framebuffer width in pixels
+     * @param height Framebuffer height in pixels
+     */
+    public void renderInterpolated(int[] pixels, int width, int height, Player player, 
+                                   List<FallingObject> fallingObjects, double alpha, boolean gameOver) {
+        if (clearBackground) {
+            Arrays.fill(pixels, 0, width * height, BACKGROUND);
+        }
+        
+        if (gameOver) {
+            return;
+        }
+        
+        float scaleX = width / (float) Constants.Window.WINDOW_WIDTH;
+        float scaleY = height / (float) Constants.Window.WINDOW_HEIGHT;
+        
+        for (int i = 0; i < fallingObjects.size(); i++) {
+            FallingObject obj = fallingObjects.get(i);
+            int x = (int) obj.getInterpolatedX(alpha);
+            int y = (int) obj.getInterpolatedY(alpha);
+            int rgb = obj.getObjectColor().getRGB();
+            if (obj.getMask() == null) {
+                fillRect(pixels, width, height, 0, height, x, y, obj.getWidth(), obj.getHeight(), scaleX, scaleY, rgb);
+            } else {
+                fillMask(pixels, width, height, 0, height, obj.getMask(), x, y, scaleX, scaleY, rgb);
+            }
+        }
+        
+        fillRect(pixels, width, height, 0, height, 
+                (int) player.getInterpolatedX(alpha), (int) player.getInterpolatedY(alpha), 
+                player.getWidth(), player.getHeight(), scaleX, scaleY, player.getPlayerColor().getRGB());
+    }
+    
+    /**
+     * Sets whether {@link #renderInterpolated} starts by clearing the pixels to black.
+     */
+    public void setClearBackground(boolean clearBackground) {
+        this.clearBackground = clearBackground;
+    }
+    
+    /**
+     * Releases any threads the renderer owns. The renderer can't be used afterwards.
+     */
+    public void close() {
+    }
+    
+    /**
+     * Draws the particles on top of what is already in the pixels.
+     */
+    public void renderParticles(int[] pixels, int width, int height, ParticleSystem particles, double alpha) {
+        float scaleX = width / (float) Constants.Window.WINDOW_WIDTH;
+        float scaleY = height / (float) Constants.Window.WINDOW_HEIGHT;
+        float a = (float) alpha;
+        
+        for (int i = 0, count = particles.getCount(); i < count; i++) {
+            int size = particles.getSize(i);
+            fillRect(pixels, width, height, 0, height, 
+                    (int) particles.getInterpolatedX(i, a) - size / 2, 
+                    (int) particles.getInterpolatedY(i, a) - size / 2, 
+                    size, size, scaleX, scaleY, particles.getRGB(i));
+        }
+    }
+    
+    /**
+     * Fills a logical-coordinate rectangle, scaled to the framebuffer and clipped to
+     * its width and to rows {@code [clipTop, clipBottom)}.
+     */
+    static void fillRect(int[] pixels, int width, int height, int clipTop, int clipBottom, 
+                         int x, int y, int rectWidth, int rectHeight, 
+                         float scaleX, float scaleY, int rgb) {
+        fillSpans(pixels, width, 
+                Math.max(0, scaleEdge(x, scaleX)), 
+                Math.max(clipTop, scaleEdge(y, scaleY)), 
+                Math.min(width, scaleEdge(x + rectWidth, scaleX)), 
+                Math.min(clipBottom, scaleEdge(y + rectHeight, scaleY)), 
+                rgb);
+    }
+    
+    /**
+     * Fills the solid part of a mask placed at a logical position, rectangle by
+     * rectangle, with the same scaling and clipping as {@link #fillRect}.
+     */
+    static void fillMask(int[] pixels, int width, int height, int clipTop, int clipBottom, 
+                         CollisionMask mask, int x, int y, float scaleX, float scaleY, int rgb) {
+        for (int i = 0, count = mask.getRectCount(); i < count; i++) {
+            fillRect(pixels, width, height, clipTop, clipBottom, 
+                    x + mask.getRectX(i), y + mask.getRectY(i), mask.getRectWidth(i), mask.getRectHeight(i), 
+                    scaleX, scaleY, rgb);
+        }
+    }
+    
+    /**
+     * Maps a logical edge to the first framebuffer pixel whose center lies past it.
+     */
+    static int scaleEdge(int logical, float scale) {
+        return scale == 1f ? logical : (int) Math.ceil(logical * scale - 0.5f);
+    }
+    
+    /**
+     * Fills the already clipped pixel rectangle {@code [x0, x1) x [y0, y1)}.
+     */
+    static void fillSpans(int[] pixels, int width, int x0, int y0, int x1, int y1, int rgb) {
+        if (x0 >= x1 || y0 >= y1) {
+            return;
+        }
+        
+        for (int row = y0 * width, end = y1 * width; row < end; row += width) {
+            Arrays.fill(pixels, row + x0, row + x1, rgb);
+        }
+    }
+}
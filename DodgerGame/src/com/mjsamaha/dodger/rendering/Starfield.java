@@ -0,0 +1,126 @@
+package com.mjsamaha.dodger.rendering;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.config.GameConfig;
+import com.mjsamaha.dodger.systems.GameRandom;
+
+/**
+ * Scrolling parallax starfield made of pre-rendered layers.
+ * 
+ * Every layer is drawn once at startup into a screen-sized, vertically tileable
+ * image (stars near an edge are also drawn wrapped onto the opposite edge). Each
+ * frame a layer costs two image blits at its scroll offset, whatever the star count.
+ * Farther layers are dimmer, smaller and slower; the farthest is opaque black.
+ * 
+ * Layer count and density come from the {@code starLayers} and {@code starDensity}
+ * (stars per 10,000 square pixels per layer) config keys.
+ */
+public class Starfield {
+    
+    private final int width;
+    private final int height;
+    private final BufferedImage[] layers;
+    private final float[] speeds;
+    
+    // Scroll positions, unwrapped so interpolation never jumps
+    private final double[] offsets;
+    private final double[] prevOffsets;
+    
+    public Starfield(int width, int height, int layerCount, float density, long seed) {
+        this.width = width;
+        this.height = height;
+        this.layers = new BufferedImage[layerCount];
+        this.speeds = new float[layerCount];
+        this.offsets = new double[layerCount];
+        this.prevOffsets = new double[layerCount];
+        
+        GameRandom random = new GameRandom(seed);
+        int starsPerLayer = Math.round(width * height / 10_000f * density);
+        for (int i = 0; i < layerCount; i++) {
+            // 0 is the farthest layer
+            float depth = layerCount == 1 ? 1f : (i + 1) / (float) layerCount;
+            speeds[i] = Constants.Starfield.BASE_SPEED * (1 << i);
+            layers[i] = renderLayer(random, starsPerLayer, depth, i == 0);
+        }
+    }
+    
+    /**
+     * Creates a starfield with the configured layer count and density.
+     */
+    public static Starfield fromConfig(GameConfig config) {
+        return new Starfield(Constants.Window.WINDOW_WIDTH, Constants.Window.WINDOW_HEIGHT, 
+                config.getStarLayers(), config.getStarDensity(), Constants.Starfield.SEED);
+    }
+    
+    private BufferedImage renderLayer(GameRandom random, int stars, float depth, boolean opaque) {
+        BufferedImage image = createImage(opaque);
+        Graphics2D g2d = image.createGraphics();
+        if (opaque) {
+            g2d.setColor(Color.BLACK);
+            g2d.fillRect(0, 0, width, height);
+        }
+        
+        int brightness = 80 + Math.round(175 * depth);
+        int size = depth > 0.7f ? 2 : 1;
+        g2d.setColor(new Color(brightness, brightness, Math.min(255, brightness + 30)));
+        
+        for (int i = 0; i < stars; i++) {
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
+            g2d.fillRect(x, y, size, size);
+            
+            // Wrap onto the top so the image tiles vertically
+            if (y + size > height) {
+                g2d.fillRect(x, y - height, size, size);
+            }
+        }
+        
+        g2d.dispose();
+        return image;
+    }
+    
+    // A screen-compatible image can stay in video memory for the blits. The farthest
+    // layer is opaque so it is a plain copy that also replaces the clear.
+    private BufferedImage createImage(boolean opaque) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, opaque ? Transparency.OPAQUE : Transparency.BITMASK);
+        }
+        return new BufferedImage(width, height, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+    
+    /**
+     * Scrolls every layer. Called once per fixed tick.
+     */
+    public void update(float dt) {
+        for (int i = 0; i < layers.length; i++) {
+            prevOffsets[i] = offsets[i];
+            offsets[i] += speeds[i] * dt;
+        }
+    }
+    
+    /**
+     * Blits the layers back to front at their interpolated scroll offsets.
+     * @param alpha Interpolation factor (0.0 to 1.0)
+     */
+    public void draw(Graphics2D g2d, double alpha) {
+        for (int i = 0; i < layers.length; i++) {
+            double offset = prevOffsets[i] + (offsets[i] - prevOffsets[i]) * alpha;
+            int y = (int) (offset % height);
+            g2d.drawImage(layers[i], 0, y, null);
+            g2d.drawImage(layers[i], 0, y - height, null);
+        }
+    }
+    
+    public int getLayerCount() {
+        return layers.length;
+    }
+}
@@ -0,0 +1,96 @@
+package com.mjsamaha.dodger.rendering;
+
+import java.awt.Graphics2D;
+
+/**
+ * Reusable character buffer for text that changes every frame (scores, timings).
+ * Numbers are formatted straight into the buffer and drawn with
+ * {@link Graphics2D#drawChars}, so unlike string concatenation or
+ * {@code String.format} nothing is allocated. Text past the capacity is dropped.
+ */
+final class TextBuffer {
+    
+    private final char[] chars;
+    private int length;
+    
+    TextBuffer(int capacity) {
+        this.chars = new char[capacity];
+    }
+    
+    TextBuffer clear() {
+        length = 0;
+        return this;
+    }
+    
+    TextBuffer append(String s) {
+        int n = Math.min(s.length(), chars.length - length);
+        s.getChars(0, n, chars, length);
+        length += n;
+        return this;
+    }
+    
+    TextBuffer append(long value) {
+        if (value < 0) {
+            append("-");
+            value = -value;
+        }
+        
+        // Digits go in backwards, then get reversed in place
+        int start = length;
+        do {
+            if (length == chars.length) {
+                break;
+            }
+            chars[length++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            char c = chars[i];
+            chars[i] = chars[j];
+            chars[j] = c;
+        }
+        return this;
+    }
+    
+    /**
+     * Appends a value rounded to the given number of decimals, like {@code %.Nf}.
+     */
+    TextBuffer append(double value, int decimals) {
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) {
+            scale *= 10;
+        }
+        
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            append("-");
+        }
+        append(scaled / scale);
+        if (decimals > 0) {
+            append(".");
+            // Leading zeros of the fraction
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > fraction && digit > 1; digit /= 10) {
+                append("0");
+            }
+            append(fraction);
+        }
+        return this;
+    }
+    
+    /**
+     * Appends nanoseconds as milliseconds with two decimals.
+     */
+    TextBuffer appendMillis(long nanos) {
+        return append(nanos / 1_000_000.0, 2);
+    }
+    
+    int length() {
+        return length;
+    }
+    
+    void draw(Graphics2D g2d, int x, int y) {
+        g2d.drawChars(chars, 0, length, x, y);
+    }
+}
@@ -0,0 +1,183 @@
+package com.mjsamaha.dodger.rendering;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.entities.CollisionMask;
+import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.entities.GameObject;
+import com.mjsamaha.dodger.entities.Player;
+
+/**
+ * {@link RasterRenderer} that splits the framebuffer into horizontal strips and
+ * rasterizes them in parallel.
+ * 
+ * Each frame every entity is clipped once and its index appended to the bin of
+ * every strip its bounding box touches; shaped entities are then filled from
+ * their mask within each strip. Bins are filled in entity order and each strip is
+ * cleared and drawn by exactly one task, so every pixel sees the same sequence of
+ * writes as in the single-threaded renderer and the output is identical for any
+ * number of threads.
+ */
+public class TiledRasterRenderer extends RasterRenderer {
+    
+    private final ForkJoinPool pool;
+    private final int stripHeight;
+    
+    // Per-frame scratch, grown as needed and reused between frames
+    private int[] rects = new int[0];   // x0, y0, x1, y1 per entity in pixels
+    private int[] colors = new int[0];
+    private CollisionMask[] masks = new CollisionMask[0];
+    private int[] origins = new int[0]; // Logical x, y per entity, for masks
+    private float scaleX;
+    private float scaleY;
+    private int[][] bins = new int[0][];
+    private int[] binSizes = new int[0];
+    
+    public TiledRasterRenderer(ForkJoinPool pool) {
+        this(pool, Constants.Window.RASTER_STRIP_HEIGHT);
+    }
+    
+    public TiledRasterRenderer(ForkJoinPool pool, int stripHeight) {
+        this.pool = pool;
+        this.stripHeight = Math.max(1, stripHeight);
+    }
+    
+    @Override
+    public void renderInterpolated(int[] pixels, int width, int height, Player player, 
+                                   List<FallingObject> fallingObjects, double alpha, boolean gameOver) {
+        int strips = (height + stripHeight - 1) / stripHeight;
+        if (bins.length < strips) {
+            bins = Arrays.copyOf(bins, strips);
+            binSizes = new int[strips];
+            for (int i = 0; i < strips; i++) {
+                if (bins[i] == null) {
+                    bins[i] = new int[64];
+                }
+            }
+        }
+        Arrays.fill(binSizes, 0, strips, 0);
+        
+        if (!gameOver) {
+            int count = fallingObjects.size() + 1;
+            if (colors.length < count) {
+                rects = new int[count * 4];
+                colors = new int[count];
+                masks = new CollisionMask[count];
+                origins = new int[count * 2];
+            }
+            
+            scaleX = width / (float) Constants.Window.WINDOW_WIDTH;
+            scaleY = height / (float) Constants.Window.WINDOW_HEIGHT;
+            for (int i = 0; i < count - 1; i++) {
+                FallingObject obj = fallingObjects.get(i);
+                bin(i, obj, obj.getMask(), alpha, obj.getObjectColor().getRGB(), width, height);
+            }
+            // Player last so it stays on top
+            bin(count - 1, player, null, alpha, player.getPlayerColor().getRGB(), width, height);
+        }
+        
+        pool.invoke(new StripTask(pixels, width, height, 0, strips));
+    }
+    
+    private void bin(int index, GameObject obj, CollisionMask mask, double alpha, int rgb, 
+                     int width, int height) {
+        int x = (int) obj.getInterpolatedX(alpha);
+        int y = (int) obj.getInterpolatedY(alpha);
+        int x0 = Math.max(0, scaleEdge(x, scaleX));
+        int y0 = Math.max(0, scaleEdge(y, scaleY));
+        int x1 = Math.min(width, scaleEdge(x + obj.getWidth(), scaleX));
+        int y1 = Math.min(height, scaleEdge(y + obj.getHeight(), scaleY));
+        if (x0 >= x1 || y0 >= y1) {
+            return;
+        }
+        
+        int r = index * 4;
+        rects[r] = x0;
+        rects[r + 1] = y0;
+        rects[r + 2] = x1;
+        rects[r + 3] = y1;
+        colors[index] = rgb;
+        masks[index] = mask;
+        origins[index * 2] = x;
+        origins[index * 2 + 1] = y;
+        
+        for (int strip = y0 / stripHeight, last = (y1 - 1) / stripHeight; strip <= last; strip++) {
+            int size = binSizes[strip];
+            if (size == bins[strip].length) {
+                bins[strip] = Arrays.copyOf(bins[strip], size * 2);
+            }
+            bins[strip][size] = index;
+            binSizes[strip] = size + 1;
+        }
+    }
+    
+    private void drawStrip(int[] pixels, int width, int height, int strip) {
+        int top = strip * stripHeight;
+        int bottom = Math.min(height, top + stripHeight);
+        if (clearBackground) {
+            Arrays.fill(pixels, top * width, bottom * width, BACKGROUND);
+        }
+        
+        int[] bin = bins[strip];
+        for (int i = 0, size = binSizes[strip]; i < size; i++) {
+            int index = bin[i];
+            if (masks[index] != null) {
+                fillMask(pixels, width, height, top, bottom, masks[index], 
+                        origins[index * 2], origins[index * 2 + 1], scaleX, scaleY, colors[index]);
+                continue;
+            }
+            int r = index * 4;
+            fillSpans(pixels, width, rects[r], Math.max(top, rects[r + 1]), 
+                    rects[r + 2], Math.min(bottom, rects[r + 3]), colors[index]);
+        }
+    }
+    
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+    
+    /**
+     * Shuts down the pool the strips are rendered on.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+    
+    /**
+     * Splits the strip range in half until a single strip is left.
+     */
+    private final class StripTask extends RecursiveAction {
+        private final int[] pixels;
+        private final int width;
+        private final int height;
+        private final int from;
+        private final int to;
+        
+        StripTask(int[] pixels, int width, int height, int from, int to) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                for (int strip = from; strip < to; strip++) {
+                    drawStrip(pixels, width, height, strip);
+                }
+                return;
+            }
+            
+            int mid = (from + to) >>> 1;
+            invokeAll(new StripTask(pixels, width, height, from, mid),
+                      new StripTask(pixels, width, height, mid, to));
+        }
+    }
+}
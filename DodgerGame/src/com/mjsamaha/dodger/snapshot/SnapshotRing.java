@@ -0,0 +1,140 @@
+package com.mjsamaha.dodger.snapshot;
+
+import java.nio.ByteBuffer;
+
+import com.mjsamaha.dodger.core.GameStateManager;
+import com.mjsamaha.dodger.entities.Player;
+import com.mjsamaha.dodger.events.GameEvent;
+import com.mjsamaha.dodger.events.GameEventListener;
+import com.mjsamaha.dodger.events.GameEventType;
+import com.mjsamaha.dodger.systems.ObjectSpawner;
+
+/**
+ * Fixed number of {@link WorldSnapshot}s kept in one preallocated off-heap buffer.
+ * Recording overwrites the oldest slot, so the ring always holds the most recent
+ * {@code capacity} ticks and recording never allocates. As a {@link GameEventListener}
+ * it forgets the previous game on restart, so rewinding cannot cross into it.
+ */
+public class SnapshotRing implements GameEventListener {
+    
+    private final ByteBuffer storage;
+    private final ByteBuffer[] slots;
+    private final int[] ticks;
+    private final int maxObjects;
+    
+    private int next;  // Slot the next snapshot goes into
+    private int count; // Valid snapshots, newest at next - 1
+    
+    // Timing of the last record/restore, for the debug overlay and benchmarks
+    private long lastEncodeNanos;
+    private long maxEncodeNanos;
+    private long lastDecodeNanos;
+    private long skippedSnapshots;
+    
+    public SnapshotRing(int capacity, int maxObjects) {
+        int slotSize = WorldSnapshot.maxSize(maxObjects);
+        this.maxObjects = maxObjects;
+        this.storage = ByteBuffer.allocateDirect(capacity * slotSize);
+        this.slots = new ByteBuffer[capacity];
+        this.ticks = new int[capacity];
+        
+        for (int i = 0; i < capacity; i++) {
+            storage.limit((i + 1) * slotSize).position(i * slotSize);
+            slots[i] = storage.slice();
+        }
+        storage.clear();
+    }
+    
+    /**
+     * Records the current simulation state. Snapshots with more than the
+     * configured maximum number of objects are skipped.
+     * @return false if skipped
+     */
+    public boolean record(int tick, Player player, ObjectSpawner objectSpawner, GameStateManager gameStateManager) {
+        if (objectSpawner.getFallingObjects().size() > maxObjects) {
+            skippedSnapshots++;
+            return false;
+        }
+        
+        long start = System.nanoTime();
+        ByteBuffer slot = slots[next];
+        slot.clear();
+        WorldSnapshot.write(slot, tick, player, objectSpawner, gameStateManager);
+        
+        ticks[next] = tick;
+        next = (next + 1) % slots.length;
+        count = Math.min(count + 1, slots.length);
+        
+        lastEncodeNanos = System.nanoTime() - start;
+        maxEncodeNanos = Math.max(maxEncodeNanos, lastEncodeNanos);
+        return true;
+    }
+    
+    /**
+     * Restores the state from {@code ticksBack} snapshots ago (clamped to the
+     * oldest one held) and discards every newer snapshot.
+     * @return The restored tick, or -1 if the ring is empty
+     */
+    public int rewind(int ticksBack, Player player, ObjectSpawner objectSpawner, GameStateManager gameStateManager) {
+        if (count == 0) {
+            return -1;
+        }
+        
+        int back = Math.min(Math.max(ticksBack, 1), count);
+        int index = Math.floorMod(next - back, slots.length);
+        
+        long start = System.nanoTime();
+        ByteBuffer slot = slots[index];
+        slot.flip(); // Position is at the end of the data after either write or read
+        int tick = WorldSnapshot.read(slot, player, objectSpawner, gameStateManager);
+        lastDecodeNanos = System.nanoTime() - start;
+        
+        // The restored snapshot becomes the newest one
+        next = (index + 1) % slots.length;
+        count -= back - 1;
+        return tick;
+    }
+    
+    public void clear() {
+        next = 0;
+        count = 0;
+    }
+    
+    @Override
+    public void onEvent(GameEvent event) {
+        if (event.getType() == GameEventType.RESTART) {
+            clear();
+        }
+    }
+    
+    public int size() {
+        return count;
+    }
+    
+    public int getCapacity() {
+        return slots.length;
+    }
+    
+    /**
+     * Tick of the newest snapshot, or -1 if empty.
+     */
+    public int getNewestTick() {
+        return count == 0 ? -1 : ticks[Math.floorMod(next - 1, slots.length)];
+    }
+    
+    public long getLastEncodeNanos() {
+        return lastEncodeNanos;
+    }
+    
+    public long getMaxEncodeNanos() {
+        return maxEncodeNanos;
+    }
+    
+    public long getLastDecodeNanos() {
+        return lastDecodeNanos;
+    }
+    
+    public long getSkippedSnapshots() {
+        return skippedSnapshots;
+    }
+}
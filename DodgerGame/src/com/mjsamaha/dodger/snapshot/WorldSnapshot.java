@@ -0,0 +1,84 @@
+package com.mjsamaha.dodger.snapshot;
+
+import java.nio.ByteBuffer;
+
+import com.mjsamaha.dodger.core.GameStateManager;
+import com.mjsamaha.dodger.entities.Player;
+import com.mjsamaha.dodger.systems.ObjectSpawner;
+
+/**
+ * Binary snapshot of the full local simulation: player, score and how the game
+ * stands, then the spawner state (timers, spawn interval, RNG, level position,
+ * falling objects).
+ * 
+ * <pre>
+ * int magic, short version, int tick
+ * float x, y, prevX, prevY          player
+ * int score, byte state             0 playing, 1 game over, 2 level complete
+ * spawner state                      see ObjectSpawner.writeState
+ * </pre>
+ */
+public final class WorldSnapshot {
+    
+    private static final int MAGIC = 0x44475353; // "DGSS"
+    private static final short VERSION = 3;
+    
+    private static final int HEADER_SIZE = 4 + 2 + 4 + 16 + 4 + 1;
+    
+    private WorldSnapshot() {
+    }
+    
+    /**
+     * Writes a snapshot at the buffer's position.
+     */
+    public static void write(ByteBuffer out, int tick, Player player, 
+                             ObjectSpawner objectSpawner, GameStateManager gameStateManager) {
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putInt(tick);
+        
+        out.putFloat(player.getX());
+        out.putFloat(player.getY());
+        out.putFloat(player.getPrevX());
+        out.putFloat(player.getPrevY());
+        
+        out.putInt(gameStateManager.getScore());
+        out.put((byte) (gameStateManager.isLevelComplete() ? 2 : gameStateManager.isGameOver() ? 1 : 0));
+        
+        objectSpawner.writeState(out);
+    }
+    
+    /**
+     * Restores a snapshot from the buffer's position.
+     * @return The tick the snapshot was taken at
+     */
+    public static int read(ByteBuffer in, Player player, 
+                           ObjectSpawner objectSpawner, GameStateManager gameStateManager) {
+        if (in.getInt() != MAGIC || in.getShort() != VERSION) {
+            throw new IllegalArgumentException("Not a world snapshot");
+        }
+        int tick = in.getInt();
+        
+        player.setX(in.getFloat());
+        player.setY(in.getFloat());
+        player.setPreviousPosition(in.getFloat(), in.getFloat());
+        
+        gameStateManager.setScore(in.getInt());
+        byte state = in.get();
+        if (state == 2) {
+            gameStateManager.completeLevel();
+        } else {
+            gameStateManager.setGameOver(state != 0);
+        }
+        
+        objectSpawner.readState(in);
+        return tick;
+    }
+    
+    /**
+     * Upper bound on a snapshot's size for the given object count.
+     */
+    public static int maxSize(int objectCount) {
+        return HEADER_SIZE + ObjectSpawner.stateSize(objectCount);
+    }
+}
@@ -0,0 +1,13 @@
+package com.mjsamaha.dodger.stress;
+
+/**
+ * Spawn layouts used by the stress mode.
+ */
+public enum SpawnPattern {
+    /** Uniform random x, straight down. */
+    RAIN,
+    /** Spawn position sweeps left and right over time, slight horizontal drift. */
+    WAVE,
+    /** Uniform random x with strong horizontal velocity, bouncing off the walls. */
+    CROSSFIRE
+}
@@ -0,0 +1,161 @@
+package com.mjsamaha.dodger.stress;
+
+import com.mjsamaha.dodger.Constants;
+
+/**
+ * Settings for a stress run. Parsed from {@code key=value} command-line arguments,
+ * e.g. {@code --stress entities=100000 pattern=crossfire seed=7 duration=60}.
+ */
+public class StressConfig {
+    
+    private int entityCount = Constants.Stress.DEFAULT_ENTITY_COUNT;
+    private SpawnPattern pattern = SpawnPattern.RAIN;
+    private long seed = Constants.Stress.DEFAULT_SEED;
+    
+    private int minSize = Constants.Stress.MIN_SIZE;
+    private int maxSize = Constants.Stress.MAX_SIZE;
+    private float minSpeed = Constants.Stress.MIN_SPEED;
+    private float maxSpeed = Constants.Stress.MAX_SPEED;
+    private float maxHorizontalSpeed = Constants.Stress.MAX_HORIZONTAL_SPEED;
+    
+    private float duration = Constants.Stress.DEFAULT_DURATION;
+    private float warmup = Constants.Stress.DEFAULT_WARMUP;
+    private boolean render = true;
+    private int threads = 0; // 0 = common pool
+    private int parallelThreshold = Constants.Objects.PARALLEL_UPDATE_THRESHOLD;
+    private String reportPath;
+    
+    /**
+     * Builds a config from {@code key=value} arguments. Unknown keys are rejected.
+     */
+    public static StressConfig fromArgs(String[] args) {
+        StressConfig config = new StressConfig();
+        
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            config.set(arg.substring(0, split).trim(), arg.substring(split + 1).trim());
+        }
+        
+        config.validate();
+        return config;
+    }
+    
+    private void set(String key, String value) {
+        switch (key) {
+            case "entities" -> entityCount = Integer.parseInt(value.replace("_", ""));
+            case "pattern" -> pattern = SpawnPattern.valueOf(value.toUpperCase());
+            case "seed" -> seed = Long.parseLong(value);
+            case "minSize" -> minSize = Integer.parseInt(value);
+            case "maxSize" -> maxSize = Integer.parseInt(value);
+            case "minSpeed" -> minSpeed = Float.parseFloat(value);
+            case "maxSpeed" -> maxSpeed = Float.parseFloat(value);
+            case "maxHorizontalSpeed" -> maxHorizontalSpeed = Float.parseFloat(value);
+            case "duration" -> duration = Float.parseFloat(value);
+            case "warmup" -> warmup = Float.parseFloat(value);
+            case "render" -> render = Boolean.parseBoolean(value);
+            case "report" -> reportPath = value;
+            case "threads" -> threads = Integer.parseInt(value);
+            case "parallelThreshold" -> parallelThreshold = Integer.parseInt(value.replace("_", ""));
+            default -> throw new IllegalArgumentException("Unknown stress option: " + key);
+        }
+    }
+    
+    private void validate() {
+        if (entityCount < 1 || entityCount > Constants.Stress.MAX_ENTITY_COUNT) {
+            throw new IllegalArgumentException("entities must be between 1 and " + Constants.Stress.MAX_ENTITY_COUNT);
+        }
+        if (minSize < 1 || maxSize < minSize || maxSize > Constants.Stress.SIZE_LIMIT) {
+            throw new IllegalArgumentException("Invalid size range: " + minSize + ".." + maxSize 
+                    + " (sizes go up to " + Constants.Stress.SIZE_LIMIT + ")");
+        }
+        if (minSpeed <= 0 || maxSpeed < minSpeed) {
+            throw new IllegalArgumentException("Invalid speed range: " + minSpeed + ".." + maxSpeed);
+        }
+        if (threads < 0 || parallelThreshold < 0) {
+            throw new IllegalArgumentException("threads and parallelThreshold must not be negative");
+        }
+        if (duration <= 0 || warmup < 0) {
+            throw new IllegalArgumentException("duration must be positive and warmup non-negative");
+        }
+    }
+    
+    /**
+     * Average time an object needs to cross a screen of the given height.
+     * Used to derive the spawn rate that keeps the population at {@link #getEntityCount()}.
+     */
+    public float getAverageLifetime(int panelHeight) {
+        // Mean of 1/speed for a uniform speed range, so fast objects don't skew the estimate
+        double meanInverseSpeed = maxSpeed > minSpeed
+                ? Math.log(maxSpeed / minSpeed) / (maxSpeed - minSpeed)
+                : 1.0 / minSpeed;
+        return (float) ((panelHeight + maxSize) * meanInverseSpeed);
+    }
+    
+    public int getEntityCount() {
+        return entityCount;
+    }
+    
+    public SpawnPattern getPattern() {
+        return pattern;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public int getMinSize() {
+        return minSize;
+    }
+    
+    public int getMaxSize() {
+        return maxSize;
+    }
+    
+    public float getMinSpeed() {
+        return minSpeed;
+    }
+    
+    public float getMaxSpeed() {
+        return maxSpeed;
+    }
+    
+    public float getMaxHorizontalSpeed() {
+        return maxHorizontalSpeed;
+    }
+    
+    public float getDuration() {
+        return duration;
+    }
+    
+    public float getWarmup() {
+        return warmup;
+    }
+    
+    public boolean isRender() {
+        return render;
+    }
+    
+    /**
+     * Worker count for the parallel update, or 0 to use the common pool.
+     */
+    public int getThreads() {
+        return threads;
+    }
+    
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+    
+    /**
+     * Returns the report file path, defaulting to one named after the run settings.
+     */
+    public String getReportPath() {
+        if (reportPath != null) {
+            return reportPath;
+        }
+        return "stress-report-" + pattern.name().toLowerCase() + "-" + entityCount + ".txt";
+    }
+}
@@ -0,0 +1,230 @@
+package com.mjsamaha.dodger.stress;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.config.GameConfig;
+import com.mjsamaha.dodger.core.GameStateManager;
+import com.mjsamaha.dodger.entities.Player;
+import com.mjsamaha.dodger.rendering.GameRenderer;
+import com.mjsamaha.dodger.systems.CollisionDetector;
+import com.mjsamaha.dodger.systems.ObjectSpawner;
+import com.mjsamaha.dodger.systems.ParallelEntityUpdater;
+
+/**
+ * Headless stress run. Drives {@link ObjectSpawner} at a configured population
+ * with the fixed tick used by the game, optionally renders every tick into an
+ * offscreen image, and writes tick/frame percentiles and GC activity to a report.
+ * 
+ * The run is not paced to wall time: ticks execute back to back so the reported
+ * TPS/FPS is the throughput the machine can sustain at that density.
+ * Start with {@code Main --stress entities=100000 pattern=crossfire}.
+ */
+public class StressTest {
+    
+    private final StressConfig config;
+    private final int width = Constants.Window.WINDOW_WIDTH;
+    private final int height = Constants.Window.WINDOW_HEIGHT;
+    
+    public StressTest(StressConfig config) {
+        this.config = config;
+    }
+    
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        
+        StressConfig config = StressConfig.fromArgs(args);
+        new StressTest(config).run();
+    }
+    
+    /**
+     * Runs warmup and measurement, then prints and writes the report.
+     */
+    public void run() {
+        int tps = GameConfig.get().getTargetTps();
+        float dt = 1.0f / tps;
+        int warmupTicks = Math.round(config.getWarmup() * tps);
+        int measuredTicks = Math.max(1, Math.round(config.getDuration() * tps));
+        
+        ObjectSpawner spawner = new ObjectSpawner(config.getSeed());
+        spawner.setStressConfig(config);
+        
+        ForkJoinPool pool = config.getThreads() > 0 ? new ForkJoinPool(config.getThreads()) : null;
+        ParallelEntityUpdater updater = pool != null ? new ParallelEntityUpdater(pool) : new ParallelEntityUpdater();
+        updater.setThreshold(config.getParallelThreshold());
+        spawner.setParallelUpdater(updater);
+        spawner.prefillStress(width, height);
+        
+        GameStateManager gameStateManager = new GameStateManager();
+        GameRenderer renderer = new GameRenderer();
+        Player player = new Player(
+            Constants.Player.START_X, 
+            Constants.Player.START_Y, 
+            Constants.Player.PLAYER_WIDTH, 
+            Constants.Player.PLAYER_HEIGHT, 
+            Constants.Player.PLAYER_SPEED, 
+            Constants.Player.PLAYER_COLOR
+        );
+        
+        BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = frame.createGraphics();
+        
+        System.out.println("Stress run: " + config.getEntityCount() + " entities, pattern " 
+                + config.getPattern() + ", seed " + config.getSeed());
+        
+        for (int i = 0; i < warmupTicks; i++) {
+            tick(spawner, player, gameStateManager, dt);
+            if (config.isRender()) {
+                renderFrame(g2d, renderer, spawner, player, gameStateManager);
+            }
+        }
+        
+        long[] tickNanos = new long[measuredTicks];
+        long[] frameNanos = new long[config.isRender() ? measuredTicks : 0];
+        long collisions = 0;
+        long populationSum = 0;
+        int maxPopulation = 0;
+        
+        GcSnapshot gcBefore = GcSnapshot.take();
+        int scoreBefore = gameStateManager.getScore();
+        long runStart = System.nanoTime();
+        
+        for (int i = 0; i < measuredTicks; i++) {
+            long start = System.nanoTime();
+            if (tick(spawner, player, gameStateManager, dt)) {
+                collisions++;
+            }
+            tickNanos[i] = System.nanoTime() - start;
+            
+            if (config.isRender()) {
+                start = System.nanoTime();
+                renderFrame(g2d, renderer, spawner, player, gameStateManager);
+                frameNanos[i] = System.nanoTime() - start;
+            }
+            
+            int population = spawner.getFallingObjects().size();
+            populationSum += population;
+            maxPopulation = Math.max(maxPopulation, population);
+        }
+        
+        long runNanos = System.nanoTime() - runStart;
+        GcSnapshot gcAfter = GcSnapshot.take();
+        g2d.dispose();
+        if (pool != null) {
+            pool.shutdown();
+        }
+        
+        StringBuilder report = new StringBuilder();
+        report.append("Dodger stress report\n");
+        report.append(String.format("Entities: %d  Pattern: %s  Seed: %d%n", 
+                config.getEntityCount(), config.getPattern(), config.getSeed()));
+        report.append(String.format("Sizes: %d-%d  Speeds: %.0f-%.0f  Max vx: %.0f%n", 
+                config.getMinSize(), config.getMaxSize(), config.getMinSpeed(), 
+                config.getMaxSpeed(), config.getMaxHorizontalSpeed()));
+        report.append(String.format("Ticks: %d (warmup %d)  Wall time: %.2f s%n", 
+                measuredTicks, warmupTicks, runNanos / 1e9));
+        report.append(String.format("Update threads: %d  Parallel threshold: %d%n", 
+                updater.getParallelism(), updater.getThreshold()));
+        report.append(String.format("Population: avg %d  max %d  Despawned: %d  Collision ticks: %d%n", 
+                populationSum / measuredTicks, maxPopulation, 
+                gameStateManager.getScore() - scoreBefore, collisions));
+        report.append(formatTimings("Tick", tickNanos));
+        if (config.isRender()) {
+            report.append(formatTimings("Frame", frameNanos));
+        }
+        report.append(gcAfter.describeSince(gcBefore, runNanos));
+        
+        System.out.print(report);
+        
+        Path reportPath = Path.of(config.getReportPath());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(reportPath))) {
+            writer.print(report);
+            System.out.println("Report written to " + reportPath.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Could not write stress report: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Runs one simulation tick. Collisions are counted but never end the run.
+     */
+    private boolean tick(ObjectSpawner spawner, Player player, GameStateManager gameStateManager, float dt) {
+        spawner.update(dt, width, height, gameStateManager);
+        return CollisionDetector.checkCollisions(player, spawner.getFallingObjects());
+    }
+    
+    private void renderFrame(Graphics2D g2d, GameRenderer renderer, ObjectSpawner spawner, 
+                             Player player, GameStateManager gameStateManager) {
+        g2d.setColor(Color.BLACK);
+        g2d.fillRect(0, 0, width, height);
+        renderer.render(g2d, player, spawner.getFallingObjects(), gameStateManager, width, height);
+    }
+    
+    private static String formatTimings(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        
+        long total = 0;
+        for (long n : sorted) {
+            total += n;
+        }
+        double meanMs = total / (double) sorted.length / 1e6;
+        
+        return String.format("%-5s ms: mean %.3f  p50 %.3f  p90 %.3f  p99 %.3f  p99.9 %.3f  max %.3f  (%.0f per second)%n",
+                label, meanMs, percentile(sorted, 0.50), percentile(sorted, 0.90), 
+                percentile(sorted, 0.99), percentile(sorted, 0.999), sorted[sorted.length - 1] / 1e6, 
+                1000.0 / meanMs);
+    }
+    
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+    
+    /**
+     * Garbage collector and heap counters at one point in time.
+     */
+    private static final class GcSnapshot {
+        private final long collections;
+        private final long collectionMillis;
+        private final long heapUsed;
+        
+        private GcSnapshot(long collections, long collectionMillis, long heapUsed) {
+            this.collections = collections;
+            this.collectionMillis = collectionMillis;
+            this.heapUsed = heapUsed;
+        }
+        
+        static GcSnapshot take() {
+            long count = 0;
+            long millis = 0;
+            List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+            for (GarbageCollectorMXBean bean : beans) {
+                count += Math.max(0, bean.getCollectionCount());
+                millis += Math.max(0, bean.getCollectionTime());
+            }
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            return new GcSnapshot(count, millis, memory.getHeapMemoryUsage().getUsed());
+        }
+        
+        String describeSince(GcSnapshot before, long runNanos) {
+            long gcMillis = collectionMillis - before.collectionMillis;
+            return String.format("GC: %d collections, %d ms total (%.2f%% of run)  Heap used: %.1f MB -> %.1f MB%n",
+                    collections - before.collections, gcMillis, 
+                    gcMillis * 100.0 / Math.max(1, runNanos / 1e6), 
+                    before.heapUsed / 1048576.0, heapUsed / 1048576.0);
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package com.mjsamaha.dodger.systems;
 
-import java.util.ArrayList;
+import java.util.List;
 
 import com.mjsamaha.dodger.entities.FallingObject;
 import com.mjsamaha.dodger.entities.Player;
 
 public class CollisionDetector {
     
-    public static boolean checkCollisions(Player player, ArrayList<FallingObject> fallingObjects) {
-        for (FallingObject obj : fallingObjects) {
-            if (player.getBounds().intersects(obj.getBounds())) {
+    public static boolean checkCollisions(Player player, List<FallingObject> fallingObjects) {
+        // Indexed loop and no Rectangles: this runs every tick and must not allocate.
+        // Shaped objects only pay for the mask test once their bounding boxes overlap.
+        for (int i = 0; i < fallingObjects.size(); i++) {
+            FallingObject obj = fallingObjects.get(i);
+            if (player.intersects(obj) && obj.maskOverlaps(player)) {
                 return true; // Collision detected
             }
         }
@@ -0,0 +1,57 @@
+package com.mjsamaha.dodger.systems;
+
+/**
+ * Small seedable random generator (SplitMix64) whose whole state is one long.
+ * Unlike {@link java.util.Random}, the state can be read and restored, which
+ * lets snapshots rewind the spawner to exactly the same future.
+ */
+public class GameRandom {
+    
+    private long state;
+    
+    public GameRandom() {
+        this(System.nanoTime());
+    }
+    
+    public GameRandom(long seed) {
+        setSeed(seed);
+    }
+    
+    public void setSeed(long seed) {
+        this.state = seed;
+    }
+    
+    public long getState() {
+        return state;
+    }
+    
+    public void setState(long state) {
+        this.state = state;
+    }
+    
+    public long nextLong() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    /**
+     * Returns a value in [0, bound). {@code bound} must be positive.
+     */
+    public int nextInt(int bound) {
+        long r = nextLong() >>> 33; // 31 random bits
+        return (int) ((r * bound) >>> 31);
+    }
+    
+    /**
+     * Returns a value in [0, 1).
+     */
+    public float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+    
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+}
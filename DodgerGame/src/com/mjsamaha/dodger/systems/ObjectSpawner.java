@@ -1,64 +1,117 @@
 package com.mjsamaha.dodger.systems;
 
 import java.awt.Color;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.Random;
+import java.nio.ByteBuffer;
 
 import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.config.GameConfig;
 import com.mjsamaha.dodger.core.GameStateManager;
 import com.mjsamaha.dodger.entities.FallingObject;
+import com.mjsamaha.dodger.entities.HazardShape;
+import com.mjsamaha.dodger.events.GameEventBus;
+import com.mjsamaha.dodger.events.GameEventType;
+import com.mjsamaha.dodger.level.LevelStreamer;
+import com.mjsamaha.dodger.stress.StressConfig;
 
 public class ObjectSpawner {
-    private ArrayList<FallingObject> fallingObjects;
-    private Random random;
+    private SpawnOrderedBuffer fallingObjects;
+    private GameRandom random;
     private float spawnTimer;
     private float spawnInterval;
     private float gameTime;  // Track total elapsed game time
+    private int nextObjectId;
+    
+    // Stress mode: replaces the timed spawning with a target population
+    private StressConfig stressConfig;
+    private float stressSpawnBudget;
+    
+    // Level mode: hazards come from a level file as the camera scrolls
+    private LevelStreamer level;
+    
+    private ParallelEntityUpdater parallelUpdater;
+    
+    // Optional spawn, despawn and score events
+    private GameEventBus eventBus;
     
     public ObjectSpawner() {
-        this.fallingObjects = new ArrayList<>();
-        this.random = new Random();
+        this(new GameRandom());
+    }
+    
+    public ObjectSpawner(long seed) {
+        this(new GameRandom(seed));
+    }
+    
+    private ObjectSpawner(GameRandom random) {
+        this.fallingObjects = new SpawnOrderedBuffer();
+        this.random = random;
+        this.parallelUpdater = new ParallelEntityUpdater();
         this.spawnTimer = 0;
-        this.spawnInterval = Constants.Objects.INITIAL_SPAWN_INTERVAL;
+        this.spawnInterval = GameConfig.get().getInitialSpawnInterval();
         this.gameTime = 0;
     }
     
     public void update(float dt, int panelWidth, int panelHeight, GameStateManager gameStateManager) {
         // Update game time and gradually increase difficulty
         gameTime += dt;
-        updateDifficulty(dt);
         
-        // Update spawn timer and spawn objects
-        spawnTimer += dt;
-        if (spawnTimer >= spawnInterval) {
-            spawnObject(panelWidth);
-            spawnTimer = 0;
+        if (stressConfig != null) {
+            updateStressSpawning(dt, panelWidth, panelHeight);
+        } else if (level != null) {
+            // Spawn before scrolling; the update below then moves the new hazards with the camera
+            for (FallingObject obj = level.poll(); obj != null; obj = level.poll()) {
+                addObject(obj);
+            }
+            level.advance(dt);
+        } else {
+            updateDifficulty(dt);
+            
+            // Update spawn timer and spawn objects
+            spawnTimer += dt;
+            if (spawnTimer >= spawnInterval) {
+                spawnObject(panelWidth);
+                spawnTimer = 0;
+            }
+        }
+        
+        // Large populations: update and cull across cores (no despawn events, the particle
+        // pool would be saturated by their sparks anyway and the workers must not share the bus)
+        if (parallelUpdater.shouldRunParallel(fallingObjects.size())) {
+            score(gameStateManager, parallelUpdater.update(fallingObjects, dt, panelWidth, panelHeight));
+            return;
         }
         
         // Update falling objects
-        for (FallingObject obj : fallingObjects) {
+        for (int i = 0; i < fallingObjects.size(); i++) {
+            FallingObject obj = fallingObjects.get(i);
             obj.update(dt);
+            obj.bounceWithinBounds(panelWidth);
+            
+            if (eventBus != null && obj.isOffScreen(panelHeight)) {
+                eventBus.publish(GameEventType.DESPAWN, obj.getId(), obj.getX() + obj.getWidth() * 0.5f, 
+                        panelHeight, 0, obj.getObjectColor());
+            }
         }
         
         // Remove off-screen objects and increment score
-        Iterator<FallingObject> iterator = fallingObjects.iterator();
-        while (iterator.hasNext()) {
-            FallingObject obj = iterator.next();
-            if (obj.isOffScreen(panelHeight)) {
-                iterator.remove();
-                gameStateManager.incrementScore();
-            }
+        score(gameStateManager, fallingObjects.despawnOffScreen(panelHeight));
+    }
+    
+    private void score(GameStateManager gameStateManager, int points) {
+        gameStateManager.addScore(points);
+        if (eventBus != null && points > 0) {
+            eventBus.publish(GameEventType.SCORE, points);
         }
     }
     
     private void updateDifficulty(float dt) {
+        GameConfig config = GameConfig.get();
+        
         // Gradually decrease spawn interval to increase difficulty
-        spawnInterval -= Constants.Objects.DIFFICULTY_INCREASE_RATE * dt;
+        spawnInterval -= config.getDifficultyRate() * dt;
         
         // Clamp to minimum spawn interval
-        if (spawnInterval < Constants.Objects.MIN_SPAWN_INTERVAL) {
-            spawnInterval = Constants.Objects.MIN_SPAWN_INTERVAL;
+        if (spawnInterval < config.getMinSpawnInterval()) {
+            spawnInterval = config.getMinSpawnInterval();
         }
     }
     
@@ -71,25 +124,233 @@ public class ObjectSpawner {
         Color randomColor = Constants.Objects.OBJECT_COLORS[
             random.nextInt(Constants.Objects.OBJECT_COLORS.length)
         ];
+        HazardShape shape = Constants.Objects.HAZARD_SHAPES[
+            random.nextInt(Constants.Objects.HAZARD_SHAPES.length)
+        ];
         
         FallingObject newObj = new FallingObject(
             randomX, startY,
             Constants.Objects.OBJECT_WIDTH, 
             Constants.Objects.OBJECT_HEIGHT,
-            Constants.Objects.OBJECT_SPEED,
-            randomColor  // Use random color instead of constant
+            GameConfig.get().getObjectSpeed(),
+            0,
+            randomColor,  // Use random color instead of constant
+            shape
         );
-        fallingObjects.add(newObj);
+        addObject(newObj);
+    }
+    
+    /**
+     * Spawns at the rate that keeps roughly {@link StressConfig#getEntityCount()} objects alive.
+     */
+    private void updateStressSpawning(float dt, int panelWidth, int panelHeight) {
+        stressSpawnBudget += stressConfig.getEntityCount() / stressConfig.getAverageLifetime(panelHeight) * dt;
+        
+        while (stressSpawnBudget >= 1 && fallingObjects.size() < Constants.Stress.MAX_ENTITY_COUNT) {
+            spawnStressObject(panelWidth, -stressConfig.getMaxSize());
+            stressSpawnBudget--;
+        }
+    }
+    
+    private void spawnStressObject(int panelWidth, float startY) {
+        int size = stressConfig.getMinSize() + random.nextInt(stressConfig.getMaxSize() - stressConfig.getMinSize() + 1);
+        float speed = stressConfig.getMinSpeed() + random.nextFloat() * (stressConfig.getMaxSpeed() - stressConfig.getMinSpeed());
+        float maxVx = stressConfig.getMaxHorizontalSpeed();
+        int maxX = Math.max(1, panelWidth - size);
+        
+        float startX;
+        float velocityX;
+        switch (stressConfig.getPattern()) {
+            case WAVE -> {
+                // Sweep across the screen roughly every 4 seconds
+                float center = (float) (Math.sin(gameTime * Math.PI / 2) * 0.5 + 0.5) * maxX;
+                startX = Math.min(maxX, Math.max(0, center + (random.nextFloat() - 0.5f) * maxX * 0.2f));
+                velocityX = (random.nextFloat() - 0.5f) * maxVx * 0.2f;
+            }
+            case CROSSFIRE -> {
+                startX = random.nextInt(maxX);
+                velocityX = (random.nextBoolean() ? 1 : -1) * (0.5f + random.nextFloat() * 0.5f) * maxVx;
+            }
+            default -> {
+                startX = random.nextInt(maxX);
+                velocityX = 0;
+            }
+        }
+        
+        Color randomColor = Constants.Objects.OBJECT_COLORS[
+            random.nextInt(Constants.Objects.OBJECT_COLORS.length)
+        ];
+        
+        addObject(new FallingObject(startX, startY, size, size, speed, velocityX, randomColor));
+    }
+    
+    // Ids only ever increase, so spawn order is also id order
+    private void addObject(FallingObject obj) {
+        obj.setId(nextObjectId++);
+        fallingObjects.add(obj);
+        if (eventBus != null) {
+            eventBus.publish(GameEventType.SPAWN, obj.getId(), obj.getX(), obj.getY(), 0, obj.getObjectColor());
+        }
+    }
+    
+    /**
+     * Reseeds the spawn RNG so the following spawns are reproducible.
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+    
+    /**
+     * Switches this spawner into stress mode. Passing null restores normal spawning.
+     */
+    public void setStressConfig(StressConfig stressConfig) {
+        this.stressConfig = stressConfig;
+        this.stressSpawnBudget = 0;
+        if (stressConfig != null) {
+            random.setSeed(stressConfig.getSeed());
+        }
+    }
+    
+    /**
+     * Switches this spawner to playing a level instead of spawning at random.
+     * Passing null restores normal spawning.
+     */
+    public void setLevel(LevelStreamer level) {
+        this.level = level;
+    }
+    
+    public LevelStreamer getLevel() {
+        return level;
+    }
+    
+    /**
+     * Fills the screen with the full stress population at random heights so a run
+     * starts at its target density instead of ramping up from the top edge.
+     */
+    public void prefillStress(int panelWidth, int panelHeight) {
+        if (stressConfig == null) {
+            return;
+        }
+        
+        fallingObjects.ensureCapacity(stressConfig.getEntityCount());
+        for (int i = fallingObjects.size(); i < stressConfig.getEntityCount(); i++) {
+            spawnStressObject(panelWidth, random.nextInt(panelHeight + stressConfig.getMaxSize()) - stressConfig.getMaxSize());
+        }
+    }
+    
+    /**
+     * Writes spawner timers, RNG state and every falling object.
+     * Layout is read back by {@link #readState(ByteBuffer)}.
+     */
+    public void writeState(ByteBuffer out) {
+        out.putFloat(spawnTimer);
+        out.putFloat(spawnInterval);
+        out.putFloat(gameTime);
+        out.putFloat(stressSpawnBudget);
+        out.putInt(nextObjectId);
+        out.putLong(random.getState());
+        out.putDouble(level != null ? level.getCamera().getDistance() : 0);
+        
+        int count = fallingObjects.size();
+        out.putInt(count);
+        for (int i = 0; i < count; i++) {
+            FallingObject obj = fallingObjects.get(i);
+            out.putInt(obj.getId());
+            out.putFloat(obj.getX());
+            out.putFloat(obj.getY());
+            out.putFloat(obj.getPrevX());
+            out.putFloat(obj.getPrevY());
+            out.putShort((short) obj.getWidth());
+            out.putShort((short) obj.getHeight());
+            out.putFloat(obj.getSpeed());
+            out.putFloat(obj.getVelocityX());
+            out.putInt(obj.getObjectColor().getRGB());
+            out.put((byte) obj.getShape().ordinal());
+        }
+    }
+    
+    /**
+     * Replaces the current state with one written by {@link #writeState(ByteBuffer)}.
+     */
+    public void readState(ByteBuffer in) {
+        spawnTimer = in.getFloat();
+        spawnInterval = in.getFloat();
+        gameTime = in.getFloat();
+        stressSpawnBudget = in.getFloat();
+        nextObjectId = in.getInt();
+        random.setState(in.getLong());
+        double levelDistance = in.getDouble();
+        if (level != null) {
+            level.seek(levelDistance);
+        }
+        
+        int count = in.getInt();
+        fallingObjects.clear();
+        fallingObjects.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            int id = in.getInt();
+            float x = in.getFloat();
+            float y = in.getFloat();
+            float prevX = in.getFloat();
+            float prevY = in.getFloat();
+            int width = in.getShort();
+            int height = in.getShort();
+            float speed = in.getFloat();
+            float velocityX = in.getFloat();
+            Color color = colorFor(in.getInt());
+            HazardShape shape = HazardShape.fromOrdinal(in.get());
+            
+            FallingObject obj = new FallingObject(x, y, width, height, speed, velocityX, color, shape);
+            obj.setId(id);
+            obj.setPreviousPosition(prevX, prevY);
+            fallingObjects.add(obj);
+        }
+    }
+    
+    /**
+     * Bytes {@link #writeState(ByteBuffer)} needs for the given object count.
+     */
+    public static int stateSize(int objectCount) {
+        return 4 * 4 + 4 + 8 + 8 + 4 + objectCount * 37;
+    }
+    
+    // Reuse the shared palette instances where possible
+    private static Color colorFor(int rgb) {
+        for (Color color : Constants.Objects.OBJECT_COLORS) {
+            if (color.getRGB() == rgb) {
+                return color;
+            }
+        }
+        return new Color(rgb, true);
     }
     
     public void reset() {
         fallingObjects.clear();
         spawnTimer = 0;
-        spawnInterval = Constants.Objects.INITIAL_SPAWN_INTERVAL;
+        spawnInterval = GameConfig.get().getInitialSpawnInterval();
         gameTime = 0;  // Reset game time
+        stressSpawnBudget = 0;
+        if (level != null) {
+            level.seek(0);
+        }
+    }
+    
+    /**
+     * Publishes spawns, off-screen despawns (serial updates only) and scoring to the bus.
+     */
+    public void setEventBus(GameEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+    
+    public ParallelEntityUpdater getParallelUpdater() {
+        return parallelUpdater;
+    }
+    
+    public void setParallelUpdater(ParallelEntityUpdater parallelUpdater) {
+        this.parallelUpdater = parallelUpdater;
     }
     
-    public ArrayList<FallingObject> getFallingObjects() {
+    public SpawnOrderedBuffer getFallingObjects() {
         return fallingObjects;
     }
     
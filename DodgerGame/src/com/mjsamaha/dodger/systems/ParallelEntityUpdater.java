@@ -0,0 +1,117 @@
+package com.mjsamaha.dodger.systems;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.entities.FallingObject;
+
+/**
+ * Runs the falling object movement and off-screen test in chunks on a
+ * work-stealing pool, then removes culled objects with
+ * {@link SpawnOrderedBuffer#removeFlagged(boolean[])}.
+ * 
+ * Each object is updated independently and the removal pass keeps the
+ * original order, so the resulting list is identical to the sequential
+ * update no matter how many threads take part.
+ */
+public class ParallelEntityUpdater {
+    
+    private final ForkJoinPool pool;
+    private int threshold;
+    private int chunkSize;
+    
+    // Reused between ticks, one flag per object
+    private boolean[] offScreen = new boolean[0];
+    
+    public ParallelEntityUpdater() {
+        this(ForkJoinPool.commonPool());
+    }
+    
+    public ParallelEntityUpdater(ForkJoinPool pool) {
+        this.pool = pool;
+        this.threshold = Constants.Objects.PARALLEL_UPDATE_THRESHOLD;
+        this.chunkSize = Constants.Objects.PARALLEL_CHUNK_SIZE;
+    }
+    
+    /**
+     * Returns true if a list of this size should use {@link #update}.
+     */
+    public boolean shouldRunParallel(int objectCount) {
+        return objectCount >= threshold && pool.getParallelism() > 1;
+    }
+    
+    /**
+     * Moves every object, then removes the ones below the screen.
+     * @return Number of objects removed
+     */
+    public int update(SpawnOrderedBuffer objects, float dt, int panelWidth, int panelHeight) {
+        int count = objects.size();
+        if (offScreen.length < count) {
+            offScreen = new boolean[Math.max(count, offScreen.length * 3 / 2)];
+        }
+        
+        pool.invoke(new UpdateTask(objects, 0, count, dt, panelWidth, panelHeight));
+        
+        // Ordered removal: head pops while spawn-ordered, otherwise one compacting pass
+        return objects.removeFlagged(offScreen);
+    }
+    
+    public int getThreshold() {
+        return threshold;
+    }
+    
+    public void setThreshold(int threshold) {
+        this.threshold = Math.max(0, threshold);
+    }
+    
+    public int getChunkSize() {
+        return chunkSize;
+    }
+    
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+    
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+    
+    /**
+     * Splits the index range in half until it fits in one chunk.
+     */
+    private final class UpdateTask extends RecursiveAction {
+        private final SpawnOrderedBuffer objects;
+        private final int from;
+        private final int to;
+        private final float dt;
+        private final int panelWidth;
+        private final int panelHeight;
+        
+        UpdateTask(SpawnOrderedBuffer objects, int from, int to, float dt, int panelWidth, int panelHeight) {
+            this.objects = objects;
+            this.from = from;
+            this.to = to;
+            this.dt = dt;
+            this.panelWidth = panelWidth;
+            this.panelHeight = panelHeight;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                for (int i = from; i < to; i++) {
+                    FallingObject obj = objects.get(i);
+                    obj.update(dt);
+                    obj.bounceWithinBounds(panelWidth);
+                    offScreen[i] = obj.isOffScreen(panelHeight);
+                }
+                return;
+            }
+            
+            int mid = (from + to) >>> 1;
+            invokeAll(new UpdateTask(objects, from, mid, dt, panelWidth, panelHeight),
+                      new UpdateTask(objects, mid, to, dt, panelWidth, panelHeight));
+        }
+    }
+}
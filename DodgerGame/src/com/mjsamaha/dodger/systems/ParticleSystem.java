@@ -0,0 +1,195 @@
+package com.mjsamaha.dodger.systems;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+import com.mjsamaha.dodger.Constants;
+import com.mjsamaha.dodger.events.GameEvent;
+import com.mjsamaha.dodger.events.GameEventListener;
+
+/**
+ * Fixed-capacity particle pool stored as parallel primitive arrays.
+ * 
+ * Live particles are always packed at indices {@code [0, count)}: a dead particle
+ * is replaced by the last live one (swap-remove), so update and draw are plain
+ * loops and spawning or killing a particle never allocates. When the pool is full
+ * new particles are dropped.
+ * 
+ * Updated in the fixed tick and drawn between the previous and current position
+ * like the other entities. Particles are purely visual and use their own RNG, so
+ * they do not affect the simulation or its snapshots.
+ * 
+ * As a {@link GameEventListener} it sprays sparks on despawns, bursts on
+ * collisions and clears on restarts and rewinds.
+ */
+public class ParticleSystem implements GameEventListener {
+    
+    private final int capacity;
+    private int count;
+    
+    private final float[] x;
+    private final float[] y;
+    private final float[] prevX;
+    private final float[] prevY;
+    private final float[] velocityX;
+    private final float[] velocityY;
+    private final float[] life;        // Seconds left
+    private final float[] inverseMaxLife;
+    private final Color[] colors;
+    
+    private final GameRandom random = new GameRandom();
+    
+    public ParticleSystem() {
+        this(Constants.Particles.MAX_PARTICLES);
+    }
+    
+    public ParticleSystem(int capacity) {
+        this.capacity = capacity;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.prevX = new float[capacity];
+        this.prevY = new float[capacity];
+        this.velocityX = new float[capacity];
+        this.velocityY = new float[capacity];
+        this.life = new float[capacity];
+        this.inverseMaxLife = new float[capacity];
+        this.colors = new Color[capacity];
+    }
+    
+    /**
+     * Emits particles in every direction from a point, e.g. on collision.
+     */
+    public void burst(float originX, float originY, int particles, Color color) {
+        for (int i = 0; i < particles; i++) {
+            double angle = random.nextFloat() * Math.PI * 2;
+            float speed = Constants.Particles.BURST_SPEED * (0.2f + random.nextFloat() * 0.8f);
+            spawn(originX, originY, (float) Math.cos(angle) * speed, (float) Math.sin(angle) * speed,
+                    Constants.Particles.BURST_LIFETIME * (0.5f + random.nextFloat() * 0.5f), color);
+        }
+    }
+    
+    /**
+     * Emits a small upward spray, e.g. where an object left the screen.
+     */
+    public void sparks(float originX, float originY, int particles, Color color) {
+        for (int i = 0; i < particles; i++) {
+            float vx = (random.nextFloat() - 0.5f) * Constants.Particles.SPARK_SPEED;
+            float vy = -Constants.Particles.SPARK_SPEED * (0.5f + random.nextFloat() * 0.5f);
+            spawn(originX, originY, vx, vy,
+                    Constants.Particles.SPARK_LIFETIME * (0.5f + random.nextFloat() * 0.5f), color);
+        }
+    }
+    
+    @Override
+    public void onEvent(GameEvent event) {
+        switch (event.getType()) {
+            case DESPAWN -> sparks(event.getX(), event.getY(), Constants.Particles.DESPAWN_SPARKS, event.getColor());
+            case COLLISION -> burst(event.getX(), event.getY(), Constants.Particles.COLLISION_BURST, event.getColor());
+            case RESTART, REWIND -> clear();
+            default -> {
+            }
+        }
+    }
+    
+    private void spawn(float px, float py, float vx, float vy, float lifetime, Color color) {
+        if (count == capacity) {
+            return;
+        }
+        
+        int i = count++;
+        x[i] = px;
+        y[i] = py;
+        prevX[i] = px;
+        prevY[i] = py;
+        velocityX[i] = vx;
+        velocityY[i] = vy;
+        life[i] = lifetime;
+        inverseMaxLife[i] = 1f / lifetime;
+        colors[i] = color;
+    }
+    
+    /**
+     * Moves every particle one tick under gravity and recycles the expired ones.
+     */
+    public void update(float dt) {
+        float gravity = Constants.Particles.GRAVITY * dt;
+        
+        int i = 0;
+        while (i < count) {
+            float remaining = life[i] - dt;
+            if (remaining <= 0) {
+                // Move the last live particle into this slot and look at it next
+                int last = --count;
+                x[i] = x[last];
+                y[i] = y[last];
+                prevX[i] = prevX[last];
+                prevY[i] = prevY[last];
+                velocityX[i] = velocityX[last];
+                velocityY[i] = velocityY[last];
+                life[i] = life[last];
+                inverseMaxLife[i] = inverseMaxLife[last];
+                colors[i] = colors[last];
+                colors[last] = null;
+                continue;
+            }
+            
+            life[i] = remaining;
+            prevX[i] = x[i];
+            prevY[i] = y[i];
+            velocityY[i] += gravity;
+            x[i] += velocityX[i] * dt;
+            y[i] += velocityY[i] * dt;
+            i++;
+        }
+    }
+    
+    /**
+     * Draws every particle as a square that shrinks as it ages.
+     * @param alpha Interpolation factor (0.0 to 1.0)
+     */
+    public void drawInterpolated(Graphics2D g2d, double alpha) {
+        float a = (float) alpha;
+        Color current = null;
+        for (int i = 0; i < count; i++) {
+            if (colors[i] != current) {
+                current = colors[i];
+                g2d.setColor(current);
+            }
+            int size = getSize(i);
+            g2d.fillRect((int) getInterpolatedX(i, a) - size / 2, (int) getInterpolatedY(i, a) - size / 2, size, size);
+        }
+    }
+    
+    public float getInterpolatedX(int index, float alpha) {
+        return prevX[index] + (x[index] - prevX[index]) * alpha;
+    }
+    
+    public float getInterpolatedY(int index, float alpha) {
+        return prevY[index] + (y[index] - prevY[index]) * alpha;
+    }
+    
+    /**
+     * Current size in pixels, from {@link Constants.Particles#PARTICLE_SIZE} down to 1.
+     */
+    public int getSize(int index) {
+        return 1 + (int) (life[index] * inverseMaxLife[index] * (Constants.Particles.PARTICLE_SIZE - 1) + 0.5f);
+    }
+    
+    public int getRGB(int index) {
+        return colors[index].getRGB();
+    }
+    
+    public void clear() {
+        Arrays.fill(colors, 0, count, null);
+        count = 0;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+}
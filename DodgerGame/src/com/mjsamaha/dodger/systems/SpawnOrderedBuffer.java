@@ -0,0 +1,221 @@
+package com.mjsamaha.dodger.systems;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import com.mjsamaha.dodger.entities.FallingObject;
+
+/**
+ * Ring buffer of falling objects kept in spawn order.
+ * 
+ * While every object falls at the same speed and is spawned at or above the
+ * previous one, spawn order is also vertical order: the oldest object is always
+ * the lowest on screen. In that case off-screen objects are popped from the head
+ * in O(1) each. As soon as an object breaks that rule (different speed, or spawned
+ * below the tail) the buffer falls back to a single compacting pass until it empties.
+ */
+public class SpawnOrderedBuffer extends AbstractList<FallingObject> implements RandomAccess {
+    
+    private static final int DEFAULT_CAPACITY = 64;
+    
+    private FallingObject[] elements;
+    private int mask;
+    private int head;
+    private int size;
+    
+    // True while head-first removal is guaranteed to find every off-screen object
+    private boolean spawnOrdered;
+    
+    public SpawnOrderedBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    public SpawnOrderedBuffer(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, initialCapacity) - 1) << 1;
+        this.elements = new FallingObject[capacity];
+        this.mask = capacity - 1;
+        this.spawnOrdered = true;
+    }
+    
+    /**
+     * Appends an object at the tail (the newest end).
+     */
+    @Override
+    public boolean add(FallingObject obj) {
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        
+        if (size == 0) {
+            spawnOrdered = true;
+        } else if (spawnOrdered) {
+            FallingObject tail = elements[(head + size - 1) & mask];
+            spawnOrdered = obj.getSpeed() == tail.getSpeed() && obj.getY() <= tail.getY();
+        }
+        
+        elements[(head + size) & mask] = obj;
+        size++;
+        modCount++;
+        return true;
+    }
+    
+    @Override
+    public FallingObject get(int index) {
+        checkIndex(index);
+        return elements[(head + index) & mask];
+    }
+    
+    @Override
+    public FallingObject set(int index, FallingObject obj) {
+        checkIndex(index);
+        int slot = (head + index) & mask;
+        FallingObject previous = elements[slot];
+        elements[slot] = obj;
+        spawnOrdered = false; // Can't verify order for arbitrary replacement
+        return previous;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public void clear() {
+        Arrays.fill(elements, null);
+        head = 0;
+        size = 0;
+        spawnOrdered = true;
+        modCount++;
+    }
+    
+    /**
+     * Removes and returns the oldest object, or null if empty.
+     */
+    public FallingObject pollFirst() {
+        if (size == 0) {
+            return null;
+        }
+        
+        FallingObject obj = elements[head];
+        elements[head] = null;
+        head = (head + 1) & mask;
+        size--;
+        modCount++;
+        return obj;
+    }
+    
+    /**
+     * Returns the oldest object without removing it, or null if empty.
+     */
+    public FallingObject peekFirst() {
+        return size == 0 ? null : elements[head];
+    }
+    
+    /**
+     * Removes every object below the screen.
+     * O(removed) while spawn-ordered, otherwise one compacting pass over the buffer.
+     * @return Number of objects removed
+     */
+    public int despawnOffScreen(int panelHeight) {
+        if (spawnOrdered) {
+            int removed = 0;
+            while (size > 0 && elements[head].isOffScreen(panelHeight)) {
+                pollFirst();
+                removed++;
+            }
+            return removed;
+        }
+        
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            FallingObject obj = elements[(head + read) & mask];
+            if (!obj.isOffScreen(panelHeight)) {
+                elements[(head + write) & mask] = obj;
+                write++;
+            }
+        }
+        return truncate(write);
+    }
+    
+    /**
+     * Removes the objects whose index is flagged, keeping the rest in order.
+     * @return Number of objects removed
+     */
+    public int removeFlagged(boolean[] flags) {
+        if (spawnOrdered) {
+            // Flagged objects are all at the head
+            int removed = 0;
+            while (removed < size && flags[removed]) {
+                removed++;
+            }
+            for (int i = 0; i < removed; i++) {
+                pollFirst();
+            }
+            return removed;
+        }
+        
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            if (!flags[read]) {
+                elements[(head + write) & mask] = elements[(head + read) & mask];
+                write++;
+            }
+        }
+        return truncate(write);
+    }
+    
+    /**
+     * Returns true while off-screen objects can only be found at the head.
+     */
+    public boolean isSpawnOrdered() {
+        return spawnOrdered;
+    }
+    
+    /**
+     * Makes room for at least the given number of objects.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > elements.length) {
+            grow(capacity);
+        }
+    }
+    
+    private int truncate(int newSize) {
+        int removed = size - newSize;
+        for (int i = newSize; i < size; i++) {
+            elements[(head + i) & mask] = null;
+        }
+        size = newSize;
+        if (removed > 0) {
+            modCount++;
+        }
+        if (size == 0) {
+            spawnOrdered = true;
+        }
+        return removed;
+    }
+    
+    private void grow(int minCapacity) {
+        int capacity = elements.length;
+        while (capacity < minCapacity) {
+            capacity <<= 1;
+        }
+        
+        // Unwrap into the new array so the head starts at 0
+        FallingObject[] grown = new FallingObject[capacity];
+        for (int i = 0; i < size; i++) {
+            grown[i] = elements[(head + i) & mask];
+        }
+        elements = grown;
+        mask = capacity - 1;
+        head = 0;
+    }
+    
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -6,4 +6,6 @@
  */
 module DodgerGame {
 	requires java.desktop;
+	requires java.management;
+	requires jdk.management;
 }
\ No newline at end of file